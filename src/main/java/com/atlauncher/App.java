@@ -76,6 +76,7 @@ import com.atlauncher.managers.DialogManager;
 import com.atlauncher.managers.InstanceManager;
 import com.atlauncher.managers.LogManager;
 import com.atlauncher.managers.PackManager;
+import com.atlauncher.managers.PerformanceManager;
 import com.atlauncher.network.Download;
 import com.atlauncher.network.ErrorReporting;
 import com.atlauncher.themes.ATLauncherLaf;
@@ -1037,6 +1038,9 @@ public class App {
         parser.accepts("debug", "If debug logging should be enabled.").withOptionalArg().ofType(Boolean.class);
         parser.accepts("debug-level", "The level of debug logging that should be logged.").withRequiredArg()
                 .ofType(Integer.class);
+        parser.accepts("performance-trace",
+                "A file to save a trace (viewable in chrome://tracing) of what the launcher did to when it's closed.")
+                .withRequiredArg().ofType(String.class);
         parser.accepts("launch",
                 "The name of an instance to automatically launch. Can be the instances directory name in the file system or the full name of the instance.")
                 .withRequiredArg().ofType(String.class);
@@ -1080,6 +1084,14 @@ public class App {
             LogManager.debug("Debug level has been set to " + options.valueOf("debug-level") + "!");
         }
 
+        if (options.has("performance-trace")) {
+            Path traceFile = Paths.get(String.valueOf(options.valueOf("performance-trace"))).toAbsolutePath();
+
+            PerformanceManager.startTracing();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> PerformanceManager.exportChromeTrace(traceFile)));
+            LogManager.info("Recording a performance trace to " + traceFile);
+        }
+
         skipSetupDialog = options.has("skip-setup-dialog");
         if (skipSetupDialog) {
             LogManager.debug("Skipping setup dialog!");
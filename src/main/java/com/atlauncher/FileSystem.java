@@ -40,6 +40,9 @@ public final class FileSystem {
     public static final Path APOLLO_CACHE = CACHE.resolve("apolloCache");
     public static final Path REMOTE_IMAGE_CACHE = CACHE.resolve("remote_image");
     public static final Path FRACTURISER_SCANNED_HASHES = CACHE.resolve("fracturiser_scanned_hashes.json");
+    public static final Path FILE_HASH_CACHE = CACHE.resolve("file_hashes.json");
+    public static final Path MOD_METADATA_CACHE = CACHE.resolve("mod_metadata.json");
+    public static final Path LAUNCH_MANIFESTS = CACHE.resolve("launch_manifests");
     public static final Path LOADERS = BASE_DIR.resolve("loaders");
     public static final Path RUNTIMES = BASE_DIR.resolve("runtimes");
     public static final Path MINECRAFT_RUNTIMES = RUNTIMES.resolve("minecraft");
@@ -60,6 +63,9 @@ public final class FileSystem {
     public static final Path RESOURCES_VIRTUAL_LEGACY = RESOURCES_VIRTUAL.resolve("legacy");
 
     public static final Path LIBRARIES = BASE_DIR.resolve("libraries");
+    public static final Path NATIVES_CACHE = LIBRARIES.resolve("natives");
+    public static final Path CONTENT_STORE = BASE_DIR.resolve("store");
+    public static final Path CONTENT_STORE_REFERENCES = CONTENT_STORE.resolve("references.json");
 
     public static final Path DOWNLOADS = BASE_DIR.resolve("downloads");
     public static final Path TECHNIC_DOWNLOADS = DOWNLOADS.resolve("technic");
@@ -239,6 +245,8 @@ public final class FileSystem {
         FileUtils.createDirectory(REMOTE_IMAGE_CACHE);
         FileUtils.createDirectory(INSTANCES);
         FileUtils.createDirectory(LIBRARIES);
+        FileUtils.createDirectory(NATIVES_CACHE);
+        FileUtils.createDirectory(CONTENT_STORE);
         FileUtils.createDirectory(LOADERS);
         FileUtils.createDirectory(LOGS);
         FileUtils.createDirectory(RUNTIMES);
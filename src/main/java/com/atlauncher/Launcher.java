@@ -52,6 +52,7 @@ import com.atlauncher.gui.tabs.PacksBrowserTab;
 import com.atlauncher.gui.tabs.news.NewsTab;
 import com.atlauncher.managers.AccountManager;
 import com.atlauncher.managers.ConfigManager;
+import com.atlauncher.managers.CrashSignatureManager;
 import com.atlauncher.managers.CurseForgeUpdateManager;
 import com.atlauncher.managers.DialogManager;
 import com.atlauncher.managers.FTBUpdateManager;
@@ -98,7 +99,7 @@ public class Launcher {
     public Date lastInstanceCrashTime = null; // The time the last instance crashed
 
     public void loadEverything() {
-        PerformanceManager.start();
+        PerformanceManager.start("Launcher.loadEverything");
         if (hasUpdatedFiles()) {
             downloadUpdatedFiles(); // Downloads updated files on the server
         }
@@ -128,6 +129,7 @@ public class Launcher {
         MinecraftManager.loadMinecraftVersions(); // Load info about the different Minecraft versions
         MinecraftManager.loadJavaRuntimes(); // Load info about the different java runtimes
         LWJGLManager.loadLWJGLVersions(); // Load info about the different LWJGL versions
+        CrashSignatureManager.loadCrashSignatures(); // Load the known problems to look for in Minecraft's output
 
         AccountManager.loadAccounts(); // Load the saved Accounts
 
@@ -162,7 +164,7 @@ public class Launcher {
             Analytics.startSession(App.settings.selectedTabOnStartup);
         }
         System.gc();
-        PerformanceManager.end();
+        PerformanceManager.end("Launcher.loadEverything");
     }
 
     public boolean launcherHasUpdate() {
@@ -382,6 +384,7 @@ public class Launcher {
             ConfigManager.loadConfig(); // Load the config
             NewsManager.loadNews(); // Load the news
             reloadNewsPanel(); // Reload news panel
+            CrashSignatureManager.loadCrashSignatures(); // Load the known problems to look for in Minecraft's output
             PackManager.loadPacks(); // Load the Packs available in the Launcher
             reloadPacksBrowserPanel();// Reload packs browser panel
             PackManager.loadUsers(); // Load the Testers and Allowed Players for the packs
@@ -393,7 +396,7 @@ public class Launcher {
     }
 
     private void checkForLauncherUpdate() {
-        PerformanceManager.start();
+        PerformanceManager.start("Launcher.checkForLauncherUpdate");
 
         LogManager.debug("Checking for launcher update");
         if (launcherHasUpdate()) {
@@ -427,7 +430,7 @@ public class Launcher {
             }
         }
         LogManager.debug("Finished checking for launcher update");
-        PerformanceManager.end();
+        PerformanceManager.end("Launcher.checkForLauncherUpdate");
     }
 
     /**
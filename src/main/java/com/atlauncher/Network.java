@@ -17,9 +17,13 @@
  */
 package com.atlauncher;
 
+import java.io.IOException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -35,14 +39,21 @@ import com.apollographql.apollo.ApolloClientAwarenessInterceptor;
 import com.atlauncher.constants.Constants;
 import com.atlauncher.interfaces.NetworkProgressable;
 import com.atlauncher.listener.ProgressListener;
+import com.atlauncher.managers.LogManager;
 import com.atlauncher.network.DebugLoggingInterceptor;
 import com.atlauncher.network.ErrorReportingInterceptor;
+import com.atlauncher.network.NetworkMetrics;
 import com.atlauncher.network.UserAgentInterceptor;
 import com.atlauncher.utils.Java;
 import com.atlauncher.utils.OS;
 import com.atlauncher.utils.ProgressResponseBody;
 
 import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Connection;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import okhttp3.Response;
@@ -51,9 +62,26 @@ import okhttp3.tls.HandshakeCertificates;
 public final class Network {
     public static Cache CACHE = new Cache(FileSystem.CACHE.toFile(), 100 * 1024 * 1024); // 100MB cache
 
-    public static OkHttpClient CLIENT = new OkHttpClient.Builder().protocols(Arrays.asList(Protocol.HTTP_1_1))
+    private static final List<Protocol> HTTP_1_PROTOCOLS = Arrays.asList(Protocol.HTTP_1_1);
+    private static final List<Protocol> HTTP_2_PROTOCOLS = Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1);
+
+    // hosts where a request failed while using an HTTP/2 connection
+    private static final Set<String> HTTP_2_FAILED_HOSTS = ConcurrentHashMap.newKeySet();
+
+    // hosts which have had HTTP/2 errors, so should only be talked to over HTTP/1.1
+    private static final Set<String> HTTP_1_ONLY_HOSTS = ConcurrentHashMap.newKeySet();
+
+    // shared by all the clients, so connections to a host are reused no matter which client made them
+    public static final ConnectionPool CONNECTION_POOL = new ConnectionPool(App.settings.maxIdleConnections, 5,
+            TimeUnit.MINUTES);
+    public static final Dispatcher DISPATCHER = new Dispatcher();
+
+    public static OkHttpClient CLIENT = new OkHttpClient.Builder().protocols(getProtocols())
+            .connectionPool(CONNECTION_POOL).dispatcher(DISPATCHER)
+            .eventListenerFactory(NetworkMetrics.EVENT_LISTENER_FACTORY)
             .addNetworkInterceptor(new UserAgentInterceptor()).addInterceptor(new DebugLoggingInterceptor())
             .addNetworkInterceptor(new ErrorReportingInterceptor())
+            .addNetworkInterceptor(Network::recordHttp2Failures)
             .connectTimeout(App.settings.connectionTimeout, TimeUnit.SECONDS)
             .readTimeout(App.settings.connectionTimeout, TimeUnit.SECONDS)
             .writeTimeout(App.settings.connectionTimeout, TimeUnit.SECONDS).build();
@@ -81,6 +109,73 @@ public final class Network {
 
     static {
         Logger.getLogger(OkHttpClient.class.getName()).setLevel(Level.FINE);
+        setDispatcherLimits();
+    }
+
+    private static List<Protocol> getProtocols() {
+        return App.settings.enableHttp2 ? HTTP_2_PROTOCOLS : HTTP_1_PROTOCOLS;
+    }
+
+    public static void setProtocols() {
+        CLIENT = CLIENT.newBuilder().protocols(getProtocols()).build();
+        GRAPHQL_CLIENT = GRAPHQL_CLIENT.newBuilder().protocols(getProtocols()).build();
+        CACHED_CLIENT = CACHED_CLIENT.newBuilder().protocols(getProtocols()).build();
+    }
+
+    /**
+     * The dispatcher only limits async calls (downloads are limited by the
+     * DownloadScheduler), but keep it in line with the connection settings: at
+     * most concurrentConnections calls at once, and at most
+     * concurrentConnectionsPerHost of those to the same host.
+     */
+    public static void setDispatcherLimits() {
+        DISPATCHER.setMaxRequests(App.settings.concurrentConnections);
+        DISPATCHER.setMaxRequestsPerHost(Math.min(App.settings.concurrentConnectionsPerHost,
+                App.settings.concurrentConnections));
+    }
+
+    /**
+     * Gets the client to use for a request to the given url. If the host has
+     * previously failed over HTTP/2, then this will be a copy of the given client
+     * which only uses HTTP/1.1.
+     */
+    public static OkHttpClient clientForUrl(OkHttpClient client, HttpUrl url) {
+        if (!client.protocols().contains(Protocol.HTTP_2) || !HTTP_1_ONLY_HOSTS.contains(url.host())) {
+            return client;
+        }
+
+        return client.newBuilder().protocols(HTTP_1_PROTOCOLS).build();
+    }
+
+    private static Response recordHttp2Failures(Interceptor.Chain chain) throws IOException {
+        Connection connection = chain.connection();
+
+        try {
+            return chain.proceed(chain.request());
+        } catch (IOException e) {
+            if (connection != null && connection.protocol() == Protocol.HTTP_2) {
+                HTTP_2_FAILED_HOSTS.add(chain.request().url().host());
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if a request to the host has failed while using an HTTP/2
+     * connection, and if so makes sure any further requests to that host use
+     * HTTP/1.1.
+     *
+     * @return if the request should be retried
+     */
+    public static boolean fallBackToHttp1(HttpUrl url, IOException e) {
+        if (!HTTP_2_FAILED_HOSTS.contains(url.host()) || !HTTP_1_ONLY_HOSTS.add(url.host())) {
+            return false;
+        }
+
+        LogManager.warn("HTTP/2 error talking to " + url.host() + " (" + e.getMessage()
+                + "). Falling back to HTTP/1.1 for this host.");
+        return true;
     }
 
     public static void setConnectionTimeouts() {
@@ -0,0 +1,50 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A single backup of an instance. The contents of the files aren't stored in
+ * the manifest, just the hashes of the chunks (in order) that make up each file,
+ * which are kept in the shared chunk store.
+ *
+ * @see com.atlauncher.managers.BackupManager
+ */
+public class BackupManifest {
+    public String instance;
+    public String name;
+    public Date created;
+    public BackupMode mode;
+    public long size;
+    public List<BackupFile> files = new ArrayList<>();
+
+    // where this manifest was loaded from, set by BackupManager
+    public transient Path path;
+
+    public static class BackupFile {
+        // relative to the root of the instance, always using / as the separator
+        public String path;
+        public long size;
+        public long modified;
+        public List<String> chunks = new ArrayList<>();
+    }
+}
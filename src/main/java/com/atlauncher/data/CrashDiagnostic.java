@@ -0,0 +1,42 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+/**
+ * A known problem that was found in Minecraft's output.
+ */
+public class CrashDiagnostic {
+    public final CrashSignature signature;
+
+    /**
+     * The (censored) line it was found in.
+     */
+    public final String line;
+
+    public CrashDiagnostic(CrashSignature signature, String line) {
+        this.signature = signature;
+        this.line = line;
+    }
+
+    @Override
+    public String toString() {
+        String title = signature.title == null ? signature.id : signature.title;
+
+        return signature.fix == null ? title : title + ". " + signature.fix;
+    }
+}
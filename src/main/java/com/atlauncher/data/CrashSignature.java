@@ -0,0 +1,55 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A known problem, found by any of the given patterns appearing in a line that
+ * Minecraft outputs.
+ */
+public class CrashSignature {
+    public String id;
+
+    public List<String> patterns = new ArrayList<>();
+
+    /**
+     * When more than one signature matches, the one with the highest priority is
+     * shown, or the one that matched last if they have the same priority.
+     */
+    public int priority = 0;
+
+    /**
+     * If set, the signature only applies to this Minecraft version (major and
+     * minor, such as 1.6) and older.
+     */
+    public String maxMinecraftVersion;
+
+    /**
+     * The name of one of the popups built into the launcher (see
+     * {@link MinecraftError}) to show when this is found. If not set, a popup is
+     * made from the title, message, fix and url.
+     */
+    public String popup;
+
+    public String title;
+    public String message;
+    public String fix;
+    public String url;
+}
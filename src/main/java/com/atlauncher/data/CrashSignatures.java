@@ -0,0 +1,36 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The set of known problems that are looked for in Minecraft's output. This is
+ * loaded from crash_signatures.json, which is updated along with the launcher's
+ * other json files, falling back to the one that comes with the launcher.
+ */
+public class CrashSignatures {
+    /**
+     * Lines which mean Minecraft has crashed, but not for any reason we know
+     * about.
+     */
+    public List<String> crashReportMarkers = new ArrayList<>();
+
+    public List<CrashSignature> signatures = new ArrayList<>();
+}
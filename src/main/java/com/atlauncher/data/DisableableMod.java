@@ -36,8 +36,7 @@ import org.mini2Dx.gettext.GetText;
 import com.atlauncher.App;
 import com.atlauncher.data.curseforge.CurseForgeFile;
 import com.atlauncher.data.curseforge.CurseForgeProject;
-import com.atlauncher.data.minecraft.FabricMod;
-import com.atlauncher.data.minecraft.MCMod;
+import com.atlauncher.data.minecraft.ModMetadata;
 import com.atlauncher.data.modrinth.ModrinthProject;
 import com.atlauncher.data.modrinth.ModrinthVersion;
 import com.atlauncher.exceptions.InvalidMinecraftVersion;
@@ -50,6 +49,7 @@ import com.atlauncher.managers.MinecraftManager;
 import com.atlauncher.network.Analytics;
 import com.atlauncher.network.analytics.AnalyticsEvent;
 import com.atlauncher.utils.CurseForgeApi;
+import com.atlauncher.utils.ModMetadataReader;
 import com.atlauncher.utils.ModrinthApi;
 import com.atlauncher.utils.Pair;
 import com.atlauncher.utils.Utils;
@@ -563,18 +563,11 @@ public class DisableableMod implements Serializable {
         mod.version = "Unknown";
         mod.description = null;
 
-        MCMod mcMod = Utils.getMCModForFile(file);
-        if (mcMod != null) {
-            mod.name = Optional.ofNullable(mcMod.name).orElse(file.getName());
-            mod.version = Optional.ofNullable(mcMod.version).orElse("Unknown");
-            mod.description = Optional.ofNullable(mcMod.description).orElse(null);
-        } else {
-            FabricMod fabricMod = Utils.getFabricModForFile(file);
-            if (fabricMod != null) {
-                mod.name = Optional.ofNullable(fabricMod.name).orElse(file.getName());
-                mod.version = Optional.ofNullable(fabricMod.version).orElse("Unknown");
-                mod.description = Optional.ofNullable(fabricMod.description).orElse(null);
-            }
+        ModMetadata metadata = ModMetadataReader.read(file.toPath());
+        if (metadata != null) {
+            mod.name = Optional.ofNullable(metadata.name).orElse(file.getName());
+            mod.version = Optional.ofNullable(metadata.version).orElse("Unknown");
+            mod.description = Optional.ofNullable(metadata.description).orElse(null);
         }
         return mod;
     }
@@ -27,28 +27,27 @@ import java.awt.Window;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -60,6 +59,7 @@ import javax.imageio.IIOException;
 import javax.imageio.ImageIO;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.JCheckBox;
 import javax.swing.ImageIcon;
 import javax.swing.JComboBox;
 import javax.swing.JDialog;
@@ -134,13 +134,16 @@ import com.atlauncher.gui.dialogs.InstanceInstallerDialog;
 import com.atlauncher.gui.dialogs.ProgressDialog;
 import com.atlauncher.gui.dialogs.RenameInstanceDialog;
 import com.atlauncher.managers.AccountManager;
+import com.atlauncher.managers.BackupManager;
 import com.atlauncher.managers.ConfigManager;
+import com.atlauncher.managers.CrashSignatureManager;
 import com.atlauncher.managers.CurseForgeUpdateManager;
 import com.atlauncher.managers.DialogManager;
 import com.atlauncher.managers.FTBUpdateManager;
 import com.atlauncher.managers.InstanceManager;
 import com.atlauncher.managers.LWJGLManager;
 import com.atlauncher.managers.LogManager;
+import com.atlauncher.managers.NativesManager;
 import com.atlauncher.managers.MinecraftManager;
 import com.atlauncher.managers.ModrinthModpackUpdateManager;
 import com.atlauncher.managers.PackManager;
@@ -149,22 +152,25 @@ import com.atlauncher.managers.TechnicModpackUpdateManager;
 import com.atlauncher.mclauncher.MCLauncher;
 import com.atlauncher.network.Analytics;
 import com.atlauncher.network.DownloadPool;
+import com.atlauncher.network.DownloadScheduler;
 import com.atlauncher.network.GraphqlClient;
 import com.atlauncher.network.analytics.AnalyticsEvent;
 import com.atlauncher.utils.ArchiveUtils;
+import com.atlauncher.utils.ArchiveWriter;
 import com.atlauncher.utils.ComboItem;
 import com.atlauncher.utils.CommandExecutor;
 import com.atlauncher.utils.CurseForgeApi;
 import com.atlauncher.utils.CurseForgeUtils;
+import com.atlauncher.utils.FileHashCache;
 import com.atlauncher.utils.FileUtils;
 import com.atlauncher.utils.Hashing;
 import com.atlauncher.utils.Java;
+import com.atlauncher.utils.ModMetadataReader;
 import com.atlauncher.utils.ModrinthApi;
 import com.atlauncher.utils.OS;
 import com.atlauncher.utils.Pair;
 import com.atlauncher.utils.SecurityUtils;
 import com.atlauncher.utils.Utils;
-import com.atlauncher.utils.ZipNameMapper;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
@@ -425,15 +431,44 @@ public class Instance extends MinecraftVersion {
         return ROOT.resolve("bin/minecraft.jar");
     }
 
+    /**
+     * Gets the libraries with natives for this OS which need extracting for the
+     * game to use, taking into account LWJGL replacement and the system
+     * GLFW/OpenAL settings.
+     */
+    private List<Library> getNativeLibrariesToExtract() {
+        boolean useSystemGlfw = Optional.ofNullable(launcher.useSystemGlfw).orElse(App.settings.useSystemGlfw);
+        boolean useSystemOpenAl = Optional.ofNullable(launcher.useSystemOpenAl).orElse(App.settings.useSystemOpenAl);
+
+        return this.libraries.stream().filter(Library::shouldInstall)
+                .map(l -> LWJGLManager.shouldReplaceLWJGL3(this)
+                        ? LWJGLManager.getReplacementLWJGL3Library(this, l)
+                        : l)
+                .filter(library -> library.hasNativeForOS()
+                        && !(library.name.contains("glfw") && useSystemGlfw)
+                        && !(library.name.contains("openal") && useSystemOpenAl))
+                .collect(Collectors.toList());
+    }
+
     /**
      * This will prepare the instance for launch. It will download the assets,
      * Minecraft jar and libraries, as well as organise the libraries, ready to be
      * played.
      */
-    public boolean prepareForLaunch(ProgressDialog progressDialog, Path nativesTempDir, Path lwjglNativesTempDir) {
-        PerformanceManager.start();
+    public boolean prepareForLaunch(ProgressDialog progressDialog, Path nativesDir, Path lwjglNativesDir,
+            boolean forceVerify) {
+        PerformanceManager.start("Instance.prepareForLaunch");
         OkHttpClient httpClient = Network.createProgressClient(progressDialog);
 
+        // nothing has changed since the last time all the files were checked, so skip straight to launching
+        if (!forceVerify && LaunchManifest.matches(this, LaunchManifest.fingerprint(this))) {
+            LogManager.info("Nothing has changed since the last launch, skipping checking files");
+
+            boolean prepared = prepareLaunchFiles(progressDialog, httpClient, nativesDir, lwjglNativesDir);
+            PerformanceManager.end("Instance.prepareForLaunch");
+            return prepared;
+        }
+
         PerformanceManager.start("Downloading Minecraft");
         try {
             progressDialog.setLabel(GetText.tr("Downloading Minecraft"));
@@ -450,7 +485,7 @@ public class Instance extends MinecraftVersion {
         } catch (IOException e) {
             LogManager.logStackTrace(e);
             PerformanceManager.end("Downloading Minecraft");
-            PerformanceManager.end();
+            PerformanceManager.end("Instance.prepareForLaunch");
             return false;
         }
         PerformanceManager.end("Downloading Minecraft");
@@ -458,7 +493,7 @@ public class Instance extends MinecraftVersion {
         // download libraries
         PerformanceManager.start("Downloading Libraries");
         progressDialog.setLabel(GetText.tr("Downloading Libraries"));
-        DownloadPool librariesPool = new DownloadPool();
+        DownloadPool librariesPool = new DownloadPool(DownloadScheduler.Priority.HIGH);
 
         List<Library> librariesMissingWithNoUrl = this.libraries.stream()
                 .filter(library -> library.shouldInstall() && library.downloads.artifact != null
@@ -525,11 +560,8 @@ public class Instance extends MinecraftVersion {
             }
         }
 
-        DownloadPool smallLibrariesPool = librariesPool.downsize();
-
-        progressDialog.setTotalBytes(smallLibrariesPool.totalSize());
-
-        smallLibrariesPool.downloadAll();
+        progressDialog.setTotalBytes(0L);
+        librariesPool.downsizeAndDownloadAll(progressDialog);
 
         progressDialog.doneTask();
         PerformanceManager.end("Downloading Libraries");
@@ -558,7 +590,7 @@ public class Instance extends MinecraftVersion {
                                     .resolve(runtimeToUse).resolve("manifest.json"))
                             .asClassWithThrow(JavaRuntimeManifest.class);
 
-                    DownloadPool pool = new DownloadPool();
+                    DownloadPool pool = new DownloadPool(DownloadScheduler.Priority.HIGH);
 
                     // create root directory
                     Path runtimeSystemDirectory = FileSystem.MINECRAFT_RUNTIMES.resolve(runtimeToUse)
@@ -614,7 +646,7 @@ public class Instance extends MinecraftVersion {
                 .size(assetIndex.size).downloadTo(FileSystem.RESOURCES_INDEXES.resolve(assetIndex.id + ".json"))
                 .withHttpClient(httpClient).asClass(AssetIndex.class);
 
-        DownloadPool pool = new DownloadPool();
+        DownloadPool pool = new DownloadPool(DownloadScheduler.Priority.LOW);
 
         index.objects.forEach((key, object) -> {
             String filename = object.hash.substring(0, 2) + "/" + object.hash;
@@ -627,15 +659,9 @@ public class Instance extends MinecraftVersion {
             pool.add(download);
         });
 
-        DownloadPool smallPool = pool.downsize();
-
-        if (smallPool.size() != 0) {
-            progressDialog.setLabel(GetText.tr("Downloading Resources"));
-
-            progressDialog.setTotalBytes(smallPool.totalSize());
-
-            smallPool.downloadAll();
-        }
+        progressDialog.setTotalBytes(0L);
+        pool.downsizeAndDownloadAll(progressDialog,
+                () -> progressDialog.setLabel(GetText.tr("Downloading Resources")));
         PerformanceManager.end("Organising Resources 1");
 
         // copy resources to instance
@@ -659,59 +685,66 @@ public class Instance extends MinecraftVersion {
 
         progressDialog.doneTask();
 
-        progressDialog.setLabel(GetText.tr("Organising Libraries"));
+        if (!prepareLaunchFiles(progressDialog, httpClient, nativesDir, lwjglNativesDir)) {
+            PerformanceManager.end("Instance.prepareForLaunch");
+            return false;
+        }
 
-        // extract natives to a temp dir
-        PerformanceManager.start("Extracting Natives");
-        boolean useSystemGlfw = Optional.ofNullable(launcher.useSystemGlfw).orElse(App.settings.useSystemGlfw);
-        boolean useSystemOpenAl = Optional.ofNullable(launcher.useSystemOpenAl).orElse(App.settings.useSystemOpenAl);
-        this.libraries.stream().filter(Library::shouldInstall)
-                .map(l -> LWJGLManager.shouldReplaceLWJGL3(this)
-                        ? LWJGLManager.getReplacementLWJGL3Library(this, l)
-                        : l)
-                .forEach(library -> {
-                    if (library.hasNativeForOS()) {
-                        if (library.name.contains("glfw") && useSystemGlfw) {
-                            LogManager.warn("useSystemGlfw was enabled, not using glfw natives from Minecraft");
-                            return;
-                        }
+        if (App.settings.scanModsOnLaunch) {
+            PerformanceManager.start("Scanning mods for Fractureiser");
+            progressDialog.setLabel(GetText.tr("Scanning mods for Fractureiser"));
 
-                        if (library.name.contains("openal") && useSystemOpenAl) {
-                            LogManager.warn("useSystemOpenAl was enabled, not using openal natives from Minecraft");
-                            return;
-                        }
+            List<Path> foundInfections = new ArrayList<>();
+            try {
+                foundInfections = SecurityUtils.scanForFractureiser(this.getModPathsFromFilesystem());
+            } catch (InterruptedException e) {
+                LogManager.logStackTrace("Failed to scan all mods for Fractureiser", e);
+            }
+            PerformanceManager.end("Scanning mods for Fractureiser");
 
-                        Path nativePath = FileSystem.LIBRARIES.resolve(library.getNativeDownloadForOS().path);
+            if (foundInfections.size() != 0) {
+                LogManager.error("Infections have been found in your mods. See the below list of paths");
+                foundInfections.forEach(p -> LogManager.error(p.toAbsolutePath().toString()));
+                return false;
+            }
+        }
+        progressDialog.doneTask();
 
-                        ArchiveUtils.extract(nativePath, nativesTempDir, name -> {
-                            if (library.extract != null && library.extract.shouldExclude(name)) {
-                                return null;
-                            }
+        LaunchManifest.save(this, LaunchManifest.fingerprint(this));
 
-                            // keep META-INF folder as per normal
-                            if (name.startsWith("META-INF")) {
-                                return name;
-                            }
+        PerformanceManager.end("Instance.prepareForLaunch");
+        return true;
+    }
 
-                            // don't extract folders
-                            if (name.endsWith("/")) {
-                                return null;
-                            }
+    /**
+     * Extracts the natives and creates the custom minecraft.jar (if needed) for
+     * launching. These are done on every launch, even if nothing has changed since
+     * the last one.
+     */
+    private boolean prepareLaunchFiles(ProgressDialog progressDialog, OkHttpClient httpClient, Path nativesDir,
+            Path lwjglNativesDir) {
+        progressDialog.setLabel(GetText.tr("Organising Libraries"));
 
-                            // if it has a / then extract just to root
-                            if (name.contains("/")) {
-                                return name.substring(name.lastIndexOf("/") + 1);
-                            }
+        // extract natives, unless they've already been extracted for another launch
+        PerformanceManager.start("Extracting Natives");
+        if (!Files.isDirectory(nativesDir)) {
+            if (Optional.ofNullable(launcher.useSystemGlfw).orElse(App.settings.useSystemGlfw)) {
+                LogManager.warn("useSystemGlfw was enabled, not using glfw natives from Minecraft");
+            }
+            if (Optional.ofNullable(launcher.useSystemOpenAl).orElse(App.settings.useSystemOpenAl)) {
+                LogManager.warn("useSystemOpenAl was enabled, not using openal natives from Minecraft");
+            }
+        }
 
-                            return name;
-                        });
-                    }
-                });
+        if (!NativesManager.extractNatives(getNativeLibrariesToExtract(), nativesDir)) {
+            PerformanceManager.end("Extracting Natives");
+            return false;
+        }
 
         progressDialog.doneTask();
         PerformanceManager.end("Extracting Natives");
 
-        if (LWJGLManager.shouldUseLegacyLWJGL(this)) {
+        if (lwjglNativesDir != null && !Files.isDirectory(lwjglNativesDir)) {
             PerformanceManager.start("Extracting Legacy LWJGL");
             progressDialog.setLabel(GetText.tr("Extracting Legacy LWJGL"));
 
@@ -719,7 +752,7 @@ public class Instance extends MinecraftVersion {
 
             if (library != null) {
                 com.atlauncher.network.Download download = new com.atlauncher.network.Download().setUrl(library.url)
-                        .downloadTo(FileSystem.LIBRARIES.resolve(library.path)).unzipTo(lwjglNativesTempDir)
+                        .downloadTo(FileSystem.LIBRARIES.resolve(library.path))
                         .hash(library.sha1).size(library.size).withHttpClient(httpClient);
 
                 if (download.needToDownload()) {
@@ -730,8 +763,12 @@ public class Instance extends MinecraftVersion {
                     } catch (IOException e) {
                         LogManager.logStackTrace(e);
                     }
-                } else {
-                    download.runPostProcessors();
+                }
+
+                if (!NativesManager.extractLegacyLWJGLNatives(FileSystem.LIBRARIES.resolve(library.path),
+                        lwjglNativesDir)) {
+                    PerformanceManager.end("Extracting Legacy LWJGL");
+                    return false;
                 }
             }
 
@@ -751,34 +788,12 @@ public class Instance extends MinecraftVersion {
                     getCustomMinecraftJar())) {
                 LogManager.error("Failed to combine jars into custom minecraft.jar");
                 PerformanceManager.end("Creating custom minecraft.jar");
-                PerformanceManager.end();
                 return false;
             }
             PerformanceManager.end("Creating custom minecraft.jar");
         }
         progressDialog.doneTask();
 
-        if (App.settings.scanModsOnLaunch) {
-            PerformanceManager.start("Scanning mods for Fractureiser");
-            progressDialog.setLabel(GetText.tr("Scanning mods for Fractureiser"));
-
-            List<Path> foundInfections = new ArrayList<>();
-            try {
-                foundInfections = SecurityUtils.scanForFractureiser(this.getModPathsFromFilesystem());
-            } catch (InterruptedException e) {
-                LogManager.logStackTrace("Failed to scan all mods for Fractureiser", e);
-            }
-            PerformanceManager.end("Scanning mods for Fractureiser");
-
-            if (foundInfections.size() != 0) {
-                LogManager.error("Infections have been found in your mods. See the below list of paths");
-                foundInfections.forEach(p -> LogManager.error(p.toAbsolutePath().toString()));
-                return false;
-            }
-        }
-        progressDialog.doneTask();
-
-        PerformanceManager.end();
         return true;
     }
 
@@ -787,6 +802,17 @@ public class Instance extends MinecraftVersion {
     }
 
     public boolean launch(boolean offline) {
+        return launch(offline, false);
+    }
+
+    /**
+     * Launches the instance.
+     *
+     * @param offline     if the instance should be launched in offline mode
+     * @param forceVerify if all the instances files should be checked, even if
+     *                    nothing seems to have changed since the last launch
+     */
+    public boolean launch(boolean offline, boolean forceVerify) {
         final AbstractAccount account = launcher.account == null ? AccountManager.getSelectedAccount()
                 : AccountManager.getAccountByName(launcher.account);
 
@@ -856,30 +882,22 @@ public class Instance extends MinecraftVersion {
             }
         }
 
-        Path nativesTempDir = FileSystem.TEMP.resolve("natives-" + UUID.randomUUID().toString().replace("-", ""));
-        Path lwjglNativesTempDir = FileSystem.TEMP
-                .resolve("lwjgl-natives-" + UUID.randomUUID().toString().replace("-", ""));
-
-        try {
-            Files.createDirectory(nativesTempDir);
-        } catch (IOException e2) {
-            LogManager.logStackTrace(e2, false);
-        }
-
-        if (LWJGLManager.shouldUseLegacyLWJGL(this)) {
-            try {
-                Files.createDirectory(lwjglNativesTempDir);
-            } catch (IOException e2) {
-                LogManager.logStackTrace(e2, false);
-            }
-        }
+        Path nativesDir = NativesManager.getNativesDirectory(getNativeLibrariesToExtract());
+        LWJGLLibrary legacyLWJGLLibrary = LWJGLManager.shouldUseLegacyLWJGL(this)
+                ? LWJGLManager.getLegacyLWJGLLibrary()
+                : null;
+        Path lwjglNativesDir = legacyLWJGLLibrary == null ? null
+                : NativesManager.getLegacyLWJGLNativesDirectory(legacyLWJGLLibrary);
 
+        PerformanceReport performanceReport = PerformanceReport.start(PerformanceReport.LAUNCH, this.launcher.name);
         ProgressDialog<Boolean> prepareDialog = new ProgressDialog<>(GetText.tr("Preparing For Launch"),
                 7,
                 GetText.tr("Preparing For Launch"));
         prepareDialog.addThread(new Thread(() -> {
             LogManager.info("Preparing for launch!");
-            prepareDialog.setReturnValue(prepareForLaunch(prepareDialog, nativesTempDir, lwjglNativesTempDir));
+            long prepareStart = System.nanoTime();
+            prepareDialog.setReturnValue(prepareForLaunch(prepareDialog, nativesDir, lwjglNativesDir, forceVerify));
+            performanceReport.stageFinished("prepare", prepareStart);
             prepareDialog.close();
         }));
         prepareDialog.start();
@@ -888,12 +906,15 @@ public class Instance extends MinecraftVersion {
             Analytics.trackEvent(AnalyticsEvent.forInstanceLaunchFailed(this, offline, "prepare_failure"));
             LogManager.error(
                     "Failed to prepare instance " + this.launcher.name + " for launch. Check the logs and try again.");
+            performanceReport.finish(false);
+            performanceReport.save(this.getRoot());
             return false;
         }
 
         Thread launcher = new Thread(() -> {
             try {
                 long start = System.currentTimeMillis();
+                long startProcessStart = System.nanoTime();
                 if (App.launcher.getParent() != null) {
                     App.launcher.getParent().setVisible(false);
                 }
@@ -962,9 +983,8 @@ public class Instance extends MinecraftVersion {
                         }
                     }
 
-                    process = MCLauncher.launch(mojangAccount, this, session, nativesTempDir,
-                            LWJGLManager.shouldUseLegacyLWJGL(this) ? lwjglNativesTempDir : null,
-                            wrapperCommand, username);
+                    process = MCLauncher.launch(mojangAccount, this, session, nativesDir,
+                            lwjglNativesDir, wrapperCommand, username);
                 } else if (account instanceof MicrosoftAccount) {
                     MicrosoftAccount microsoftAccount = (MicrosoftAccount) account;
 
@@ -1009,9 +1029,8 @@ public class Instance extends MinecraftVersion {
                         }
                     }
 
-                    process = MCLauncher.launch(microsoftAccount, this, nativesTempDir,
-                            LWJGLManager.shouldUseLegacyLWJGL(this) ? lwjglNativesTempDir : null,
-                            wrapperCommand, username);
+                    process = MCLauncher.launch(microsoftAccount, this, nativesDir,
+                            lwjglNativesDir, wrapperCommand, username);
                 }
 
                 if (process == null) {
@@ -1026,6 +1045,11 @@ public class Instance extends MinecraftVersion {
 
                 Analytics.trackEvent(AnalyticsEvent.forInstanceLaunched(this, offline));
 
+                // includes logging in and running the pre launch command, as well as starting Minecraft
+                performanceReport.stageFinished("startProcess", startProcessStart);
+                performanceReport.finish(true);
+                performanceReport.save(this.getRoot());
+
                 if (this.getPack() != null && this.getPack().isLoggingEnabled() && !this.launcher.isDev
                         && App.settings.enableLogs) {
                     App.TASKPOOL.execute(() -> {
@@ -1065,80 +1089,22 @@ public class Instance extends MinecraftVersion {
                 }
 
                 App.launcher.showKillMinecraft(process);
-                InputStream is = process.getInputStream();
-                InputStreamReader isr = new InputStreamReader(is);
-                StringBuilder sb = new StringBuilder();
-                BufferedReader br = new BufferedReader(isr);
-                String line;
-                int detectedError = 0;
-                boolean crashedWithoutKnownResolution = false;
-
-                String replaceUUID = account.uuid.replace("-", "");
-
-                while ((line = br.readLine()) != null) {
-                    if (line.contains("java.lang.OutOfMemoryError")
-                            || line.contains("There is insufficient memory for the Java Runtime Environment")) {
-                        detectedError = MinecraftError.OUT_OF_MEMORY;
-                    }
-
-                    if (line.contains("java.util.ConcurrentModificationException")
-                            && Utils.matchVersion(this.id, "1.6", true, true)) {
-                        detectedError = MinecraftError.CONCURRENT_MODIFICATION_ERROR_1_6;
-                    }
-
-                    if (line.contains(
-                            "has been compiled by a more recent version of the Java Runtime (class file version 60.0)")) {
-                        detectedError = MinecraftError.NEED_TO_USE_JAVA_16_OR_NEWER;
-                    }
-
-                    if (line.contains(
-                            "has been compiled by a more recent version of the Java Runtime (class file version 61.0)")) {
-                        detectedError = MinecraftError.NEED_TO_USE_JAVA_17_OR_NEWER;
-                    }
-
-                    if (line.contains(
-                            "class jdk.internal.loader.ClassLoaders$AppClassLoader cannot be cast to class")) {
-                        detectedError = MinecraftError.USING_NEWER_JAVA_THAN_8;
-                    }
-
-                    if (line.contains("Crash report saved to") || line.contains("Minecraft Crash Report")) {
-                        crashedWithoutKnownResolution = true;
-                    }
-
-                    if (!LogManager.showDebug) {
-                        line = line.replace(account.minecraftUsername, "**MINECRAFTUSERNAME**");
-                        line = line.replace(account.username, "**MINECRAFTUSERNAME**");
-                        line = line.replace(account.uuid, "**UUID**");
-                        line = line.replace(replaceUUID, "**UUID**");
-                    }
-
-                    if (account.getAccessToken() != null) {
-                        line = line.replace(account.getAccessToken(), "**ACCESSTOKEN**");
+                SessionLog sessionLog = SessionLog.start(SessionLog.getDirectory(this.getRoot()),
+                        App.settings.sessionLogsToKeep);
+                MinecraftOutputReader outputReader = new MinecraftOutputReader(account, this.id,
+                        CrashSignatureManager.getCrashSignatures(), sessionLog);
+                try {
+                    outputReader.read(process.getInputStream());
+                } finally {
+                    if (sessionLog != null) {
+                        sessionLog.close();
                     }
+                }
 
-                    if (line.contains("log4j:")) {
-                        try {
-                            // start of a new event so clear string builder
-                            if (line.contains("<log4j:Event>")) {
-                                sb.setLength(0);
-                            }
-
-                            sb.append(line);
+                CrashDiagnostic detectedDiagnostic = outputReader.getDetectedDiagnostic();
+                List<CrashDiagnostic> diagnostics = outputReader.getDiagnostics();
+                boolean crashedWithoutKnownResolution = outputReader.hasCrashedWithoutKnownResolution();
 
-                            // end of the xml object so parse it
-                            if (line.contains("</log4j:Event>")) {
-                                LogManager.minecraftLog4j(sb.toString());
-                                sb.setLength(0);
-                            }
-
-                            continue;
-                        } catch (Exception e) {
-                            // ignored
-                        }
-                    }
-
-                    LogManager.minecraft(line);
-                }
                 App.launcher.hideKillMinecraft();
                 if (App.launcher.getParent() != null && App.settings.keepLauncherOpen) {
                     App.launcher.getParent().setVisible(true);
@@ -1167,6 +1133,10 @@ public class Instance extends MinecraftVersion {
                     LogManager.error(
                             "Oh no. Minecraft crashed. Please check the logs for any errors and provide these logs when asking for support.");
 
+                    if (sessionLog != null) {
+                        logLastSessionErrors(sessionLog);
+                    }
+
                     if (hasDisabledJavaRuntime()) {
                         LogManager.warn(
                                 "The Use Java Provided By Minecraft option has been disabled. Please enable this option again.");
@@ -1179,8 +1149,12 @@ public class Instance extends MinecraftVersion {
                     }
                 }
 
-                if (detectedError != 0) {
-                    MinecraftError.showInformationPopup(detectedError);
+                for (CrashDiagnostic diagnostic : diagnostics) {
+                    LogManager.warn("Found a known problem in Minecraft's output: " + diagnostic);
+                }
+
+                if (detectedDiagnostic != null) {
+                    MinecraftError.showInformationPopup(detectedDiagnostic);
                 }
 
                 if (enableCommands && postExitCommand != null) {
@@ -1206,12 +1180,6 @@ public class Instance extends MinecraftVersion {
                 if (App.settings.keepLauncherOpen) {
                     App.launcher.updateData();
                 }
-                if (Files.isDirectory(nativesTempDir)) {
-                    FileUtils.deleteDirectoryQuietly(nativesTempDir);
-                }
-                if (Files.isDirectory(lwjglNativesTempDir)) {
-                    FileUtils.deleteDirectoryQuietly(lwjglNativesTempDir);
-                }
                 if (usesCustomMinecraftJar() && Files.exists(getCustomMinecraftJarLibraryPath())) {
                     FileUtils.delete(getCustomMinecraftJarLibraryPath());
                 }
@@ -1500,7 +1468,8 @@ public class Instance extends MinecraftVersion {
 
         // check for mod on Modrinth
         if (!App.settings.dontCheckModsOnModrinth) {
-            ModrinthVersion version = ModrinthApi.getVersionFromSha1Hash(Hashing.sha1(finalLocation).toString());
+            ModrinthVersion version = ModrinthApi
+                    .getVersionFromSha1Hash(FileHashCache.getModHash(finalLocation, Hashing.Algorithm.SHA1).toString());
             if (version != null) {
                 ModrinthProject project = ModrinthApi.getProject(version.projectId);
                 if (project != null) {
@@ -1589,7 +1558,7 @@ public class Instance extends MinecraftVersion {
         if (!App.settings.dontCheckModsOnCurseForge) {
             try {
                 CurseForgeFingerprint fingerprint = CurseForgeApi
-                        .checkFingerprints(new Long[] { Hashing.murmur(finalLocation) });
+                        .checkFingerprints(new Long[] { FileHashCache.getModFingerprint(finalLocation) });
 
                 if (fingerprint.exactMatches != null && fingerprint.exactMatches.size() == 1) {
                     CurseForgeFingerprintedMod foundMod = fingerprint.exactMatches.get(0);
@@ -1682,11 +1651,7 @@ public class Instance extends MinecraftVersion {
         } else if (format == InstanceExportFormat.MODRINTH) {
             return exportAsModrinthZip(name, version, author, saveTo, overrides);
         } else if (format == InstanceExportFormat.CURSEFORGE_AND_MODRINTH) {
-            if (exportAsCurseForgeZip(name, version, author, saveTo, overrides).left() == null) {
-                return new Pair<Path, String>(null, null);
-            }
-
-            return exportAsModrinthZip(name, version, author, saveTo, overrides);
+            return exportAsCurseForgeAndModrinthZip(name, version, author, saveTo, overrides);
         } else if (format == InstanceExportFormat.MULTIMC) {
             return exportAsMultiMcZip(name, version, author, saveTo, overrides);
         }
@@ -1849,25 +1814,32 @@ public class Instance extends MinecraftVersion {
             manifest.components.add(quiltLoaderComponent);
         }
 
-        // create temp directory to put this in
-        Path tempDir = FileSystem.TEMP.resolve(this.getSafeName() + "-export");
-        FileUtils.createDirectory(tempDir);
+        // everything is written straight into the zip, rather than into a temp directory which is then zipped up
+        try (ArchiveWriter writer = ArchiveWriter.create(to)) {
+            writeMultiMcFiles(writer, manifest);
 
-        // create mmc-pack.json
-        try (OutputStreamWriter fileWriter = new OutputStreamWriter(
-                new FileOutputStream(tempDir.resolve("mmc-pack.json").toFile()), StandardCharsets.UTF_8)) {
-            Gsons.DEFAULT.toJson(manifest, fileWriter);
+            // copy over the files into the .minecraft folder
+            writer.addDirectory(".minecraft");
+            writeOverrides(overrides, Collections.singletonList(to),
+                    Collections.singletonList(new ExportOverrides(writer, ".minecraft", Collections.emptySet())));
         } catch (JsonIOException | IOException e) {
-            LogManager.logStackTrace("Failed to save mmc-pack.json", e);
+            LogManager.logStackTrace("Failed to export instance as a MultiMC zip", e);
 
-            FileUtils.deleteDirectory(tempDir);
+            FileUtils.delete(to);
 
             return new Pair<Path, String>(null, null);
         }
 
+        return new Pair<Path, String>(to, null);
+    }
+
+    private void writeMultiMcFiles(ArchiveWriter writer, MultiMCManifest manifest) throws IOException {
+        // create mmc-pack.json
+        writer.addString("mmc-pack.json", Gsons.DEFAULT.toJson(manifest));
+
         // if Legacy Fabric, add patch in
         if (launcher.loaderVersion.type.equals("LegacyFabric")) {
-            FileUtils.createDirectory(tempDir.resolve("patches"));
+            writer.addDirectory("patches");
 
             JsonObject patch = new JsonObject();
             patch.addProperty("formatVersion", 1);
@@ -1883,30 +1855,17 @@ public class Instance extends MinecraftVersion {
             patch.add("+libraries", plusLibraries);
 
             // create net.fabricmc.intermediary.json
-            try (OutputStreamWriter fileWriter = new OutputStreamWriter(
-                    new FileOutputStream(tempDir.resolve("net.fabricmc.intermediary.json").toFile()),
-                    StandardCharsets.UTF_8)) {
-                Gsons.DEFAULT.toJson(patch, fileWriter);
-            } catch (JsonIOException | IOException e) {
-                LogManager.logStackTrace("Failed to save net.fabricmc.intermediary.json", e);
-
-                FileUtils.deleteDirectory(tempDir);
-
-                return new Pair<Path, String>(null, null);
-            }
-
+            writer.addString("net.fabricmc.intermediary.json", Gsons.DEFAULT.toJson(patch));
         }
 
         // create instance.cfg
-        Path instanceCfgPath = tempDir.resolve("instance.cfg");
         Properties instanceCfg = new Properties();
 
         String iconKey = "default";
         if (hasCustomImage()) {
             String customIconFileName = "atlauncher_" + getSafeName().toLowerCase(Locale.ENGLISH);
-            Path customIconPath = tempDir.resolve(customIconFileName + ".png");
 
-            FileUtils.copyFile(this.getRoot().resolve("instance.png"), customIconPath, true);
+            writer.addFile(this.getRoot().resolve("instance.png"), customIconFileName + ".png");
 
             iconKey = customIconFileName;
         }
@@ -1962,61 +1921,98 @@ public class Instance extends MinecraftVersion {
         instanceCfg.setProperty("notes", "");
         instanceCfg.setProperty("totalTimePlayed", "0");
 
-        try (OutputStream outputStream = Files.newOutputStream(instanceCfgPath)) {
-            instanceCfg.store(outputStream, "Exported by ATLauncher");
+        ByteArrayOutputStream instanceCfgBytes = new ByteArrayOutputStream();
+        instanceCfg.store(instanceCfgBytes, "Exported by ATLauncher");
+        writer.addBytes("instance.cfg", instanceCfgBytes.toByteArray());
+
+        // create an empty .packignore file, it's unused but seems to be there by default
+        writer.addBytes(".packignore", new byte[0]);
+    }
+
+    public Pair<Path, String> exportAsCurseForgeZip(String name, String version, String author, String saveTo,
+            List<String> overrides) {
+        String safePathName = name.replaceAll("[\\\"?:*<>|]", "");
+        Path to = Paths.get(saveTo).resolve(String.format("%s %s.zip", safePathName, version));
+        CurseForgeManifest manifest = createCurseForgeManifest(name, version, author, overrides);
+
+        try (ArchiveWriter writer = ArchiveWriter.create(to)) {
+            writeCurseForgeFiles(writer, manifest, overrides);
+
+            writeOverrides(overrides, Collections.singletonList(to), Collections.singletonList(
+                    new ExportOverrides(writer, manifest.overrides, getCurseForgeExcludedOverrides())));
         } catch (JsonIOException | IOException e) {
-            LogManager.logStackTrace("Failed to save mmc-pack.json", e);
+            LogManager.logStackTrace("Failed to export instance as a CurseForge zip", e);
 
-            FileUtils.deleteDirectory(tempDir);
+            FileUtils.delete(to);
 
             return new Pair<Path, String>(null, null);
         }
 
-        // create an empty .packignore file
-        Path packignoreFile = tempDir.resolve(".packignore");
-        try {
-            packignoreFile.toFile().createNewFile();
-        } catch (IOException ignored) {
-            // this is okay to ignore, it's unused but seems to be there by default
-        }
+        return new Pair<Path, String>(to, null);
+    }
 
-        // copy over the files into the .minecraft folder
-        Path dotMinecraftPath = tempDir.resolve(".minecraft");
-        FileUtils.createDirectory(dotMinecraftPath);
+    public Pair<Path, String> exportAsModrinthZip(String name, String version, String author, String saveTo,
+            List<String> overrides) {
+        String safePathName = name.replaceAll("[\\\"?:*<>|]", "");
+        Path to = Paths.get(saveTo).resolve(String.format("%s %s.mrpack", safePathName, version));
+        ModrinthModpackManifest manifest = createModrinthManifest(name, version, overrides);
 
-        for (String path : overrides) {
-            if (!path.equalsIgnoreCase(safePathName + ".zip") && getRoot().resolve(path).toFile().exists()
-                    && (getRoot().resolve(path).toFile().isFile()
-                            || getRoot().resolve(path).toFile().list().length != 0)) {
-                if (getRoot().resolve(path).toFile().isDirectory()) {
-                    Utils.copyDirectory(getRoot().resolve(path).toFile(), dotMinecraftPath.resolve(path).toFile());
-                } else {
-                    Utils.copyFile(getRoot().resolve(path).toFile(), dotMinecraftPath.resolve(path).toFile(), true);
-                }
-            }
-        }
+        ExportOverrides modrinthOverrides;
 
-        // remove any .DS_Store files
-        try (Stream<Path> walk = Files.walk(dotMinecraftPath)) {
-            walk.filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().equals(".DS_Store"))
-                    .forEach(f -> {
-                        FileUtils.delete(f, false);
-                    });
-        } catch (IOException ignored) {
+        try (ArchiveWriter writer = ArchiveWriter.create(to)) {
+            writer.addString("modrinth.index.json", Gsons.DEFAULT.toJson(manifest));
+
+            modrinthOverrides = new ExportOverrides(writer, "overrides", getModrinthExcludedOverrides());
+            writeOverrides(overrides, Collections.singletonList(to), Collections.singletonList(modrinthOverrides));
+        } catch (JsonIOException | IOException e) {
+            LogManager.logStackTrace("Failed to export instance as a Modrinth pack", e);
+
+            FileUtils.delete(to);
+
+            return new Pair<Path, String>(null, null);
         }
 
-        ArchiveUtils.createZip(tempDir, to);
+        return new Pair<Path, String>(to, getOverridesForPermissions(modrinthOverrides));
+    }
 
-        FileUtils.deleteDirectory(tempDir);
+    /**
+     * Exports the instance as both a CurseForge zip and a Modrinth pack at the
+     * same time, so the overrides are only read once for both.
+     */
+    public Pair<Path, String> exportAsCurseForgeAndModrinthZip(String name, String version, String author,
+            String saveTo, List<String> overrides) {
+        String safePathName = name.replaceAll("[\\\"?:*<>|]", "");
+        Path curseForgeTo = Paths.get(saveTo).resolve(String.format("%s %s.zip", safePathName, version));
+        Path modrinthTo = Paths.get(saveTo).resolve(String.format("%s %s.mrpack", safePathName, version));
+        CurseForgeManifest curseForgeManifest = createCurseForgeManifest(name, version, author, overrides);
+        ModrinthModpackManifest modrinthManifest = createModrinthManifest(name, version, overrides);
+
+        ExportOverrides modrinthOverrides;
+
+        try (ArchiveWriter curseForgeWriter = ArchiveWriter.create(curseForgeTo);
+                ArchiveWriter modrinthWriter = ArchiveWriter.create(modrinthTo)) {
+            writeCurseForgeFiles(curseForgeWriter, curseForgeManifest, overrides);
+            modrinthWriter.addString("modrinth.index.json", Gsons.DEFAULT.toJson(modrinthManifest));
+
+            modrinthOverrides = new ExportOverrides(modrinthWriter, "overrides", getModrinthExcludedOverrides());
+            writeOverrides(overrides, Arrays.asList(curseForgeTo, modrinthTo), Arrays.asList(
+                    new ExportOverrides(curseForgeWriter, curseForgeManifest.overrides,
+                            getCurseForgeExcludedOverrides()),
+                    modrinthOverrides));
+        } catch (JsonIOException | IOException e) {
+            LogManager.logStackTrace("Failed to export instance as a CurseForge zip and Modrinth pack", e);
 
-        return new Pair<Path, String>(to, null);
+            FileUtils.delete(curseForgeTo);
+            FileUtils.delete(modrinthTo);
+
+            return new Pair<Path, String>(null, null);
+        }
+
+        return new Pair<Path, String>(modrinthTo, getOverridesForPermissions(modrinthOverrides));
     }
 
-    public Pair<Path, String> exportAsCurseForgeZip(String name, String version, String author, String saveTo,
+    private CurseForgeManifest createCurseForgeManifest(String name, String version, String author,
             List<String> overrides) {
-        String safePathName = name.replaceAll("[\\\"?:*<>|]", "");
-        Path to = Paths.get(saveTo).resolve(String.format("%s %s.zip", safePathName, version));
         CurseForgeManifest manifest = new CurseForgeManifest();
 
         // for any mods not from CurseForge, scan for them on CurseForge
@@ -2027,7 +2023,7 @@ public class Instance extends MinecraftVersion {
                     .filter(m -> !m.disabled && m.type != com.atlauncher.data.Type.worlds)
                     .forEach(dm -> {
                         try {
-                            long hash = Hashing.murmur(dm.getFile(this.ROOT, this.id).toPath());
+                            long hash = FileHashCache.getModFingerprint(dm.getFile(this.ROOT, this.id).toPath());
                             murmurHashes.put(hash, dm);
                         } catch (Throwable t) {
                             LogManager.logStackTrace(t);
@@ -2120,21 +2116,13 @@ public class Instance extends MinecraftVersion {
                         }));
         manifest.overrides = "overrides";
 
-        // create temp directory to put this in
-        Path tempDir = FileSystem.TEMP.resolve(this.getSafeName() + "-export");
-        FileUtils.createDirectory(tempDir);
+        return manifest;
+    }
 
+    private void writeCurseForgeFiles(ArchiveWriter writer, CurseForgeManifest manifest, List<String> overrides)
+            throws IOException {
         // create manifest.json
-        try (OutputStreamWriter fileWriter = new OutputStreamWriter(
-                new FileOutputStream(tempDir.resolve("manifest.json").toFile()), StandardCharsets.UTF_8)) {
-            Gsons.DEFAULT.toJson(manifest, fileWriter);
-        } catch (JsonIOException | IOException e) {
-            LogManager.logStackTrace("Failed to save manifest.json", e);
-
-            FileUtils.deleteDirectory(tempDir);
-
-            return new Pair<Path, String>(null, null);
-        }
+        writer.addString("manifest.json", Gsons.DEFAULT.toJson(manifest));
 
         // create modlist.html
         StringBuilder sb = new StringBuilder("<ul>");
@@ -2155,43 +2143,15 @@ public class Instance extends MinecraftVersion {
                 });
         sb.append("</ul>");
 
-        try (OutputStreamWriter fileWriter = new OutputStreamWriter(
-                new FileOutputStream(tempDir.resolve("modlist.html").toFile()), StandardCharsets.UTF_8)) {
-            fileWriter.write(sb.toString());
-        } catch (JsonIOException | IOException e) {
-            LogManager.logStackTrace("Failed to save modlist.html", e);
-
-            FileUtils.deleteDirectory(tempDir);
-
-            return new Pair<Path, String>(null, null);
-        }
-
-        // copy over the overrides folder
-        Path overridesPath = tempDir.resolve("overrides");
-        FileUtils.createDirectory(overridesPath);
-
-        for (String path : overrides) {
-            if (!path.equalsIgnoreCase(safePathName + ".zip") && getRoot().resolve(path).toFile().exists()
-                    && (getRoot().resolve(path).toFile().isFile()
-                            || getRoot().resolve(path).toFile().list().length != 0)) {
-                if (getRoot().resolve(path).toFile().isDirectory()) {
-                    Utils.copyDirectory(getRoot().resolve(path).toFile(), overridesPath.resolve(path).toFile());
-                } else {
-                    Utils.copyFile(getRoot().resolve(path).toFile(), overridesPath.resolve(path).toFile(), true);
-                }
-            }
-        }
-
-        // remove any .DS_Store files
-        try (Stream<Path> walk = Files.walk(overridesPath)) {
-            walk.filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().equals(".DS_Store"))
-                    .forEach(f -> {
-                        FileUtils.delete(f, false);
-                    });
-        } catch (IOException ignored) {
-        }
+        writer.addString("modlist.html", sb.toString());
+    }
 
+    /**
+     * Gets the files in the instance which don't need to go into the overrides
+     * of a CurseForge export, since they're in the manifest to be downloaded
+     * from CurseForge instead.
+     */
+    private Set<Path> getCurseForgeExcludedOverrides() {
         // log files that are not available on CurseForge anymore and put in overrides
         launcher.mods.stream()
                 .filter(m -> !m.disabled && m.isFromCurseForge())
@@ -2202,43 +2162,17 @@ public class Instance extends MinecraftVersion {
                             mod.file));
                 });
 
-        // remove files that come from CurseForge or aren't disabled
-        launcher.mods.stream()
+        return launcher.mods.stream()
                 .filter(m -> !m.disabled && m.isFromCurseForge() && m.type != com.atlauncher.data.Type.worlds)
                 // #875 - Non available mods/files will be rejected by CurseForge
                 .filter(mod -> mod.curseForgeFile.isAvailable)
-                .forEach(mod -> {
-                    File file = mod.getFile(this, overridesPath);
-
-                    if (file != null && file.exists()) {
-                        FileUtils.delete(file.toPath());
-                    }
-                });
-
-        for (String path : overrides) {
-            // if no files, remove the directory
-            if (overridesPath.resolve(path).toFile().isDirectory()
-                    && overridesPath.resolve(path).toFile().list().length == 0) {
-                FileUtils.deleteDirectory(overridesPath.resolve(path));
-            }
-        }
-
-        // if overrides folder itself is empty, then remove it
-        if (overridesPath.toFile().list().length == 0) {
-            FileUtils.deleteDirectory(overridesPath);
-        }
-
-        ArchiveUtils.createZip(tempDir, to);
-
-        FileUtils.deleteDirectory(tempDir);
-
-        return new Pair<Path, String>(to, null);
+                .map(mod -> mod.getFile(this))
+                .filter(Objects::nonNull)
+                .map(file -> file.toPath().toAbsolutePath().normalize())
+                .collect(Collectors.toSet());
     }
 
-    public Pair<Path, String> exportAsModrinthZip(String name, String version, String author, String saveTo,
-            List<String> overrides) {
-        String safePathName = name.replaceAll("[\\\"?:*<>|]", "");
-        Path to = Paths.get(saveTo).resolve(String.format("%s %s.mrpack", safePathName, version));
+    private ModrinthModpackManifest createModrinthManifest(String name, String version, List<String> overrides) {
         ModrinthModpackManifest manifest = new ModrinthModpackManifest();
 
         // for any mods not from Modrinth, scan for them on Modrinth
@@ -2248,7 +2182,8 @@ public class Instance extends MinecraftVersion {
                     .collect(Collectors.toList());
 
             String[] sha1Hashes = nonModrinthMods.parallelStream()
-                    .map(m -> Hashing.sha1(m.getFile(this).toPath()).toString()).toArray(String[]::new);
+                    .map(m -> FileHashCache.getModHash(m.getFile(this).toPath(), Hashing.Algorithm.SHA1).toString())
+                    .toArray(String[]::new);
 
             Map<String, ModrinthVersion> modrinthVersions = ModrinthApi.getVersionsFromSha1Hashes(sha1Hashes);
 
@@ -2257,7 +2192,8 @@ public class Instance extends MinecraftVersion {
                         modrinthVersions.values().parallelStream().map(mv -> mv.projectId).toArray(String[]::new));
 
                 nonModrinthMods.parallelStream().forEach(mod -> {
-                    String hash = Hashing.sha1(mod.getFile(this).toPath()).toString();
+                    String hash = FileHashCache.getModHash(mod.getFile(this).toPath(), Hashing.Algorithm.SHA1)
+                            .toString();
 
                     if (modrinthVersions.containsKey(hash)) {
                         ModrinthVersion modrinthVersion = modrinthVersions.get(hash);
@@ -2296,11 +2232,13 @@ public class Instance extends MinecraftVersion {
                                         ModrinthModpackFile file = new ModrinthModpackFile();
                                         file.path = this.ROOT.relativize(modPath).toString().replace("\\", "/");
 
-                                        String sha1Hash = Hashing.sha1(modPath).toString();
+                                        String sha1Hash = FileHashCache.getModHash(modPath, Hashing.Algorithm.SHA1)
+                                                .toString();
 
                                         file.hashes = new HashMap<>();
                                         file.hashes.put("sha1", sha1Hash);
-                                        file.hashes.put("sha512", Hashing.sha512(modPath).toString());
+                                        file.hashes.put("sha512",
+                                                FileHashCache.getModHash(modPath, Hashing.Algorithm.SHA512).toString());
 
                                         file.env = new HashMap<>();
                                         // mods are always required on the client ALWAYS ALWAYS ALWAYS (for now)
@@ -2331,88 +2269,104 @@ public class Instance extends MinecraftVersion {
                     this.launcher.loaderVersion.version);
         }
 
-        // create temp directory to put this in
-        Path tempDir = FileSystem.TEMP.resolve(this.getSafeName() + "-export");
-        FileUtils.createDirectory(tempDir);
+        return manifest;
+    }
 
-        // create modrinth.index.json
-        try (FileOutputStream fos = new FileOutputStream(tempDir.resolve("modrinth.index.json").toFile());
-                OutputStreamWriter osw = new OutputStreamWriter(fos,
-                        StandardCharsets.UTF_8)) {
-            Gsons.DEFAULT.toJson(manifest, osw);
-        } catch (JsonIOException | IOException e) {
-            LogManager.logStackTrace("Failed to save modrinth.index.json", e);
+    /**
+     * Gets the files in the instance which don't need to go into the overrides
+     * of a Modrinth export, since they're in the manifest to be downloaded from
+     * Modrinth instead.
+     */
+    private Set<Path> getModrinthExcludedOverrides() {
+        return launcher.mods.stream().filter(m -> !m.disabled && m.modrinthVersion != null)
+                .map(mod -> mod.getFile(this))
+                .filter(Objects::nonNull)
+                .map(file -> file.toPath().toAbsolutePath().normalize())
+                .collect(Collectors.toSet());
+    }
 
-            FileUtils.deleteDirectory(tempDir);
+    /**
+     * Lists the jar/zip files that were put in the overrides, since Modrinth
+     * needs to know about them to check permissions.
+     */
+    private String getOverridesForPermissions(ExportOverrides modrinthOverrides) {
+        StringBuilder overridesForPermissions = new StringBuilder();
 
-            return new Pair<Path, String>(null, null);
+        for (String entryName : modrinthOverrides.entryNames) {
+            if (entryName.endsWith(".jar") || entryName.endsWith(".zip")) {
+                overridesForPermissions.append(String.format("%s\n", entryName));
+            }
         }
 
-        // copy over the overrides folder
-        Path overridesPath = tempDir.resolve("overrides");
-        FileUtils.createDirectory(overridesPath);
+        return overridesForPermissions.toString();
+    }
+
+    /**
+     * Streams the chosen overrides from the instance folder straight into each of
+     * the given archives. Each file is only read once, no matter how many of the
+     * archives it's going into.
+     *
+     * @param exportFiles the archives being written, which are skipped if they're
+     *                    being saved inside the instance folder
+     */
+    private void writeOverrides(List<String> overrides, List<Path> exportFiles, List<ExportOverrides> targets)
+            throws IOException {
+        Set<Path> skipped = exportFiles.stream().map(p -> p.toAbsolutePath().normalize()).collect(Collectors.toSet());
 
         for (String path : overrides) {
-            if (!path.equalsIgnoreCase(safePathName + ".zip") && getRoot().resolve(path).toFile().exists()
-                    && (getRoot().resolve(path).toFile().isFile()
-                            || getRoot().resolve(path).toFile().list().length != 0)) {
-                if (getRoot().resolve(path).toFile().isDirectory()) {
-                    Utils.copyDirectory(getRoot().resolve(path).toFile(), overridesPath.resolve(path).toFile());
-                } else {
-                    Utils.copyFile(getRoot().resolve(path).toFile(), overridesPath.resolve(path).toFile(), true);
+            Path source = getRoot().resolve(path);
+
+            if (!Files.exists(source)) {
+                continue;
+            }
+
+            List<Path> files;
+            if (Files.isDirectory(source)) {
+                try (Stream<Path> walk = Files.walk(source)) {
+                    files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
                 }
+            } else {
+                files = Collections.singletonList(source);
             }
-        }
 
-        // remove any .DS_Store files
-        try (Stream<Path> walk = Files.walk(overridesPath)) {
-            walk.filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().equals(".DS_Store"))
-                    .forEach(f -> {
-                        FileUtils.delete(f, false);
-                    });
-        } catch (IOException ignored) {
-        }
+            for (Path file : files) {
+                Path normalisedFile = file.toAbsolutePath().normalize();
 
-        // remove files that come from Modrinth or aren't disabled
-        launcher.mods.stream().filter(m -> !m.disabled && m.modrinthVersion != null).forEach(mod -> {
-            File file = mod.getFile(this, overridesPath);
+                // don't include any .DS_Store files
+                if (file.getFileName().toString().equals(".DS_Store") || skipped.contains(normalisedFile)) {
+                    continue;
+                }
 
-            if (file.exists()) {
-                FileUtils.delete(file.toPath());
-            }
-        });
+                String relativePath = getRoot().relativize(file).toString().replace("\\", "/");
 
-        for (String path : overrides) {
-            // if no files, remove the directory
-            if (overridesPath.resolve(path).toFile().isDirectory()
-                    && overridesPath.resolve(path).toFile().list().length == 0) {
-                FileUtils.deleteDirectory(overridesPath.resolve(path));
-            }
-        }
+                Map<ArchiveWriter, String> fileTargets = new LinkedHashMap<>();
+                for (ExportOverrides target : targets) {
+                    if (!target.excluded.contains(normalisedFile)) {
+                        String entryName = target.folder + "/" + relativePath;
 
-        // if overrides folder itself is empty, then remove it
-        if (overridesPath.toFile().list().length == 0) {
-            FileUtils.deleteDirectory(overridesPath);
-        }
+                        fileTargets.put(target.writer, entryName);
+                        target.entryNames.add(entryName);
+                    }
+                }
 
-        // find any override jar/zip files
-        StringBuilder overridesForPermissions = new StringBuilder();
-        try (Stream<Path> walk = Files.walk(overridesPath)) {
-            walk.filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().endsWith(".jar")
-                            || path.getFileName().toString().endsWith(".zip"))
-                    .forEach(f -> {
-                        overridesForPermissions.append(String.format("%s\n", tempDir.relativize(f)));
-                    });
-        } catch (IOException ignored) {
+                if (!fileTargets.isEmpty()) {
+                    ArchiveWriter.addFile(file, fileTargets);
+                }
+            }
         }
+    }
 
-        ArchiveUtils.createZip(tempDir, to);
-
-        FileUtils.deleteDirectory(tempDir);
+    private static final class ExportOverrides {
+        private final ArchiveWriter writer;
+        private final String folder;
+        private final Set<Path> excluded;
+        private final List<String> entryNames = new ArrayList<>();
 
-        return new Pair<Path, String>(to, overridesForPermissions.toString());
+        private ExportOverrides(ArchiveWriter writer, String folder, Set<Path> excluded) {
+            this.writer = writer;
+            this.folder = folder;
+            this.excluded = excluded;
+        }
     }
 
     public boolean rename(String newName) {
@@ -2712,15 +2666,19 @@ public class Instance extends MinecraftVersion {
         Analytics.trackEvent(AnalyticsEvent.forInstanceEvent("instance_backup", this));
 
         final Thread backupThread = new Thread(() -> {
-            Timestamp timestamp = new Timestamp(new Date().getTime());
-            String time = timestamp.toString().replaceAll("[^0-9]", "_");
-            String filename = getSafeName() + "-" + time.substring(0, time.lastIndexOf("_")) + ".zip";
-
-            ArchiveUtils.createZip(getRoot(), FileSystem.BACKUPS.resolve(filename),
-                    ZipNameMapper.getMapperForBackupMode(backupMode));
+            try {
+                BackupManager.backup(getRoot(), getSafeName(), launcher.name, backupMode);
+                BackupManager.applyRetention(getSafeName(), App.settings.backupsToKeep);
 
-            dialog.dispose();
-            App.TOASTER.pop(GetText.tr("Backup is complete"));
+                dialog.dispose();
+                App.TOASTER.pop(GetText.tr("Backup is complete"));
+            } catch (InterruptedException e) {
+                LogManager.warn("Backup of " + launcher.name + " was cancelled");
+            } catch (IOException e) {
+                LogManager.logStackTrace("Error backing up " + launcher.name, e);
+                dialog.dispose();
+                App.TOASTER.popError(GetText.tr("Error making backup"));
+            }
         });
         backupThread.start();
         dialog.addWindowListener(new WindowAdapter() {
@@ -2732,6 +2690,88 @@ public class Instance extends MinecraftVersion {
         dialog.setVisible(true);
     }
 
+    public void restoreBackup() {
+        ProgressDialog<List<BackupManifest>> backupsDialog = new ProgressDialog<>(GetText.tr("Loading Backups"), 0,
+                GetText.tr("Loading Backups"));
+        backupsDialog.addThread(new Thread(() -> {
+            backupsDialog.setReturnValue(BackupManager.getBackups(getSafeName()));
+            backupsDialog.doneTask();
+            backupsDialog.close();
+        }));
+        backupsDialog.start();
+
+        List<BackupManifest> backups = backupsDialog.getReturnValue();
+
+        if (backups == null || backups.isEmpty()) {
+            DialogManager.okDialog().setTitle(GetText.tr("No Backups"))
+                    .setContent(GetText.tr("There are no backups of this instance to restore."))
+                    .setType(DialogManager.INFO).show();
+            return;
+        }
+
+        SimpleDateFormat formatter = new SimpleDateFormat(App.settings.dateFormat + " HH:mm:ss");
+        JComboBox<ComboItem<BackupManifest>> backupsDropDown = new JComboBox<>();
+        for (BackupManifest backup : backups) {
+            backupsDropDown.addItem(new ComboItem<>(backup, formatter.format(backup.created) + " ("
+                    + String.format(Locale.ENGLISH, "%.1f", backup.size / 1024.0 / 1024.0) + " MB)"));
+        }
+
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.add(new JLabel(GetText.tr("Select Backup To Restore")));
+        panel.add(Box.createVerticalStrut(20));
+        panel.add(backupsDropDown);
+        panel.add(Box.createVerticalStrut(20));
+        panel.add(new JLabel(GetText.tr("Files in the backup will overwrite those in the instance.")));
+        panel.add(Box.createVerticalStrut(10));
+        JCheckBox deleteOtherFiles = new JCheckBox(
+                GetText.tr("Delete files that have been created since the backup was made"), true);
+        panel.add(deleteOtherFiles);
+
+        int ret = JOptionPane.showConfirmDialog(App.launcher.getParent(), panel,
+                // #. {0} is the name of the instance
+                GetText.tr("Restoring {0}", launcher.name), JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.INFORMATION_MESSAGE);
+
+        if (ret != 0) {
+            return;
+        }
+
+        BackupManifest backup = ((ComboItem<BackupManifest>) backupsDropDown.getSelectedItem()).getValue();
+
+        Analytics.trackEvent(AnalyticsEvent.forInstanceEvent("instance_restore_backup", this));
+
+        // #. {0} is the name of the instance
+        ProgressDialog<Boolean> progressDialog = new ProgressDialog<>(GetText.tr("Restoring {0}", launcher.name), 0,
+                // #. {0} is the name of the instance
+                GetText.tr("Restoring {0}", launcher.name));
+        progressDialog.addThread(new Thread(() -> {
+            try {
+                BackupManager.restore(backup, getRoot(), deleteOtherFiles.isSelected());
+                progressDialog.setReturnValue(true);
+            } catch (InterruptedException e) {
+                LogManager.warn("Restoring backup of " + launcher.name + " was cancelled");
+            } catch (IOException e) {
+                LogManager.logStackTrace("Error restoring backup of " + launcher.name, e);
+                progressDialog.setReturnValue(false);
+            }
+
+            progressDialog.doneTask();
+            progressDialog.close();
+        }));
+        progressDialog.start();
+
+        if (progressDialog.getReturnValue() == null) {
+            return;
+        }
+
+        if (progressDialog.getReturnValue()) {
+            App.TOASTER.pop(GetText.tr("Backup restored"));
+        } else {
+            App.TOASTER.popError(GetText.tr("Error restoring backup"));
+        }
+    }
+
     public boolean canChangeDescription() {
         return isExternalPack() || launcher.vanillaInstance || (getPack() != null && getPack().system);
     }
@@ -3107,6 +3147,24 @@ public class Instance extends MinecraftVersion {
         return shouldUseLegacyLaunch();
     }
 
+    private void logLastSessionErrors(SessionLog sessionLog) {
+        try {
+            List<SessionLog.Entry> errors = sessionLog.readLastErrors(10);
+
+            if (!errors.isEmpty()) {
+                LogManager.error("The last errors logged by Minecraft were:");
+
+                for (SessionLog.Entry error : errors) {
+                    LogManager.error(error.message);
+                }
+            }
+
+            LogManager.info("The full log for this session has been saved to " + sessionLog.getFirstPart());
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error reading session log", e, false);
+        }
+    }
+
     public boolean hasDisabledJavaRuntime() {
         if (javaVersion == null) {
             return false;
@@ -3279,6 +3337,9 @@ public class Instance extends MinecraftVersion {
                         })
                         .collect(Collectors.toList());
 
+                ModMetadataReader.save();
+                FileHashCache.save();
+
                 if (!App.settings.dontCheckModsOnCurseForge) {
                     Map<Long, DisableableMod> murmurHashes = new HashMap<>();
 
@@ -3286,8 +3347,8 @@ public class Instance extends MinecraftVersion {
                             .filter(dm -> dm.curseForgeProject == null && dm.curseForgeFile == null)
                             .filter(dm -> dm.getFile(ROOT, id) != null).forEach(dm -> {
                                 try {
-                                    long hash = Hashing
-                                            .murmur(dm.disabled ? dm.getDisabledFile(this).toPath()
+                                    long hash = FileHashCache
+                                            .getModFingerprint(dm.disabled ? dm.getDisabledFile(this).toPath()
                                                     : dm
                                                             .getFile(ROOT, id).toPath());
                                     murmurHashes.put(hash, dm);
@@ -3346,7 +3407,7 @@ public class Instance extends MinecraftVersion {
                             .filter(dm -> dm.modrinthProject == null && dm.modrinthVersion == null)
                             .filter(dm -> dm.getFile(ROOT, id) != null).forEach(dm -> {
                                 try {
-                                    sha1Hashes.put(Hashing
+                                    sha1Hashes.put(FileHashCache
                                             .sha1(dm.disabled ? dm.getDisabledFile(this).toPath()
                                                     : dm
                                                             .getFile(ROOT, id).toPath())
@@ -0,0 +1,235 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.atlauncher.App;
+import com.atlauncher.Data;
+import com.atlauncher.FileSystem;
+import com.atlauncher.Gsons;
+import com.atlauncher.data.minecraft.AssetIndex;
+import com.atlauncher.data.minecraft.JavaRuntime;
+import com.atlauncher.data.minecraft.JavaRuntimes;
+import com.atlauncher.data.minecraft.Library;
+import com.atlauncher.data.minecraft.loaders.forge.FMLLibrariesConstants;
+import com.atlauncher.data.minecraft.loaders.forge.FMLLibrary;
+import com.atlauncher.managers.LWJGLManager;
+import com.atlauncher.managers.LogManager;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Record of the last time an instance was fully checked before launching, so
+ * that if nothing it depends on has changed since, the next launch can skip
+ * checking all its files again.
+ *
+ * The fingerprint covers the version information, the settings which change
+ * what gets downloaded and the size and modified time of the files used to
+ * launch (libraries, Minecraft jar, asset index, Java runtime and mods), as well
+ * as the size of every asset object and legacy resources copy. Files aren't
+ * hashed, since that's the slow part we're trying to avoid.
+ */
+public class LaunchManifest {
+    // change this if what's included in the fingerprint changes
+    private static final int VERSION = 2;
+
+    public String fingerprint;
+    public long verifiedAt;
+
+    public static String fingerprint(Instance instance) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putInt(VERSION);
+
+        // version information (libraries, downloads, assets and Java version) and anything the loader adds
+        hasher.putString(Gsons.DEFAULT_SLIM.toJson(instance.libraries), StandardCharsets.UTF_8);
+        hasher.putString(Gsons.DEFAULT_SLIM.toJson(instance.downloads), StandardCharsets.UTF_8);
+        hasher.putString(Gsons.DEFAULT_SLIM.toJson(instance.assetIndex), StandardCharsets.UTF_8);
+        hasher.putString(Gsons.DEFAULT_SLIM.toJson(instance.javaVersion), StandardCharsets.UTF_8);
+        hasher.putString(Gsons.DEFAULT_SLIM.toJson(instance.launcher.loaderVersion), StandardCharsets.UTF_8);
+
+        // settings which change what's needed to launch
+        boolean useJavaProvidedByMinecraft = Optional.ofNullable(instance.launcher.useJavaProvidedByMinecraft)
+                .orElse(App.settings.useJavaProvidedByMinecraft);
+        hasher.putBoolean(useJavaProvidedByMinecraft);
+        hasher.putBoolean(LWJGLManager.shouldReplaceLWJGL3(instance));
+        hasher.putBoolean(LWJGLManager.shouldUseLegacyLWJGL(instance));
+        hasher.putBoolean(App.settings.scanModsOnLaunch);
+
+        putFile(hasher, instance.getMinecraftJarLibraryPath());
+        putFile(hasher, FileSystem.RESOURCES_INDEXES.resolve(instance.assetIndex.id + ".json"));
+        putAssets(hasher, instance);
+
+        for (Library library : instance.libraries) {
+            if (library.downloads == null) {
+                continue;
+            }
+
+            if (library.downloads.artifact != null && library.downloads.artifact.path != null) {
+                putFile(hasher, FileSystem.LIBRARIES.resolve(library.downloads.artifact.path));
+            }
+
+            if (library.hasNativeForOS()) {
+                putFile(hasher, FileSystem.LIBRARIES.resolve(library.getNativeDownloadForOS().path));
+            }
+        }
+
+        List<FMLLibrary> fmlLibraries = FMLLibrariesConstants.fmlLibraries.get(instance.id);
+        if (fmlLibraries != null) {
+            for (FMLLibrary library : fmlLibraries) {
+                putFile(hasher, instance.getRoot().resolve("lib/" + library.name));
+            }
+        }
+
+        if (useJavaProvidedByMinecraft && instance.javaVersion != null && Data.JAVA_RUNTIMES != null) {
+            String runtimeToUse = Optional.ofNullable(instance.launcher.javaRuntimeOverride)
+                    .orElse(instance.javaVersion.component);
+            Map<String, List<JavaRuntime>> runtimesForSystem = Data.JAVA_RUNTIMES.getForSystem();
+
+            // the latest runtime version, so that we check files again when Mojang releases a new one
+            if (runtimesForSystem.containsKey(runtimeToUse) && runtimesForSystem.get(runtimeToUse).size() != 0) {
+                hasher.putString(runtimesForSystem.get(runtimeToUse).get(0).version.name, StandardCharsets.UTF_8);
+            }
+
+            putFile(hasher, FileSystem.MINECRAFT_RUNTIMES.resolve(runtimeToUse).resolve(JavaRuntimes.getSystem())
+                    .resolve(".version"));
+        }
+
+        Path root = instance.getRoot();
+        for (Path file : instance.getModPathsFromFilesystem(Arrays.asList(root.resolve("mods"),
+                root.resolve("resourcepacks"), root.resolve("shaderpacks"), root.resolve("jarmods")))) {
+            putFile(hasher, file);
+        }
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Checks if the given fingerprint is the same as the one saved after the last
+     * time this instance was fully checked.
+     */
+    public static boolean matches(Instance instance, String fingerprint) {
+        Path file = getFile(instance);
+
+        if (!Files.exists(file)) {
+            return false;
+        }
+
+        try {
+            LaunchManifest manifest = Gsons.DEFAULT_SLIM.fromJson(
+                    new String(Files.readAllBytes(file), StandardCharsets.UTF_8), LaunchManifest.class);
+
+            return manifest != null && fingerprint.equals(manifest.fingerprint);
+        } catch (Exception e) {
+            LogManager.logStackTrace("Error reading launch manifest for " + instance.launcher.name, e, false);
+            return false;
+        }
+    }
+
+    public static void save(Instance instance, String fingerprint) {
+        LaunchManifest manifest = new LaunchManifest();
+        manifest.fingerprint = fingerprint;
+        manifest.verifiedAt = System.currentTimeMillis();
+
+        try {
+            Files.createDirectories(FileSystem.LAUNCH_MANIFESTS);
+            Files.write(getFile(instance), Gsons.DEFAULT_SLIM.toJson(manifest).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error saving launch manifest for " + instance.launcher.name, e, false);
+        }
+    }
+
+    /**
+     * Makes sure the next launch of the instance checks all its files.
+     */
+    public static void invalidate(Instance instance) {
+        try {
+            Files.deleteIfExists(getFile(instance));
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error removing launch manifest for " + instance.launcher.name, e, false);
+        }
+    }
+
+    private static Path getFile(Instance instance) {
+        return FileSystem.LAUNCH_MANIFESTS.resolve(instance.getUUID() + ".json");
+    }
+
+    /**
+     * Adds the size of each asset object in the instance's asset index, and of the
+     * copies made for legacy versions, so a missing or partly downloaded asset
+     * means the files get checked again.
+     */
+    private static void putAssets(Hasher hasher, Instance instance) {
+        AssetIndex index = readAssetIndex(FileSystem.RESOURCES_INDEXES.resolve(instance.assetIndex.id + ".json"));
+
+        if (index == null || index.objects == null) {
+            hasher.putLong(-1L);
+            return;
+        }
+
+        boolean copiedToLegacy = index.mapToResources || instance.assetIndex.id.equalsIgnoreCase("legacy");
+
+        index.objects.forEach((key, object) -> {
+            hasher.putString(key, StandardCharsets.UTF_8);
+            putSize(hasher, FileSystem.RESOURCES_OBJECTS.resolve(object.hash.substring(0, 2) + "/" + object.hash));
+
+            if (copiedToLegacy) {
+                putSize(hasher, index.mapToResources ? instance.getRoot().resolve("resources/" + key)
+                        : FileSystem.RESOURCES_VIRTUAL_LEGACY.resolve(key));
+            }
+        });
+    }
+
+    private static AssetIndex readAssetIndex(Path file) {
+        try {
+            return Gsons.DEFAULT_SLIM.fromJson(new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+                    AssetIndex.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void putSize(Hasher hasher, Path file) {
+        try {
+            hasher.putLong(Files.size(file));
+        } catch (IOException e) {
+            hasher.putLong(-1L);
+        }
+    }
+
+    private static void putFile(Hasher hasher, Path file) {
+        hasher.putString(file.toAbsolutePath().toString(), StandardCharsets.UTF_8);
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            hasher.putLong(attributes.size());
+            hasher.putLong(attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            // missing, so make sure it doesn't match a manifest from when it existed
+            hasher.putLong(-1L);
+        }
+    }
+}
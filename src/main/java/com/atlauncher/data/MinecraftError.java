@@ -30,6 +30,62 @@ public class MinecraftError {
     static final int NEED_TO_USE_JAVA_16_OR_NEWER = 4;
     static final int NEED_TO_USE_JAVA_17_OR_NEWER = 5;
 
+    static void showInformationPopup(CrashDiagnostic diagnostic) {
+        CrashSignature signature = diagnostic.signature;
+
+        if (signature.popup != null) {
+            int error = getError(signature.popup);
+
+            if (error != 0) {
+                showInformationPopup(error);
+                return;
+            }
+        }
+
+        if (signature.message == null && signature.fix == null) {
+            return;
+        }
+
+        HTMLBuilder content = new HTMLBuilder().center();
+        if (signature.message != null && signature.fix != null) {
+            content.text(signature.message + "<br/><br/>" + signature.fix);
+        } else {
+            content.text(signature.message == null ? signature.fix : signature.message);
+        }
+
+        DialogManager dialog = DialogManager.okDialog().setTitle(GetText.tr("About Your Crash"))
+                .setContent(content.build()).setType(DialogManager.INFO);
+
+        if (signature.url != null) {
+            dialog.addOption(GetText.tr("More Info"), true);
+        }
+
+        if (dialog.show() == 1 && signature.url != null) {
+            OS.openWebBrowser(signature.url);
+        }
+    }
+
+    /**
+     * Gets the error for the name of a built in popup used in the crash
+     * signatures, or 0 if there isn't one by that name.
+     */
+    static int getError(String popup) {
+        switch (popup) {
+            case "OUT_OF_MEMORY":
+                return OUT_OF_MEMORY;
+            case "CONCURRENT_MODIFICATION_ERROR_1_6":
+                return CONCURRENT_MODIFICATION_ERROR_1_6;
+            case "USING_NEWER_JAVA_THAN_8":
+                return USING_NEWER_JAVA_THAN_8;
+            case "NEED_TO_USE_JAVA_16_OR_NEWER":
+                return NEED_TO_USE_JAVA_16_OR_NEWER;
+            case "NEED_TO_USE_JAVA_17_OR_NEWER":
+                return NEED_TO_USE_JAVA_17_OR_NEWER;
+            default:
+                return 0;
+        }
+    }
+
     static void showInformationPopup(int error) {
         switch (error) {
             case MinecraftError.OUT_OF_MEMORY:
@@ -0,0 +1,411 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.atlauncher.evnt.LogEvent;
+import com.atlauncher.managers.LogManager;
+import com.atlauncher.utils.AhoCorasick;
+import com.atlauncher.utils.Log4jEventParser;
+import com.atlauncher.utils.Utils;
+
+/**
+ * Reads the output of a running Minecraft process and sends it to the log.
+ *
+ * Output is read in blocks rather than line by line, and each line is scanned
+ * once for everything we look for (known problems from the crash signatures,
+ * crash reports, log4j events and things to censor like the players username
+ * and access token). Lines are sent to the log in batches, once per block read,
+ * so chatty games don't end up waiting on the log one line at a time.
+ */
+final class MinecraftOutputReader {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private static final String LOG4J = "log4j:";
+    private static final String LOG4J_EVENT_START = "<log4j:Event>";
+    private static final String LOG4J_EVENT_END = "</log4j:Event>";
+
+    private static final int LOG4J_PATTERN = 0;
+    private static final int LOG4J_EVENT_START_PATTERN = 1;
+    private static final int LOG4J_EVENT_END_PATTERN = 2;
+    private static final int FIRST_CRASH_PATTERN = 3;
+
+    private final AhoCorasick matcher;
+    private final AhoCorasick.MatchListener listener = this::onMatch;
+    private final List<String> censorReplacements = new ArrayList<>();
+    private final List<CrashSignature> signatures = new ArrayList<>();
+    private final String minecraftVersion;
+    private final SessionLog sessionLog;
+
+    // where each type of pattern starts in the matcher, and which signature each signature pattern is for
+    private final int firstSignaturePattern;
+    private final int firstCensorPattern;
+    private final int[] patternSignatures;
+
+    // if each signature applies to the version being played, only worked out once one of its patterns is found
+    private final Boolean[] signaturesApply;
+
+    private final StringBuilder log4jEvent = new StringBuilder();
+    private final Log4jEventParser log4jParser = new Log4jEventParser();
+    private final List<LogEvent> batch = new ArrayList<>();
+
+    private final Map<CrashSignature, CrashDiagnostic> diagnostics = new LinkedHashMap<>();
+    private CrashDiagnostic detectedDiagnostic = null;
+    private boolean crashedWithoutKnownResolution = false;
+
+    // what was found in the line currently being processed
+    private int lineSignature;
+    private boolean lineCrashed;
+    private boolean lineLog4j;
+    private boolean lineLog4jEventStart;
+    private boolean lineLog4jEventEnd;
+    private int censorCount;
+    private int[] censorPatterns = new int[4];
+    private int[] censorStarts = new int[4];
+    private int[] censorEnds = new int[4];
+
+    /**
+     * @param account          the account playing, whose details should be
+     *                         removed from the logs
+     * @param minecraftVersion the version of Minecraft being played
+     * @param crashSignatures  the known problems to look for
+     * @param sessionLog       the log to save the output to, or null
+     */
+    MinecraftOutputReader(AbstractAccount account, String minecraftVersion, CrashSignatures crashSignatures,
+            SessionLog sessionLog) {
+        this.minecraftVersion = minecraftVersion;
+        this.sessionLog = sessionLog;
+
+        List<String> patterns = new ArrayList<>();
+        patterns.add(LOG4J);
+        patterns.add(LOG4J_EVENT_START);
+        patterns.add(LOG4J_EVENT_END);
+
+        if (crashSignatures.crashReportMarkers != null) {
+            patterns.addAll(crashSignatures.crashReportMarkers);
+        }
+
+        firstSignaturePattern = patterns.size();
+        List<Integer> signatureIndexes = new ArrayList<>();
+        if (crashSignatures.signatures != null) {
+            for (CrashSignature signature : crashSignatures.signatures) {
+                if (signature == null || signature.patterns == null) {
+                    continue;
+                }
+
+                for (String pattern : signature.patterns) {
+                    patterns.add(pattern);
+                    signatureIndexes.add(signatures.size());
+                }
+
+                signatures.add(signature);
+            }
+        }
+        patternSignatures = signatureIndexes.stream().mapToInt(Integer::intValue).toArray();
+        signaturesApply = new Boolean[signatures.size()];
+
+        firstCensorPattern = patterns.size();
+        List<String> censorTargets = new ArrayList<>();
+        if (!LogManager.showDebug) {
+            censorTargets.add(account.minecraftUsername);
+            censorReplacements.add("**MINECRAFTUSERNAME**");
+            censorTargets.add(account.username);
+            censorReplacements.add("**MINECRAFTUSERNAME**");
+            censorTargets.add(account.uuid);
+            censorReplacements.add("**UUID**");
+            censorTargets.add(account.uuid == null ? null : account.uuid.replace("-", ""));
+            censorReplacements.add("**UUID**");
+        }
+
+        censorTargets.add(account.getAccessToken());
+        censorReplacements.add("**ACCESSTOKEN**");
+
+        patterns.addAll(censorTargets);
+
+        this.matcher = new AhoCorasick(patterns);
+    }
+
+    /**
+     * Reads the output until the process closes it (when the game exits).
+     */
+    void read(InputStream inputStream) throws IOException {
+        try (Reader reader = new InputStreamReader(inputStream)) {
+            char[] buffer = new char[BUFFER_SIZE];
+            StringBuilder line = new StringBuilder();
+            boolean lastWasCarriageReturn = false;
+            int read;
+
+            while ((read = reader.read(buffer)) != -1) {
+                int lineStart = 0;
+
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+
+                    if (c != '\n' && c != '\r') {
+                        lastWasCarriageReturn = false;
+                        continue;
+                    }
+
+                    // \r\n is a single line break, the same as BufferedReader#readLine
+                    if (c == '\n' && lastWasCarriageReturn && i == lineStart) {
+                        lastWasCarriageReturn = false;
+                        lineStart = i + 1;
+                        continue;
+                    }
+
+                    line.append(buffer, lineStart, i - lineStart);
+                    processLine(line);
+                    line.setLength(0);
+
+                    lastWasCarriageReturn = c == '\r';
+                    lineStart = i + 1;
+                }
+
+                line.append(buffer, lineStart, read - lineStart);
+
+                // send what we've got so far, so the console keeps up with the game
+                flush();
+            }
+
+            if (line.length() != 0) {
+                processLine(line);
+            }
+
+            flush();
+        }
+    }
+
+    /**
+     * Gets the known problem to tell the user about, if any were found.
+     */
+    CrashDiagnostic getDetectedDiagnostic() {
+        return detectedDiagnostic;
+    }
+
+    /**
+     * Gets every known problem that was found, with the first line each was found
+     * in.
+     */
+    List<CrashDiagnostic> getDiagnostics() {
+        return new ArrayList<>(diagnostics.values());
+    }
+
+    boolean hasCrashedWithoutKnownResolution() {
+        return crashedWithoutKnownResolution;
+    }
+
+    private void processLine(CharSequence line) {
+        lineSignature = -1;
+        lineCrashed = false;
+        lineLog4j = false;
+        lineLog4jEventStart = false;
+        lineLog4jEventEnd = false;
+        censorCount = 0;
+
+        matcher.search(line, listener);
+
+        if (lineCrashed) {
+            crashedWithoutKnownResolution = true;
+        }
+
+        String text = censor(line);
+
+        if (lineSignature != -1) {
+            CrashSignature signature = signatures.get(lineSignature);
+            CrashDiagnostic diagnostic = new CrashDiagnostic(signature, text);
+
+            diagnostics.putIfAbsent(signature, diagnostic);
+
+            if (detectedDiagnostic == null || signature.priority >= detectedDiagnostic.signature.priority) {
+                detectedDiagnostic = diagnostic;
+            }
+        }
+
+        if (lineLog4j) {
+            try {
+                // start of a new event so clear string builder
+                if (lineLog4jEventStart) {
+                    log4jEvent.setLength(0);
+                }
+
+                log4jEvent.append(text);
+
+                // end of the xml object so parse it
+                if (lineLog4jEventEnd) {
+                    log4jParser.parse(log4jEvent);
+                    add(LogManager.createMinecraftLog4jEvent(log4jParser));
+                    log4jEvent.setLength(0);
+                }
+
+                return;
+            } catch (Exception e) {
+                // ignored
+            }
+        }
+
+        add(LogManager.createMinecraftEvent(text));
+    }
+
+    private void onMatch(int pattern, int start, int end) {
+        if (pattern == LOG4J_PATTERN) {
+            lineLog4j = true;
+        } else if (pattern == LOG4J_EVENT_START_PATTERN) {
+            lineLog4jEventStart = true;
+        } else if (pattern == LOG4J_EVENT_END_PATTERN) {
+            lineLog4jEventEnd = true;
+        } else if (pattern < firstSignaturePattern) {
+            lineCrashed = true;
+        } else if (pattern < firstCensorPattern) {
+            int signature = patternSignatures[pattern - firstSignaturePattern];
+
+            if (!applies(signature)) {
+                return;
+            }
+
+            if (lineSignature == -1 || outranks(signature, lineSignature)) {
+                lineSignature = signature;
+            }
+        } else {
+            if (censorCount == censorPatterns.length) {
+                censorPatterns = Arrays.copyOf(censorPatterns, censorCount * 2);
+                censorStarts = Arrays.copyOf(censorStarts, censorCount * 2);
+                censorEnds = Arrays.copyOf(censorEnds, censorCount * 2);
+            }
+
+            censorPatterns[censorCount] = pattern - firstCensorPattern;
+            censorStarts[censorCount] = start;
+            censorEnds[censorCount] = end;
+            censorCount++;
+        }
+    }
+
+    /**
+     * If signature a should be shown over signature b when both are found in the
+     * same line, which is the one with the highest priority, then the one last in
+     * the list.
+     */
+    private boolean outranks(int a, int b) {
+        int priorityA = signatures.get(a).priority;
+        int priorityB = signatures.get(b).priority;
+
+        return priorityA > priorityB || (priorityA == priorityB && a > b);
+    }
+
+    private boolean applies(int signature) {
+        if (signaturesApply[signature] == null) {
+            signaturesApply[signature] = appliesTo(signatures.get(signature), minecraftVersion);
+        }
+
+        return signaturesApply[signature];
+    }
+
+    private static boolean appliesTo(CrashSignature signature, String minecraftVersion) {
+        if (signature.maxMinecraftVersion == null) {
+            return true;
+        }
+
+        try {
+            return Utils.matchVersion(minecraftVersion, signature.maxMinecraftVersion, true, true);
+        } catch (RuntimeException e) {
+            // not a release version (such as a snapshot), so we can't tell
+            return false;
+        }
+    }
+
+    /**
+     * Replaces everything that needs censoring in the line. Where matches
+     * overlap, the one starting first (or the longest if they start at the same
+     * place) is replaced.
+     */
+    private String censor(CharSequence line) {
+        if (censorCount == 0) {
+            return line.toString();
+        }
+
+        // matches come in order of where they end, so sort them by where they start (there's only ever a few)
+        for (int i = 1; i < censorCount; i++) {
+            for (int j = i; j > 0 && comesBefore(j, j - 1); j--) {
+                swap(censorPatterns, j, j - 1);
+                swap(censorStarts, j, j - 1);
+                swap(censorEnds, j, j - 1);
+            }
+        }
+
+        StringBuilder censored = new StringBuilder(line.length());
+        int position = 0;
+
+        for (int i = 0; i < censorCount; i++) {
+            if (censorStarts[i] < position) {
+                continue;
+            }
+
+            censored.append(line, position, censorStarts[i]).append(censorReplacements.get(censorPatterns[i]));
+            position = censorEnds[i];
+        }
+
+        censored.append(line, position, line.length());
+
+        return censored.toString();
+    }
+
+    private boolean comesBefore(int a, int b) {
+        return censorStarts[a] < censorStarts[b]
+                || (censorStarts[a] == censorStarts[b] && censorEnds[a] > censorEnds[b]);
+    }
+
+    private static void swap(int[] array, int a, int b) {
+        int temp = array[a];
+        array[a] = array[b];
+        array[b] = temp;
+    }
+
+    private void add(LogEvent event) {
+        batch.add(event);
+
+        if (sessionLog != null) {
+            sessionLog.write(event);
+        }
+
+        if (batch.size() >= MAX_BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (sessionLog != null) {
+            sessionLog.flush();
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        LogManager.minecraft(batch);
+        batch.clear();
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.atlauncher.Gsons;
+import com.atlauncher.managers.LogManager;
+import com.atlauncher.utils.FileUtils;
+import com.atlauncher.utils.Hashing;
+import com.google.gson.JsonObject;
+
+/**
+ * Report of what happened during an install or launch of an instance: how long
+ * each stage took, how much was downloaded versus reused from files already on
+ * disk, how many files had to be hashed, how many downloads were retried and
+ * how quickly each host sent us files.
+ *
+ * Everything can be recorded from many threads at once and is just a few atomic
+ * adds, so it's always recorded. Once finished, it's saved in the instance's
+ * logs/performance folder and can be looked at from the Tools tab.
+ */
+public class PerformanceReport {
+    public static final String INSTALL = "install";
+    public static final String LAUNCH = "launch";
+
+    public String type;
+    public String name;
+    public Date started;
+    public boolean successful;
+    public long totalMillis;
+
+    // how long each stage took in milliseconds, in the order they finished
+    public Map<String, Long> stages = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public AtomicLong filesDownloaded = new AtomicLong();
+    public AtomicLong bytesDownloaded = new AtomicLong();
+    public AtomicLong filesReused = new AtomicLong();
+    public AtomicLong bytesReused = new AtomicLong();
+    public AtomicLong retries = new AtomicLong();
+
+    // hashing is counted launcher wide, so these include anything else hashed while this was running
+    public long filesHashed;
+    public long bytesHashed;
+
+    // downloads can still be finishing when the report is, so this stays concurrent and is only sorted when shown
+    public Map<String, HostReport> hosts = new ConcurrentHashMap<>();
+
+    private transient long startNanos;
+    private transient long filesHashedAtStart;
+    private transient long bytesHashedAtStart;
+
+    private PerformanceReport() {
+    }
+
+    public static PerformanceReport start(String type, String name) {
+        PerformanceReport report = new PerformanceReport();
+        report.type = type;
+        report.name = name;
+        report.started = new Date();
+        report.startNanos = System.nanoTime();
+        report.filesHashedAtStart = Hashing.getFilesHashed();
+        report.bytesHashedAtStart = Hashing.getBytesHashed();
+
+        return report;
+    }
+
+    public static Path getDirectory(Path instanceRoot) {
+        return instanceRoot.resolve("logs").resolve("performance");
+    }
+
+    public static Path getFile(Path instanceRoot, String type) {
+        return getDirectory(instanceRoot).resolve(type + ".json");
+    }
+
+    public void addStage(String stage, long millis) {
+        stages.put(stage, millis);
+    }
+
+    /**
+     * Records a stage which started at the given {@link System#nanoTime()} and
+     * has just finished.
+     */
+    public void stageFinished(String stage, long startNanos) {
+        addStage(stage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    public void fileDownloaded(String host, long bytes, long millis) {
+        filesDownloaded.incrementAndGet();
+        bytesDownloaded.addAndGet(bytes);
+
+        HostReport hostReport = hosts.computeIfAbsent(host == null ? "unknown" : host, h -> new HostReport());
+        hostReport.files.incrementAndGet();
+        hostReport.bytes.addAndGet(bytes);
+        hostReport.millis.addAndGet(millis);
+    }
+
+    public void fileReused(long bytes) {
+        filesReused.incrementAndGet();
+        bytesReused.addAndGet(bytes);
+    }
+
+    public void retried() {
+        retries.incrementAndGet();
+    }
+
+    public void finish(boolean successful) {
+        this.successful = successful;
+        this.totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        this.filesHashed = Hashing.getFilesHashed() - filesHashedAtStart;
+        this.bytesHashed = Hashing.getBytesHashed() - bytesHashedAtStart;
+
+        for (HostReport hostReport : hosts.values()) {
+            long millis = hostReport.millis.get();
+            hostReport.bytesPerSecond = millis == 0 ? 0 : hostReport.bytes.get() * 1000 / millis;
+        }
+    }
+
+    /**
+     * Saves this report in the instance's folder, replacing the last report of
+     * the same type.
+     */
+    public void save(Path instanceRoot) {
+        Path file = getFile(instanceRoot, type);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            FileUtils.createDirectory(file.getParent());
+
+            try (OutputStreamWriter fileWriter = new OutputStreamWriter(Files.newOutputStream(tempFile),
+                    StandardCharsets.UTF_8)) {
+                JsonObject json = Gsons.DEFAULT.toJsonTree(this).getAsJsonObject();
+                json.add("hosts", Gsons.DEFAULT.toJsonTree(new TreeMap<>(hosts)));
+                Gsons.DEFAULT.toJson(json, fileWriter);
+            }
+
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            LogManager.logStackTrace("Error saving " + type + " performance report", e, false);
+        }
+    }
+
+    /**
+     * Loads the last report of the given type saved for an instance.
+     *
+     * @return the report, or null if there isn't one (or it couldn't be read)
+     */
+    public static PerformanceReport load(Path instanceRoot, String type) {
+        Path file = getFile(instanceRoot, type);
+
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (InputStreamReader fileReader = new InputStreamReader(Files.newInputStream(file),
+                StandardCharsets.UTF_8)) {
+            return Gsons.DEFAULT.fromJson(fileReader, PerformanceReport.class);
+        } catch (IOException | RuntimeException e) {
+            LogManager.logStackTrace("Error loading performance report " + file, e, false);
+            return null;
+        }
+    }
+
+    /**
+     * Percentage of the bytes needed that were already on disk and didn't need
+     * downloading.
+     */
+    public double getCacheHitPercent() {
+        long total = bytesDownloaded.get() + bytesReused.get();
+
+        return total == 0 ? 0 : bytesReused.get() * 100.0 / total;
+    }
+
+    /**
+     * Human readable summary of this report, as shown in the Tools tab.
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+
+        summary.append(String.format(Locale.ENGLISH, "%s of %s on %s (%s) took %dms%n", type, name, started,
+                successful ? "successful" : "failed", totalMillis));
+
+        if (!stages.isEmpty()) {
+            summary.append(String.format(Locale.ENGLISH, "%nStages:%n"));
+            synchronized (stages) {
+                stages.forEach((stage, millis) -> summary
+                        .append(String.format(Locale.ENGLISH, "  %-24s %8dms%n", stage, millis)));
+            }
+        }
+
+        summary.append(String.format(Locale.ENGLISH,
+                "%nDownloaded %d files (%s), reused %d files (%s), %.1f%% cached%n", filesDownloaded.get(),
+                formatMegabytes(bytesDownloaded.get()), filesReused.get(), formatMegabytes(bytesReused.get()),
+                getCacheHitPercent()));
+        summary.append(String.format(Locale.ENGLISH, "Hashed %d files (%s), retried %d downloads%n", filesHashed,
+                formatMegabytes(bytesHashed), retries.get()));
+
+        if (!hosts.isEmpty()) {
+            summary.append(String.format(Locale.ENGLISH, "%nHosts:%n"));
+            new TreeMap<>(hosts).forEach((host, hostReport) -> summary.append(String.format(Locale.ENGLISH,
+                    "  %-32s %5d files %12s %12s/s%n", host, hostReport.files.get(),
+                    formatMegabytes(hostReport.bytes.get()),
+                    formatMegabytes(hostReport.bytesPerSecond))));
+        }
+
+        return summary.toString();
+    }
+
+    private static String formatMegabytes(long bytes) {
+        return String.format(Locale.ENGLISH, "%.2f MB", bytes / 1024.0 / 1024.0);
+    }
+
+    public static final class HostReport {
+        public AtomicLong files = new AtomicLong();
+        public AtomicLong bytes = new AtomicLong();
+
+        // total time spent downloading from this host, which adds up across downloads running at the same time
+        public AtomicLong millis = new AtomicLong();
+
+        // average speed of a single download from this host
+        public long bytesPerSecond;
+    }
+}
@@ -0,0 +1,536 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.atlauncher.evnt.LogEvent;
+import com.atlauncher.evnt.LogEvent.LogType;
+import com.atlauncher.managers.LogManager;
+import com.atlauncher.utils.FileUtils;
+
+/**
+ * Log of everything Minecraft output during a single launch of an instance,
+ * saved in the instance's logs/sessions folder so it can be looked at after the
+ * game has closed.
+ *
+ * Each log (NAME.PART.log.gz) is a series of separately gzipped chunks of
+ * lines (which together are still a valid gzip file), and each line is a tab
+ * separated record of the timestamp, level, thread, logger and message. The
+ * index next to it (NAME.PART.idx) records where each chunk starts and which of
+ * its lines are errors, so errors can be found by only reading the chunks they
+ * are in. When a log gets too large, the session carries on in the next part.
+ */
+public final class SessionLog implements Closeable {
+    private static final String LOG_EXTENSION = ".log.gz";
+    private static final String INDEX_EXTENSION = ".idx";
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final long CHUNK_MAX_AGE = 2000L;
+    private static final long MAX_PART_SIZE = 64L * 1024 * 1024;
+
+    private final Path directory;
+    private final String name;
+    private final StringBuilder chunk = new StringBuilder(CHUNK_SIZE);
+    private final List<Integer> chunkErrors = new ArrayList<>();
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(CHUNK_SIZE / 4);
+
+    private int part = -1;
+    private FileChannel log;
+    private DataOutputStream index;
+    private long line = 0;
+    private long chunkFirstLine = 0;
+    private int chunkLines = 0;
+    private long lastChunkWritten = System.currentTimeMillis();
+    private boolean failed = false;
+
+    private SessionLog(Path directory, String name) {
+        this.directory = directory;
+        this.name = name;
+    }
+
+    public static Path getDirectory(Path instanceRoot) {
+        return instanceRoot.resolve("logs").resolve("sessions");
+    }
+
+    /**
+     * Starts a new session log in the given directory, removing the oldest
+     * sessions so only the number set in the settings are kept.
+     *
+     * @return the session log, or null if session logs are disabled or it
+     *         couldn't be created
+     */
+    public static SessionLog start(Path directory, int sessionsToKeep) {
+        if (sessionsToKeep <= 0) {
+            return null;
+        }
+
+        // if there's already a session from this millisecond, then add a number on the end so it isn't overwritten
+        String date = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        String name = date;
+        for (int i = 1; Files.exists(directory.resolve(name + ".0" + LOG_EXTENSION)); i++) {
+            name = date + "_" + i;
+        }
+
+        SessionLog sessionLog = new SessionLog(directory, name);
+
+        try {
+            Files.createDirectories(directory);
+            prune(directory, sessionsToKeep - 1);
+            sessionLog.nextPart();
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error creating session log", e, false);
+            sessionLog.close();
+            return null;
+        }
+
+        return sessionLog;
+    }
+
+    /**
+     * Gets the parts of each session log in the directory, oldest session first.
+     */
+    public static Map<String, List<Path>> getSessions(Path directory) {
+        Map<String, List<Path>> sessions = new TreeMap<>();
+
+        if (!Files.isDirectory(directory)) {
+            return sessions;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + LOG_EXTENSION)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                int dot = fileName.indexOf('.');
+
+                sessions.computeIfAbsent(fileName.substring(0, dot), k -> new ArrayList<>()).add(file);
+            }
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error listing session logs", e, false);
+        }
+
+        for (List<Path> parts : sessions.values()) {
+            parts.sort((a, b) -> Integer.compare(getPartNumber(a), getPartNumber(b)));
+        }
+
+        return sessions;
+    }
+
+    /**
+     * Reads the last errors logged in a session, without reading any chunks of
+     * the logs that don't have errors in them.
+     *
+     * @param parts the parts of the session, in order
+     * @param count the max number of errors to read
+     * @return the errors, oldest first
+     */
+    public static List<Entry> readLastErrors(List<Path> parts, int count) throws IOException {
+        List<Entry> errors = new ArrayList<>();
+
+        for (int i = parts.size() - 1; i >= 0 && errors.size() < count; i--) {
+            Path part = parts.get(i);
+            List<IndexedChunk> chunks = readIndex(getIndexFile(part));
+
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+                for (int j = chunks.size() - 1; j >= 0 && errors.size() < count; j--) {
+                    IndexedChunk chunk = chunks.get(j);
+
+                    if (chunk.errors.length == 0) {
+                        continue;
+                    }
+
+                    List<String> lines = readChunk(channel, chunk);
+
+                    for (int k = chunk.errors.length - 1; k >= 0 && errors.size() < count; k--) {
+                        if (chunk.errors[k] < lines.size()) {
+                            errors.add(Entry.parse(lines.get(chunk.errors[k])));
+                        }
+                    }
+                }
+            }
+        }
+
+        Collections.reverse(errors);
+        return errors;
+    }
+
+    /**
+     * Reads lines from a part of a session log, only reading the chunks they are
+     * in.
+     *
+     * @param firstLine the line to start at, counting from the start of the
+     *                  session
+     * @param count     the max number of lines to read
+     */
+    public static List<Entry> read(Path part, long firstLine, int count) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        List<IndexedChunk> chunks = readIndex(getIndexFile(part));
+
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+            for (IndexedChunk chunk : chunks) {
+                if (entries.size() >= count) {
+                    break;
+                }
+
+                if (chunk.firstLine + chunk.lines <= firstLine) {
+                    continue;
+                }
+
+                List<String> lines = readChunk(channel, chunk);
+                int start = (int) Math.max(0, firstLine - chunk.firstLine);
+
+                for (int i = start; i < lines.size() && entries.size() < count; i++) {
+                    entries.add(Entry.parse(lines.get(i)));
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Reads the last errors logged in this session.
+     *
+     * @see #readLastErrors(List, int)
+     */
+    public List<Entry> readLastErrors(int count) throws IOException {
+        List<Path> parts = getSessions(directory).get(name);
+
+        if (parts == null) {
+            return new ArrayList<>();
+        }
+
+        return readLastErrors(parts, count);
+    }
+
+    public Path getFirstPart() {
+        return getPartFile(0);
+    }
+
+    public void write(LogEvent event) {
+        if (failed) {
+            return;
+        }
+
+        String body = event.body;
+        int bodyLength = body.endsWith("\n") ? body.length() - 1 : body.length();
+
+        chunk.append(event.timestamp == 0L ? System.currentTimeMillis() : event.timestamp).append('\t');
+        chunk.append(event.type.name()).append('\t');
+        appendEscaped(event.thread, event.thread == null ? 0 : event.thread.length());
+        chunk.append('\t');
+        appendEscaped(event.logger, event.logger == null ? 0 : event.logger.length());
+        chunk.append('\t');
+        appendEscaped(body, bodyLength);
+        chunk.append('\n');
+
+        if (event.type == LogType.ERROR) {
+            chunkErrors.add(chunkLines);
+        }
+
+        chunkLines++;
+        line++;
+
+        if (chunk.length() >= CHUNK_SIZE) {
+            writeChunk();
+        }
+    }
+
+    /**
+     * Writes out what's been logged so far if it's been a while, so not much is
+     * lost if the launcher is closed while the game is running.
+     */
+    public void flush() {
+        if (chunkLines != 0 && System.currentTimeMillis() - lastChunkWritten >= CHUNK_MAX_AGE) {
+            writeChunk();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (chunkLines != 0) {
+            writeChunk();
+        }
+
+        closePart();
+    }
+
+    private void writeChunk() {
+        if (failed) {
+            return;
+        }
+
+        try {
+            compressed.reset();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 8192)) {
+                gzip.write(chunk.toString().getBytes(StandardCharsets.UTF_8));
+            }
+
+            long offset = log.size();
+            ByteBuffer buffer = ByteBuffer.wrap(compressed.toByteArray());
+            while (buffer.hasRemaining()) {
+                log.write(buffer, offset + buffer.position());
+            }
+
+            index.writeLong(offset);
+            index.writeInt(compressed.size());
+            index.writeLong(chunkFirstLine);
+            index.writeInt(chunkLines);
+            index.writeInt(chunkErrors.size());
+            for (int error : chunkErrors) {
+                index.writeInt(error);
+            }
+            index.flush();
+
+            if (log.size() >= MAX_PART_SIZE) {
+                closePart();
+                nextPart();
+            }
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error writing session log, no more will be written for this session", e,
+                    false);
+            failed = true;
+            closePart();
+        } finally {
+            chunk.setLength(0);
+            chunkErrors.clear();
+            chunkFirstLine = line;
+            chunkLines = 0;
+            lastChunkWritten = System.currentTimeMillis();
+        }
+    }
+
+    private void nextPart() throws IOException {
+        part++;
+
+        Path file = getPartFile(part);
+        log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(getIndexFile(file))));
+    }
+
+    private void closePart() {
+        try {
+            if (log != null) {
+                log.close();
+            }
+
+            if (index != null) {
+                index.close();
+            }
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error closing session log", e, false);
+        }
+
+        log = null;
+        index = null;
+    }
+
+    private Path getPartFile(int part) {
+        return directory.resolve(name + "." + part + LOG_EXTENSION);
+    }
+
+    private void appendEscaped(String text, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            switch (c) {
+                case '\\':
+                    chunk.append("\\\\");
+                    break;
+                case '\t':
+                    chunk.append("\\t");
+                    break;
+                case '\n':
+                    chunk.append("\\n");
+                    break;
+                case '\r':
+                    chunk.append("\\r");
+                    break;
+                default:
+                    chunk.append(c);
+            }
+        }
+    }
+
+    private static void prune(Path directory, int keep) {
+        List<List<Path>> sessions = new ArrayList<>(getSessions(directory).values());
+
+        for (int i = 0; i < sessions.size() - keep; i++) {
+            for (Path part : sessions.get(i)) {
+                FileUtils.delete(part);
+
+                if (Files.exists(getIndexFile(part))) {
+                    FileUtils.delete(getIndexFile(part));
+                }
+            }
+        }
+    }
+
+    private static int getPartNumber(Path file) {
+        String fileName = file.getFileName().toString();
+        int dot = fileName.indexOf('.');
+
+        try {
+            return Integer.parseInt(fileName.substring(dot + 1, fileName.length() - LOG_EXTENSION.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return 0;
+        }
+    }
+
+    private static Path getIndexFile(Path part) {
+        String fileName = part.getFileName().toString();
+
+        return part.resolveSibling(
+                fileName.substring(0, fileName.length() - LOG_EXTENSION.length()) + INDEX_EXTENSION);
+    }
+
+    private static List<IndexedChunk> readIndex(Path file) throws IOException {
+        List<IndexedChunk> chunks = new ArrayList<>();
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            while (true) {
+                IndexedChunk chunk = new IndexedChunk();
+                chunk.offset = in.readLong();
+                chunk.length = in.readInt();
+                chunk.firstLine = in.readLong();
+                chunk.lines = in.readInt();
+                chunk.errors = new int[in.readInt()];
+                for (int i = 0; i < chunk.errors.length; i++) {
+                    chunk.errors[i] = in.readInt();
+                }
+
+                chunks.add(chunk);
+            }
+        } catch (EOFException e) {
+            // end of the index, or the end of a chunk that didn't finish being written
+        }
+
+        return chunks;
+    }
+
+    private static List<String> readChunk(FileChannel channel, IndexedChunk chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(chunk.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, chunk.offset + buffer.position()) == -1) {
+                throw new EOFException("Session log chunk at " + chunk.offset + " is incomplete");
+            }
+        }
+
+        List<String> lines = new ArrayList<>(chunk.lines);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(buffer.array())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        return lines;
+    }
+
+    private static final class IndexedChunk {
+        private long offset;
+        private int length;
+        private long firstLine;
+        private int lines;
+        private int[] errors;
+    }
+
+    public static final class Entry {
+        public final long timestamp;
+        public final LogType type;
+        public final String thread;
+        public final String logger;
+        public final String message;
+
+        private Entry(long timestamp, LogType type, String thread, String logger, String message) {
+            this.timestamp = timestamp;
+            this.type = type;
+            this.thread = thread;
+            this.logger = logger;
+            this.message = message;
+        }
+
+        private static Entry parse(String line) {
+            String[] fields = new String[5];
+            StringBuilder field = new StringBuilder();
+            int fieldIndex = 0;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+
+                if (c == '\t' && fieldIndex < fields.length - 1) {
+                    fields[fieldIndex++] = field.toString();
+                    field.setLength(0);
+                } else if (c == '\\' && i + 1 < line.length()) {
+                    char escaped = line.charAt(++i);
+                    field.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields[fieldIndex] = field.toString();
+
+            long timestamp = 0L;
+            LogType type = LogType.INFO;
+            try {
+                timestamp = Long.parseLong(fields[0]);
+                type = LogType.valueOf(fields[1]);
+            } catch (IllegalArgumentException | NullPointerException ignored) {
+                // not one of our lines, so just use what we can
+            }
+
+            return new Entry(timestamp, type, emptyToNull(fields[2]), emptyToNull(fields[3]),
+                    fields[4] == null ? "" : fields[4]);
+        }
+
+        private static String emptyToNull(String string) {
+            return string == null || string.isEmpty() ? null : string;
+        }
+
+        @Override
+        public String toString() {
+            return message;
+        }
+    }
+}
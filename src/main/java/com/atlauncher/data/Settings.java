@@ -82,6 +82,7 @@ public class Settings {
     public boolean disableCustomFonts = false;
     public boolean useNativeFilePicker = OS.isMac();
     public boolean useRecycleBin = true;
+    public FileCopyStrategy fileCopyStrategy = FileCopyStrategy.COPY;
     public boolean enableArmSupport = true;
     public boolean scanModsOnLaunch = true;
 
@@ -113,7 +114,10 @@ public class Settings {
 
     // Network
     public int concurrentConnections = 8;
+    public int concurrentConnectionsPerHost = 8;
     public int connectionTimeout = 60;
+    public boolean enableHttp2 = false;
+    public int maxIdleConnections = 16;
     public String modrinthApiKey = null;
     public boolean enableProxy = false;
     public String proxyHost = "";
@@ -123,12 +127,15 @@ public class Settings {
 
     // Logging
     public boolean enableLogs = true;
+    public int minecraftOutputMaxWait = 1000;
+    public int sessionLogsToKeep = 10;
     public boolean enableAnalytics = true;
     public String analyticsClientId = UUID.randomUUID().toString();
 
     // Backups
     public boolean enableAutomaticBackupAfterLaunch = false;
     public BackupMode backupMode = BackupMode.NORMAL;
+    public int backupsToKeep = 0;
 
     // Commands
     public boolean enableCommands = false;
@@ -298,6 +305,8 @@ public class Settings {
         validateDisableAddModRestrictions();
         validateDefaultModPlatform();
 
+        validateFileCopyStrategy();
+
         validateJavaPath();
 
         validateMemory();
@@ -306,9 +315,17 @@ public class Settings {
         validateProxy();
 
         validateConcurrentConnections();
+        validateConcurrentConnectionsPerHost();
+        validateMaxIdleConnections();
 
         validateConnectionTimeout();
 
+        validateMinecraftOutputMaxWait();
+
+        validateSessionLogsToKeep();
+
+        validateBackupsToKeep();
+
         validateDateFormat();
 
         validateInstanceTitleFormat();
@@ -377,6 +394,12 @@ public class Settings {
         }
     }
 
+    private void validateFileCopyStrategy() {
+        if (fileCopyStrategy == null) {
+            fileCopyStrategy = FileCopyStrategy.COPY;
+        }
+    }
+
     public void validateJavaPath() {
         if (!usingCustomJavaPath || javaPath == null) {
             javaPath = OS.getDefaultJavaPath();
@@ -489,6 +512,23 @@ public class Settings {
         }
     }
 
+    private void validateConcurrentConnectionsPerHost() {
+        if (concurrentConnectionsPerHost < 1 || concurrentConnectionsPerHost > 100) {
+            LogManager.warn("Tried to set the number of concurrent connections per host to "
+                    + concurrentConnectionsPerHost
+                    + " which is not valid! Must be between 1 and 100. Setting back to default of 8!");
+            concurrentConnectionsPerHost = 8;
+        }
+    }
+
+    private void validateMaxIdleConnections() {
+        if (maxIdleConnections < 1 || maxIdleConnections > 100) {
+            LogManager.warn("Tried to set the number of max idle connections to " + maxIdleConnections
+                    + " which is not valid! Must be between 1 and 100. Setting back to default of 16!");
+            maxIdleConnections = 16;
+        }
+    }
+
     private void validateConnectionTimeout() {
         if (connectionTimeout < 1 || connectionTimeout > 600) {
             LogManager.warn("Tried to set the number of connection timeout to " + connectionTimeout
@@ -497,6 +537,30 @@ public class Settings {
         }
     }
 
+    private void validateMinecraftOutputMaxWait() {
+        if (minecraftOutputMaxWait < 0 || minecraftOutputMaxWait > 10000) {
+            LogManager.warn("Tried to set the max wait for Minecraft output to " + minecraftOutputMaxWait
+                    + " which is not valid! Must be between 0 and 10000. Setting back to default of 1000!");
+            minecraftOutputMaxWait = 1000;
+        }
+    }
+
+    private void validateSessionLogsToKeep() {
+        if (sessionLogsToKeep < 0 || sessionLogsToKeep > 100) {
+            LogManager.warn("Tried to set the number of session logs to keep to " + sessionLogsToKeep
+                    + " which is not valid! Must be between 0 and 100. Setting back to default of 10!");
+            sessionLogsToKeep = 10;
+        }
+    }
+
+    private void validateBackupsToKeep() {
+        if (backupsToKeep < 0 || backupsToKeep > 1000) {
+            LogManager.warn("Tried to set the number of backups to keep to " + backupsToKeep
+                    + " which is not valid! Must be between 0 and 1000. Setting back to default of 0 (keep all)!");
+            backupsToKeep = 0;
+        }
+    }
+
     private void validateDateFormat() {
         if (!Arrays.asList(Constants.DATE_FORMATS).contains(dateFormat)) {
             LogManager.warn("Tried to set the date format to " + dateFormat + " which is not valid! Setting "
@@ -20,6 +20,8 @@ package com.atlauncher.data.minecraft;
 import java.util.List;
 import java.util.Map;
 
+import com.google.gson.JsonElement;
+
 public class FabricMod {
     public String id;
     public String version;
@@ -29,6 +31,8 @@ public class FabricMod {
     public List<String> authors;
     public List<String> contributors;
     public Map<String, String> requires;
+    public Map<String, JsonElement> depends;
+    public String environment;
     public String license;
     public String side;
     public List<String> initializers;
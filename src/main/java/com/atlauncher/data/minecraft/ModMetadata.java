@@ -0,0 +1,65 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data.minecraft;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The details of a mod read out of whichever descriptor (mcmod.info,
+ * mods.toml, neoforge.mods.toml, fabric.mod.json or quilt.mod.json) its jar
+ * has, so the rest of the launcher doesn't need to care which loader the mod
+ * is for.
+ */
+public class ModMetadata {
+    public static final String LOADER_FORGE = "forge";
+    public static final String LOADER_NEOFORGE = "neoforge";
+    public static final String LOADER_FABRIC = "fabric";
+    public static final String LOADER_QUILT = "quilt";
+
+    public static final String ENVIRONMENT_CLIENT = "client";
+    public static final String ENVIRONMENT_SERVER = "server";
+    public static final String ENVIRONMENT_BOTH = "*";
+
+    public String id;
+    public String name;
+    public String version;
+    public String description;
+
+    /**
+     * The loader the mod is for, or null if no known descriptor was found in the
+     * file.
+     */
+    public String loader;
+
+    /**
+     * The ids of the mods (including the loader and Minecraft itself) this mod
+     * requires.
+     */
+    public List<String> dependencies = new ArrayList<>();
+
+    public String environment = ENVIRONMENT_BOTH;
+
+    public boolean isClientOnly() {
+        return ENVIRONMENT_CLIENT.equals(environment);
+    }
+
+    public boolean isServerOnly() {
+        return ENVIRONMENT_SERVER.equals(environment);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data.minecraft;
+
+import java.util.List;
+
+import com.google.gson.JsonElement;
+import com.google.gson.annotations.SerializedName;
+
+public class QuiltMod {
+    @SerializedName("quilt_loader")
+    public QuiltLoader quiltLoader;
+    public Minecraft minecraft;
+
+    public static class QuiltLoader {
+        public String id;
+        public String version;
+        public Metadata metadata;
+
+        // each is either the id of the mod, or an object with the id in it
+        public List<JsonElement> depends;
+    }
+
+    public static class Metadata {
+        public String name;
+        public String description;
+    }
+
+    public static class Minecraft {
+        public String environment;
+    }
+}
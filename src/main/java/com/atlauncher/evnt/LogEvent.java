@@ -25,7 +25,6 @@ import org.apache.logging.log4j.Logger;
 
 import com.atlauncher.App;
 import com.atlauncher.FileSystem;
-import com.atlauncher.gui.components.Console;
 import com.atlauncher.managers.LogManager;
 import com.atlauncher.utils.Timestamper;
 
@@ -36,12 +35,24 @@ public final class LogEvent {
     public final String body;
     public final int meta;
 
+    // where the event came from when it was parsed from Minecraft's log4j output, otherwise null (0 for timestamp)
+    public final String thread;
+    public final String logger;
+    public final long timestamp;
+
     public LogEvent(LogType type, String body) {
         this(type, body, CONSOLE | LOG4J);
     }
 
     public LogEvent(LogType type, String body, int meta) {
+        this(type, body, meta, null, null, 0L);
+    }
+
+    public LogEvent(LogType type, String body, int meta, String thread, String logger, long timestamp) {
         this.type = type;
+        this.thread = thread;
+        this.logger = logger;
+        this.timestamp = timestamp;
 
         if (body == null) {
             body = "";
@@ -58,9 +69,7 @@ public final class LogEvent {
 
     public void post(Logger logger) {
         if ((this.meta & CONSOLE) == CONSOLE) {
-            Console c = App.console.console;
-            c.setColor(this.type.color()).setBold(true).write("[" + Timestamper.now() + "] ");
-            c.setColor(UIManager.getColor("EditorPane.foreground")).setBold(false).write(this.body);
+            App.console.console.write(this.type, Timestamper.now(), this.body);
         }
 
         if ((this.meta & LOG4J) == LOG4J) {
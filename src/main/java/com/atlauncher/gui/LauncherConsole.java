@@ -20,6 +20,7 @@ package com.atlauncher.gui;
 import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.FlowLayout;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
@@ -27,17 +28,26 @@ import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.EnumSet;
+import java.util.Set;
 
+import javax.swing.JCheckBox;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JMenuItem;
+import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import org.mini2Dx.gettext.GetText;
 
 import com.atlauncher.App;
 import com.atlauncher.constants.Constants;
 import com.atlauncher.data.ConsoleState;
+import com.atlauncher.evnt.LogEvent.LogType;
 import com.atlauncher.evnt.listener.RelocalizationListener;
 import com.atlauncher.evnt.manager.ConsoleStateManager;
 import com.atlauncher.evnt.manager.RelocalizationManager;
@@ -55,6 +65,13 @@ public class LauncherConsole extends JFrame implements RelocalizationListener {
 
     private JMenuItem copy;
 
+    private final JLabel searchLabel = new JLabel(GetText.tr("Search") + ":");
+    private final JTextField searchField = new JTextField(20);
+    private final JCheckBox showInfo = new JCheckBox(GetText.tr("Info"), true);
+    private final JCheckBox showWarnings = new JCheckBox(GetText.tr("Warnings"), true);
+    private final JCheckBox showErrors = new JCheckBox(GetText.tr("Errors"), true);
+    private final JCheckBox showDebug = new JCheckBox(GetText.tr("Debug"), true);
+
     public LauncherConsole() {
         // #. {0} is the name of the launcher (ATLauncher)
         setTitle(GetText.tr("{0} Console", Constants.LAUNCHER_NAME));
@@ -82,7 +99,8 @@ public class LauncherConsole extends JFrame implements RelocalizationListener {
         bottomBar = new ConsoleBottomBar();
 
         JScrollPane scrollPane = new JScrollPane(console, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
-                JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+                JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        add(setupFilterBar(), BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
         add(bottomBar, BorderLayout.SOUTH);
         RelocalizationManager.addListener(this);
@@ -122,6 +140,59 @@ public class LauncherConsole extends JFrame implements RelocalizationListener {
         }
     }
 
+    private JPanel setupFilterBar() {
+        JPanel filterBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+
+        filterBar.add(searchLabel);
+        filterBar.add(searchField);
+        filterBar.add(showInfo);
+        filterBar.add(showWarnings);
+        filterBar.add(showErrors);
+        filterBar.add(showDebug);
+
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateFilter();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateFilter();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                updateFilter();
+            }
+        });
+        showInfo.addActionListener(e -> updateFilter());
+        showWarnings.addActionListener(e -> updateFilter());
+        showErrors.addActionListener(e -> updateFilter());
+        showDebug.addActionListener(e -> updateFilter());
+
+        return filterBar;
+    }
+
+    private void updateFilter() {
+        Set<LogType> types = EnumSet.noneOf(LogType.class);
+
+        if (showInfo.isSelected()) {
+            types.add(LogType.INFO);
+        }
+        if (showWarnings.isSelected()) {
+            types.add(LogType.WARN);
+        }
+        if (showErrors.isSelected()) {
+            types.add(LogType.ERROR);
+        }
+        if (showDebug.isSelected()) {
+            types.add(LogType.DEBUG);
+        }
+
+        console.setFilter(types, searchField.getText());
+    }
+
     private void setupContextMenu() {
         contextMenu = new JPopupMenu();
 
@@ -169,12 +240,17 @@ public class LauncherConsole extends JFrame implements RelocalizationListener {
     }
 
     public void clearConsole() {
-        console.setText(null);
+        console.clear();
     }
 
     @Override
     public void onRelocalization() {
         copy.setText(GetText.tr("Copy"));
+        searchLabel.setText(GetText.tr("Search") + ":");
+        showInfo.setText(GetText.tr("Info"));
+        showWarnings.setText(GetText.tr("Warnings"));
+        showErrors.setText(GetText.tr("Errors"));
+        showDebug.setText(GetText.tr("Debug"));
         bottomBar.setupLanguage();
     }
 }
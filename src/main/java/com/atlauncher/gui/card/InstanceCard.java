@@ -91,6 +91,7 @@ public class InstanceCard extends CollapsiblePanel implements RelocalizationList
     private final JPopupMenu playPopupMenu = new JPopupMenu();
     private final JMenuItem playOnlinePlayMenuItem = new JMenuItem(GetText.tr("Play Online"));
     private final JMenuItem playOfflinePlayMenuItem = new JMenuItem(GetText.tr("Play Offline"));
+    private final JMenuItem verifyAndPlayMenuItem = new JMenuItem(GetText.tr("Verify Files & Play"));
     private final DropDownButton playButton = new DropDownButton(GetText.tr("Play"), playPopupMenu, true,
             new MouseAdapter() {
                 @Override
@@ -103,6 +104,7 @@ public class InstanceCard extends CollapsiblePanel implements RelocalizationList
     private final JMenuItem normalBackupMenuItem = new JMenuItem(GetText.tr("Normal Backup"));
     private final JMenuItem normalPlusModsBackupMenuItem = new JMenuItem(GetText.tr("Normal + Mods Backup"));
     private final JMenuItem fullBackupMenuItem = new JMenuItem(GetText.tr("Full Backup"));
+    private final JMenuItem restoreBackupMenuItem = new JMenuItem(GetText.tr("Restore Backup"));
     private final DropDownButton backupButton = new DropDownButton(GetText.tr("Backup"), backupPopupMenu);
 
     private final JPopupMenu getHelpPopupMenu = new JPopupMenu();
@@ -273,6 +275,11 @@ public class InstanceCard extends CollapsiblePanel implements RelocalizationList
             play(true);
         });
         playPopupMenu.add(playOfflinePlayMenuItem);
+
+        verifyAndPlayMenuItem.addActionListener(e -> {
+            play(false, true);
+        });
+        playPopupMenu.add(verifyAndPlayMenuItem);
     }
 
     private void setupOpenPopupMenus() {
@@ -322,6 +329,11 @@ public class InstanceCard extends CollapsiblePanel implements RelocalizationList
         fullBackupMenuItem.addActionListener(e -> instance.backup(BackupMode.FULL));
         backupPopupMenu.add(fullBackupMenuItem);
 
+        backupPopupMenu.addSeparator();
+
+        restoreBackupMenuItem.addActionListener(e -> instance.restoreBackup());
+        backupPopupMenu.add(restoreBackupMenuItem);
+
         setupEditInstanceButton();
     }
 
@@ -545,6 +557,10 @@ public class InstanceCard extends CollapsiblePanel implements RelocalizationList
     }
 
     private void play(boolean offline) {
+        play(offline, false);
+    }
+
+    private void play(boolean offline, boolean forceVerify) {
         if (!instance.launcher.isPlayable) {
             DialogManager.okDialog().setTitle(GetText.tr("Instance Corrupt"))
                     .setContent(GetText
@@ -589,14 +605,14 @@ public class InstanceCard extends CollapsiblePanel implements RelocalizationList
                 }
 
                 if (!App.launcher.minecraftLaunched) {
-                    if (instance.launch()) {
+                    if (instance.launch(false, forceVerify)) {
                         App.launcher.setMinecraftLaunched(true);
                     }
                 }
             }
         } else {
             if (!App.launcher.minecraftLaunched) {
-                if (instance.launch(offline)) {
+                if (instance.launch(offline, forceVerify)) {
                     App.launcher.setMinecraftLaunched(true);
                 }
             }
@@ -704,6 +720,7 @@ public class InstanceCard extends CollapsiblePanel implements RelocalizationList
         this.normalBackupMenuItem.setText(GetText.tr("Normal Backup"));
         this.normalPlusModsBackupMenuItem.setText(GetText.tr("Normal + Mods Backup"));
         this.fullBackupMenuItem.setText(GetText.tr("Full Backup"));
+        this.restoreBackupMenuItem.setText(GetText.tr("Restore Backup"));
         this.backupButton.setText(GetText.tr("Backup"));
 
         this.discordLinkMenuItem.setText(GetText.tr("Discord"));
@@ -18,108 +18,415 @@
 package com.atlauncher.gui.components;
 
 import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import javax.swing.JTextPane;
+import javax.swing.AbstractListModel;
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.UIManager;
-import javax.swing.text.AbstractDocument;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.BoxView;
-import javax.swing.text.ComponentView;
-import javax.swing.text.Element;
-import javax.swing.text.IconView;
-import javax.swing.text.LabelView;
-import javax.swing.text.ParagraphView;
-import javax.swing.text.SimpleAttributeSet;
-import javax.swing.text.StyleConstants;
-import javax.swing.text.StyledEditorKit;
-import javax.swing.text.View;
-import javax.swing.text.ViewFactory;
 
 import com.atlauncher.App;
+import com.atlauncher.evnt.LogEvent.LogType;
 
+/**
+ * Shows the launchers log.
+ *
+ * Only the last {@link #MAX_LINES} lines are kept, and since every line is the
+ * same height, only the lines currently visible are ever laid out and painted.
+ * Lines can be written from any thread, and are added to the list on the EDT
+ * in one go at most once every {@link #FLUSH_DELAY} milliseconds, no matter how
+ * fast they're written.
+ */
 @SuppressWarnings("serial")
-public final class Console extends JTextPane {
-    private final SimpleAttributeSet attrs = new SimpleAttributeSet();
+public final class Console extends JList<Console.Line> {
+    public static final int MAX_LINES = 50000;
+    private static final int FLUSH_DELAY = 33;
+
+    private final ConcurrentLinkedQueue<Line> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Timer flushTimer = new Timer(FLUSH_DELAY, e -> flush());
+
+    private final RingBuffer<Line> lines = new RingBuffer<>(MAX_LINES);
+    private final RingBuffer<Line> filteredLines = new RingBuffer<>(MAX_LINES);
+    private final ConsoleModel model = new ConsoleModel();
+
+    private Set<LogType> filterTypes = EnumSet.allOf(LogType.class);
+    private String filterText = "";
+
+    private int maxLineWidth = 0;
 
     public Console() {
-        this.setEditable(false);
-        this.setEditorKit(new WrapEditorKit());
+        this.flushTimer.setRepeats(false);
+
+        this.setModel(this.model);
+        this.setCellRenderer(new LineRenderer());
+        this.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         this.setFont(App.THEME.getConsoleFont().deriveFont((float) UIManager.get("Console.fontSize")));
     }
 
-    public Console setColor(Color c) {
-        StyleConstants.setForeground(this.attrs, c);
-        return this;
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+
+        // fixed cell sizes mean the list never has to measure every line to lay itself out
+        FontMetrics metrics = this.getFontMetrics(font);
+        this.setFixedCellHeight(metrics.getHeight() + 2);
+        this.recalculateWidth();
     }
 
-    public Console setBold(boolean b) {
-        StyleConstants.setBold(this.attrs, b);
-        return this;
+    /**
+     * Adds the body of a log event to the console. This can be called from any
+     * thread.
+     */
+    public void write(LogType type, String timestamp, String body) {
+        int start = 0;
+        boolean first = true;
+
+        while (start < body.length()) {
+            int end = body.indexOf('\n', start);
+            if (end == -1) {
+                end = body.length();
+            }
+
+            int lineEnd = end > start && body.charAt(end - 1) == '\r' ? end - 1 : end;
+            pending.add(new Line(type, first ? timestamp : null, body.substring(start, lineEnd)));
+
+            first = false;
+            start = end + 1;
+        }
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(flushTimer::restart);
+        }
     }
 
-    @Override
-    public boolean getScrollableTracksViewportWidth() {
-        return true;
+    public void clear() {
+        SwingUtilities.invokeLater(() -> {
+            pending.clear();
+            lines.clear();
+            filteredLines.clear();
+            model.changed();
+            recalculateWidth();
+        });
     }
 
-    public void write(String str) {
-        try {
-            this.getDocument().insertString(this.getDocument().getLength(), str, this.attrs);
-            this.setCaretPosition(this.getDocument().getLength());
-        } catch (BadLocationException ex) {
-            ex.printStackTrace(System.err);
+    /**
+     * Only show lines of the given types which contain the given text (ignoring
+     * case).
+     */
+    public void setFilter(Set<LogType> types, String text) {
+        filterTypes = types.isEmpty() ? EnumSet.noneOf(LogType.class) : EnumSet.copyOf(types);
+        filterText = text == null ? "" : text.toLowerCase(Locale.ENGLISH);
+
+        filteredLines.clear();
+        for (int i = 0; i < lines.size(); i++) {
+            if (matchesFilter(lines.get(i))) {
+                filteredLines.add(lines.get(i));
+            }
         }
+
+        clearSelection();
+        model.changed();
+        recalculateWidth();
+        scrollToBottom();
     }
-}
 
-// https://stackoverflow.com/a/13375811
-@SuppressWarnings("serial")
-class WrapEditorKit extends StyledEditorKit {
-    ViewFactory defaultFactory = new WrapColumnFactory();
+    /**
+     * Gets all the text in the console (ignoring any filter).
+     */
+    public String getText() {
+        // lines are only changed on the EDT, so read them there
+        if (!SwingUtilities.isEventDispatchThread()) {
+            String[] text = new String[1];
+
+            try {
+                SwingUtilities.invokeAndWait(() -> text[0] = getText());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (InvocationTargetException e) {
+                return "";
+            }
 
-    public ViewFactory getViewFactory() {
-        return defaultFactory;
+            return text[0] == null ? "" : text[0];
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < lines.size(); i++) {
+            sb.append(lines.get(i)).append(System.lineSeparator());
+        }
+
+        return sb.toString();
     }
 
-}
+    /**
+     * Gets the text of the selected lines, or null if nothing is selected.
+     */
+    public String getSelectedText() {
+        List<Line> selected = getSelectedValuesList();
+
+        if (selected.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Line line : selected) {
+            sb.append(line).append(System.lineSeparator());
+        }
+
+        return sb.toString();
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+
+        boolean atBottom = isScrolledToBottom();
+        int oldSize = model.getSize();
+        int removedOld = 0;
+        int addedNew = 0;
+        int widest = maxLineWidth;
+        FontMetrics metrics = getFontMetrics(getFont());
+
+        Line line;
+        while ((line = pending.poll()) != null) {
+            Line evicted = lines.add(line);
+
+            // the filtered lines are always in the same order as all the lines, so if the dropped line is shown, it's
+            // the first one shown
+            if (evicted != null && filteredLines.size() != 0 && filteredLines.get(0) == evicted) {
+                filteredLines.removeFirst();
+
+                if (removedOld < oldSize) {
+                    removedOld++;
+                } else {
+                    addedNew--;
+                }
+            }
 
-class WrapColumnFactory implements ViewFactory {
-    public View create(Element elem) {
-        String kind = elem.getName();
-        if (kind != null) {
-            switch (kind) {
-                case AbstractDocument.ContentElementName:
-                    return new WrapLabelView(elem);
-                case AbstractDocument.ParagraphElementName:
-                    return new ParagraphView(elem);
-                case AbstractDocument.SectionElementName:
-                    return new BoxView(elem, View.Y_AXIS);
-                case StyleConstants.ComponentElementName:
-                    return new ComponentView(elem);
-                case StyleConstants.IconElementName:
-                    return new IconView(elem);
+            if (matchesFilter(line)) {
+                filteredLines.add(line);
+                addedNew++;
+                widest = Math.max(widest, line.getWidth(metrics));
             }
         }
 
-        // default to text display
-        return new LabelView(elem);
+        if (removedOld != 0) {
+            model.removed(removedOld);
+        }
+        if (addedNew != 0) {
+            model.added(model.getSize() - addedNew, model.getSize() - 1);
+        }
+
+        if (widest != maxLineWidth) {
+            maxLineWidth = widest;
+            setFixedCellWidth(maxLineWidth);
+        }
+
+        if (atBottom) {
+            scrollToBottom();
+        }
     }
-}
 
-class WrapLabelView extends LabelView {
-    public WrapLabelView(Element elem) {
-        super(elem);
+    private boolean matchesFilter(Line line) {
+        return filterTypes.contains(line.type)
+                && (filterText.isEmpty() || line.text.toLowerCase(Locale.ENGLISH).contains(filterText));
+    }
+
+    private boolean isScrolledToBottom() {
+        Rectangle visible = getVisibleRect();
+        return visible.y + visible.height >= getHeight() - getFixedCellHeight();
+    }
+
+    private void scrollToBottom() {
+        // wait until the list has been resized for the new lines
+        SwingUtilities.invokeLater(() -> {
+            if (model.getSize() != 0) {
+                ensureIndexIsVisible(model.getSize() - 1);
+            }
+        });
+    }
+
+    private void recalculateWidth() {
+        FontMetrics metrics = getFontMetrics(getFont());
+        int widest = 0;
+
+        if (model != null) {
+            for (int i = 0; i < model.getSize(); i++) {
+                widest = Math.max(widest, model.getElementAt(i).getWidth(metrics));
+            }
+        }
+
+        maxLineWidth = widest;
+        setFixedCellWidth(Math.max(1, widest));
+    }
+
+    public static final class Line {
+        public final LogType type;
+        public final String timestamp;
+        public final String text;
+
+        private Line(LogType type, String timestamp, String text) {
+            this.type = type;
+            this.timestamp = timestamp;
+            this.text = text;
+        }
+
+        private String getPrefix() {
+            return timestamp == null ? "" : "[" + timestamp + "] ";
+        }
+
+        private int getWidth(FontMetrics metrics) {
+            // a little extra for the bold timestamp
+            return metrics.stringWidth(getPrefix() + text) + metrics.charWidth('m') * 2;
+        }
+
+        @Override
+        public String toString() {
+            return getPrefix() + text;
+        }
     }
 
-    public float getMinimumSpan(int axis) {
-        switch (axis) {
-            case View.X_AXIS:
-                return 0;
-            case View.Y_AXIS:
-                return super.getMinimumSpan(axis);
-            default:
-                throw new IllegalArgumentException("Invalid axis: " + axis);
+    private final class ConsoleModel extends AbstractListModel<Line> {
+        @Override
+        public int getSize() {
+            return filteredLines.size();
+        }
+
+        @Override
+        public Line getElementAt(int index) {
+            return filteredLines.get(index);
+        }
+
+        private void added(int from, int to) {
+            fireIntervalAdded(this, from, to);
+        }
+
+        private void removed(int count) {
+            fireIntervalRemoved(this, 0, count - 1);
+        }
+
+        private void changed() {
+            fireContentsChanged(this, 0, Integer.MAX_VALUE);
         }
     }
 
+    private static final class LineRenderer extends JComponent implements ListCellRenderer<Line> {
+        private Line line;
+        private boolean selected;
+        private Color selectionBackground;
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Line> list, Line value, int index,
+                boolean isSelected, boolean cellHasFocus) {
+            this.line = value;
+            this.selected = isSelected;
+            this.selectionBackground = list.getSelectionBackground();
+            this.setFont(list.getFont());
+            return this;
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(0, 0);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            if (line == null) {
+                return;
+            }
+
+            if (selected) {
+                g.setColor(selectionBackground);
+                g.fillRect(0, 0, getWidth(), getHeight());
+            }
+
+            FontMetrics metrics = g.getFontMetrics(getFont());
+            int x = 2;
+            int y = 1 + metrics.getAscent();
+
+            if (line.timestamp != null) {
+                String prefix = line.getPrefix();
+
+                g.setFont(getFont().deriveFont(Font.BOLD));
+                g.setColor(line.type.color());
+                g.drawString(prefix, x, y);
+                x += g.getFontMetrics().stringWidth(prefix);
+            }
+
+            g.setFont(getFont());
+            g.setColor(UIManager.getColor("EditorPane.foreground"));
+            g.drawString(line.text, x, y);
+        }
+    }
+
+    /**
+     * Fixed size list which drops the oldest item when adding to it when full.
+     */
+    private static final class RingBuffer<T> {
+        private final Object[] items;
+        private int start = 0;
+        private int size = 0;
+
+        private RingBuffer(int capacity) {
+            this.items = new Object[capacity];
+        }
+
+        /**
+         * @return the item removed to make room, or null if nothing was
+         */
+        @SuppressWarnings("unchecked")
+        private T add(T item) {
+            T evicted = null;
+
+            if (size == items.length) {
+                evicted = (T) items[start];
+                items[start] = item;
+                start = (start + 1) % items.length;
+            } else {
+                items[(start + size) % items.length] = item;
+                size++;
+            }
+
+            return evicted;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(int index) {
+            return (T) items[(start + index) % items.length];
+        }
+
+        private void removeFirst() {
+            items[start] = null;
+            start = (start + 1) % items.length;
+            size--;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private void clear() {
+            Arrays.fill(items, null);
+            start = 0;
+            size = 0;
+        }
+    }
 }
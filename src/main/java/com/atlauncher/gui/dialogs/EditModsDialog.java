@@ -62,8 +62,10 @@ import com.atlauncher.managers.DialogManager;
 import com.atlauncher.managers.LogManager;
 import com.atlauncher.network.Analytics;
 import com.atlauncher.utils.CurseForgeApi;
+import com.atlauncher.utils.FileHashCache;
 import com.atlauncher.utils.FileUtils;
 import com.atlauncher.utils.Hashing;
+import com.atlauncher.utils.ModMetadataReader;
 import com.atlauncher.utils.ModrinthApi;
 import com.atlauncher.utils.Utils;
 
@@ -262,6 +264,8 @@ public class EditModsDialog extends JDialog {
                             }
                         }
                     }
+                    ModMetadataReader.save();
+
                     if (reload) {
                         reloadPanels();
                     }
@@ -563,9 +567,9 @@ public class EditModsDialog extends JDialog {
                         .forEach(mjc -> {
                             try {
                                 sha1Hashes.put(
-                                        Hashing.sha1(
-                                                mjc.getDisableableMod().getFile(instance.ROOT, instance.id).toPath())
-                                                .toString(),
+                                        FileHashCache.getModHash(
+                                                mjc.getDisableableMod().getFile(instance.ROOT, instance.id).toPath(),
+                                                Hashing.Algorithm.SHA1).toString(),
                                         mjc);
                             } catch (Throwable t) {
                                 LogManager.logStackTrace(t);
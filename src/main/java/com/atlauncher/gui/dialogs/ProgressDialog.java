@@ -247,6 +247,11 @@ public class ProgressDialog<T> extends JDialog implements NetworkProgressable {
     @Override
     public void addBytesToDownload(long bytes) {
         this.totalBytes += bytes;
+
+        if (this.totalBytes > 0L && !subProgressBar.isVisible()) {
+            subProgressBar.setVisible(true);
+        }
+
         this.updateProgressBar();
     }
 }
@@ -25,7 +25,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 import javax.swing.JComponent;
@@ -40,8 +39,6 @@ import com.atlauncher.data.ModPlatform;
 import com.atlauncher.data.Type;
 import com.atlauncher.data.curseforge.CurseForgeFingerprint;
 import com.atlauncher.data.curseforge.CurseForgeProject;
-import com.atlauncher.data.minecraft.FabricMod;
-import com.atlauncher.data.minecraft.MCMod;
 import com.atlauncher.data.modrinth.ModrinthProject;
 import com.atlauncher.data.modrinth.ModrinthVersion;
 import com.atlauncher.gui.dialogs.EditModsDialog;
@@ -51,6 +48,7 @@ import com.atlauncher.managers.DialogManager;
 import com.atlauncher.managers.LogManager;
 import com.atlauncher.utils.CurseForgeApi;
 import com.atlauncher.utils.Hashing;
+import com.atlauncher.utils.ModMetadataReader;
 import com.atlauncher.utils.ModrinthApi;
 import com.atlauncher.utils.Utils;
 
@@ -146,30 +144,7 @@ public class ModsJCheckBoxTransferHandler extends TransferHandler {
                         copyTo = dialog.instance.ROOT.resolve("disabledmods").toFile();
                     }
 
-                    DisableableMod mod = new DisableableMod();
-                    mod.disabled = this.disabled;
-                    mod.userAdded = true;
-                    mod.wasSelected = true;
-                    mod.file = file.getName();
-                    mod.type = type;
-                    mod.optional = true;
-                    mod.name = file.getName();
-                    mod.version = "Unknown";
-                    mod.description = null;
-
-                    MCMod mcMod = Utils.getMCModForFile(file);
-                    if (mcMod != null) {
-                        mod.name = Optional.ofNullable(mcMod.name).orElse(file.getName());
-                        mod.version = Optional.ofNullable(mcMod.version).orElse("Unknown");
-                        mod.description = Optional.ofNullable(mcMod.description).orElse(null);
-                    } else {
-                        FabricMod fabricMod = Utils.getFabricModForFile(file);
-                        if (fabricMod != null) {
-                            mod.name = Optional.ofNullable(fabricMod.name).orElse(file.getName());
-                            mod.version = Optional.ofNullable(fabricMod.version).orElse("Unknown");
-                            mod.description = Optional.ofNullable(fabricMod.description).orElse(null);
-                        }
-                    }
+                    DisableableMod mod = DisableableMod.generateMod(file, type, !this.disabled);
 
                     if (!copyTo.exists()) {
                         copyTo.mkdirs();
@@ -180,6 +155,8 @@ public class ModsJCheckBoxTransferHandler extends TransferHandler {
                     }
                 }
 
+                ModMetadataReader.save();
+
                 if (!App.settings.dontCheckModsOnCurseForge) {
                     Map<Long, DisableableMod> murmurHashes = new HashMap<>();
 
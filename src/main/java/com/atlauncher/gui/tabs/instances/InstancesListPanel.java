@@ -39,6 +39,7 @@ public final class InstancesListPanel extends HierarchyPanel
 
     private final InstancesTab instancesTab;
     private final IInstancesTabViewModel viewModel;
+    private final PerformanceManager.Span displayingInstancesSpan;
 
     private final NilCard nilCard = new NilCard(
         getNilMessage(),
@@ -51,7 +52,7 @@ public final class InstancesListPanel extends HierarchyPanel
         super(new GridBagLayout());
         this.instancesTab = instancesTab;
         this.viewModel = viewModel;
-        PerformanceManager.start("Displaying Instances");
+        this.displayingInstancesSpan = PerformanceManager.startDetached("Displaying Instances");
     }
 
     private static String getNilMessage() {
@@ -106,7 +107,7 @@ public final class InstancesListPanel extends HierarchyPanel
 
                 // After repainting is done, let scroll view resume
                 invokeLater(() -> instancesTab.setScroll(viewModel.getScroll()));
-                PerformanceManager.end("Displaying Instances");
+                displayingInstancesSpan.end();
             }));
     }
 
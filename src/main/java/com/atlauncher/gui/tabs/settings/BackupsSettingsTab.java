@@ -21,10 +21,13 @@ import java.awt.GridBagConstraints;
 
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 
 import org.mini2Dx.gettext.GetText;
 
 import com.atlauncher.App;
+import com.atlauncher.builders.HTMLBuilder;
 import com.atlauncher.constants.UIConstants;
 import com.atlauncher.data.BackupMode;
 import com.atlauncher.gui.components.JLabelWithHover;
@@ -33,6 +36,7 @@ import com.atlauncher.utils.ComboItem;
 @SuppressWarnings("serial")
 public class BackupsSettingsTab extends AbstractSettingsTab {
     private final JComboBox<ComboItem<BackupMode>> backupMode;
+    private final JSpinner backupsToKeep;
     private final JCheckBox enableAutomaticBackupAfterLaunch;
 
     public BackupsSettingsTab() {
@@ -67,6 +71,27 @@ public class BackupsSettingsTab extends AbstractSettingsTab {
 
         add(backupMode, gbc);
 
+        // Backups To Keep
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.insets = UIConstants.LABEL_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_TRAILING;
+        JLabelWithHover backupsToKeepLabel = new JLabelWithHover(GetText.tr("Backups To Keep") + ":", HELP_ICON,
+                new HTMLBuilder().center().split(100).text(GetText.tr(
+                        "The number of backups to keep for each instance. If set, older backups are deleted when a new one is made. Set to 0 (the default) to keep all backups."))
+                        .build());
+        add(backupsToKeepLabel, gbc);
+
+        gbc.gridx++;
+        gbc.insets = UIConstants.FIELD_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_LEADING;
+        SpinnerNumberModel backupsToKeepModel = new SpinnerNumberModel(App.settings.backupsToKeep, null, null, 1);
+        backupsToKeepModel.setMinimum(0);
+        backupsToKeepModel.setMaximum(1000);
+        backupsToKeep = new JSpinner(backupsToKeepModel);
+        add(backupsToKeep, gbc);
+
         // Enable automatic backup after launch
 
         gbc.gridx = 0;
@@ -88,6 +113,7 @@ public class BackupsSettingsTab extends AbstractSettingsTab {
 
     public void save() {
         App.settings.backupMode = ((ComboItem<BackupMode>) backupMode.getSelectedItem()).getValue();
+        App.settings.backupsToKeep = (Integer) backupsToKeep.getValue();
         App.settings.enableAutomaticBackupAfterLaunch = enableAutomaticBackupAfterLaunch.isSelected();
     }
 
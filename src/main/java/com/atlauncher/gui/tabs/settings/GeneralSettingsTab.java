@@ -43,6 +43,7 @@ import com.atlauncher.FileSystem;
 import com.atlauncher.builders.HTMLBuilder;
 import com.atlauncher.constants.Constants;
 import com.atlauncher.constants.UIConstants;
+import com.atlauncher.data.FileCopyStrategy;
 import com.atlauncher.data.Language;
 import com.atlauncher.gui.components.JLabelWithHover;
 import com.atlauncher.managers.ConfigManager;
@@ -74,6 +75,7 @@ public class GeneralSettingsTab extends AbstractSettingsTab {
     private final JCheckBox rememberWindowSizePosition;
     private final JCheckBox useNativeFilePicker;
     private final JCheckBox useRecycleBin;
+    private final JComboBox<ComboItem<FileCopyStrategy>> fileCopyStrategy;
     private JCheckBox enableArmSupport;
     private JCheckBox scanModsOnLaunch;
 
@@ -518,6 +520,38 @@ public class GeneralSettingsTab extends AbstractSettingsTab {
         useRecycleBin.setSelected(App.settings.useRecycleBin);
         add(useRecycleBin, gbc);
 
+        // File copy strategy
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.insets = UIConstants.LABEL_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_TRAILING;
+        JLabelWithHover fileCopyStrategyLabel = new JLabelWithHover(GetText.tr("Library Copy Mode") + ":", HELP_ICON,
+                new HTMLBuilder().center().split(100)
+                        .text(GetText
+                                .tr("How libraries, mods and server jars are put into instances. Reflinks and hardlinks share the files with other instances to save disk space, and will fall back to copying if your file system doesn't support them."))
+                        .build());
+        add(fileCopyStrategyLabel, gbc);
+
+        gbc.gridx++;
+        gbc.insets = UIConstants.FIELD_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_LEADING;
+        fileCopyStrategy = new JComboBox<>();
+        fileCopyStrategy.addItem(new ComboItem<>(FileCopyStrategy.COPY, GetText.tr("Copy (default)")));
+        fileCopyStrategy.addItem(new ComboItem<>(FileCopyStrategy.REFLINK, GetText.tr("Reflink (copy on write)")));
+        fileCopyStrategy.addItem(new ComboItem<>(FileCopyStrategy.HARDLINK, GetText.tr("Hardlink")));
+
+        for (int i = 0; i < fileCopyStrategy.getItemCount(); i++) {
+            ComboItem<FileCopyStrategy> item = fileCopyStrategy.getItemAt(i);
+
+            if (item.getValue() == App.settings.fileCopyStrategy) {
+                fileCopyStrategy.setSelectedIndex(i);
+                break;
+            }
+        }
+
+        add(fileCopyStrategy, gbc);
+
         if (ConfigManager.getConfigItem("useLwjglReplacement", false) == true) {
             // Enable ARM Support
 
@@ -619,6 +653,7 @@ public class GeneralSettingsTab extends AbstractSettingsTab {
 
         App.settings.useNativeFilePicker = useNativeFilePicker.isSelected();
         App.settings.useRecycleBin = useRecycleBin.isSelected();
+        App.settings.fileCopyStrategy = ((ComboItem<FileCopyStrategy>) fileCopyStrategy.getSelectedItem()).getValue();
 
         if (ConfigManager.getConfigItem("useLwjglReplacement", false) == true) {
             App.settings.enableArmSupport = enableArmSupport.isSelected();
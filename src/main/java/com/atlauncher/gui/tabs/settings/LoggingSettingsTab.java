@@ -20,6 +20,8 @@ package com.atlauncher.gui.tabs.settings;
 import java.awt.GridBagConstraints;
 
 import javax.swing.JCheckBox;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 
 import org.mini2Dx.gettext.GetText;
 
@@ -34,6 +36,10 @@ public class LoggingSettingsTab extends AbstractSettingsTab {
 
     private final JCheckBox enableAnalytics;
 
+    private final JSpinner minecraftOutputMaxWait;
+
+    private final JSpinner sessionLogsToKeep;
+
     public LoggingSettingsTab() {
         // Enable Logging
 
@@ -77,11 +83,59 @@ public class LoggingSettingsTab extends AbstractSettingsTab {
             enableAnalytics.setSelected(true);
         }
         add(enableAnalytics, gbc);
+
+        // Minecraft Output Max Wait
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.insets = UIConstants.LABEL_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_TRAILING;
+        JLabelWithHover minecraftOutputMaxWaitLabel = new JLabelWithHover(
+                GetText.tr("Max Wait For Minecraft Logs (ms)") + ":", HELP_ICON,
+                new HTMLBuilder().center().split(100).text(GetText.tr(
+                        "When Minecraft outputs logs faster than the launcher can show them, this is how long the launcher will slow down reading the logs for before dropping them. Set to 0 to never slow down Minecraft, at the cost of losing log lines."))
+                        .build());
+        add(minecraftOutputMaxWaitLabel, gbc);
+
+        gbc.gridx++;
+        gbc.insets = UIConstants.FIELD_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_LEADING;
+        SpinnerNumberModel minecraftOutputMaxWaitModel = new SpinnerNumberModel(App.settings.minecraftOutputMaxWait,
+                null, null, 100);
+        minecraftOutputMaxWaitModel.setMinimum(0);
+        minecraftOutputMaxWaitModel.setMaximum(10000);
+        minecraftOutputMaxWait = new JSpinner(minecraftOutputMaxWaitModel);
+        add(minecraftOutputMaxWait, gbc);
+
+        // Session Logs To Keep
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.insets = UIConstants.LABEL_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_TRAILING;
+        JLabelWithHover sessionLogsToKeepLabel = new JLabelWithHover(GetText.tr("Session Logs To Keep") + ":",
+                HELP_ICON,
+                new HTMLBuilder().center().split(100).text(GetText.tr(
+                        "The number of game sessions to keep the full Minecraft log of in each instance's logs/sessions folder. Set to 0 to not save session logs."))
+                        .build());
+        add(sessionLogsToKeepLabel, gbc);
+
+        gbc.gridx++;
+        gbc.insets = UIConstants.FIELD_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_LEADING;
+        SpinnerNumberModel sessionLogsToKeepModel = new SpinnerNumberModel(App.settings.sessionLogsToKeep, null,
+                null, 1);
+        sessionLogsToKeepModel.setMinimum(0);
+        sessionLogsToKeepModel.setMaximum(100);
+        sessionLogsToKeep = new JSpinner(sessionLogsToKeepModel);
+        add(sessionLogsToKeep, gbc);
     }
 
     public void save() {
         App.settings.enableLogs = enableLogs.isSelected();
         App.settings.enableAnalytics = enableAnalytics.isSelected();
+        App.settings.minecraftOutputMaxWait = (Integer) minecraftOutputMaxWait.getValue();
+        App.settings.sessionLogsToKeep = (Integer) sessionLogsToKeep.getValue();
     }
 
     @Override
@@ -48,6 +48,9 @@ public class NetworkSettingsTab extends AbstractSettingsTab implements Relocaliz
     private final JLabelWithHover connectionTimeoutLabel;
     private final JSpinner connectionTimeout;
 
+    private final JLabelWithHover enableHttp2Label;
+    private final JCheckBox enableHttp2;
+
     private final JLabelWithHover modrinthApiKeyLabel;
     private JTextField modrinthApiKey;
 
@@ -104,6 +107,23 @@ public class NetworkSettingsTab extends AbstractSettingsTab implements Relocaliz
         connectionTimeout = new JSpinner(connectionTimeoutModel);
         add(connectionTimeout, gbc);
 
+        // Enable HTTP/2
+        gbc.gridx = 0;
+        gbc.gridy++;
+        gbc.insets = UIConstants.LABEL_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_TRAILING;
+        enableHttp2Label = new JLabelWithHover(GetText.tr("Enable HTTP/2") + "?", HELP_ICON, "<html>" + GetText.tr(
+                "If enabled, multiple downloads from the same server can share a single connection.<br/><br/>If a server has problems with HTTP/2, the launcher will go back to HTTP/1.1 for it.")
+                + "</html>");
+        add(enableHttp2Label, gbc);
+
+        gbc.gridx++;
+        gbc.insets = UIConstants.CHECKBOX_FIELD_INSETS;
+        gbc.anchor = GridBagConstraints.BASELINE_LEADING;
+        enableHttp2 = new JCheckBox();
+        enableHttp2.setSelected(App.settings.enableHttp2);
+        add(enableHttp2, gbc);
+
         // Modrinth Api Key Settings
         gbc.gridx = 0;
         gbc.gridy++;
@@ -264,9 +284,11 @@ public class NetworkSettingsTab extends AbstractSettingsTab implements Relocaliz
 
     public void save() {
         boolean timeoutChanged = App.settings.connectionTimeout != (Integer) connectionTimeout.getValue();
+        boolean http2Changed = App.settings.enableHttp2 != enableHttp2.isSelected();
 
         App.settings.concurrentConnections = (Integer) concurrentConnections.getValue();
         App.settings.connectionTimeout = (Integer) connectionTimeout.getValue();
+        App.settings.enableHttp2 = enableHttp2.isSelected();
         App.settings.modrinthApiKey = modrinthApiKey.getText();
         App.settings.enableProxy = enableProxy.isSelected();
         if (enableProxy.isSelected()) {
@@ -278,6 +300,12 @@ public class NetworkSettingsTab extends AbstractSettingsTab implements Relocaliz
         if (timeoutChanged) {
             Network.setConnectionTimeouts();
         }
+
+        if (http2Changed) {
+            Network.setProtocols();
+        }
+
+        Network.setDispatcherLimits();
     }
 
     @Override
@@ -300,6 +328,11 @@ public class NetworkSettingsTab extends AbstractSettingsTab implements Relocaliz
         this.connectionTimeoutLabel.setToolTipText(
                 "<html>" + GetText.tr("This determines how long connections will wait before timing out.") + "</html>");
 
+        this.enableHttp2Label.setText(GetText.tr("Enable HTTP/2") + "?");
+        this.enableHttp2Label.setToolTipText("<html>" + GetText.tr(
+                "If enabled, multiple downloads from the same server can share a single connection.<br/><br/>If a server has problems with HTTP/2, the launcher will go back to HTTP/1.1 for it.")
+                + "</html>");
+
         this.modrinthApiKeyLabel.setText(GetText.tr("Modrinth Api Key") + ":");
         this.modrinthApiKeyLabel.setToolTipText(
                 "<html>" + GetText.tr(
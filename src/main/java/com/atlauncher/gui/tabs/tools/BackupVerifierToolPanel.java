@@ -0,0 +1,88 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.gui.tabs.tools;
+
+import java.awt.Dimension;
+import java.util.List;
+
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+
+import org.mini2Dx.gettext.GetText;
+
+import com.atlauncher.builders.HTMLBuilder;
+import com.atlauncher.gui.dialogs.ProgressDialog;
+import com.atlauncher.managers.DialogManager;
+import com.atlauncher.managers.LogManager;
+
+@SuppressWarnings("serial")
+public class BackupVerifierToolPanel extends AbstractToolPanel {
+
+    public BackupVerifierToolPanel(IToolsViewModel viewModel) {
+        super(GetText.tr("Backup Verifier"));
+
+        JLabel INFO_LABEL = new JLabel(new HTMLBuilder().center().split(70).text(GetText.tr(
+                "This tool checks that all your instance backups are complete and undamaged, so they can be restored."))
+                .build());
+        MIDDLE_PANEL.add(INFO_LABEL);
+        BOTTOM_PANEL.add(LAUNCH_BUTTON);
+        LAUNCH_BUTTON.addActionListener(e -> {
+            if (e.getSource() == LAUNCH_BUTTON) {
+                ProgressDialog<List<String>> dialog = new ProgressDialog<>(GetText.tr("Verifying Backups"), 0,
+                        GetText.tr("Verifying Backups"), "Aborting verifying backups");
+                dialog.addThread(new Thread(() -> {
+                    try {
+                        dialog.setReturnValue(viewModel.verifyBackups());
+                    } catch (InterruptedException ignored) {
+                        // dialog was closed
+                    }
+
+                    dialog.close();
+                }));
+                dialog.start();
+
+                List<String> problems = dialog.getReturnValue();
+
+                if (problems == null) {
+                    return;
+                }
+
+                if (problems.isEmpty()) {
+                    DialogManager.okDialog().setType(DialogManager.INFO).setTitle(GetText.tr("Success"))
+                            .setContent(GetText.tr("All backups are complete and undamaged.")).show();
+                    return;
+                }
+
+                for (String problem : problems) {
+                    LogManager.error(problem);
+                }
+
+                JTextArea textArea = new JTextArea(String.join(System.lineSeparator(), problems));
+                textArea.setEditable(false);
+                textArea.setCaretPosition(0);
+
+                JScrollPane scrollPane = new JScrollPane(textArea);
+                scrollPane.setPreferredSize(new Dimension(750, 300));
+
+                DialogManager.okDialog().setType(DialogManager.ERROR).setTitle(GetText.tr("Damaged Backups"))
+                        .setContent(scrollPane).show();
+            }
+        });
+    }
+}
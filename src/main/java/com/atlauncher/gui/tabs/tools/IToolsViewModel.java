@@ -17,8 +17,10 @@
  */
 package com.atlauncher.gui.tabs.tools;
 
+import com.atlauncher.data.PerformanceReport;
 import com.atlauncher.interfaces.NetworkProgressable;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -28,6 +30,14 @@ import java.util.function.Consumer;
  */
 public interface IToolsViewModel {
 
+    // BackupVerifierToolPanel
+
+    /**
+     * Check every chunk used by every instance backup
+     * @return Description of each problem found, empty if all backups are fine
+     */
+    List<String> verifyBackups() throws InterruptedException;
+
     // DebugModePanel
 
     /**
@@ -87,6 +97,13 @@ public interface IToolsViewModel {
      */
     void runNetworkChecker(Consumer<Void> onTaskComplete, Consumer<Void> onFail, Consumer<Void> onSuccess);
 
+    // PerformanceReportsToolPanel
+
+    /**
+     * @return The last install and launch reports of every instance, newest first
+     */
+    List<PerformanceReport> getPerformanceReports();
+
     // SkinUpdaterToolPanel
 
     /**
@@ -0,0 +1,77 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.gui.tabs.tools;
+
+import java.awt.Dimension;
+import java.awt.Font;
+import java.util.List;
+
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+
+import org.mini2Dx.gettext.GetText;
+
+import com.atlauncher.builders.HTMLBuilder;
+import com.atlauncher.data.PerformanceReport;
+import com.atlauncher.managers.DialogManager;
+
+@SuppressWarnings("serial")
+public class PerformanceReportsToolPanel extends AbstractToolPanel {
+
+    public PerformanceReportsToolPanel(IToolsViewModel viewModel) {
+        super(GetText.tr("Performance Reports"));
+
+        JLabel INFO_LABEL = new JLabel(new HTMLBuilder().center().split(70).text(GetText.tr(
+                "This tool shows how long the last install and launch of each instance took, how much was downloaded or reused and how fast each server was."))
+                .build());
+        MIDDLE_PANEL.add(INFO_LABEL);
+        BOTTOM_PANEL.add(LAUNCH_BUTTON);
+        LAUNCH_BUTTON.addActionListener(e -> {
+            if (e.getSource() == LAUNCH_BUTTON) {
+                List<PerformanceReport> reports = viewModel.getPerformanceReports();
+
+                if (reports.isEmpty()) {
+                    DialogManager.okDialog().setType(DialogManager.INFO).setTitle(GetText.tr("Performance Reports"))
+                            .setContent(GetText.tr("No instances have been installed or launched yet.")).show();
+                    return;
+                }
+
+                StringBuilder text = new StringBuilder();
+                for (PerformanceReport report : reports) {
+                    if (text.length() != 0) {
+                        text.append(System.lineSeparator());
+                    }
+
+                    text.append(report.getSummary());
+                }
+
+                JTextArea textArea = new JTextArea(text.toString());
+                textArea.setEditable(false);
+                textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, textArea.getFont().getSize()));
+                textArea.setCaretPosition(0);
+
+                JScrollPane scrollPane = new JScrollPane(textArea);
+                scrollPane.setPreferredSize(new Dimension(750, 450));
+
+                DialogManager.okDialog().setType(DialogManager.INFO).setTitle(GetText.tr("Performance Reports"))
+                        .setContent(scrollPane).show();
+            }
+        });
+    }
+}
@@ -20,7 +20,10 @@ package com.atlauncher.gui.tabs.tools;
 import java.io.File;
 import java.net.InetAddress;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -28,9 +31,13 @@ import java.util.stream.Collectors;
 import com.atlauncher.App;
 import com.atlauncher.FileSystem;
 import com.atlauncher.constants.Constants;
+import com.atlauncher.data.Instance;
+import com.atlauncher.data.PerformanceReport;
 import com.atlauncher.evnt.listener.SettingsListener;
 import com.atlauncher.evnt.manager.SettingsManager;
 import com.atlauncher.managers.AccountManager;
+import com.atlauncher.managers.BackupManager;
+import com.atlauncher.managers.InstanceManager;
 import com.atlauncher.managers.LogManager;
 import com.atlauncher.network.Analytics;
 import com.atlauncher.network.Download;
@@ -62,6 +69,13 @@ public class ToolsViewModel implements IToolsViewModel, SettingsListener {
         return !AccountManager.getAccounts().isEmpty();
     }
 
+    @Override
+    public List<String> verifyBackups() throws InterruptedException {
+        Analytics.trackEvent(AnalyticsEvent.forToolRun("backup_verifier"));
+
+        return BackupManager.verify();
+    }
+
     @Override
     public boolean isDebugEnabled() {
         return LogManager.showDebug;
@@ -118,6 +132,27 @@ public class ToolsViewModel implements IToolsViewModel, SettingsListener {
         }
     }
 
+    @Override
+    public List<PerformanceReport> getPerformanceReports() {
+        Analytics.trackEvent(AnalyticsEvent.forToolRun("performance_reports"));
+
+        List<PerformanceReport> reports = new ArrayList<>();
+
+        for (Instance instance : InstanceManager.getInstances()) {
+            for (String type : new String[] { PerformanceReport.INSTALL, PerformanceReport.LAUNCH }) {
+                PerformanceReport report = PerformanceReport.load(instance.getRoot(), type);
+
+                if (report != null && report.started != null) {
+                    reports.add(report);
+                }
+            }
+        }
+
+        reports.sort(Comparator.comparing((PerformanceReport report) -> report.started).reversed());
+
+        return reports;
+    }
+
     private boolean canRunNetworkChecker() {
         return App.settings.enableLogs;
     }
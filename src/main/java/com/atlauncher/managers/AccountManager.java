@@ -90,7 +90,7 @@ public class AccountManager {
      * Loads the saved Accounts
      */
     public static void loadAccounts() {
-        PerformanceManager.start();
+        PerformanceManager.start("AccountManager.loadAccounts");
         LogManager.debug("Loading accounts");
 
         if (Files.exists(FileSystem.USER_DATA)) {
@@ -154,7 +154,7 @@ public class AccountManager {
         }
 
         LogManager.debug("Finished loading accounts");
-        PerformanceManager.end();
+        PerformanceManager.end("AccountManager.loadAccounts");
     }
 
     /**
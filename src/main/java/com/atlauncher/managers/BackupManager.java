@@ -0,0 +1,679 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.managers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.zeroturnaround.zip.NameMapper;
+
+import com.atlauncher.FileSystem;
+import com.atlauncher.Gsons;
+import com.atlauncher.data.BackupManifest;
+import com.atlauncher.data.BackupMode;
+import com.atlauncher.utils.ArchiveWriter;
+import com.atlauncher.utils.ContentDefinedChunker;
+import com.atlauncher.utils.ZipNameMapper;
+import com.google.common.hash.Hashing;
+
+/**
+ * Incremental, deduplicated backups of instances.
+ *
+ * Files are split into content defined chunks (see {@link ContentDefinedChunker}) which are stored once, keyed by
+ * their SHA256 hash, in backups/chunks/ab/abcdef... and each backup is just a manifest in
+ * backups/manifests/INSTANCE/DATE.json listing the chunks that make up each file. So a backup of a world where only a
+ * few region files have changed only stores those few changed chunks.
+ *
+ * Chunks are hashed and compressed across all cores. Each chunk file starts with a single byte saying how the rest of
+ * it is stored: 0 for as is, or 1 for deflated.
+ */
+public final class BackupManager {
+    private static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final String CHUNKS = "chunks";
+    private static final String MANIFESTS = "manifests";
+
+    private static final byte STORED = 0;
+    private static final byte DEFLATED = 1;
+
+    private static final ExecutorService executor;
+
+    static {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(THREADS, THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new BackupThreadFactory());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        executor = threadPoolExecutor;
+    }
+
+    /**
+     * Backs up the files in the given instance root that the backup mode covers.
+     *
+     * Files with the same size and last modified time as in the instance's previous backup aren't read again.
+     *
+     * @throws InterruptedException if the backup was cancelled, in which case no manifest is written
+     */
+    public static synchronized BackupManifest backup(Path root, String safeName, String name, BackupMode mode)
+            throws IOException, InterruptedException {
+        return backup(FileSystem.BACKUPS, root, safeName, name, mode);
+    }
+
+    /**
+     * The backups of the given instance, newest first.
+     *
+     * This doesn't wait for a backup or restore that's running, since manifests are moved into place once they've
+     * been written, so a manifest is only ever seen whole.
+     */
+    public static List<BackupManifest> getBackups(String safeName) {
+        return getBackups(FileSystem.BACKUPS, safeName);
+    }
+
+    /**
+     * Restores the files in the backup into the given instance root, overwriting them if they exist.
+     *
+     * @param deleteOtherFiles if files the backup mode covers but that aren't in the backup (such as files created
+     *                         since it was made) should be deleted, rather than left alone
+     */
+    public static synchronized void restore(BackupManifest manifest, Path root, boolean deleteOtherFiles)
+            throws IOException, InterruptedException {
+        restore(FileSystem.BACKUPS, manifest, root, deleteOtherFiles);
+    }
+
+    /**
+     * Checks that every chunk used by every backup is present and undamaged.
+     *
+     * @return a description of each problem found, empty if everything is fine
+     */
+    public static synchronized List<String> verify() throws InterruptedException {
+        return verify(FileSystem.BACKUPS);
+    }
+
+    /**
+     * Deletes all but the newest backups of the given instance, and then any chunks no longer used by any backup.
+     *
+     * @param keep the number of backups to keep, or 0 to keep them all
+     */
+    public static synchronized void applyRetention(String safeName, int keep) {
+        applyRetention(FileSystem.BACKUPS, safeName, keep);
+    }
+
+    static BackupManifest backup(Path store, Path root, String safeName, String name, BackupMode mode)
+            throws IOException, InterruptedException {
+        NameMapper nameMapper = ZipNameMapper.getMapperForBackupMode(mode);
+        Path chunksDirectory = store.resolve(CHUNKS);
+
+        Map<String, BackupManifest.BackupFile> previousFiles = new HashMap<>();
+        List<BackupManifest> previousBackups = getBackups(store, safeName);
+        if (!previousBackups.isEmpty()) {
+            for (BackupManifest.BackupFile file : previousBackups.get(0).files) {
+                previousFiles.put(file.path, file);
+            }
+        }
+
+        BackupManifest manifest = new BackupManifest();
+        manifest.instance = safeName;
+        manifest.name = name;
+        manifest.created = new Date();
+        manifest.mode = mode;
+
+        // bounds how many chunks (each up to 4MB) are held in memory waiting to be hashed/compressed
+        Semaphore inFlight = new Semaphore(THREADS * 2);
+        Map<BackupManifest.BackupFile, List<Future<String>>> pending = new HashMap<>();
+        ContentDefinedChunker chunker = new ContentDefinedChunker();
+
+        try {
+            for (Map.Entry<String, Path> entry : getFilesToBackup(root, nameMapper).entrySet()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                // attributes are read before the file, so if it changes while being read, it's read again next time
+                BasicFileAttributes attributes = Files.readAttributes(entry.getValue(), BasicFileAttributes.class);
+
+                BackupManifest.BackupFile file = new BackupManifest.BackupFile();
+                file.path = entry.getKey();
+                file.size = attributes.size();
+                file.modified = attributes.lastModifiedTime().toMillis();
+                manifest.files.add(file);
+                manifest.size += file.size;
+
+                BackupManifest.BackupFile previousFile = previousFiles.get(file.path);
+                if (previousFile != null && previousFile.size == file.size
+                        && previousFile.modified == file.modified) {
+                    file.chunks.addAll(previousFile.chunks);
+                    continue;
+                }
+
+                boolean compress = !ArchiveWriter.isAlreadyCompressed(file.path);
+                List<Future<String>> futures = new ArrayList<>();
+                pending.put(file, futures);
+
+                try (InputStream inputStream = Files.newInputStream(entry.getValue())) {
+                    chunker.split(inputStream, chunk -> {
+                        try {
+                            inFlight.acquire();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException("Backup cancelled", e);
+                        }
+
+                        futures.add(executor.submit(() -> {
+                            try {
+                                return storeChunk(chunksDirectory, chunk, compress);
+                            } finally {
+                                inFlight.release();
+                            }
+                        }));
+                    });
+                } catch (IOException e) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+
+                    throw e;
+                }
+            }
+
+            for (Map.Entry<BackupManifest.BackupFile, List<Future<String>>> entry : pending.entrySet()) {
+                for (Future<String> future : entry.getValue()) {
+                    entry.getKey().chunks.add(future.get());
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Error storing backup chunk", e.getCause());
+        } finally {
+            // anything still running is only writing chunks, which are cleaned up later if nothing uses them
+            for (List<Future<String>> futures : pending.values()) {
+                for (Future<String> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        saveManifest(store, manifest);
+
+        return manifest;
+    }
+
+    static List<BackupManifest> getBackups(Path store, String safeName) {
+        Path directory = store.resolve(MANIFESTS).resolve(safeName);
+
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+
+        List<Path> manifestFiles;
+        try (Stream<Path> stream = Files.list(directory)) {
+            manifestFiles = stream.filter(p -> p.getFileName().toString().endsWith(".json"))
+                    .sorted(Comparator.comparing(BackupManager::getManifestName).reversed())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error reading backups in " + directory, e);
+            return new ArrayList<>();
+        }
+
+        List<BackupManifest> manifests = new ArrayList<>();
+        for (Path manifestFile : manifestFiles) {
+            try {
+                manifests.add(loadManifest(manifestFile));
+            } catch (NoSuchFileException e) {
+                // removed by retention since the folder was listed
+            } catch (IOException e) {
+                LogManager.logStackTrace("Error reading backup " + manifestFile, e);
+            }
+        }
+
+        return manifests;
+    }
+
+    static void restore(Path store, BackupManifest manifest, Path root, boolean deleteOtherFiles)
+            throws IOException, InterruptedException {
+        Path chunksDirectory = store.resolve(CHUNKS);
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (BackupManifest.BackupFile file : manifest.files) {
+                Path target = normalizedRoot.resolve(file.path).normalize();
+
+                if (!target.startsWith(normalizedRoot) || target.equals(normalizedRoot)) {
+                    throw new IOException("Backup " + manifest.path + " contains an invalid path " + file.path);
+                }
+
+                futures.add(executor.submit(() -> {
+                    restoreFile(chunksDirectory, file, target);
+                    return null;
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IOException("Error restoring backup " + manifest.path, e.getCause());
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        if (deleteOtherFiles && manifest.mode != null) {
+            Set<String> restored = manifest.files.stream().map(file -> file.path).collect(Collectors.toSet());
+
+            for (Map.Entry<String, Path> entry : getFilesToBackup(root,
+                    ZipNameMapper.getMapperForBackupMode(manifest.mode)).entrySet()) {
+                if (!restored.contains(entry.getKey())) {
+                    Files.delete(entry.getValue());
+                }
+            }
+        }
+    }
+
+    static List<String> verify(Path store) throws InterruptedException {
+        Path chunksDirectory = store.resolve(CHUNKS);
+        List<String> problems = Collections.synchronizedList(new ArrayList<>());
+
+        Map<String, BackupManifest> chunks = new HashMap<>();
+        for (BackupManifest manifest : getAllBackups(store, problems)) {
+            for (BackupManifest.BackupFile file : manifest.files) {
+                for (String hash : file.chunks) {
+                    chunks.putIfAbsent(hash, manifest);
+                }
+            }
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Map.Entry<String, BackupManifest> entry : chunks.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    Path chunkFile = getChunkFile(chunksDirectory, entry.getKey());
+
+                    try {
+                        readChunk(chunkFile, entry.getKey());
+                    } catch (IOException e) {
+                        problems.add("Chunk " + entry.getKey() + " used by backup " + entry.getValue().path
+                                + " is missing or damaged: " + e.getMessage());
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            problems.add("Error verifying backups: " + e.getCause().getMessage());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return problems;
+    }
+
+    static void applyRetention(Path store, String safeName, int keep) {
+        if (keep <= 0) {
+            return;
+        }
+
+        List<BackupManifest> backups = getBackups(store, safeName);
+        if (backups.size() <= keep) {
+            return;
+        }
+
+        for (BackupManifest manifest : backups.subList(keep, backups.size())) {
+            try {
+                Files.delete(manifest.path);
+            } catch (IOException e) {
+                LogManager.logStackTrace("Error deleting old backup " + manifest.path, e);
+            }
+        }
+
+        removeUnusedChunks(store);
+    }
+
+    /**
+     * Deletes every chunk not used by any backup. If any backup can't be read then nothing is deleted, since the
+     * chunks it uses aren't known.
+     */
+    static void removeUnusedChunks(Path store) {
+        List<String> problems = new ArrayList<>();
+        Set<String> used = new HashSet<>();
+
+        for (BackupManifest manifest : getAllBackups(store, problems)) {
+            for (BackupManifest.BackupFile file : manifest.files) {
+                used.addAll(file.chunks);
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            LogManager.warn("Not removing unused backup chunks as some backups couldn't be read: " + problems);
+            return;
+        }
+
+        Path chunksDirectory = store.resolve(CHUNKS);
+        if (!Files.isDirectory(chunksDirectory)) {
+            return;
+        }
+
+        List<Path> chunkFiles;
+        try (Stream<Path> stream = Files.walk(chunksDirectory, 2)) {
+            chunkFiles = stream.filter(p -> Files.isRegularFile(p) && !p.getParent().equals(chunksDirectory))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error reading backup chunks", e);
+            return;
+        }
+
+        for (Path chunkFile : chunkFiles) {
+            if (!used.contains(chunkFile.getFileName().toString())) {
+                try {
+                    Files.delete(chunkFile);
+                } catch (IOException e) {
+                    LogManager.logStackTrace("Error removing unused backup chunk " + chunkFile, e);
+                }
+            }
+        }
+    }
+
+    private static List<BackupManifest> getAllBackups(Path store, List<String> problems) {
+        Path manifestsDirectory = store.resolve(MANIFESTS);
+        List<BackupManifest> manifests = new ArrayList<>();
+
+        if (!Files.isDirectory(manifestsDirectory)) {
+            return manifests;
+        }
+
+        List<Path> manifestFiles;
+        try (Stream<Path> stream = Files.walk(manifestsDirectory, 2)) {
+            manifestFiles = stream.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(".json"))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            problems.add("Error reading backups: " + e.getMessage());
+            return manifests;
+        }
+
+        for (Path manifestFile : manifestFiles) {
+            try {
+                manifests.add(loadManifest(manifestFile));
+            } catch (IOException e) {
+                problems.add("Backup " + manifestFile + " couldn't be read: " + e.getMessage());
+            }
+        }
+
+        return manifests;
+    }
+
+    private static Map<String, Path> getFilesToBackup(Path root, NameMapper nameMapper) throws IOException {
+        // sorted so that the same instance always produces the same manifest
+        Map<String, Path> files = new TreeMap<>();
+
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (!attributes.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                String name = nameMapper.map(root.relativize(file).toString().replace('\\', '/'));
+
+                if (name != null) {
+                    files.put(name, file);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                LogManager.logStackTrace("Unable to back up " + file, e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return files;
+    }
+
+    private static String storeChunk(Path chunksDirectory, byte[] chunk, boolean compress) throws IOException {
+        String hash = Hashing.sha256().hashBytes(chunk).toString();
+        Path chunkFile = getChunkFile(chunksDirectory, hash);
+
+        if (Files.exists(chunkFile)) {
+            return hash;
+        }
+
+        byte[] deflated = compress ? deflate(chunk) : null;
+
+        Files.createDirectories(chunkFile.getParent());
+
+        // written to a temporary file first so a half written chunk is never mistaken for a whole one
+        Path tempFile = Files.createTempFile(chunkFile.getParent(), hash, ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                if (deflated != null && deflated.length < chunk.length) {
+                    outputStream.write(DEFLATED);
+                    outputStream.write(deflated);
+                } else {
+                    outputStream.write(STORED);
+                    outputStream.write(chunk);
+                }
+            }
+
+            Files.move(tempFile, chunkFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        return hash;
+    }
+
+    private static byte[] readChunk(Path chunkFile, String hash) throws IOException {
+        byte[] bytes = Files.readAllBytes(chunkFile);
+
+        if (bytes.length == 0) {
+            throw new IOException("Chunk is empty");
+        }
+
+        byte[] chunk;
+        if (bytes[0] == STORED) {
+            chunk = Arrays.copyOfRange(bytes, 1, bytes.length);
+        } else if (bytes[0] == DEFLATED) {
+            chunk = inflate(bytes);
+        } else {
+            throw new IOException("Chunk has unknown storage type " + bytes[0]);
+        }
+
+        if (!Hashing.sha256().hashBytes(chunk).toString().equals(hash)) {
+            throw new IOException("Chunk contents don't match its hash");
+        }
+
+        return chunk;
+    }
+
+    private static void restoreFile(Path chunksDirectory, BackupManifest.BackupFile file, Path target)
+            throws IOException {
+        Files.createDirectories(target.getParent());
+
+        Path tempFile = target.resolveSibling(target.getFileName() + ".restoring");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                for (String hash : file.chunks) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IOException("Restore cancelled");
+                    }
+
+                    outputStream.write(readChunk(getChunkFile(chunksDirectory, hash), hash));
+                }
+            }
+
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(target, FileTime.fromMillis(file.modified));
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, length);
+
+                // not worth storing compressed, so give up early
+                if (outputStream.size() >= bytes.length) {
+                    return null;
+                }
+            }
+
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, 1, bytes.length - 1);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length * 2);
+            byte[] buffer = new byte[64 * 1024];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Chunk is truncated");
+                }
+
+                outputStream.write(buffer, 0, length);
+
+                if (outputStream.size() > ContentDefinedChunker.MAX_SIZE) {
+                    throw new IOException("Chunk is larger than the maximum chunk size");
+                }
+            }
+
+            return outputStream.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Chunk couldn't be decompressed", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void saveManifest(Path store, BackupManifest manifest) throws IOException {
+        Path directory = store.resolve(MANIFESTS).resolve(manifest.instance);
+        Files.createDirectories(directory);
+
+        String baseName = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(manifest.created);
+        Path manifestFile = directory.resolve(baseName + ".json");
+        for (int i = 1; Files.exists(manifestFile); i++) {
+            manifestFile = directory.resolve(baseName + "-" + i + ".json");
+        }
+
+        Path tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        try (OutputStreamWriter fileWriter = new OutputStreamWriter(Files.newOutputStream(tempFile),
+                StandardCharsets.UTF_8)) {
+            Gsons.DEFAULT_SLIM.toJson(manifest, fileWriter);
+        }
+
+        Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+        manifest.path = manifestFile;
+    }
+
+    private static BackupManifest loadManifest(Path manifestFile) throws IOException {
+        try (InputStreamReader fileReader = new InputStreamReader(Files.newInputStream(manifestFile),
+                StandardCharsets.UTF_8)) {
+            BackupManifest manifest = Gsons.DEFAULT_SLIM.fromJson(fileReader, BackupManifest.class);
+
+            if (manifest == null || manifest.files == null) {
+                throw new IOException("Backup manifest is empty");
+            }
+
+            manifest.path = manifestFile;
+            return manifest;
+        } catch (RuntimeException e) {
+            throw new IOException("Backup manifest is invalid", e);
+        }
+    }
+
+    private static String getManifestName(Path manifestFile) {
+        String fileName = manifestFile.getFileName().toString();
+
+        return fileName.substring(0, fileName.length() - ".json".length());
+    }
+
+    private static Path getChunkFile(Path chunksDirectory, String hash) {
+        return chunksDirectory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static final class BackupThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ATL-Backup-Thread-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
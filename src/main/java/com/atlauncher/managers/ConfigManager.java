@@ -146,7 +146,7 @@ public class ConfigManager {
      * Loads the config for use in the Launcher
      */
     public static void loadConfig() {
-        PerformanceManager.start();
+        PerformanceManager.start("ConfigManager.loadConfig");
         LogManager.debug("Loading config");
 
         java.lang.reflect.Type type = new TypeToken<Map<String, Object>>() {
@@ -174,7 +174,7 @@ public class ConfigManager {
         afterConfigLoaded();
 
         LogManager.debug("Finished loading config");
-        PerformanceManager.end();
+        PerformanceManager.end("ConfigManager.loadConfig");
     }
 
     private static void afterConfigLoaded() {
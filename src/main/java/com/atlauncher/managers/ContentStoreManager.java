@@ -0,0 +1,269 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.managers;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.atlauncher.App;
+import com.atlauncher.FileSystem;
+import com.atlauncher.Gsons;
+import com.atlauncher.data.FileCopyStrategy;
+import com.atlauncher.utils.FileHashCache;
+import com.atlauncher.utils.FileTransfer;
+import com.atlauncher.utils.Hashing;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Launcher wide store of mod and resource pack files, keyed by their SHA1
+ * hash, so that the same file used by many instances/servers is only stored on
+ * disk once and linked into each of them.
+ *
+ * Files are laid out as store/ab/abcdef... and the store keeps track of which
+ * instance/server roots reference each file, so files can be removed once
+ * nothing uses them anymore.
+ *
+ * Configs are deliberately not stored here, since the game changes them in
+ * place, which with hardlinks would change them for every instance sharing
+ * them.
+ */
+public final class ContentStoreManager {
+    private static final Type referencesType = new TypeToken<Map<String, Set<String>>>() {
+    }.getType();
+
+    private static final String[] FOLDERS = { "mods", "resourcepacks" };
+
+    // root of instance/server -> sha1 hashes of the store files it uses
+    private static final Map<String, Set<String>> references = new HashMap<>();
+    private static boolean loaded = false;
+
+    /**
+     * The store only saves space if files can be shared, so there's no point
+     * using it when files are always copied.
+     */
+    public static boolean isEnabled() {
+        return App.settings.fileCopyStrategy != FileCopyStrategy.COPY;
+    }
+
+    /**
+     * Moves the mods and resource packs in the given instance/server root into the
+     * store (if not there already) and replaces them with links to the stored
+     * file, then removes anything from the store no longer used.
+     */
+    public static synchronized void deduplicate(Path root) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        load();
+
+        Set<String> hashes = new HashSet<>();
+
+        for (String folder : FOLDERS) {
+            Path directory = root.resolve(folder);
+
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(directory)) {
+                files = stream.filter(ContentStoreManager::isStorable).collect(Collectors.toList());
+            } catch (IOException e) {
+                LogManager.logStackTrace("Error finding files to deduplicate in " + directory, e, false);
+                continue;
+            }
+
+            for (Path file : files) {
+                String hash = store(file);
+
+                if (hash != null) {
+                    hashes.add(hash);
+                }
+            }
+        }
+
+        references.put(getKey(root), hashes);
+        gc();
+        FileHashCache.save();
+    }
+
+    /**
+     * Releases everything used by the given instance/server root, which should be
+     * called once it's been deleted.
+     */
+    public static synchronized void release(Path root) {
+        load();
+
+        if (references.remove(getKey(root)) != null) {
+            gc();
+        }
+    }
+
+    /**
+     * Deletes files in the store which no instance/server references anymore.
+     * Since instances hold links of the files, and not the store
+     * files themselves, this never removes a file from an instance.
+     */
+    private static void gc() {
+        Iterator<String> iterator = references.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (!Files.isDirectory(Paths.get(iterator.next()))) {
+                iterator.remove();
+            }
+        }
+
+        Set<String> used = new HashSet<>();
+        for (Set<String> hashes : references.values()) {
+            used.addAll(hashes);
+        }
+
+        List<Path> storedFiles;
+        try (Stream<Path> stream = Files.walk(FileSystem.CONTENT_STORE, 2)) {
+            storedFiles = stream.filter(p -> Files.isRegularFile(p) && !p.equals(FileSystem.CONTENT_STORE_REFERENCES)
+                    && !p.getParent().equals(FileSystem.CONTENT_STORE)).collect(Collectors.toList());
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error reading content store", e, false);
+            return;
+        }
+
+        for (Path file : storedFiles) {
+            if (!used.contains(file.getFileName().toString())) {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    LogManager.logStackTrace("Error removing unused file " + file + " from content store", e, false);
+                }
+            }
+        }
+
+        save();
+    }
+
+    private static String store(Path file) {
+        String hash = FileHashCache.sha1(file).toString();
+
+        if (hash.equals(Hashing.EMPTY_HASH_CODE.toString())) {
+            return null;
+        }
+
+        Path stored = getStoredFile(hash);
+
+        try {
+            if (Files.exists(stored) && !FileHashCache.sha1(stored).toString().equals(hash)) {
+                // someone's changed the stored file, so replace it with this one
+                Files.delete(stored);
+            }
+
+            // a copy in the store would only double the space used, so files are only stored if they can be shared
+            if (!Files.exists(stored)) {
+                Files.createDirectories(stored.getParent());
+                return FileTransfer.link(file, stored) ? hash : null;
+            }
+
+            if (Files.isSameFile(file, stored)) {
+                return hash;
+            }
+
+            // link to a temporary file first, so the instances file is never missing if something goes wrong
+            Path link = file.resolveSibling(file.getFileName() + ".link");
+            if (!FileTransfer.link(stored, link)) {
+                return null;
+            }
+            Files.move(link, file, StandardCopyOption.REPLACE_EXISTING);
+
+            return hash;
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error deduplicating file " + file, e, false);
+            return null;
+        }
+    }
+
+    private static boolean isStorable(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+
+        String name = path.getFileName().toString().toLowerCase();
+        return name.endsWith(".jar") || name.endsWith(".zip") || name.endsWith(".disabled");
+    }
+
+    private static Path getStoredFile(String hash) {
+        return FileSystem.CONTENT_STORE.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static String getKey(Path root) {
+        return root.toAbsolutePath().normalize().toString();
+    }
+
+    private static void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (!Files.exists(FileSystem.CONTENT_STORE_REFERENCES)) {
+            return;
+        }
+
+        try (InputStreamReader fileReader = new InputStreamReader(
+                Files.newInputStream(FileSystem.CONTENT_STORE_REFERENCES), StandardCharsets.UTF_8)) {
+            Map<String, Set<String>> savedReferences = Gsons.DEFAULT_SLIM.fromJson(fileReader, referencesType);
+
+            if (savedReferences != null) {
+                references.putAll(savedReferences);
+            }
+        } catch (Exception e) {
+            LogManager.logStackTrace("Exception loading content store references", e);
+        }
+    }
+
+    private static void save() {
+        Path tempFile = FileSystem.CONTENT_STORE_REFERENCES
+                .resolveSibling(FileSystem.CONTENT_STORE_REFERENCES.getFileName() + ".tmp");
+        try (OutputStreamWriter fileWriter = new OutputStreamWriter(Files.newOutputStream(tempFile),
+                StandardCharsets.UTF_8)) {
+            Gsons.DEFAULT_SLIM.toJson(references, referencesType, fileWriter);
+        } catch (Exception e) {
+            LogManager.logStackTrace("Error saving content store references", e);
+            return;
+        }
+
+        try {
+            Files.move(tempFile, FileSystem.CONTENT_STORE_REFERENCES, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error saving content store references", e);
+        }
+    }
+}
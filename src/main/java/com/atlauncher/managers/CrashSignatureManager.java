@@ -0,0 +1,85 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.managers;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.atlauncher.App;
+import com.atlauncher.Data;
+import com.atlauncher.FileSystem;
+import com.atlauncher.Gsons;
+import com.atlauncher.data.CrashSignatures;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+
+public class CrashSignatureManager {
+    /**
+     * Loads the known problems to look for in Minecraft's output, preferring the
+     * latest from the server over the ones that come with the launcher.
+     */
+    public static void loadCrashSignatures() {
+        PerformanceManager.start("CrashSignatureManager.loadCrashSignatures");
+
+        Data.CRASH_SIGNATURES = null;
+
+        Path crashSignaturesPath = FileSystem.JSON.resolve("crash_signatures.json");
+
+        if (Files.exists(crashSignaturesPath)) {
+            try (InputStreamReader fileReader = new InputStreamReader(
+                    new FileInputStream(crashSignaturesPath.toFile()), StandardCharsets.UTF_8)) {
+                Data.CRASH_SIGNATURES = Gsons.DEFAULT.fromJson(fileReader, CrashSignatures.class);
+            } catch (JsonSyntaxException | IOException | JsonIOException e) {
+                LogManager.logStackTrace("Error loading crash signatures, using the built in ones instead", e);
+            }
+        }
+
+        if (Data.CRASH_SIGNATURES == null) {
+            Data.CRASH_SIGNATURES = loadBuiltInCrashSignatures();
+        }
+
+        PerformanceManager.end("CrashSignatureManager.loadCrashSignatures");
+    }
+
+    public static CrashSignatures getCrashSignatures() {
+        if (Data.CRASH_SIGNATURES == null) {
+            loadCrashSignatures();
+        }
+
+        return Data.CRASH_SIGNATURES;
+    }
+
+    static CrashSignatures loadBuiltInCrashSignatures() {
+        try (InputStreamReader reader = new InputStreamReader(
+                App.class.getResourceAsStream("/crash_signatures.json"), StandardCharsets.UTF_8)) {
+            CrashSignatures crashSignatures = Gsons.DEFAULT.fromJson(reader, CrashSignatures.class);
+
+            if (crashSignatures != null) {
+                return crashSignatures;
+            }
+        } catch (JsonSyntaxException | IOException | JsonIOException | NullPointerException e) {
+            LogManager.logStackTrace("Error loading built in crash signatures", e);
+        }
+
+        return new CrashSignatures();
+    }
+}
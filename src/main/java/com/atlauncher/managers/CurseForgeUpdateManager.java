@@ -83,7 +83,7 @@ public class CurseForgeUpdateManager {
             return;
         }
 
-        PerformanceManager.start();
+        PerformanceManager.start("CurseForgeUpdateManager.checkForUpdates");
         LogManager.info("Checking for updates to CurseForge instances");
 
         int[] projectIdsFound = InstanceManager.getInstances().parallelStream()
@@ -130,6 +130,6 @@ public class CurseForgeUpdateManager {
                 });
         }
 
-        PerformanceManager.end();
+        PerformanceManager.end("CurseForgeUpdateManager.checkForUpdates");
     }
 }
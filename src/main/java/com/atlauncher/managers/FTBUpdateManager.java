@@ -86,7 +86,7 @@ public class FTBUpdateManager {
             return;
         }
 
-        PerformanceManager.start();
+        PerformanceManager.start("FTBUpdateManager.checkForUpdates");
         LogManager.info("Checking for updates to FTB instances");
 
         InstanceManager.getInstances().parallelStream().filter(
@@ -109,6 +109,6 @@ public class FTBUpdateManager {
                     getSubject(i).onNext(Optional.ofNullable(latestVersion));
                 });
 
-        PerformanceManager.end();
+        PerformanceManager.end("FTBUpdateManager.checkForUpdates");
     }
 }
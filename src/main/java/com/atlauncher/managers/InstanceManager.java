@@ -31,6 +31,7 @@ import java.util.UUID;
 import com.atlauncher.FileSystem;
 import com.atlauncher.Gsons;
 import com.atlauncher.data.Instance;
+import com.atlauncher.data.LaunchManifest;
 import com.atlauncher.data.Pack;
 import com.atlauncher.exceptions.InvalidPack;
 import com.atlauncher.utils.CurseForgeApi;
@@ -70,7 +71,7 @@ public class InstanceManager {
      * Loads the user installed Instances
      */
     public static void loadInstances() {
-        PerformanceManager.start();
+        PerformanceManager.start("InstanceManager.loadInstances");
         LogManager.debug("Loading instances");
         List<Instance> newInstances = new LinkedList<>();
 
@@ -177,7 +178,7 @@ public class InstanceManager {
 
         INSTANCES.onNext(newInstances);
         LogManager.debug("Finished loading instances");
-        PerformanceManager.end();
+        PerformanceManager.end("InstanceManager.loadInstances");
     }
 
     public static void setInstanceVisbility(Instance instance, boolean collapsed) {
@@ -202,6 +203,8 @@ public class InstanceManager {
         List<Instance> instances = INSTANCES.getValue();
         if (instances.remove(instance)) {
             FileUtils.delete(instance.getRoot(), true);
+            ContentStoreManager.release(instance.getRoot());
+            LaunchManifest.invalidate(instance);
             INSTANCES.onNext(instances);
         }
     }
@@ -270,6 +273,7 @@ public class InstanceManager {
             clonedInstance.uuid = UUID.randomUUID();
             FileUtils.createDirectory(clonedInstance.getRoot());
             Utils.copyDirectory(instance.getRoot().toFile(), clonedInstance.getRoot().toFile());
+            ContentStoreManager.deduplicate(clonedInstance.getRoot());
             clonedInstance.save();
             List<Instance> instances = INSTANCES.getValue();
             instances.add(clonedInstance);
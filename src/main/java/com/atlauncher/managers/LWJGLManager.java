@@ -46,7 +46,7 @@ public class LWJGLManager {
      * Loads info about the different LWJGL versions
      */
     public static void loadLWJGLVersions() {
-        PerformanceManager.start();
+        PerformanceManager.start("LWJGLManager.loadLWJGLVersions");
 
         Data.LWJGL_VERSIONS = null;
 
@@ -61,7 +61,7 @@ public class LWJGLManager {
             }
         }
 
-        PerformanceManager.end();
+        PerformanceManager.end("LWJGLManager.loadLWJGLVersions");
     }
 
     public static boolean usesLegacyLWJGL(MinecraftVersion minecraftVersion) {
@@ -20,11 +20,13 @@ package com.atlauncher.managers;
 import java.io.CharArrayWriter;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.atlauncher.App;
 import com.atlauncher.Gsons;
 import com.atlauncher.evnt.LogEvent;
 import com.atlauncher.evnt.LogEvent.LogType;
@@ -32,16 +34,17 @@ import com.atlauncher.exceptions.LocalException;
 import com.atlauncher.network.DownloadException;
 import com.atlauncher.network.ErrorReporting;
 import com.atlauncher.thread.LoggingThread;
+import com.atlauncher.utils.Log4jEventParser;
 import com.atlauncher.utils.SystemOutInterceptor;
 
 public final class LogManager {
-    private static final BlockingQueue<LogEvent> queue = new ArrayBlockingQueue<>(128);
+    private static final BlockingQueue<LogEvent> queue = new ArrayBlockingQueue<>(8192);
+    // events which couldn't be added to the queue, which the logging thread reports once it catches up
+    private static final AtomicLong droppedEvents = new AtomicLong();
     public static boolean showDebug = false;
 
-    private static final Pattern LOG4J_THREAD_REGEX = Pattern.compile("<log4j:Event.*?thread=\"(.*?)\".*?>");
-    private static final Pattern LOG4J_LEVEL_REGEX = Pattern.compile("<log4j:Event.*?level=\"(.*?)\".*?>");
-    private static final Pattern LOG4J_MESSAGE_REGEX = Pattern
-            .compile("<log4j:Message><!\\[CDATA\\[(.*?)\\]\\]></log4j:Message>");
+    private static final ThreadLocal<Log4jEventParser> LOG4J_PARSERS = ThreadLocal
+            .withInitial(Log4jEventParser::new);
 
     public static void start() {
         new LoggingThread(queue).start();
@@ -64,21 +67,21 @@ public final class LogManager {
     public static int debugLevel = 0;
 
     public static void info(String message) {
-        queue.offer(new LogEvent(LogType.INFO, message));
+        post(new LogEvent(LogType.INFO, message));
     }
 
     public static void debug(String message) {
         if (showDebug) {
-            queue.offer(new LogEvent(LogType.DEBUG, message));
+            post(new LogEvent(LogType.DEBUG, message));
         }
     }
 
     public static void warn(String message) {
-        queue.offer(new LogEvent(LogType.WARN, message));
+        post(new LogEvent(LogType.WARN, message));
     }
 
     public static void error(String message) {
-        queue.offer(new LogEvent(LogType.ERROR, message));
+        post(new LogEvent(LogType.ERROR, message));
     }
 
     public static void debugObject(Object object) {
@@ -92,8 +95,50 @@ public final class LogManager {
     }
 
     public static void minecraft(String message) {
+        post(createMinecraftEvent(message));
+    }
+
+    /**
+     * Adds a batch of events from Minecraft's output to the log. If the log can't
+     * keep up, this waits for up to {@link com.atlauncher.data.Settings#minecraftOutputMaxWait}
+     * milliseconds for it to catch up (which in turn slows down reading
+     * Minecraft's output) before dropping what's left of the batch.
+     */
+    public static void minecraft(List<LogEvent> events) {
+        long maxWait = App.settings == null ? 0 : App.settings.minecraftOutputMaxWait;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                if (!queue.offer(events.get(i), Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    droppedEvents.addAndGet(events.size() - i);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                droppedEvents.addAndGet(events.size() - i);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public static LogEvent createMinecraftEvent(String message) {
         Object[] value = prepareMessageForMinecraftLog(message);
-        queue.offer(new LogEvent((LogType) value[0], (String) value[1], LogEvent.CONSOLE));
+        return new LogEvent((LogType) value[0], (String) value[1], LogEvent.CONSOLE);
+    }
+
+    /**
+     * Gets the number of events dropped (since the last time this was called)
+     * because the log couldn't keep up.
+     */
+    public static long takeDroppedEvents() {
+        return droppedEvents.getAndSet(0);
+    }
+
+    private static void post(LogEvent event) {
+        if (!queue.offer(event)) {
+            droppedEvents.incrementAndGet();
+        }
     }
 
     public static void logStackTrace(Throwable t) {
@@ -222,35 +267,34 @@ public final class LogManager {
     }
 
     public static void minecraftLog4j(String string) {
-        String thread = "";
-        String message = "";
-        String levelString = "";
-        LogType level = LogType.INFO;
+        post(createMinecraftLog4jEvent(string));
+    }
 
-        Matcher threadMatcher = LOG4J_THREAD_REGEX.matcher(string);
-        if (threadMatcher.find()) {
-            thread = threadMatcher.group(1);
-        }
+    public static LogEvent createMinecraftLog4jEvent(String string) {
+        Log4jEventParser parser = LOG4J_PARSERS.get();
+        parser.parse(string);
 
-        Matcher levelMatcher = LOG4J_LEVEL_REGEX.matcher(string);
-        if (levelMatcher.find()) {
-            levelString = levelMatcher.group(1);
+        return createMinecraftLog4jEvent(parser);
+    }
 
-            if (levelString.equalsIgnoreCase("INFO")) {
-                level = LogType.INFO;
-            } else if (levelString.equalsIgnoreCase("ERROR") || levelString.equalsIgnoreCase("SEVERE")) {
-                level = LogType.ERROR;
-            } else if (levelString.equalsIgnoreCase("WARN")) {
-                level = LogType.WARN;
-            }
-        }
+    /**
+     * Creates the event for the log4j event last parsed by the given parser.
+     */
+    public static LogEvent createMinecraftLog4jEvent(Log4jEventParser parsed) {
+        String levelString = parsed.getLevel();
+        LogType level = LogType.INFO;
 
-        Matcher messageMatcher = LOG4J_MESSAGE_REGEX.matcher(string);
-        if (messageMatcher.find()) {
-            message = messageMatcher.group(1);
+        if (levelString.equalsIgnoreCase("ERROR") || levelString.equalsIgnoreCase("SEVERE")) {
+            level = LogType.ERROR;
+        } else if (levelString.equalsIgnoreCase("WARN")) {
+            level = LogType.WARN;
         }
 
-        queue.offer(new LogEvent(level, String.format("[%s/%s] %s", thread, levelString, message),
-                LogEvent.CONSOLE));
+        String body = new StringBuilder(parsed.getThread().length() + levelString.length()
+                + parsed.getMessage().length() + 4).append('[').append(parsed.getThread()).append('/')
+                .append(levelString).append("] ").append(parsed.getMessage()).toString();
+
+        return new LogEvent(level, body, LogEvent.CONSOLE, parsed.getThread(), parsed.getLogger(),
+                parsed.getTimestamp());
     }
 }
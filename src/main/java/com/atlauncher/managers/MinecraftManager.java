@@ -44,7 +44,7 @@ public class MinecraftManager {
      * Loads info about the different Minecraft versions
      */
     public static void loadMinecraftVersions() {
-        PerformanceManager.start();
+        PerformanceManager.start("MinecraftManager.loadMinecraftVersions");
         LogManager.debug("Loading Minecraft versions");
 
         Data.MINECRAFT.clear();
@@ -64,14 +64,14 @@ public class MinecraftManager {
         }
 
         LogManager.debug("Finished loading Minecraft versions");
-        PerformanceManager.end();
+        PerformanceManager.end("MinecraftManager.loadMinecraftVersions");
     }
 
     /**
      * Loads info about the java runtimes for Minecraft
      */
     public static void loadJavaRuntimes() {
-        PerformanceManager.start();
+        PerformanceManager.start("MinecraftManager.loadJavaRuntimes");
         LogManager.debug("Loading Java runtimes");
 
         try (InputStreamReader fileReader = new InputStreamReader(
@@ -83,7 +83,7 @@ public class MinecraftManager {
         }
 
         LogManager.debug("Finished loading Java runtimes");
-        PerformanceManager.end();
+        PerformanceManager.end("MinecraftManager.loadJavaRuntimes");
     }
 
     public static boolean isMinecraftVersion(String version) {
@@ -82,7 +82,7 @@ public class ModrinthModpackUpdateManager {
             return;
         }
 
-        PerformanceManager.start();
+        PerformanceManager.start("ModrinthModpackUpdateManager.checkForUpdates");
         LogManager.info("Checking for updates to Modrinth instances");
 
         InstanceManager.getInstances().parallelStream()
@@ -102,6 +102,6 @@ public class ModrinthModpackUpdateManager {
                     getSubject(i).onNext(Optional.ofNullable(latestVersion));
                 });
 
-        PerformanceManager.end();
+        PerformanceManager.end("ModrinthModpackUpdateManager.checkForUpdates");
     }
 }
@@ -0,0 +1,173 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.managers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+
+import com.atlauncher.FileSystem;
+import com.atlauncher.data.LWJGLLibrary;
+import com.atlauncher.data.minecraft.Download;
+import com.atlauncher.data.minecraft.Library;
+import com.atlauncher.utils.ArchiveUtils;
+import com.atlauncher.utils.FileUtils;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Keeps extracted natives in the libraries folder so they only need extracting
+ * once, rather than into a new temp folder every launch.
+ *
+ * Each set of natives is extracted into its own folder named after the hashes
+ * of the native jars and the exclude rules used to extract them, so instances
+ * using the same libraries share the same folder. Since nothing ever changes
+ * a folder once it's been created, the game can use it directly.
+ */
+public final class NativesManager {
+    // change this if the way natives are extracted changes, so old folders aren't used
+    private static final int CACHE_VERSION = 1;
+
+    /**
+     * Gets the folder the given native libraries are (or will be) extracted to.
+     */
+    public static Path getNativesDirectory(List<Library> libraries) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putInt(CACHE_VERSION);
+
+        for (Library library : libraries) {
+            Download download = library.getNativeDownloadForOS();
+
+            // some custom libraries don't have a hash, so fall back to the path (which includes the version)
+            hasher.putString(download.sha1 == null ? download.path + ":" + download.size : download.sha1,
+                    StandardCharsets.UTF_8);
+
+            if (library.extract != null && library.extract.exclude != null) {
+                for (String exclude : library.extract.exclude) {
+                    hasher.putString("!" + exclude, StandardCharsets.UTF_8);
+                }
+            }
+
+            hasher.putChar('\n');
+        }
+
+        return FileSystem.NATIVES_CACHE.resolve(hasher.hash().toString());
+    }
+
+    public static Path getLegacyLWJGLNativesDirectory(LWJGLLibrary library) {
+        return FileSystem.NATIVES_CACHE.resolve("lwjgl-" + library.sha1);
+    }
+
+    /**
+     * Extracts the natives from the given libraries into the given folder, unless
+     * it's already been done.
+     *
+     * @return if the natives are ready to use
+     */
+    public static boolean extractNatives(List<Library> libraries, Path directory) {
+        return populate(directory, temp -> {
+            for (Library library : libraries) {
+                Path nativePath = FileSystem.LIBRARIES.resolve(library.getNativeDownloadForOS().path);
+
+                boolean extracted = ArchiveUtils.extract(nativePath, temp, name -> {
+                    if (library.extract != null && library.extract.shouldExclude(name)) {
+                        return null;
+                    }
+
+                    // keep META-INF folder as per normal
+                    if (name.startsWith("META-INF")) {
+                        return name;
+                    }
+
+                    // don't extract folders
+                    if (name.endsWith("/")) {
+                        return null;
+                    }
+
+                    // if it has a / then extract just to root
+                    if (name.contains("/")) {
+                        return name.substring(name.lastIndexOf("/") + 1);
+                    }
+
+                    return name;
+                });
+
+                if (!extracted) {
+                    throw new IOException("Failed to extract natives from " + nativePath);
+                }
+            }
+        });
+    }
+
+    /**
+     * Extracts the given legacy LWJGL natives jar into the given folder, unless
+     * it's already been done.
+     *
+     * @return if the natives are ready to use
+     */
+    public static boolean extractLegacyLWJGLNatives(Path jar, Path directory) {
+        return populate(directory, temp -> {
+            if (!ArchiveUtils.extract(jar, temp)) {
+                throw new IOException("Failed to extract legacy LWJGL natives from " + jar);
+            }
+        });
+    }
+
+    /**
+     * Fills a folder in the cache by extracting into a temporary folder next to it
+     * and then renaming it into place, so a folder in the cache is always
+     * complete, even if two instances are launched at the same time or the
+     * launcher is closed halfway through.
+     */
+    private static boolean populate(Path directory, Extractor extractor) {
+        if (Files.isDirectory(directory)) {
+            return true;
+        }
+
+        Path temp = directory.resolveSibling(directory.getFileName() + "-" + UUID.randomUUID() + ".tmp");
+
+        try {
+            Files.createDirectories(temp);
+            extractor.extractTo(temp);
+
+            Files.move(temp, directory, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            // the rename fails if another launch extracted them first, which is fine
+            if (Files.isDirectory(directory)) {
+                return true;
+            }
+
+            LogManager.logStackTrace("Error extracting natives to " + directory, e, false);
+            return false;
+        } finally {
+            if (Files.isDirectory(temp)) {
+                FileUtils.deleteDirectoryQuietly(temp);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Extractor {
+        void extractTo(Path directory) throws IOException;
+    }
+}
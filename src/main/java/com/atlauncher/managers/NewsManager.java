@@ -51,7 +51,7 @@ public class NewsManager {
      * Loads the languages for use in the Launcher
      */
     public static void loadNews() {
-        PerformanceManager.start();
+        PerformanceManager.start("NewsManager.loadNews");
         LogManager.debug("Loading news");
         Data.NEWS.clear();
         try {
@@ -67,7 +67,7 @@ public class NewsManager {
             LogManager.logStackTrace(e);
         }
         LogManager.debug("Finished loading news");
-        PerformanceManager.end();
+        PerformanceManager.end("NewsManager.loadNews");
     }
 
     /**
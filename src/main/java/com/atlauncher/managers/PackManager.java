@@ -52,7 +52,7 @@ public class PackManager {
      * Loads the Packs for use in the Launcher
      */
     public static void loadPacks() {
-        PerformanceManager.start();
+        PerformanceManager.start("PackManager.loadPacks");
         LogManager.debug("Loading packs");
         Data.PACKS.clear();
         try (InputStreamReader fileReader = new InputStreamReader(
@@ -65,7 +65,7 @@ public class PackManager {
             LogManager.logStackTrace(e);
         }
         LogManager.debug("Finished loading packs");
-        PerformanceManager.end();
+        PerformanceManager.end("PackManager.loadPacks");
     }
 
     /**
@@ -266,7 +266,7 @@ public class PackManager {
      * Loads the Testers and Allowed Players for the packs in the Launcher
      */
     public static void loadUsers() {
-        PerformanceManager.start();
+        PerformanceManager.start("PackManager.loadUsers");
         LogManager.debug("Loading users");
         List<PackUsers> packUsers = new ArrayList<>();
 
@@ -285,11 +285,11 @@ public class PackManager {
         }
 
         LogManager.debug("Finished loading users");
-        PerformanceManager.end();
+        PerformanceManager.end("PackManager.loadUsers");
     }
 
     public static void removeUnusedImages() {
-        PerformanceManager.start();
+        PerformanceManager.start("PackManager.removeUnusedImages");
         File[] files = FileSystem.IMAGES.toFile().listFiles();
 
         Set<String> packImageFilenames = Data.PACKS.stream()
@@ -306,7 +306,7 @@ public class PackManager {
             }
         }
 
-        PerformanceManager.end();
+        PerformanceManager.end("PackManager.removeUnusedImages");
     }
 
     public static boolean canViewSemiPublicPackByCode(String packCode) {
@@ -17,36 +17,286 @@
  */
 package com.atlauncher.managers;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.HashMap;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.atlauncher.utils.FileUtils;
+import com.atlauncher.utils.LatencyHistogram;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Times spans of what the launcher is doing, such as loading instances or
+ * preparing an instance for launch.
+ *
+ * Each thread has its own stack of open spans, so spans with the same name
+ * running on different threads (or nested inside each other) don't interfere.
+ * The time each span takes is added to a histogram of that span's name, so
+ * repeated spans can be compared across runs.
+ *
+ * Spans are only recorded while debug mode is on or while a trace is being
+ * recorded (see {@link #startTracing()}), otherwise starting and ending them
+ * does nothing.
+ */
 public final class PerformanceManager {
+    // stop keeping trace events after this many so a long running trace can't use up all the memory
+    private static final int MAX_TRACE_EVENTS = 250000;
 
-    private static final Map<String, Instant> times = new HashMap<>();
+    // spans which are never ended (such as when returning early) are dropped once a thread has this many open
+    private static final int MAX_OPEN_SPANS = 64;
 
-    public static void start() {
-        start(new Throwable().getStackTrace()[1].getMethodName());
+    private static final Span NOOP = new Span(null, 0L, false);
+
+    private static final ThreadLocal<Deque<Span>> spans = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private static volatile boolean tracing = false;
+    private static long traceStartNanos;
+    private static final ConcurrentLinkedQueue<TraceEvent> traceEvents = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger traceEventCount = new AtomicInteger();
+    private static final Map<Long, String> threadNames = new ConcurrentHashMap<>();
+
+    public static boolean isEnabled() {
+        return tracing || LogManager.showDebug;
     }
 
+    /**
+     * Starts a span on this thread, which is ended by calling
+     * {@link #end(String)} with the same name on the same thread.
+     */
     public static void start(String name) {
-        if (LogManager.showDebug) {
-            times.put(name, Instant.now());
+        if (isEnabled()) {
+            push(new Span(name, System.nanoTime(), false));
         }
     }
 
-    public static void end() {
-        end(new Throwable().getStackTrace()[1].getMethodName());
+    /**
+     * Ends the innermost span with the given name which was started on this
+     * thread. Any spans started inside it which weren't ended are thrown away.
+     */
+    public static void end(String name) {
+        Deque<Span> stack = spans.get();
+
+        if (stack.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+
+        Iterator<Span> iterator = stack.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().name.equals(name)) {
+                Span span = stack.pop();
+                while (!span.name.equals(name)) {
+                    LogManager.debug("Span " + span.name + " was never ended", 5);
+                    span = stack.pop();
+                }
+
+                span.record(now);
+                return;
+            }
+        }
     }
 
-    public static void end(String name) {
-        if (LogManager.showDebug && times.containsKey(name)) {
-            long timeElapsed = Duration.between(times.get(name), Instant.now()).toMillis();
+    /**
+     * Starts a span on this thread for use in a try-with-resources block.
+     */
+    public static Span span(String name) {
+        if (!isEnabled()) {
+            return NOOP;
+        }
+
+        Span span = new Span(name, System.nanoTime(), false);
+        push(span);
+        return span;
+    }
+
+    private static void push(Span span) {
+        Deque<Span> stack = spans.get();
+
+        if (stack.size() >= MAX_OPEN_SPANS) {
+            stack.removeLast();
+        }
+
+        stack.push(span);
+    }
+
+    /**
+     * Starts a span which isn't tied to this thread, for things which finish on
+     * a different thread to the one they started on. Call {@link Span#end()} on
+     * the returned span when it's done.
+     */
+    public static Span startDetached(String name) {
+        if (!isEnabled()) {
+            return NOOP;
+        }
+
+        return new Span(name, System.nanoTime(), true);
+    }
+
+    /**
+     * @return the histogram of how long each span (by name) has taken, in
+     *         nanoseconds
+     */
+    public static Map<String, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(new TreeMap<>(histograms));
+    }
+
+    /**
+     * Starts keeping every span recorded, so they can be exported with
+     * {@link #exportChromeTrace(Path)}.
+     */
+    public static synchronized void startTracing() {
+        if (!tracing) {
+            traceEvents.clear();
+            traceEventCount.set(0);
+            traceStartNanos = System.nanoTime();
+            tracing = true;
+        }
+    }
+
+    /**
+     * Saves the spans recorded since {@link #startTracing()} was called in the
+     * Chrome trace event format, which can be opened in chrome://tracing or
+     * https://ui.perfetto.dev. The histograms of every span are saved alongside
+     * the events.
+     *
+     * @return if the trace was saved
+     */
+    public static boolean exportChromeTrace(Path file) {
+        List<TraceEvent> events = new ArrayList<>(traceEvents);
+
+        if (file.getParent() != null) {
+            FileUtils.createDirectory(file.getParent());
+        }
+
+        try (JsonWriter writer = new JsonWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.beginObject();
+
+            writer.name("traceEvents").beginArray();
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                writer.beginObject();
+                writer.name("name").value("thread_name");
+                writer.name("ph").value("M");
+                writer.name("pid").value(1);
+                writer.name("tid").value(thread.getKey());
+                writer.name("args").beginObject().name("name").value(thread.getValue()).endObject();
+                writer.endObject();
+            }
+
+            for (TraceEvent event : events) {
+                writer.beginObject();
+                writer.name("name").value(event.name);
+                writer.name("cat").value(event.detached ? "detached" : "span");
+                writer.name("ph").value("X");
+                writer.name("pid").value(1);
+                writer.name("tid").value(event.threadId);
+                writer.name("ts").value(event.startMicros);
+                writer.name("dur").value(event.durationMicros);
+                writer.endObject();
+            }
+            writer.endArray();
+
+            writer.name("displayTimeUnit").value("ms");
+
+            writer.name("histograms").beginObject();
+            for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+
+                writer.name(entry.getKey()).beginObject();
+                writer.name("count").value(histogram.getCount());
+                writer.name("meanMs").value(histogram.getMean() / 1000000.0);
+                writer.name("p50Ms").value(histogram.getPercentile(50) / 1000000.0);
+                writer.name("p90Ms").value(histogram.getPercentile(90) / 1000000.0);
+                writer.name("p99Ms").value(histogram.getPercentile(99) / 1000000.0);
+                writer.name("maxMs").value(histogram.getMax() / 1000000.0);
+                writer.endObject();
+            }
+            writer.endObject();
+
+            writer.endObject();
+        } catch (Exception e) {
+            LogManager.logStackTrace("Error saving performance trace to " + file, e, false);
+            return false;
+        }
+
+        return true;
+    }
+
+    public static final class Span implements AutoCloseable {
+        private final String name;
+        private final long startNanos;
+        private final boolean detached;
+        private volatile boolean ended = false;
+
+        private Span(String name, long startNanos, boolean detached) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.detached = detached;
+        }
+
+        public void end() {
+            if (name == null || ended) {
+                return;
+            }
+
+            if (detached) {
+                record(System.nanoTime());
+            } else {
+                PerformanceManager.end(name);
+            }
+        }
+
+        @Override
+        public void close() {
+            end();
+        }
+
+        private void record(long endNanos) {
+            ended = true;
+
+            long took = endNanos - startNanos;
+            histograms.computeIfAbsent(name, n -> new LatencyHistogram()).record(took);
+            LogManager.debug(name + " took " + TimeUnit.NANOSECONDS.toMillis(took) + " ms", 5);
+
+            if (tracing && traceEventCount.incrementAndGet() <= MAX_TRACE_EVENTS) {
+                Thread thread = Thread.currentThread();
+                threadNames.putIfAbsent(thread.getId(), thread.getName());
+
+                traceEvents.add(new TraceEvent(name, thread.getId(), detached,
+                        TimeUnit.NANOSECONDS.toMicros(Math.max(0L, startNanos - traceStartNanos)),
+                        TimeUnit.NANOSECONDS.toMicros(took)));
+            }
+        }
+    }
 
-            times.remove(name);
+    private static final class TraceEvent {
+        private final String name;
+        private final long threadId;
+        private final boolean detached;
+        private final long startMicros;
+        private final long durationMicros;
 
-            LogManager.debug(name + " took " + timeElapsed + " ms", 5);
+        private TraceEvent(String name, long threadId, boolean detached, long startMicros, long durationMicros) {
+            this.name = name;
+            this.threadId = threadId;
+            this.detached = detached;
+            this.startMicros = startMicros;
+            this.durationMicros = durationMicros;
         }
     }
 }
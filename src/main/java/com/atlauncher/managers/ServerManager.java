@@ -55,7 +55,7 @@ public class ServerManager {
      * Loads the user installed servers
      */
     public static void loadServers() {
-        PerformanceManager.start();
+        PerformanceManager.start("ServerManager.loadServers");
         LogManager.debug("Loading servers");
         ArrayList<Server> servers = new ArrayList<>();
 
@@ -81,7 +81,7 @@ public class ServerManager {
 
         SERVERS.onNext(servers);
         LogManager.debug("Finished loading servers");
-        PerformanceManager.end();
+        PerformanceManager.end("ServerManager.loadServers");
     }
 
     public static void setServerVisibility(Server server, boolean collapsed) {
@@ -120,6 +120,7 @@ public class ServerManager {
 
         if (servers.remove(server)) {
             FileUtils.delete(server.getRoot(), true);
+            ContentStoreManager.release(server.getRoot());
             SERVERS.onNext(servers);
         }
     }
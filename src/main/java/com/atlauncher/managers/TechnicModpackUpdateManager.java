@@ -125,7 +125,7 @@ public class TechnicModpackUpdateManager {
             return;
         }
 
-        PerformanceManager.start();
+        PerformanceManager.start("TechnicModpackUpdateManager.checkForUpdates");
         LogManager.info("Checking for updates to Technic Modpack instances");
 
         InstanceManager.getInstances().parallelStream()
@@ -161,6 +161,6 @@ public class TechnicModpackUpdateManager {
                     }
                 });
 
-        PerformanceManager.end();
+        PerformanceManager.end("TechnicModpackUpdateManager.checkForUpdates");
     }
 }
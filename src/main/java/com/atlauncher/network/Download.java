@@ -19,23 +19,43 @@ package com.atlauncher.network;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.lang.reflect.Type;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.atlauncher.App;
 import com.atlauncher.FileSystem;
 import com.atlauncher.Gsons;
 import com.atlauncher.Network;
+import com.atlauncher.data.PerformanceReport;
 import com.atlauncher.managers.LogManager;
 import com.atlauncher.utils.ArchiveUtils;
+import com.atlauncher.utils.FileHashCache;
 import com.atlauncher.utils.FileUtils;
 import com.atlauncher.utils.Hashing;
 import com.atlauncher.utils.Utils;
@@ -45,6 +65,7 @@ import com.google.gson.Gson;
 
 import okhttp3.CacheControl;
 import okhttp3.Headers;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -54,6 +75,32 @@ import okhttp3.Response;
 public final class Download {
     public static final int MAX_ATTEMPTS = 3;
 
+    // files at least this big are downloaded to a .part file (with a journal next to it) so that if the download
+    // is interrupted, it can carry on from where it left off rather than starting again
+    private static final long RESUMABLE_MIN_SIZE = 1024 * 1024;
+
+    // files at least this big are split into segments which are downloaded at the same time over separate
+    // connections, since a lot of CDNs limit how fast a single connection can go
+    private static final long SEGMENTED_MIN_SIZE = 32 * 1024 * 1024;
+    private static final int SEGMENTS = 4;
+
+    // segments of a file are downloaded by the thread downloading the file, helped by these threads when the
+    // DownloadScheduler has connections to the host to spare
+    private static final int SEGMENT_THREADS = SEGMENTS * 4;
+    private static final ExecutorService segmentExecutor;
+
+    static {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(SEGMENT_THREADS, SEGMENT_THREADS, 60L,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "ATL-Download-Segment-Thread");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        segmentExecutor = threadPoolExecutor;
+    }
+
     // pre request
     String url;
     private String friendlyFileName;
@@ -69,6 +116,7 @@ public final class Download {
     public long size = -1L;
     private boolean executable = false;
     public InstanceInstaller instanceInstaller;
+    private PerformanceReport performanceReport;
     private OkHttpClient httpClient = Network.CLIENT;
     private RequestBody post = null;
     private CacheControl cacheControl = null;
@@ -295,6 +343,11 @@ public final class Download {
         return this;
     }
 
+    public Download withPerformanceReport(PerformanceReport performanceReport) {
+        this.performanceReport = performanceReport;
+        return this;
+    }
+
     public Download withHttpClient(OkHttpClient httpClient) {
         this.httpClient = httpClient;
         return this;
@@ -306,11 +359,30 @@ public final class Download {
     }
 
     private void execute() throws IOException {
+        execute(0L, null);
+    }
+
+    private void execute(long rangeStart, String ifRange) throws IOException {
         // connection is already open, so close it first
         if (this.response != null) {
             this.response.close();
         }
 
+        this.response = this.executeRequest(this.buildRequest(rangeStart, -1L, ifRange));
+
+        if (this.response == null || (!this.ignoreFailures && !this.response.isSuccessful())) {
+            if (this.response != null && this.response.code() == 429) {
+                LogManager.info(this.response.headers().toString());
+            }
+            throw new DownloadException(this);
+        }
+    }
+
+    /**
+     * Builds the request for this download, optionally only asking for the bytes
+     * from rangeStart to rangeEnd (inclusive, or until the end of the file if -1).
+     */
+    private Request buildRequest(long rangeStart, long rangeEnd, String ifRange) {
         Request.Builder builder = new Request.Builder().url(this.url);
 
         if (this.post != null) {
@@ -325,13 +397,27 @@ public final class Download {
             builder.cacheControl(this.cacheControl);
         }
 
-        this.response = httpClient.newCall(builder.build()).execute();
+        if (rangeStart > 0L || rangeEnd != -1L) {
+            builder.header("Range", "bytes=" + rangeStart + "-" + (rangeEnd == -1L ? "" : rangeEnd));
 
-        if (this.response == null || (!this.ignoreFailures && !this.response.isSuccessful())) {
-            if (this.response != null && this.response.code() == 429) {
-                LogManager.info(this.response.headers().toString());
+            // if the file has changed on the server since we started, this makes sure we get the whole new file back
+            if (ifRange != null) {
+                builder.header("If-Range", ifRange);
             }
-            throw new DownloadException(this);
+        }
+
+        return builder.build();
+    }
+
+    private Response executeRequest(Request request) throws IOException {
+        try {
+            return Network.clientForUrl(httpClient, request.url()).newCall(request).execute();
+        } catch (IOException e) {
+            if (!Network.fallBackToHttp1(request.url(), e)) {
+                throw e;
+            }
+
+            return Network.clientForUrl(httpClient, request.url()).newCall(request).execute();
         }
     }
 
@@ -438,20 +524,14 @@ public final class Download {
 
             if (this.fingerprint != null) {
                 try {
-                    if (Hashing.murmur(this.to) == this.fingerprint) {
+                    if (FileHashCache.murmur(this.to) == this.fingerprint) {
                         return false;
                     }
                 } catch (IOException e) {
                     LogManager.error("Error getting murmur hash");
                     return false;
                 }
-            } else if (this.md5() && Hashing.md5(this.to).equals(Hashing.toHashCode(this.getHash()))) {
-                return false;
-            } else if (this.sha256() && Hashing.sha256(this.to).equals(Hashing.toHashCode(this.getHash()))) {
-                return false;
-            } else if (this.sha512() && Hashing.sha512(this.to).equals(Hashing.toHashCode(this.getHash()))) {
-                return false;
-            } else if (Hashing.sha1(this.to).equals(Hashing.toHashCode(this.getHash()))) {
+            } else if (this.getFileHash(this.to).equals(Hashing.toHashCode(this.getHash()))) {
                 return false;
             }
 
@@ -464,7 +544,7 @@ public final class Download {
         return true;
     }
 
-    private void downloadDirect() {
+    private void addSizeToInstaller() {
         if (size == -1L) {
             size = this.getFilesize();
 
@@ -472,6 +552,11 @@ public final class Download {
                 instanceInstaller.addBytesToDownload(size);
             }
         }
+    }
+
+    private void downloadDirect() {
+        this.addSizeToInstaller();
+
         try (FileChannel fc = FileChannel.open(this.to, Utils.WRITE);
                 ReadableByteChannel rbc = Channels.newChannel(this.response.body().byteStream())) {
             fc.transferFrom(rbc, 0, Long.MAX_VALUE);
@@ -480,59 +565,454 @@ public final class Download {
         }
     }
 
+    /**
+     * Writes the response body into the .part file starting at the given offset.
+     *
+     * @return if the whole of the response body was written
+     */
+    private boolean downloadToPartFile(long offset) {
+        long contentLength = this.response.body().contentLength();
+
+        try (FileChannel fc = FileChannel.open(this.getPartFile(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+                ReadableByteChannel rbc = Channels.newChannel(this.response.body().byteStream())) {
+            fc.truncate(offset);
+
+            long written = fc.transferFrom(rbc, offset, Long.MAX_VALUE);
+
+            return contentLength == -1L || written == contentLength;
+        } catch (Exception e) {
+            LogManager.logStackTrace("Failed to download file " + this.to, e, false);
+            return false;
+        }
+    }
+
+    private Path getPartFile() {
+        return this.to.resolveSibling(this.to.getFileName().toString() + ".part");
+    }
+
+    private Path getJournalFile() {
+        return this.to.resolveSibling(this.to.getFileName().toString() + ".part.json");
+    }
+
+    private boolean isResumable(long offset) {
+        if (this.post != null || this.to == null) {
+            return false;
+        }
+
+        long totalSize = this.size > 0L ? this.size : offset + this.response.body().contentLength();
+
+        return totalSize >= RESUMABLE_MIN_SIZE;
+    }
+
+    /**
+     * Gets the journal of a previous attempt at this download which can be
+     * carried on from, or null if there isn't one (or it was for a different
+     * file).
+     */
+    private PartialDownload getPartialDownload() {
+        if (this.to == null || this.post != null || !Files.exists(this.getPartFile())
+                || !Files.exists(this.getJournalFile())) {
+            return null;
+        }
+
+        try (InputStreamReader isr = new InputStreamReader(Files.newInputStream(this.getJournalFile()),
+                StandardCharsets.UTF_8)) {
+            PartialDownload partial = Gsons.DEFAULT_SLIM.fromJson(isr, PartialDownload.class);
+
+            if (partial != null && partial.isFor(this)) {
+                return partial;
+            }
+        } catch (Exception e) {
+            LogManager.logStackTrace("Failed to read partial download journal for " + this.to, e, false);
+        }
+
+        deletePartialDownload();
+        return null;
+    }
+
+    private PartialDownload createPartialDownload() {
+        PartialDownload partial = new PartialDownload();
+        partial.url = this.url;
+        partial.hash = this.hash;
+        partial.fingerprint = this.fingerprint;
+        partial.etag = this.response.header("ETag");
+        partial.lastModified = this.response.header("Last-Modified");
+
+        return partial;
+    }
+
+    private void savePartialDownload(PartialDownload partial) {
+        try (OutputStreamWriter osw = new OutputStreamWriter(Files.newOutputStream(this.getJournalFile()),
+                StandardCharsets.UTF_8)) {
+            Gsons.DEFAULT_SLIM.toJson(partial, osw);
+        } catch (Exception e) {
+            LogManager.logStackTrace("Failed to save partial download journal for " + this.to, e, false);
+        }
+    }
+
+    private void deletePartialDownload() {
+        if (Files.exists(this.getPartFile())) {
+            FileUtils.delete(this.getPartFile());
+        }
+
+        if (Files.exists(this.getJournalFile())) {
+            FileUtils.delete(this.getJournalFile());
+        }
+    }
+
+    private boolean isSegmentable() {
+        return this.post == null && this.to != null && this.response.code() == 200
+                && "bytes".equalsIgnoreCase(this.response.header("Accept-Ranges"))
+                && this.response.body().contentLength() >= SEGMENTED_MIN_SIZE;
+    }
+
+    /**
+     * Downloads all the segments of the file that haven't already been downloaded
+     * at the same time, each into its own place in the .part file.
+     *
+     * The connection this download already has from the {@link DownloadScheduler}
+     * is used for one segment at a time, and other segments are only downloaded
+     * alongside it on connections the scheduler can spare, so a big file never
+     * goes over the per host limit.
+     *
+     * If useResponse is true, the first segment is read from the currently open
+     * response (which must be for the whole file), rather than making a new
+     * request for it.
+     *
+     * @return if every segment was downloaded
+     */
+    private boolean downloadSegments(PartialDownload partial, boolean useResponse) {
+        Queue<Callable<Boolean>> segments = new ConcurrentLinkedQueue<>();
+        AtomicBoolean downloaded = new AtomicBoolean(true);
+        List<Future<?>> helpers = new ArrayList<>();
+
+        try (FileChannel fc = FileChannel.open(this.getPartFile(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            // preallocate the file, so each segment can write straight to its position
+            if (fc.size() > partial.length) {
+                fc.truncate(partial.length);
+            } else if (fc.size() < partial.length) {
+                fc.write(ByteBuffer.wrap(new byte[1]), partial.length - 1);
+            }
+
+            for (long start = 0L; start < partial.length; start += partial.segmentSize) {
+                final long segmentStart = start;
+                final long segmentEnd = Math.min(start + partial.segmentSize, partial.length) - 1;
+
+                if (partial.completedSegments.contains(segmentStart)) {
+                    if (instanceInstaller != null) {
+                        instanceInstaller.addDownloadedBytes(segmentEnd - segmentStart + 1);
+                    }
+                    continue;
+                }
+
+                if (segmentStart == 0L && useResponse) {
+                    final Response firstResponse = this.response;
+                    segments.add(() -> writeSegment(fc, firstResponse, segmentStart, segmentEnd, partial));
+                } else {
+                    segments.add(() -> downloadSegment(fc, segmentStart, segmentEnd, partial));
+                }
+            }
+
+            String host = DownloadScheduler.getHost(this.url);
+            int helperCount = segments.size() - 1;
+            for (int i = 0; i < helperCount; i++) {
+                helpers.add(segmentExecutor.submit(() -> {
+                    if (!DownloadScheduler.tryAcquire(host)) {
+                        return;
+                    }
+
+                    try {
+                        runSegments(segments, downloaded);
+                    } finally {
+                        DownloadScheduler.release(host);
+                    }
+                }));
+            }
+
+            runSegments(segments, downloaded);
+
+            for (Future<?> helper : helpers) {
+                try {
+                    helper.get();
+                } catch (ExecutionException e) {
+                    LogManager.logStackTrace("Failed to download segment of " + this.url, e, false);
+                    downloaded.set(false);
+                }
+            }
+
+            return downloaded.get() && segments.isEmpty();
+        } catch (InterruptedException e) {
+            for (Future<?> helper : helpers) {
+                helper.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException e) {
+            LogManager.logStackTrace("Failed to download file " + this.to, e, false);
+            return false;
+        }
+    }
+
+    /**
+     * Downloads segments from the queue until there are none left.
+     */
+    private void runSegments(Queue<Callable<Boolean>> segments, AtomicBoolean downloaded) {
+        Callable<Boolean> segment;
+
+        while (!Thread.currentThread().isInterrupted() && (segment = segments.poll()) != null) {
+            try {
+                if (!segment.call()) {
+                    downloaded.set(false);
+                }
+            } catch (Exception e) {
+                LogManager.logStackTrace("Failed to download segment of " + this.url, e, false);
+                downloaded.set(false);
+            }
+        }
+    }
+
+    private boolean downloadSegment(FileChannel fc, long start, long end, PartialDownload partial)
+            throws IOException {
+        try (Response segmentResponse = this.executeRequest(this.buildRequest(start, end, partial.getValidator()))) {
+            if (segmentResponse.code() != 206 || getContentRangeStart(segmentResponse) != start) {
+                // the file changed on the server, so the segments we already have are no good
+                partial.stale = true;
+                return false;
+            }
+
+            return writeSegment(fc, segmentResponse, start, end, partial);
+        }
+    }
+
+    private boolean writeSegment(FileChannel fc, Response segmentResponse, long start, long end,
+            PartialDownload partial) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = start;
+
+        try (ReadableByteChannel rbc = Channels.newChannel(segmentResponse.body().byteStream())) {
+            while (position <= end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position + 1));
+
+                if (rbc.read(buffer) == -1) {
+                    break;
+                }
+
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    position += fc.write(buffer, position);
+                }
+            }
+        }
+
+        if (position != end + 1) {
+            return false;
+        }
+
+        synchronized (partial) {
+            partial.completedSegments.add(start);
+            this.savePartialDownload(partial);
+        }
+
+        return true;
+    }
+
+    private static long getContentRangeStart(Response response) {
+        // Content-Range: bytes <start>-<end>/<size>
+        String contentRange = response.header("Content-Range");
+
+        if (contentRange == null || !contentRange.startsWith("bytes ") || contentRange.indexOf('-') == -1) {
+            return -1L;
+        }
+
+        try {
+            return Long.parseLong(contentRange.substring(6, contentRange.indexOf('-')).trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
     private boolean hashMatches() {
         if (Files.exists(this.to)) {
             if (this.fingerprint != null) {
                 try {
-                    return Hashing.murmur(this.to) == this.fingerprint;
+                    return FileHashCache.murmur(this.to) == this.fingerprint;
                 } catch (IOException e) {
                     LogManager.error("Error getting murmur hash");
                     return false;
                 }
-            } else if (this.md5()) {
-                return Hashing.md5(this.to).equals(Hashing.toHashCode(this.getHash()));
-            } else if (this.sha256()) {
-                return Hashing.sha256(this.to).equals(Hashing.toHashCode(this.getHash()));
-            } else if (this.sha512()) {
-                return Hashing.sha512(this.to).equals(Hashing.toHashCode(this.getHash()));
-            } else {
-                return Hashing.sha1(this.to).equals(Hashing.toHashCode(this.getHash()));
             }
+
+            return this.getFileHash(this.to).equals(Hashing.toHashCode(this.getHash()));
         }
 
         return false;
     }
 
+    private boolean hasHash() {
+        return this.fingerprint != null || !Hashing.toHashCode(this.getHash()).equals(Hashing.EMPTY_HASH_CODE);
+    }
+
+    /**
+     * Gets the hash of the given file using the same algorithm as the expected
+     * hash, checking the file hash cache first.
+     */
+    private HashCode getFileHash(Path file) {
+        if (this.md5()) {
+            return FileHashCache.md5(file);
+        } else if (this.sha256()) {
+            return FileHashCache.sha256(file);
+        } else if (this.sha512()) {
+            return FileHashCache.sha512(file);
+        }
+
+        return FileHashCache.sha1(file);
+    }
+
     private boolean downloadRec(int attempt) {
         if (attempt > MAX_ATTEMPTS) {
             return false;
         }
 
+        if (attempt > 1 && this.getPerformanceReport() != null) {
+            this.getPerformanceReport().retried();
+        }
+
         // if file exists, delete it
         if (Files.exists(this.to)) {
             FileUtils.delete(this.to);
         }
 
-        // if already opened or not first attempt, open the connection
-        if (this.response == null || attempt != 1) {
-            try {
-                this.execute();
-            } catch (IOException e) {
-                LogManager.logStackTrace(e);
+        PartialDownload partial = this.getPartialDownload();
+        boolean usePartFile = true;
+        boolean downloaded;
+
+        if (partial != null && partial.segmentSize > 0L) {
+            // carry on with the segments that didn't finish last time
+            if (this.response != null) {
+                this.response.close();
+                this.response = null;
+            }
+
+            if (this.size == -1L) {
+                this.size = partial.length;
 
-                if (this.response != null) {
-                    this.response.close();
-                    this.response = null;
+                if (instanceInstaller != null) {
+                    instanceInstaller.addBytesToDownload(this.size);
                 }
+            }
 
-                return false;
+            downloaded = this.downloadSegments(partial, false);
+        } else {
+            long offset = 0L;
+
+            if (partial != null) {
+                try {
+                    offset = Files.size(this.getPartFile());
+                } catch (IOException e) {
+                    deletePartialDownload();
+                }
+            }
+
+            if (offset > 0L) {
+                // ask for only the part of the file we don't have yet
+                try {
+                    this.execute(offset, partial.getValidator());
+                } catch (IOException e) {
+                    LogManager.debug("Failed resuming download of " + this.url + " from byte " + offset
+                            + ", starting again");
+
+                    if (this.response != null) {
+                        this.response.close();
+                        this.response = null;
+                    }
+
+                    deletePartialDownload();
+                    return this.downloadRec(attempt + 1);
+                }
+
+                if (this.response.code() == 206 && getContentRangeStart(this.response) == offset) {
+                    LogManager.debug("Resuming download of " + this.url + " from byte " + offset);
+
+                    if (instanceInstaller != null) {
+                        instanceInstaller.addDownloadedBytes(offset);
+                    }
+                } else {
+                    // the file changed on the server or it doesn't support ranges, so we got given the whole file
+                    offset = 0L;
+                }
+            } else if (this.response == null || attempt != 1) {
+                // if already opened or not first attempt, open the connection
+                try {
+                    this.execute();
+                } catch (IOException e) {
+                    LogManager.logStackTrace(e);
+
+                    if (this.response != null) {
+                        this.response.close();
+                        this.response = null;
+                    }
+
+                    return false;
+                }
+            }
+
+            // download the file to disk
+            if (offset == 0L && this.isSegmentable()) {
+                partial = this.createPartialDownload();
+                partial.length = this.response.body().contentLength();
+                partial.segmentSize = (partial.length + SEGMENTS - 1) / SEGMENTS;
+                this.savePartialDownload(partial);
+                this.addSizeToInstaller();
+
+                downloaded = this.downloadSegments(partial, true);
+            } else if (this.isResumable(offset)) {
+                if (offset == 0L) {
+                    partial = this.createPartialDownload();
+                    this.savePartialDownload(partial);
+                    this.addSizeToInstaller();
+                }
+
+                downloaded = this.downloadToPartFile(offset);
+            } else {
+                if (partial != null) {
+                    deletePartialDownload();
+                }
+
+                this.downloadDirect();
+                usePartFile = false;
+                downloaded = true;
             }
         }
 
-        // download the file to disk
-        this.downloadDirect();
+        if (usePartFile) {
+            if (!downloaded) {
+                if (partial != null && partial.stale) {
+                    deletePartialDownload();
+                }
+
+                // otherwise leave the .part file as is, so the next attempt carries on from where this one stopped
+                LogManager.debug("Failed downloading " + this.url + " on attempt " + attempt);
+                return this.downloadRec(attempt + 1);
+            }
+
+            try {
+                // the .part file is in the same folder, so this is just a rename rather than a copy
+                Files.move(this.getPartFile(), this.to, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                LogManager.logStackTrace("Failed to move downloaded file into place at " + this.to, e, false);
+                deletePartialDownload();
+                return this.downloadRec(attempt + 1);
+            }
+
+            deletePartialDownload();
+        }
 
-        boolean hashMatches = hashMatches();
+        // if we don't know the hash, the best we can do is check we got the whole file
+        boolean hashMatches = this.hasHash() ? hashMatches()
+                : this.size <= 0L || this.to.toFile().length() == this.size;
 
         // if hash matches we're good
         if (hashMatches) {
@@ -568,7 +1048,7 @@ public final class Download {
                 FileUtils.createDirectory(this.copyTo.getParent());
             }
 
-            FileUtils.copyFile(this.to, this.copyTo, true);
+            FileUtils.linkOrCopyFile(this.to, this.copyTo);
         }
     }
 
@@ -582,10 +1062,12 @@ public final class Download {
         }
 
         if (!this.needToDownload()) {
+            this.reportReused();
+
             if (this.copyTo != null) {
                 if (this.fingerprint != null) {
                     try {
-                        if (Hashing.murmur(this.copyTo) != this.fingerprint) {
+                        if (FileHashCache.murmur(this.copyTo) != this.fingerprint) {
                             this.copy();
                         }
                     } catch (IOException ignored) {
@@ -593,15 +1075,7 @@ public final class Download {
                 } else {
                     HashCode fileHash = Hashing.EMPTY_HASH_CODE;
                     if (Files.exists(this.copyTo)) {
-                        if (this.md5()) {
-                            fileHash = Hashing.md5(this.copyTo);
-                        } else if (this.sha256()) {
-                            fileHash = Hashing.sha256(this.copyTo);
-                        } else if (this.sha512()) {
-                            fileHash = Hashing.sha512(this.copyTo);
-                        } else {
-                            fileHash = Hashing.sha1(this.copyTo);
-                        }
+                        fileHash = this.getFileHash(this.copyTo);
                     }
 
                     if (!fileHash.equals(Hashing.toHashCode(this.getHash()))) {
@@ -614,8 +1088,11 @@ public final class Download {
             return;
         }
 
-        // open the connection if not already opened
-        if (this.response == null) {
+        long startNanos = System.nanoTime();
+
+        // open the connection if not already opened (unless we're carrying on from a previous attempt, in which case
+        // only the rest of the file will be requested)
+        if (this.response == null && !Files.exists(this.getJournalFile())) {
             try {
                 this.execute();
             } catch (IOException e) {
@@ -657,8 +1134,20 @@ public final class Download {
 
         if ((this.ignoreFailures && this.to.toFile().length() != 0)
                 || (expected != null && expected.equals(Hashing.EMPTY_HASH_CODE))) {
-            if (this.response.isSuccessful()) {
-                this.downloadDirect();
+            if (this.response == null) {
+                // carrying on from a previous attempt, which only downloadRec knows how to do
+                if (!this.downloadRec(1)) {
+                    LogManager.error("Error downloading " + this.to.getFileName() + " from " + this.url);
+                }
+            } else if (this.response.isSuccessful()) {
+                if (this.isSegmentable()) {
+                    // nothing to check the hash against, but big files can still be downloaded in segments
+                    if (!this.downloadRec(1)) {
+                        LogManager.error("Error downloading " + this.to.getFileName() + " from " + this.url);
+                    }
+                } else {
+                    this.downloadDirect();
+                }
             }
         } else {
             boolean downloaded = this.downloadRec(1);
@@ -697,7 +1186,7 @@ public final class Download {
             if (downloaded && this.copyTo != null) {
                 if (this.fingerprint != null) {
                     try {
-                        if (Hashing.murmur(this.copyTo) != this.fingerprint) {
+                        if (FileHashCache.murmur(this.copyTo) != this.fingerprint) {
                             this.copy();
                         }
                     } catch (IOException ignored) {
@@ -705,15 +1194,7 @@ public final class Download {
                 } else {
                     HashCode fileHash2 = Hashing.EMPTY_HASH_CODE;
                     if (Files.exists(this.copyTo)) {
-                        if (this.md5()) {
-                            fileHash2 = Hashing.md5(this.copyTo);
-                        } else if (this.sha256()) {
-                            fileHash2 = Hashing.sha256(this.copyTo);
-                        } else if (this.sha512()) {
-                            fileHash2 = Hashing.sha512(this.copyTo);
-                        } else {
-                            fileHash2 = Hashing.sha1(this.copyTo);
-                        }
+                        fileHash2 = this.getFileHash(this.copyTo);
                     }
 
                     if (!fileHash2.equals(expected)) {
@@ -723,6 +1204,13 @@ public final class Download {
             }
         }
 
+        PerformanceReport report = this.getPerformanceReport();
+        if (report != null && Files.exists(this.to)) {
+            HttpUrl httpUrl = HttpUrl.parse(this.url);
+            report.fileDownloaded(httpUrl == null ? null : httpUrl.host(), this.to.toFile().length(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+
         runPostProcessors();
 
         if (oldPath != null && Files.exists(oldPath)) {
@@ -730,6 +1218,26 @@ public final class Download {
         }
     }
 
+    private PerformanceReport getPerformanceReport() {
+        if (this.performanceReport != null || this.instanceInstaller == null) {
+            return this.performanceReport;
+        }
+
+        return this.instanceInstaller.performanceReport;
+    }
+
+    /**
+     * Records in the performance report (if there is one) that the file was
+     * already on disk, so didn't need downloading.
+     */
+    void reportReused() {
+        PerformanceReport report = this.getPerformanceReport();
+
+        if (report != null) {
+            report.fileReused(this.to.toFile().length());
+        }
+    }
+
     public void runPostProcessors() {
         if (this.response != null) {
             this.response.close();
@@ -773,4 +1281,33 @@ public final class Download {
     public int hashCode() {
         return this.to.hashCode();
     }
+
+    /**
+     * Journal saved next to a .part file, so we know where the partial file came
+     * from and can check it hasn't changed on the server before carrying on.
+     */
+    private static final class PartialDownload {
+        public String url;
+        public String hash;
+        public Long fingerprint;
+        public String etag;
+        public String lastModified;
+
+        // only set for segmented downloads, where the .part file is the full size from the start
+        public long length = 0L;
+        public long segmentSize = 0L;
+        public List<Long> completedSegments = new ArrayList<>();
+
+        // set when the server gave back a different file than the segments we already have
+        private transient volatile boolean stale = false;
+
+        private String getValidator() {
+            return etag != null ? etag : lastModified;
+        }
+
+        private boolean isFor(Download download) {
+            return Objects.equals(url, download.url) && Objects.equals(hash, download.hash)
+                    && Objects.equals(fingerprint, download.fingerprint);
+        }
+    }
 }
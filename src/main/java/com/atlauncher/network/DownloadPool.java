@@ -18,22 +18,40 @@
 package com.atlauncher.network;
 
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import com.atlauncher.App;
+import com.atlauncher.interfaces.NetworkProgressable;
 import com.atlauncher.managers.LogManager;
+import com.atlauncher.utils.FileHashCache;
 import com.atlauncher.utils.FileUtils;
 
 @SuppressWarnings("serial")
 public final class DownloadPool extends LinkedList<Download> {
     private final boolean wait;
+    private final DownloadScheduler.Priority priority;
+    private final List<CompletableFuture<Void>> scheduled = new ArrayList<>();
+    private boolean verified = false;
 
-    public DownloadPool(boolean wait) {
+    public DownloadPool(boolean wait, DownloadScheduler.Priority priority) {
         this.wait = wait;
+        this.priority = priority;
+    }
+
+    public DownloadPool(boolean wait) {
+        this(wait, DownloadScheduler.Priority.NORMAL);
+    }
+
+    public DownloadPool(DownloadScheduler.Priority priority) {
+        this(true, priority);
     }
 
     public DownloadPool() {
@@ -47,15 +65,27 @@ public final class DownloadPool extends LinkedList<Download> {
             }
         }
 
-        ExecutorService executor = Executors.newFixedThreadPool(App.settings.concurrentConnections);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
         synchronized (this) {
             for (Download dl : this) {
-                executor.execute(new Downloader(dl));
+                futures.add(schedule(dl));
             }
         }
-        executor.shutdown();
+
         if (this.wait) {
-            while (!executor.isTerminated()) {
+            await(futures);
+            FileHashCache.save();
+        }
+    }
+
+    /**
+     * Cancels any downloads in this pool that haven't started yet. Downloads
+     * already in progress are left to finish.
+     */
+    public void cancel() {
+        synchronized (this.scheduled) {
+            for (CompletableFuture<Void> future : this.scheduled) {
+                future.cancel(false);
             }
         }
     }
@@ -64,7 +94,9 @@ public final class DownloadPool extends LinkedList<Download> {
         long size = 0;
         synchronized (this) {
             for (Download dl : this) {
-                if (dl.needToDownload()) {
+                // downsized pools only contain things that need downloading, so no need to
+                // check (and hash) them all again
+                if (this.verified || dl.needToDownload()) {
                     size += dl.size;
                 }
             }
@@ -73,30 +105,117 @@ public final class DownloadPool extends LinkedList<Download> {
     }
 
     public DownloadPool downsize() {
-        final DownloadPool pool = new DownloadPool(this.wait);
+        return this.verify(null);
+    }
+
+    /**
+     * Checks every download in this pool and starts downloading each one that
+     * needs it as soon as it's been checked, so the network isn't sitting idle
+     * while the rest of the pool is still being hashed.
+     *
+     * The bytes of each download started are added to the given progressable (if
+     * not null).
+     *
+     * @return the pool of downloads that needed downloading
+     */
+    public DownloadPool downsizeAndDownloadAll(NetworkProgressable progressable) {
+        return downsizeAndDownloadAll(progressable, null);
+    }
+
+    /**
+     * @param onFirstDownload run (once) when the first download is started, if
+     *                        anything needs downloading at all
+     * @see #downsizeAndDownloadAll(NetworkProgressable)
+     */
+    public DownloadPool downsizeAndDownloadAll(NetworkProgressable progressable, Runnable onFirstDownload) {
+        final List<CompletableFuture<Void>> downloads = Collections.synchronizedList(new ArrayList<>());
+        final AtomicBoolean started = new AtomicBoolean(false);
+
+        DownloadPool pool = this.verify(dl -> {
+            if (onFirstDownload != null && started.compareAndSet(false, true)) {
+                onFirstDownload.run();
+            }
+
+            if (!Files.isDirectory(dl.to.getParent())) {
+                FileUtils.createDirectory(dl.to.getParent());
+            }
+
+            if (progressable != null && dl.size > 0L) {
+                synchronized (progressable) {
+                    progressable.addBytesToDownload(dl.size);
+                }
+            }
+
+            downloads.add(schedule(dl));
+        });
+
+        if (this.wait) {
+            await(new ArrayList<>(downloads));
+            FileHashCache.save();
+        }
+
+        return pool;
+    }
+
+    private DownloadPool verify(Consumer<Download> onNeedsDownload) {
+        final DownloadPool pool = new DownloadPool(this.wait, this.priority);
+        pool.verified = true;
+
         final List<Download> downloads = this.stream().distinct().collect(Collectors.toList());
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(downloads.size());
 
-        ExecutorService executor = Executors.newFixedThreadPool(App.settings.concurrentConnections);
         for (final Download dl : downloads) {
-            executor.submit(() -> {
+            futures.add(DownloadVerifier.submit(() -> {
                 if (dl.needToDownload()) {
                     synchronized (pool) {
                         pool.add(dl);
                     }
+
+                    if (onNeedsDownload != null) {
+                        onNeedsDownload.accept(dl);
+                    }
                 } else {
+                    dl.reportReused();
                     dl.copy();
                     dl.runPostProcessors();
                 }
-            });
+            }));
         }
 
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-        }
+        await(futures);
+        FileHashCache.save();
 
         return pool;
     }
 
+    private CompletableFuture<Void> schedule(Download dl) {
+        CompletableFuture<Void> future = DownloadScheduler.submit(dl, this.priority);
+
+        synchronized (this.scheduled) {
+            this.scheduled.add(future);
+        }
+
+        return future;
+    }
+
+    private void await(List<CompletableFuture<Void>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            // the thread waiting on us was interrupted (install cancelled), so don't
+            // start anything else from this pool
+            for (CompletableFuture<Void> future : futures) {
+                future.cancel(false);
+            }
+            cancel();
+            Thread.currentThread().interrupt();
+        } catch (CancellationException ignored) {
+            // downloads that were cancelled before starting
+        } catch (ExecutionException e) {
+            LogManager.logStackTrace("Error waiting for downloads to finish", e);
+        }
+    }
+
     public boolean any() {
         synchronized (this) {
             for (Download dl : this) {
@@ -108,25 +227,4 @@ public final class DownloadPool extends LinkedList<Download> {
 
         return false;
     }
-
-    private static final class Downloader implements Runnable {
-        private final Download dl;
-
-        private Downloader(Download dl) {
-            this.dl = dl;
-        }
-
-        @Override
-        public void run() {
-            try {
-                if (this.dl.needToDownload()) {
-                    this.dl.downloadFile();
-                } else {
-                    this.dl.copy();
-                }
-            } catch (Exception e) {
-                LogManager.logStackTrace("Error trying to download " + this.dl.to.getFileName(), e);
-            }
-        }
-    }
 }
@@ -0,0 +1,255 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.network;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.atlauncher.App;
+import com.atlauncher.managers.LogManager;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Launcher wide scheduler that every {@link DownloadPool} submits to.
+ *
+ * Downloads are queued per host and dispatched in priority order, so no matter
+ * how many pools are running at once the launcher never has more than
+ * {@link com.atlauncher.data.Settings#concurrentConnections} downloads in
+ * flight, or more than
+ * {@link com.atlauncher.data.Settings#concurrentConnectionsPerHost} to a single
+ * host.
+ */
+public final class DownloadScheduler {
+    public enum Priority {
+        // things that block the game from launching, such as libraries and runtimes
+        HIGH,
+
+        NORMAL,
+
+        // things that can trickle in, such as assets
+        LOW
+    }
+
+    private static final Object lock = new Object();
+    private static final Map<String, PriorityQueue<ScheduledDownload>> pending = new HashMap<>();
+    private static final Map<String, Integer> runningPerHost = new HashMap<>();
+    private static int running = 0;
+    private static long sequence = 0L;
+
+    // threads are only ever started by dispatch() which bounds how many are running
+    private static final ExecutorService executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L,
+            TimeUnit.SECONDS, new SynchronousQueue<>(), new DownloadThreadFactory());
+
+    /**
+     * Queues the given download to be downloaded (or copied if already
+     * downloaded).
+     *
+     * The returned future completes once the download has finished, whether it
+     * was successful or not. Cancelling the future before the download has started
+     * will remove it from the queue.
+     */
+    public static CompletableFuture<Void> submit(Download download, Priority priority) {
+        ScheduledDownload scheduled;
+
+        synchronized (lock) {
+            scheduled = new ScheduledDownload(download, priority, sequence++);
+            pending.computeIfAbsent(scheduled.host, host -> new PriorityQueue<>()).add(scheduled);
+        }
+
+        scheduled.future.whenComplete((result, throwable) -> {
+            if (scheduled.future.isCancelled()) {
+                synchronized (lock) {
+                    PriorityQueue<ScheduledDownload> queue = pending.get(scheduled.host);
+
+                    if (queue != null) {
+                        queue.remove(scheduled);
+                    }
+                }
+            }
+        });
+
+        dispatch();
+
+        return scheduled.future;
+    }
+
+    public static int getPendingCount() {
+        synchronized (lock) {
+            return pending.values().stream().mapToInt(PriorityQueue::size).sum();
+        }
+    }
+
+    public static int getRunningCount() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * Takes a connection to the given host for something other than a queued
+     * download, such as another segment of a file already being downloaded, but
+     * only if one is free and no queued downloads are waiting for it.
+     *
+     * @return if a connection was taken, in which case it must be given back with
+     *         {@link #release(String)}
+     */
+    static boolean tryAcquire(String host) {
+        synchronized (lock) {
+            int maxConnections = App.settings.concurrentConnections;
+            int maxConnectionsPerHost = Math.min(App.settings.concurrentConnectionsPerHost, maxConnections);
+            PriorityQueue<ScheduledDownload> queue = pending.get(host);
+
+            if (running >= maxConnections || runningPerHost.getOrDefault(host, 0) >= maxConnectionsPerHost
+                    || (queue != null && !queue.isEmpty())) {
+                return false;
+            }
+
+            running++;
+            runningPerHost.merge(host, 1, Integer::sum);
+
+            return true;
+        }
+    }
+
+    static void release(String host) {
+        synchronized (lock) {
+            running--;
+
+            if (runningPerHost.merge(host, -1, Integer::sum) <= 0) {
+                runningPerHost.remove(host);
+            }
+        }
+
+        dispatch();
+    }
+
+    static String getHost(String url) {
+        HttpUrl httpUrl = url == null ? null : HttpUrl.parse(url);
+
+        return httpUrl == null ? "" : httpUrl.host();
+    }
+
+    private static void dispatch() {
+        synchronized (lock) {
+            int maxConnections = App.settings.concurrentConnections;
+            int maxConnectionsPerHost = Math.min(App.settings.concurrentConnectionsPerHost, maxConnections);
+
+            while (running < maxConnections) {
+                ScheduledDownload next = null;
+
+                // find the highest priority download for a host that has capacity left
+                for (Map.Entry<String, PriorityQueue<ScheduledDownload>> entry : pending.entrySet()) {
+                    ScheduledDownload head = entry.getValue().peek();
+
+                    if (head == null || runningPerHost.getOrDefault(entry.getKey(), 0) >= maxConnectionsPerHost) {
+                        continue;
+                    }
+
+                    if (next == null || head.compareTo(next) < 0) {
+                        next = head;
+                    }
+                }
+
+                if (next == null) {
+                    break;
+                }
+
+                pending.get(next.host).poll();
+
+                if (next.future.isDone()) {
+                    continue;
+                }
+
+                running++;
+                runningPerHost.merge(next.host, 1, Integer::sum);
+
+                executor.execute(next);
+            }
+
+            pending.values().removeIf(PriorityQueue::isEmpty);
+        }
+    }
+
+    private static final class ScheduledDownload implements Runnable, Comparable<ScheduledDownload> {
+        private final Download download;
+        private final Priority priority;
+        private final long sequence;
+        private final String host;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private ScheduledDownload(Download download, Priority priority, long sequence) {
+            this.download = download;
+            this.priority = priority;
+            this.sequence = sequence;
+
+            this.host = getHost(download.url);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (this.download.instanceInstaller != null && this.download.instanceInstaller.isCancelled()) {
+                    this.future.cancel(false);
+                    return;
+                }
+
+                if (this.download.needToDownload()) {
+                    this.download.downloadFile();
+                } else {
+                    this.download.copy();
+                }
+            } catch (Exception e) {
+                LogManager.logStackTrace("Error trying to download " + this.download.to.getFileName(), e);
+            } finally {
+                this.future.complete(null);
+                release(this.host);
+            }
+        }
+
+        @Override
+        public int compareTo(ScheduledDownload other) {
+            int priorityCompare = this.priority.compareTo(other.priority);
+
+            if (priorityCompare != 0) {
+                return priorityCompare;
+            }
+
+            return Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    private static final class DownloadThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ATL-Download-Thread-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
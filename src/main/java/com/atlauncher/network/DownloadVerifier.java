@@ -0,0 +1,61 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.network;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Launcher wide pool used to check if files already on disk need downloading.
+ *
+ * This is sized by the number of cores rather than the number of network
+ * connections, since checking a file is hashing and disk reads, not network.
+ */
+public final class DownloadVerifier {
+    public static final int THREADS = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+    private static final ExecutorService executor;
+
+    static {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(THREADS, THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new VerifierThreadFactory());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        executor = threadPoolExecutor;
+    }
+
+    public static CompletableFuture<Void> submit(Runnable runnable) {
+        return CompletableFuture.runAsync(runnable, executor);
+    }
+
+    private static final class VerifierThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ATL-Verify-Thread-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
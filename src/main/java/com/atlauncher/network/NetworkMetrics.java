@@ -0,0 +1,171 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.atlauncher.managers.LogManager;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * Keeps per host counters of the requests made through
+ * {@link com.atlauncher.Network#CLIENT} (and the clients built from it), so we
+ * can see how well connections are being reused and how long hosts are taking
+ * to respond.
+ */
+public final class NetworkMetrics {
+    public static final EventListener.Factory EVENT_LISTENER_FACTORY = call -> new CallListener(
+            call.request().url().host());
+
+    private static final Map<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+
+    public static HostMetrics getHostMetrics(String host) {
+        return hosts.computeIfAbsent(host, h -> new HostMetrics());
+    }
+
+    public static Map<String, HostMetrics> getAllHostMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(hosts));
+    }
+
+    public static void logSummary() {
+        getAllHostMetrics().forEach((host, metrics) -> LogManager.debug(host + ": " + metrics));
+    }
+
+    public static final class HostMetrics {
+        // how many of the most recent response times are kept to work out percentiles from
+        private static final int LATENCY_SAMPLES = 1024;
+
+        public final AtomicLong calls = new AtomicLong();
+        public final AtomicLong failures = new AtomicLong();
+        public final AtomicLong connectionsOpened = new AtomicLong();
+        public final AtomicLong connectionsReused = new AtomicLong();
+        public final AtomicLong http2Connections = new AtomicLong();
+        public final AtomicLong bytesReceived = new AtomicLong();
+
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount = 0;
+
+        /**
+         * The percentage of connections acquired that were reused from the pool
+         * rather than opened fresh.
+         */
+        public double getReuseRatio() {
+            long reused = connectionsReused.get();
+            long total = reused + connectionsOpened.get();
+
+            return total == 0 ? 0D : (double) reused / total;
+        }
+
+        /**
+         * Gets the given percentile (0 - 100) of the time taken from starting a
+         * request until the response headers were received, in milliseconds.
+         */
+        public synchronized long getLatencyPercentile(double percentile) {
+            int count = Math.min(latencyCount, LATENCY_SAMPLES);
+
+            if (count == 0) {
+                return 0L;
+            }
+
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+
+            int index = (int) Math.ceil(percentile / 100D * count) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(index, count - 1))]);
+        }
+
+        private synchronized void addLatency(long nanos) {
+            latencies[latencyCount++ % LATENCY_SAMPLES] = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d calls (%d failed), %d connections opened (%d HTTP/2), %.0f%% reused, %d bytes, "
+                            + "latency p50/p90/p99 %d/%d/%dms",
+                    calls.get(), failures.get(), connectionsOpened.get(), http2Connections.get(),
+                    getReuseRatio() * 100D, bytesReceived.get(), getLatencyPercentile(50), getLatencyPercentile(90),
+                    getLatencyPercentile(99));
+        }
+    }
+
+    private static final class CallListener extends EventListener {
+        private final HostMetrics metrics;
+        private long callStart;
+        private boolean connected = false;
+
+        private CallListener(String host) {
+            this.metrics = getHostMetrics(host);
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+            metrics.calls.incrementAndGet();
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connected = true;
+            metrics.connectionsOpened.incrementAndGet();
+
+            if (protocol == Protocol.HTTP_2) {
+                metrics.http2Connections.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            // redirects and retries can acquire more than once, so only count it as reused if we didn't connect
+            if (!connected) {
+                metrics.connectionsReused.incrementAndGet();
+            }
+
+            connected = false;
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            metrics.addLatency(System.nanoTime() - callStart);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            metrics.bytesReceived.addAndGet(byteCount);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            metrics.failures.incrementAndGet();
+        }
+    }
+}
@@ -17,13 +17,18 @@
  */
 package com.atlauncher.thread;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 import com.atlauncher.evnt.LogEvent;
+import com.atlauncher.managers.LogManager;
 
 import org.apache.logging.log4j.Logger;
 
 public final class LoggingThread extends Thread {
+    private static final int BATCH_SIZE = 512;
+
     private final BlockingQueue<LogEvent> queue;
     private static final Logger logger = org.apache.logging.log4j.LogManager.getLogger(LoggingThread.class);
 
@@ -34,16 +39,28 @@ public final class LoggingThread extends Thread {
 
     @Override
     public void run() {
+        List<LogEvent> batch = new ArrayList<>(BATCH_SIZE);
+
         while (true) {
-            LogEvent next;
             try {
-                next = this.queue.take();
+                batch.add(this.queue.take());
             } catch (InterruptedException ignored) {
                 Thread.currentThread().interrupt();
                 return;
             }
-            if (next != null) {
-                next.post(logger);
+
+            // grab whatever else is waiting too, so we're not waking up for every event
+            this.queue.drainTo(batch, BATCH_SIZE - 1);
+
+            for (LogEvent event : batch) {
+                event.post(logger);
+            }
+            batch.clear();
+
+            long dropped = LogManager.takeDroppedEvents();
+            if (dropped != 0) {
+                new LogEvent(LogEvent.LogType.WARN, dropped + " log messages were dropped as the log couldn't keep up")
+                        .post(logger);
             }
         }
     }
@@ -0,0 +1,200 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds every occurrence of a fixed set of strings in some text in a single
+ * pass over it, no matter how many strings are being looked for.
+ *
+ * Null and empty strings are allowed (so callers can pass in things like an
+ * optional username) but will never match.
+ */
+public final class AhoCorasick {
+    private final Node root = new Node();
+    private final int[] lengths;
+
+    public AhoCorasick(List<String> patterns) {
+        this.lengths = new int[patterns.size()];
+
+        for (int i = 0; i < patterns.size(); i++) {
+            String pattern = patterns.get(i);
+
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+
+            lengths[i] = pattern.length();
+
+            Node node = root;
+            for (int j = 0; j < pattern.length(); j++) {
+                node = node.getOrCreateChild(pattern.charAt(j));
+            }
+            node.addOutput(i);
+        }
+
+        buildFailureLinks();
+    }
+
+    /**
+     * Calls the listener for every match in the text, in order of where the
+     * matches end.
+     */
+    public void search(CharSequence text, MatchListener listener) {
+        Node node = root;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            Node next = node.getChild(c);
+            while (next == null && node != root) {
+                node = node.fail;
+                next = node.getChild(c);
+            }
+            node = next == null ? root : next;
+
+            for (int pattern : node.outputs) {
+                listener.onMatch(pattern, i + 1 - lengths[pattern], i + 1);
+            }
+        }
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+
+        root.fail = root;
+        for (Node child : root.children()) {
+            child.fail = root;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+
+            node.forEachChild((c, child) -> {
+                Node fail = node.fail;
+                while (fail != root && fail.getChild(c) == null) {
+                    fail = fail.fail;
+                }
+
+                Node failChild = fail.getChild(c);
+                child.fail = failChild == null || failChild == child ? root : failChild;
+
+                // anything matching at the failure node also matches here
+                for (int output : child.fail.outputs) {
+                    child.addOutput(output);
+                }
+
+                queue.add(child);
+            });
+        }
+    }
+
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * @param pattern the index of the matched string in the list given when
+         *                created
+         * @param start   the index in the text the match starts at
+         * @param end     the index in the text after the end of the match
+         */
+        void onMatch(int pattern, int start, int end);
+    }
+
+    private static final class Node {
+        // most of what we look for is ASCII, so avoid boxing and map lookups for that
+        private Node[] ascii;
+        private Map<Character, Node> other;
+        private int[] outputs = new int[0];
+        private Node fail;
+
+        private Node getChild(char c) {
+            if (c < 128) {
+                return ascii == null ? null : ascii[c];
+            }
+
+            return other == null ? null : other.get(c);
+        }
+
+        private Node getOrCreateChild(char c) {
+            Node child = getChild(c);
+
+            if (child == null) {
+                child = new Node();
+
+                if (c < 128) {
+                    if (ascii == null) {
+                        ascii = new Node[128];
+                    }
+                    ascii[c] = child;
+                } else {
+                    if (other == null) {
+                        other = new HashMap<>();
+                    }
+                    other.put(c, child);
+                }
+            }
+
+            return child;
+        }
+
+        private Iterable<Node> children() {
+            Queue<Node> children = new ArrayDeque<>();
+            forEachChild((c, child) -> children.add(child));
+            return children;
+        }
+
+        private void forEachChild(ChildConsumer consumer) {
+            if (ascii != null) {
+                for (char c = 0; c < 128; c++) {
+                    if (ascii[c] != null) {
+                        consumer.accept(c, ascii[c]);
+                    }
+                }
+            }
+
+            if (other != null) {
+                for (Map.Entry<Character, Node> entry : other.entrySet()) {
+                    consumer.accept(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        private void addOutput(int output) {
+            for (int existing : outputs) {
+                if (existing == output) {
+                    return;
+                }
+            }
+
+            outputs = Arrays.copyOf(outputs, outputs.length + 1);
+            outputs[outputs.length - 1] = output;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChildConsumer {
+        void accept(char c, Node child);
+    }
+}
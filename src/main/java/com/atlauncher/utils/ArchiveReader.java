@@ -0,0 +1,133 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.IOUtils;
+
+/**
+ * Reads entries out of a zip archive by looking them up in the archive's
+ * central directory, rather than reading through the archive from the start
+ * until the entry is found.
+ *
+ * Opening the archive only reads the central directory at the end of the file,
+ * and reading an entry only reads that entry, so any number of entries can be
+ * read out of an archive while it's open, no matter how big it is.
+ */
+public final class ArchiveReader implements Closeable {
+    private final ZipFile zipFile;
+
+    private ArchiveReader(ZipFile zipFile) {
+        this.zipFile = zipFile;
+    }
+
+    public static ArchiveReader open(Path archivePath) throws IOException {
+        // don't read the local file headers up front, they're only needed once an entry is read
+        return new ArchiveReader(new ZipFile(archivePath.toFile(), "UTF8", true, true));
+    }
+
+    /**
+     * @return the names of all the entries in the archive, in the order they're
+     *         stored in it
+     */
+    public List<String> getEntryNames() {
+        List<String> names = new ArrayList<>();
+
+        Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+        while (entries.hasMoreElements()) {
+            names.add(entries.nextElement().getName());
+        }
+
+        return names;
+    }
+
+    public boolean contains(String name) {
+        return zipFile.getEntry(name) != null;
+    }
+
+    /**
+     * @return the stream of the entry, or null if the archive doesn't contain it
+     *         (or it can't be read)
+     */
+    public InputStream getInputStream(String name) throws IOException {
+        ZipArchiveEntry entry = zipFile.getEntry(name);
+
+        if (entry == null || !zipFile.canReadEntryData(entry)) {
+            return null;
+        }
+
+        return zipFile.getInputStream(entry);
+    }
+
+    /**
+     * @return the contents of the entry, or null if the archive doesn't contain it
+     *         (or it can't be read)
+     */
+    public byte[] getBytes(String name) throws IOException {
+        try (InputStream is = getInputStream(name)) {
+            return is == null ? null : IOUtils.toByteArray(is);
+        }
+    }
+
+    /**
+     * @return the contents of the entry as UTF-8, or null if the archive doesn't
+     *         contain it (or it can't be read)
+     */
+    public String getString(String name) throws IOException {
+        byte[] bytes = getBytes(name);
+
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the contents (as UTF-8) of each of the given entries that the archive
+     * contains.
+     *
+     * @return the contents of each entry found, keyed by its name
+     */
+    public Map<String, String> getStrings(String... names) throws IOException {
+        Map<String, String> contents = new LinkedHashMap<>();
+
+        for (String name : names) {
+            String content = getString(name);
+
+            if (content != null) {
+                contents.put(name, content);
+            }
+        }
+
+        return contents;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+}
@@ -29,12 +29,25 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
-import org.apache.commons.compress.archivers.ArchiveOutputStream;
 import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.utils.IOUtils;
@@ -44,12 +57,26 @@ import org.zeroturnaround.zip.ZipUtil;
 import com.atlauncher.managers.LogManager;
 
 public class ArchiveUtils {
+    // how many archives the list of entries is kept for, so checking an archive for a few different files only reads
+    // its central directory once
+    private static final int CACHED_ENTRY_NAMES = 64;
+
+    // each file deflated ahead of the one being written can hold a few MB in memory, so don't use every core by default
+    private static final int MAX_DEFAULT_ZIP_THREADS = 4;
+
+    private static final Map<String, CachedEntryNames> entryNamesCache = Collections
+            .synchronizedMap(new LinkedHashMap<String, CachedEntryNames>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedEntryNames> eldest) {
+                    return size() > CACHED_ENTRY_NAMES;
+                }
+            });
+
     public static boolean archiveContainsFile(Path archivePath, String file) {
-        try {
-            return ZipUtil.containsEntry(archivePath.toFile(), file);
-        } catch (Throwable t) {
-            // allow this to fail as we can fallback to Apache Commons library
-            LogManager.error("Failed to check if archive contains file in " + archivePath.toAbsolutePath());
+        Set<String> entryNames = getEntryNames(archivePath);
+
+        if (entryNames != null) {
+            return entryNames.contains(file);
         }
 
         boolean found = false;
@@ -97,21 +124,111 @@ public class ArchiveUtils {
         return is;
     }
 
-    public static String getFile(Path archivePath, String file) {
+    /**
+     * Gets the names of every entry in an archive from its central directory. The
+     * names of the most recently read archives are kept for as long as the
+     * archive isn't changed.
+     *
+     * @return the names of the entries, or null if the archive couldn't be read
+     *         this way
+     */
+    public static @Nullable Set<String> getEntryNames(Path archivePath) {
+        if (archivePath.toString().startsWith("file:")) {
+            return null;
+        }
+
+        BasicFileAttributes attributes = readAttributes(archivePath);
+        if (attributes == null) {
+            return null;
+        }
+
+        Set<String> cached = getCachedEntryNames(archivePath, attributes);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (ArchiveReader reader = ArchiveReader.open(archivePath)) {
+            return cacheEntryNames(archivePath, attributes, reader);
+        } catch (Throwable t) {
+            // allow this to fail as we can fallback to reading through the archive
+            LogManager.debug("Failed to read central directory of " + archivePath.toAbsolutePath());
+            return null;
+        }
+    }
+
+    private static @Nullable BasicFileAttributes readAttributes(Path archivePath) {
         try {
-            byte[] contents = ZipUtil.unpackEntry(createInputStream(archivePath), file);
+            return Files.readAttributes(archivePath, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable Set<String> getCachedEntryNames(Path archivePath, BasicFileAttributes attributes) {
+        CachedEntryNames cached = entryNamesCache.get(archivePath.toAbsolutePath().normalize().toString());
+
+        if (cached != null && cached.size == attributes.size()
+                && cached.modified == attributes.lastModifiedTime().toMillis()) {
+            return cached.names;
+        }
+
+        return null;
+    }
 
-            if (contents != null) {
-                return new String(contents, StandardCharsets.UTF_8);
+    private static Set<String> cacheEntryNames(Path archivePath, BasicFileAttributes attributes,
+            ArchiveReader reader) {
+        Set<String> names = Collections.unmodifiableSet(new HashSet<>(reader.getEntryNames()));
+
+        entryNamesCache.put(archivePath.toAbsolutePath().normalize().toString(),
+                new CachedEntryNames(attributes.size(), attributes.lastModifiedTime().toMillis(), names));
+
+        return names;
+    }
+
+    public static String getFile(Path archivePath, String file) {
+        return getFiles(archivePath, file).get(file);
+    }
+
+    /**
+     * Gets the contents (as UTF-8) of each of the given files in an archive,
+     * only opening the archive once.
+     *
+     * @return the contents of each file found, keyed by its name
+     */
+    public static Map<String, String> getFiles(Path archivePath, String... files) {
+        if (!archivePath.toString().startsWith("file:")) {
+            BasicFileAttributes attributes = readAttributes(archivePath);
+            Set<String> entryNames = attributes == null ? null : getCachedEntryNames(archivePath, attributes);
+
+            if (entryNames != null) {
+                boolean containsAny = false;
+                for (String file : files) {
+                    containsAny |= entryNames.contains(file);
+                }
+
+                if (!containsAny) {
+                    return Collections.emptyMap();
+                }
+            }
+
+            try (ArchiveReader reader = ArchiveReader.open(archivePath)) {
+                // not cached, so fill the cache from the central directory we've just read rather than reading it again
+                if (entryNames == null && attributes != null) {
+                    cacheEntryNames(archivePath, attributes, reader);
+                }
+
+                return reader.getStrings(files);
+            } catch (Throwable t) {
+                // allow this to fail as we can fallback to reading through the archive
+                LogManager.debug("Failed to get contents of files in " + archivePath.toAbsolutePath()
+                        + ". Trying fallback method");
             }
-        } catch (Throwable t) {
-            LogManager.logStackTrace(t);
-            // allow this to fail as we can fallback to Apache Commons library
-            LogManager.debug(
-                    "Failed to get contents of file in " + archivePath.toAbsolutePath() + ". Trying fallback method");
         }
 
-        String contents = null;
+        Set<String> wanted = new HashSet<>();
+        Collections.addAll(wanted, files);
+
+        Map<String, String> contents = new LinkedHashMap<>();
 
         try {
             InputStream is = createInputStream(archivePath);
@@ -123,9 +240,12 @@ public class ArchiveUtils {
                         continue;
                     }
 
-                    if (entry.getName().equals(file)) {
-                        contents = new String(IOUtils.toByteArray(ais), StandardCharsets.UTF_8);
-                        break;
+                    if (wanted.remove(entry.getName())) {
+                        contents.put(entry.getName(), new String(IOUtils.toByteArray(ais), StandardCharsets.UTF_8));
+
+                        if (wanted.isEmpty()) {
+                            break;
+                        }
                     }
                 }
             } catch (Exception e) {
@@ -204,61 +324,200 @@ public class ArchiveUtils {
     }
 
     public static boolean createZip(Path pathToCompress, Path archivePath, NameMapper nameMapper) {
+        return createZip(pathToCompress, archivePath, nameMapper,
+                Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_ZIP_THREADS));
+    }
+
+    /**
+     * Zips up everything in a folder.
+     *
+     * Files are deflated on up to the given number of threads at once, but are
+     * always written in the order the folder is walked, so the archive comes out
+     * the same no matter how many threads are used. Files which are already
+     * compressed (see {@link ArchiveWriter#isAlreadyCompressed(String)}) are
+     * stored as is.
+     *
+     * @param threads the number of threads to deflate files on, or 1 to do
+     *                everything on the calling thread
+     */
+    public static boolean createZip(Path pathToCompress, Path archivePath, NameMapper nameMapper, int threads) {
+        List<EntryToAdd> entries;
         try {
-            ZipUtil.pack(pathToCompress.toFile(), archivePath.toFile(), nameMapper);
-            return true;
-        } catch (Throwable t) {
-            // allow this to fail as we can fallback to Apache Commons library
-            LogManager.error("Failed to create zip " + archivePath.toAbsolutePath() + " from "
-                    + pathToCompress.toAbsolutePath());
+            entries = getEntriesToAdd(pathToCompress, archivePath, nameMapper);
+        } catch (IOException e) {
+            LogManager.logStackTrace("Failed to create zip " + archivePath.toAbsolutePath() + " from "
+                    + pathToCompress.toAbsolutePath(), e);
+            return false;
         }
 
-        // TODO, It seems that exports currently do not use dbus for dir sel,
-        // it would be optimal to be aware the below line will cause problems
-        // once dbus is setup for export as well
-        try (OutputStream os = Files.newOutputStream(archivePath);
-                ArchiveOutputStream aos = new ArchiveStreamFactory().createArchiveOutputStream("ZIP", os)) {
+        Path spillDirectory = archivePath.toAbsolutePath().getParent();
+        List<Future<ArchiveWriter.DeflatedFile>> deflating = new ArrayList<>(Collections.nCopies(entries.size(), null));
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads, new ZipThreadFactory()) : null;
 
-            Files.walkFileTree(pathToCompress, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
-                    // only copy files, no symbolic links or directories
-                    if (attributes.isSymbolicLink() || attributes.isDirectory()) {
-                        return FileVisitResult.CONTINUE;
-                    }
+        // only deflate a few files ahead of the one being written, so memory and temporary files stay bounded
+        int lookAhead = threads * 2;
+        int submitted = 0;
 
-                    // get filename
-                    String fileName = nameMapper.map(pathToCompress.relativize(file).toString());
+        try (ArchiveWriter writer = ArchiveWriter.create(archivePath)) {
+            for (int i = 0; i < entries.size(); i++) {
+                for (; executor != null && submitted < entries.size() && submitted <= i + lookAhead; submitted++) {
+                    EntryToAdd next = entries.get(submitted);
 
-                    if (fileName == null) {
-                        return FileVisitResult.CONTINUE;
+                    if (next.isDeflated()) {
+                        deflating.set(submitted,
+                                executor.submit(() -> ArchiveWriter.deflate(next.path, spillDirectory)));
                     }
+                }
 
-                    try {
-                        ArchiveEntry entry = aos.createArchiveEntry(file.toFile(), fileName);
-                        aos.putArchiveEntry(entry);
-                        Files.copy(file, aos);
-                        aos.closeArchiveEntry();
+                EntryToAdd entry = entries.get(i);
 
+                if (entry.directory) {
+                    writer.addDirectory(entry.path, entry.name);
+                    continue;
+                }
+
+                if (!entry.isDeflated()) {
+                    try {
+                        writer.addFile(entry.path, entry.name);
                     } catch (IOException e) {
-                        LogManager.logStackTrace(String.format("Unable to add %s to zip", file), e);
+                        LogManager.logStackTrace(String.format("Unable to add %s to zip", entry.path), e);
                     }
-
-                    return FileVisitResult.CONTINUE;
+                    continue;
                 }
 
-                @Override
-                public FileVisitResult visitFileFailed(Path file, IOException e) {
-                    LogManager.logStackTrace(String.format("Unable to add %s to zip", file), e);
-                    return FileVisitResult.CONTINUE;
+                ArchiveWriter.DeflatedFile deflated;
+                try {
+                    deflated = executor == null ? ArchiveWriter.deflate(entry.path, spillDirectory)
+                            : deflating.set(i, null).get();
+                } catch (IOException | ExecutionException e) {
+                    LogManager.logStackTrace(String.format("Unable to add %s to zip", entry.path), e);
+                    continue;
                 }
 
-            });
+                try {
+                    writer.addDeflatedFile(entry.path, entry.name, deflated);
+                } finally {
+                    deflated.close();
+                }
+            }
         } catch (Exception e) {
-            LogManager.logStackTrace(e);
+            LogManager.logStackTrace("Failed to create zip " + archivePath.toAbsolutePath() + " from "
+                    + pathToCompress.toAbsolutePath(), e);
             return false;
+        } finally {
+            if (executor != null) {
+                shutdown(executor, deflating);
+            }
         }
 
         return true;
     }
+
+    private static List<EntryToAdd> getEntriesToAdd(Path pathToCompress, Path archivePath, NameMapper nameMapper)
+            throws IOException {
+        List<EntryToAdd> entries = new ArrayList<>();
+
+        Files.walkFileTree(pathToCompress, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                if (!directory.equals(pathToCompress)) {
+                    add(directory, true);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                // only copy files, no symbolic links or directories
+                if (attributes.isRegularFile() && !file.equals(archivePath)) {
+                    add(file, false);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                LogManager.logStackTrace(String.format("Unable to add %s to zip", file), e);
+                return FileVisitResult.CONTINUE;
+            }
+
+            private void add(Path path, boolean directory) {
+                String name = nameMapper
+                        .map(pathToCompress.relativize(path).toString().replace('\\', '/') + (directory ? "/" : ""));
+
+                if (name != null) {
+                    entries.add(new EntryToAdd(name, path, directory));
+                }
+            }
+        });
+
+        return entries;
+    }
+
+    /**
+     * Stops the threads deflating files for a zip, and deletes anything they
+     * deflated which never got written.
+     */
+    private static void shutdown(ExecutorService executor, List<Future<ArchiveWriter.DeflatedFile>> deflating) {
+        executor.shutdownNow();
+
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Future<ArchiveWriter.DeflatedFile> future : deflating) {
+            if (future == null || !future.isDone()) {
+                continue;
+            }
+
+            try {
+                future.get().close();
+            } catch (Exception ignored) {
+                // either never finished deflating or it's already been logged
+            }
+        }
+    }
+
+    private static final class EntryToAdd {
+        private final String name;
+        private final Path path;
+        private final boolean directory;
+
+        private EntryToAdd(String name, Path path, boolean directory) {
+            this.name = name;
+            this.path = path;
+            this.directory = directory;
+        }
+
+        private boolean isDeflated() {
+            return !directory && !ArchiveWriter.isAlreadyCompressed(name);
+        }
+    }
+
+    private static final class ZipThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ATL-Zip-Thread-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static final class CachedEntryNames {
+        private final long size;
+        private final long modified;
+        private final Set<String> names;
+
+        private CachedEntryNames(long size, long modified, Set<String> names) {
+            this.size = size;
+            this.modified = modified;
+            this.names = names;
+        }
+    }
 }
@@ -0,0 +1,293 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+/**
+ * Writes a zip archive entry by entry, so files can be streamed straight into
+ * the archive from wherever they are rather than being copied into a folder to
+ * be zipped up.
+ *
+ * Files which are already compressed (jars, zips, images, sounds) are stored
+ * as is, since compressing them again takes time for next to no gain.
+ */
+public final class ArchiveWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // files deflating to more than this are kept in a temporary file rather than in memory until they're written
+    private static final int MAX_IN_MEMORY_SIZE = 4 * 1024 * 1024;
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(
+            Arrays.asList("jar", "zip", "litemod", "mrpack", "png", "jpg", "jpeg", "ogg", "gz", "xz", "7z"));
+
+    private final ZipArchiveOutputStream zos;
+    private final Set<String> entryNames = new HashSet<>();
+
+    private ArchiveWriter(ZipArchiveOutputStream zos) {
+        this.zos = zos;
+    }
+
+    public static ArchiveWriter create(Path archivePath) throws IOException {
+        // writing to a file (rather than a stream) lets stored entries be written without working out their size and
+        // CRC first, as the header is filled in afterwards
+        return new ArchiveWriter(new ZipArchiveOutputStream(archivePath));
+    }
+
+    public static boolean isAlreadyCompressed(String name) {
+        int dot = name.lastIndexOf('.');
+
+        return dot != -1 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    public void addDirectory(String name) throws IOException {
+        addDirectory(null, name);
+    }
+
+    /**
+     * Adds a directory with the last modified time of the given directory on
+     * disk (or the current time if null).
+     */
+    public void addDirectory(Path directory, String name) throws IOException {
+        String directoryName = name.endsWith("/") ? name : name + "/";
+
+        if (!entryNames.add(directoryName)) {
+            return;
+        }
+
+        zos.putArchiveEntry(
+                directory == null ? new ZipArchiveEntry(directoryName) : createEntry(directory, directoryName));
+        zos.closeArchiveEntry();
+    }
+
+    public void addString(String name, String contents) throws IOException {
+        addBytes(name, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void addBytes(String name, byte[] bytes) throws IOException {
+        if (!entryNames.add(name)) {
+            throw new IOException("Archive already contains " + name);
+        }
+
+        zos.putArchiveEntry(new ZipArchiveEntry(name));
+        zos.write(bytes);
+        zos.closeArchiveEntry();
+    }
+
+    public void addFile(Path file, String name) throws IOException {
+        addFile(file, Collections.singletonMap(this, name));
+    }
+
+    /**
+     * Adds a file to any number of archives, only reading the file once.
+     *
+     * @param targets the archives to add the file to, mapped to the name of the
+     *                entry to add in each one
+     */
+    public static void addFile(Path file, Map<ArchiveWriter, String> targets) throws IOException {
+        for (Map.Entry<ArchiveWriter, String> target : targets.entrySet()) {
+            if (target.getKey().entryNames.contains(target.getValue())) {
+                throw new IOException("Archive already contains " + target.getValue());
+            }
+        }
+
+        // opened before any entries are started, so if the file can't be read the archives are left as they were
+        try (InputStream is = Files.newInputStream(file)) {
+            for (Map.Entry<ArchiveWriter, String> target : targets.entrySet()) {
+                ZipArchiveEntry entry = createEntry(file, target.getValue());
+                if (isAlreadyCompressed(target.getValue())) {
+                    entry.setMethod(ZipEntry.STORED);
+                }
+
+                target.getKey().entryNames.add(target.getValue());
+                target.getKey().zos.putArchiveEntry(entry);
+            }
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                for (ArchiveWriter writer : targets.keySet()) {
+                    writer.zos.write(buffer, 0, read);
+                }
+            }
+        }
+
+        for (ArchiveWriter writer : targets.keySet()) {
+            writer.zos.closeArchiveEntry();
+        }
+    }
+
+    /**
+     * Adds a file that's already been deflated with {@link #deflate(Path, Path)},
+     * copying the compressed bytes straight into the archive.
+     */
+    public void addDeflatedFile(Path file, String name, DeflatedFile deflated) throws IOException {
+        if (!entryNames.add(name)) {
+            throw new IOException("Archive already contains " + name);
+        }
+
+        ZipArchiveEntry entry = createEntry(file, name);
+        entry.setMethod(ZipEntry.DEFLATED);
+        entry.setCrc(deflated.crc);
+        entry.setSize(deflated.size);
+        entry.setCompressedSize(deflated.compressedSize);
+
+        try (InputStream is = deflated.open()) {
+            zos.addRawArchiveEntry(entry, is);
+        }
+    }
+
+    /**
+     * Deflates a file ready to be added with
+     * {@link #addDeflatedFile(Path, String, DeflatedFile)}. This doesn't touch
+     * the archive, so many files can be deflated at once on other threads while
+     * the archive is being written.
+     *
+     * @param spillDirectory where to keep the deflated file if it's too big to
+     *                       keep in memory
+     */
+    public static DeflatedFile deflate(Path file, Path spillDirectory) throws IOException {
+        DeflatedFile deflated = new DeflatedFile(spillDirectory);
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+        try (InputStream is = Files.newInputStream(file);
+                DeflaterOutputStream dos = new DeflaterOutputStream(deflated.new Output(), deflater, BUFFER_SIZE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                dos.write(buffer, 0, read);
+                deflated.size += read;
+            }
+        } catch (IOException e) {
+            deflated.close();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+
+        deflated.crc = crc.getValue();
+
+        return deflated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zos.close();
+    }
+
+    /**
+     * Only the last modified time is taken from the file, since the access time
+     * changes just by reading the file, and the archive should come out the same
+     * each time the same files are added.
+     */
+    private static ZipArchiveEntry createEntry(Path file, String name) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setTime(attributes.lastModifiedTime().toMillis());
+        if (attributes.isRegularFile()) {
+            entry.setSize(attributes.size());
+        }
+
+        return entry;
+    }
+
+    /**
+     * A file deflated ahead of being added to an archive. Closing this deletes
+     * the temporary file it was kept in (if any).
+     */
+    public static final class DeflatedFile implements Closeable {
+        private final Path spillDirectory;
+        private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path spillFile;
+
+        private long crc;
+        private long size;
+        private long compressedSize;
+
+        private DeflatedFile(Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+        }
+
+        private InputStream open() throws IOException {
+            return spillFile == null ? new ByteArrayInputStream(memory.toByteArray()) : Files.newInputStream(spillFile);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (spillFile != null) {
+                Files.deleteIfExists(spillFile);
+            }
+        }
+
+        /**
+         * Keeps the deflated bytes in memory until there's too many, then moves them
+         * to a temporary file.
+         */
+        private final class Output extends OutputStream {
+            private OutputStream target = memory;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (spillFile == null && memory.size() + len > MAX_IN_MEMORY_SIZE) {
+                    spillFile = Files.createTempFile(spillDirectory, "deflate", ".tmp");
+                    target = Files.newOutputStream(spillFile);
+                    memory.writeTo(target);
+                    memory.reset();
+                }
+
+                target.write(b, off, len);
+                compressedSize += len;
+            }
+
+            @Override
+            public void close() throws IOException {
+                target.close();
+            }
+        }
+    }
+}
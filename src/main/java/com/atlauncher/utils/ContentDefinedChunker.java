@@ -0,0 +1,140 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Splits a stream of bytes into variable sized chunks whose boundaries depend on the content around them (using a
+ * gear rolling hash), rather than on their offset in the stream.
+ *
+ * This means that inserting or removing bytes in the middle of a file only changes the chunks around the edit, and
+ * the rest of the file still splits into exactly the same chunks as before, so they can be deduplicated.
+ */
+public final class ContentDefinedChunker {
+    public static final int MIN_SIZE = 256 * 1024;
+    public static final int AVERAGE_SIZE = 1024 * 1024;
+    public static final int MAX_SIZE = 4 * 1024 * 1024;
+
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // seeded so that the same content always splits into the same chunks, across runs and launcher versions
+        Random random = new Random(0x41544C61756E6368L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final int minSize;
+    private final int maxSize;
+    private final long mask;
+
+    public ContentDefinedChunker() {
+        this(MIN_SIZE, AVERAGE_SIZE, MAX_SIZE);
+    }
+
+    /**
+     * @param averageSize must be a power of 2
+     */
+    public ContentDefinedChunker(int minSize, int averageSize, int maxSize) {
+        if (minSize <= 0 || minSize > averageSize || averageSize > maxSize || Integer.bitCount(averageSize) != 1) {
+            throw new IllegalArgumentException("Invalid chunk sizes " + minSize + "/" + averageSize + "/" + maxSize);
+        }
+
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        // a boundary is found when the low bits of the hash are all 0, which happens every averageSize bytes on average
+        this.mask = averageSize - 1;
+    }
+
+    /**
+     * Reads the stream to the end, passing each chunk to the consumer in order. Each chunk is given its own array, so
+     * the consumer is free to hand it off to another thread.
+     *
+     * An empty stream produces no chunks.
+     */
+    public void split(InputStream inputStream, ChunkConsumer consumer) throws IOException {
+        byte[] buffer = new byte[maxSize];
+        int length = 0;
+
+        while (true) {
+            int read = inputStream.read(buffer, length, buffer.length - length);
+
+            if (read == -1) {
+                break;
+            }
+
+            length += read;
+
+            if (length < buffer.length) {
+                continue;
+            }
+
+            // the buffer is full, so emit every chunk we can find and keep the leftovers for the next read
+            int offset = 0;
+            while (length - offset >= maxSize) {
+                int boundary = findBoundary(buffer, offset, length);
+                consumer.accept(Arrays.copyOfRange(buffer, offset, boundary));
+                offset = boundary;
+            }
+
+            System.arraycopy(buffer, offset, buffer, 0, length - offset);
+            length -= offset;
+        }
+
+        int offset = 0;
+        while (offset < length) {
+            int boundary = findBoundary(buffer, offset, length);
+            consumer.accept(Arrays.copyOfRange(buffer, offset, boundary));
+            offset = boundary;
+        }
+    }
+
+    /**
+     * Finds the end (exclusive) of the chunk starting at the given offset.
+     */
+    private int findBoundary(byte[] buffer, int offset, int length) {
+        int end = Math.min(length, offset + maxSize);
+
+        if (end - offset <= minSize) {
+            return end;
+        }
+
+        long hash = 0;
+
+        // bytes before the minimum size can never be a boundary, so there's no need to hash them
+        for (int i = offset + minSize; i < end; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xFF];
+
+            if ((hash & mask) == 0) {
+                return i + 1;
+            }
+        }
+
+        return end;
+    }
+
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        void accept(byte[] chunk) throws IOException;
+    }
+}
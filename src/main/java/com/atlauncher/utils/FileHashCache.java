@@ -0,0 +1,359 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.atlauncher.FileSystem;
+import com.atlauncher.Gsons;
+import com.atlauncher.managers.LogManager;
+import com.google.common.hash.HashCode;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Persistent index of hashes for files on disk, so that files which haven't
+ * changed since they were last hashed don't need to be read and hashed again.
+ *
+ * Entries are keyed by the absolute path of the file and are only trusted while
+ * the size, last modified time and file key (inode where the OS has one) of the
+ * file still match what they were when it was hashed.
+ */
+public final class FileHashCache {
+    private static final Type entriesType = new TypeToken<Map<String, Entry>>() {
+    }.getType();
+
+    // plenty for every file of a lot of instances, while keeping the index a few MB at most
+    private static final int MAX_ENTRIES = 50000;
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static boolean loaded = false;
+    private static volatile boolean dirty = false;
+
+    public static HashCode md5(Path file) {
+        return get(file, Hashing.Algorithm.MD5);
+    }
+
+    public static HashCode sha1(Path file) {
+        return get(file, Hashing.Algorithm.SHA1);
+    }
+
+    public static HashCode sha256(Path file) {
+        return get(file, Hashing.Algorithm.SHA256);
+    }
+
+    public static HashCode sha512(Path file) {
+        return get(file, Hashing.Algorithm.SHA512);
+    }
+
+    public static long murmur(Path file) throws IOException {
+        return getAll(file, EnumSet.of(Hashing.Algorithm.MURMUR)).get(Hashing.Algorithm.MURMUR).asLong();
+    }
+
+    /**
+     * Gets the given hash of a mod file. Every hash in
+     * {@link Hashing#MOD_ALGORITHMS} is worked out while the file is read, so
+     * later lookups on CurseForge/Modrinth and the malware scanner don't need to
+     * read the file again.
+     */
+    public static HashCode getModHash(Path file, Hashing.Algorithm algorithm) {
+        if (!Files.exists(file)) {
+            return Hashing.EMPTY_HASH_CODE;
+        }
+
+        try {
+            return getAll(file, Hashing.MOD_ALGORITHMS).get(algorithm);
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error hashing (" + algorithm + ") file " + file.toAbsolutePath().toString(), e);
+            return Hashing.EMPTY_HASH_CODE;
+        }
+    }
+
+    /**
+     * Gets the CurseForge fingerprint of a mod file.
+     *
+     * @see #getModHash(Path, Hashing.Algorithm)
+     */
+    public static long getModFingerprint(Path file) throws IOException {
+        return getAll(file, Hashing.MOD_ALGORITHMS).get(Hashing.Algorithm.MURMUR).asLong();
+    }
+
+    /**
+     * Gets all the requested hashes of a file, only reading the file (once) if
+     * any of them aren't already cached.
+     *
+     * @see Hashing#digestAll(Path, Set)
+     */
+    public static Map<Hashing.Algorithm, HashCode> getAll(Path file, Set<Hashing.Algorithm> algorithms)
+            throws IOException {
+        // read the attributes before hashing, so if the file changes while we're hashing it, the entry won't match
+        // next time around
+        Entry current = createEntry(file);
+        Entry entry = getEntry(file, current);
+
+        Map<Hashing.Algorithm, HashCode> hashes = new EnumMap<>(Hashing.Algorithm.class);
+        Set<Hashing.Algorithm> missing = EnumSet.noneOf(Hashing.Algorithm.class);
+
+        for (Hashing.Algorithm algorithm : algorithms) {
+            HashCode hash = entry == null ? null : entry.get(algorithm);
+
+            if (hash == null) {
+                missing.add(algorithm);
+            } else {
+                hashes.put(algorithm, hash);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return hashes;
+        }
+
+        Map<Hashing.Algorithm, HashCode> computed = Hashing.digestAll(file, missing);
+        hashes.putAll(computed);
+
+        if (current != null) {
+            store(file, current, computed);
+        }
+
+        return hashes;
+    }
+
+    private static HashCode get(Path file, Hashing.Algorithm algorithm) {
+        if (!Files.exists(file)) {
+            return Hashing.EMPTY_HASH_CODE;
+        }
+
+        try {
+            return getAll(file, EnumSet.of(algorithm)).get(algorithm);
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error hashing (" + algorithm + ") file " + file.toAbsolutePath().toString(), e);
+            return Hashing.EMPTY_HASH_CODE;
+        }
+    }
+
+    /**
+     * Saves the index to disk if anything has changed since it was last saved.
+     */
+    public static synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+
+        dirty = false;
+        prune();
+
+        Path tempFile = FileSystem.FILE_HASH_CACHE.resolveSibling(FileSystem.FILE_HASH_CACHE.getFileName() + ".tmp");
+        try (OutputStreamWriter fileWriter = new OutputStreamWriter(Files.newOutputStream(tempFile),
+                StandardCharsets.UTF_8)) {
+            Gsons.DEFAULT_SLIM.toJson(entries, entriesType, fileWriter);
+        } catch (Exception e) {
+            LogManager.logStackTrace("Error saving file hash cache", e);
+            return;
+        }
+
+        try {
+            Files.move(tempFile, FileSystem.FILE_HASH_CACHE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error saving file hash cache", e);
+        }
+    }
+
+    private static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (!Files.exists(FileSystem.FILE_HASH_CACHE)) {
+            return;
+        }
+
+        try (InputStreamReader fileReader = new InputStreamReader(Files.newInputStream(FileSystem.FILE_HASH_CACHE),
+                StandardCharsets.UTF_8)) {
+            Map<String, Entry> savedEntries = Gsons.DEFAULT_SLIM.fromJson(fileReader, entriesType);
+
+            if (savedEntries != null) {
+                entries.putAll(savedEntries);
+            }
+        } catch (Exception e) {
+            LogManager.logStackTrace("Exception loading file hash cache", e);
+        }
+    }
+
+    private static String getKey(Path file) {
+        return file.toAbsolutePath().normalize().toString();
+    }
+
+    private static Entry getEntry(Path file, Entry current) {
+        load();
+
+        String key = getKey(file);
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (current == null || !current.isSameFileAs(entry)) {
+            entries.remove(key, entry);
+            dirty = true;
+            return null;
+        }
+
+        return entry;
+    }
+
+    private static Entry createEntry(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+
+            return new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    attributes.fileKey() == null ? null : attributes.fileKey().toString(), System.currentTimeMillis(),
+                    null, null, null, null, null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds the newly computed hashes to the entry for the file, keeping any other
+     * hashes already cached for it as long as they're for the same version of
+     * the file.
+     */
+    private static void store(Path file, Entry current, Map<Hashing.Algorithm, HashCode> computed) {
+        entries.compute(getKey(file), (key, existing) -> {
+            Entry entry = existing != null && current.isSameFileAs(existing) ? existing : current;
+
+            for (Map.Entry<Hashing.Algorithm, HashCode> hash : computed.entrySet()) {
+                entry = entry.with(hash.getKey(), hash.getValue());
+            }
+
+            return entry;
+        });
+        dirty = true;
+    }
+
+    /**
+     * Keeps the index from growing forever by dropping entries for files which no
+     * longer exist and then, if there's still too many, the entries hashed the
+     * longest time ago.
+     */
+    private static void prune() {
+        if (entries.size() <= MAX_ENTRIES) {
+            return;
+        }
+
+        entries.keySet().removeIf(key -> !Files.exists(Paths.get(key)));
+
+        int excess = entries.size() - MAX_ENTRIES;
+        if (excess > 0) {
+            entries.entrySet().stream().sorted(Comparator.comparingLong(e -> e.getValue().hashed)).limit(excess)
+                    .map(Map.Entry::getKey).collect(Collectors.toList()).forEach(entries::remove);
+        }
+    }
+
+    /**
+     * The hashes of a version of a file. Entries are never changed once created,
+     * adding a hash creates a new entry, so they can be shared between threads
+     * safely.
+     */
+    private static final class Entry {
+        private final long size;
+        private final long modified;
+        private final String fileKey;
+        private final long hashed;
+
+        private final String md5;
+        private final String sha1;
+        private final String sha256;
+        private final String sha512;
+        private final Long murmur;
+
+        private Entry(long size, long modified, String fileKey, long hashed, String md5, String sha1, String sha256,
+                String sha512, Long murmur) {
+            this.size = size;
+            this.modified = modified;
+            this.fileKey = fileKey;
+            this.hashed = hashed;
+            this.md5 = md5;
+            this.sha1 = sha1;
+            this.sha256 = sha256;
+            this.sha512 = sha512;
+            this.murmur = murmur;
+        }
+
+        private HashCode get(Hashing.Algorithm algorithm) {
+            switch (algorithm) {
+                case MD5:
+                    return md5 == null ? null : Hashing.toHashCode(md5);
+                case SHA1:
+                    return sha1 == null ? null : Hashing.toHashCode(sha1);
+                case SHA256:
+                    return sha256 == null ? null : Hashing.toHashCode(sha256);
+                case SHA512:
+                    return sha512 == null ? null : Hashing.toHashCode(sha512);
+                case MURMUR:
+                    return murmur == null ? null : HashCode.fromLong(murmur);
+                default:
+                    return null;
+            }
+        }
+
+        private Entry with(Hashing.Algorithm algorithm, HashCode hash) {
+            switch (algorithm) {
+                case MD5:
+                    return new Entry(size, modified, fileKey, hashed, hash.toString(), sha1, sha256, sha512, murmur);
+                case SHA1:
+                    return new Entry(size, modified, fileKey, hashed, md5, hash.toString(), sha256, sha512, murmur);
+                case SHA256:
+                    return new Entry(size, modified, fileKey, hashed, md5, sha1, hash.toString(), sha512, murmur);
+                case SHA512:
+                    return new Entry(size, modified, fileKey, hashed, md5, sha1, sha256, hash.toString(), murmur);
+                case MURMUR:
+                    return new Entry(size, modified, fileKey, hashed, md5, sha1, sha256, sha512, hash.asLong());
+                default:
+                    return this;
+            }
+        }
+
+        private boolean isSameFileAs(Entry other) {
+            return size == other.size && modified == other.modified
+                    && (fileKey == null ? other.fileKey == null : fileKey.equals(other.fileKey));
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.atlauncher.App;
+import com.atlauncher.data.FileCopyStrategy;
+import com.atlauncher.managers.LogManager;
+
+/**
+ * Copies files without pulling their contents through the JVM, and for files
+ * that are never changed once written (libraries, downloaded mods, server
+ * jars) can share the data with the original instead of copying it, depending
+ * on {@link com.atlauncher.data.Settings#fileCopyStrategy}.
+ */
+public final class FileTransfer {
+    // file systems which we've found don't support reflinks/hardlinks, so we don't keep trying
+    private static final Set<FileStore> noReflinkStores = ConcurrentHashMap.newKeySet();
+    private static final Set<FileStore> noHardlinkStores = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Copies the file using {@link FileChannel#transferTo}, which lets the OS copy
+     * the data itself (sendfile/copy_file_range on Linux) rather than reading it
+     * into buffers in the JVM and writing it back out.
+     *
+     * The copy is written to a temporary file next to to and then moved over it,
+     * so if to is a hardlink, the other links to it are left alone.
+     */
+    public static void copy(Path from, Path to) throws IOException {
+        Path tempFile = to.resolveSibling(to.getFileName() + ".copying");
+
+        try {
+            try (FileChannel source = FileChannel.open(from, StandardOpenOption.READ);
+                    FileChannel destination = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long size = source.size();
+                long position = 0;
+
+                while (position < size) {
+                    position += source.transferTo(position, size - position, destination);
+                }
+            }
+
+            Files.setLastModifiedTime(tempFile, Files.getLastModifiedTime(from));
+
+            if (Files.isExecutable(from)) {
+                tempFile.toFile().setExecutable(true);
+            }
+
+            try {
+                Files.move(tempFile, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, to, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Makes the file at to have the same content as from, sharing the data on
+     * disk if the chosen strategy and the file system allow it, otherwise copying
+     * it.
+     *
+     * Only use this for files which are replaced rather than changed in place,
+     * since with hardlinks a change to one is a change to both.
+     */
+    public static void linkOrCopy(Path from, Path to) throws IOException {
+        if (!link(from, to)) {
+            copy(from, to);
+        }
+    }
+
+    /**
+     * Like {@link #linkOrCopy(Path, Path)}, but never copies, returning false if
+     * the data couldn't be shared instead.
+     */
+    public static boolean link(Path from, Path to) {
+        FileCopyStrategy strategy = App.settings.fileCopyStrategy;
+
+        if (strategy == FileCopyStrategy.HARDLINK && hardlink(from, to)) {
+            return true;
+        }
+
+        return strategy != FileCopyStrategy.COPY && reflink(from, to);
+    }
+
+    private static boolean hardlink(Path from, Path to) {
+        try {
+            if (Files.exists(to) && Files.isSameFile(from, to)) {
+                return true;
+            }
+
+            FileStore store = Files.getFileStore(to.getParent());
+
+            // hardlinks can't cross file systems, but that doesn't mean this one doesn't support them
+            if (noHardlinkStores.contains(store) || !store.equals(Files.getFileStore(from))) {
+                return false;
+            }
+
+            Files.deleteIfExists(to);
+
+            try {
+                Files.createLink(to, from);
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                // something else made the file at the same time, which may well be the same link
+                return Files.isSameFile(from, to);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                if (e instanceof FileSystemException && !isUnsupported((FileSystemException) e)) {
+                    // a problem with just this file (permissions, disk full...) so only copy this one
+                    LogManager.debug("Couldn't hardlink " + from + " to " + to + " (" + e.getMessage()
+                            + "), copying it instead");
+                    return false;
+                }
+
+                LogManager.debug("Couldn't hardlink " + from + " to " + to + " (" + e.getMessage()
+                        + "), copying files on " + store + " instead");
+                noHardlinkStores.add(store);
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * If the error means the file system can't do this at all, rather than there
+     * being a problem with the file. Java only gives us the OS's error message
+     * for these, such as EOPNOTSUPP on Linux/macOS or ERROR_INVALID_FUNCTION on
+     * Windows (FAT32/exFAT).
+     */
+    private static boolean isUnsupported(FileSystemException e) {
+        String reason = e.getReason();
+
+        if (reason == null) {
+            return false;
+        }
+
+        String lowerCaseReason = reason.toLowerCase(Locale.ENGLISH);
+        return lowerCaseReason.contains("not supported") || lowerCaseReason.contains("incorrect function");
+    }
+
+    /**
+     * There's no way to clone a file in Java (until Files.copy started doing it
+     * in newer versions), so this uses cp on Linux (--reflink, for Btrfs/XFS) and
+     * macOS (-c, for APFS), which will fail if the file system can't do it.
+     */
+    private static boolean reflink(Path from, Path to) {
+        if (!OS.isLinux() && !OS.isMac()) {
+            return false;
+        }
+
+        try {
+            FileStore store = Files.getFileStore(to.getParent());
+
+            if (noReflinkStores.contains(store) || !store.equals(Files.getFileStore(from))) {
+                return false;
+            }
+
+            Files.deleteIfExists(to);
+
+            ProcessBuilder processBuilder = OS.isMac()
+                    ? new ProcessBuilder("cp", "-c", "-p", from.toAbsolutePath().toString(),
+                            to.toAbsolutePath().toString())
+                    : new ProcessBuilder("cp", "--reflink=always", "--preserve=mode,timestamps",
+                            from.toAbsolutePath().toString(), to.toAbsolutePath().toString());
+            processBuilder.redirectErrorStream(true);
+            processBuilder.redirectOutput(new File("/dev/null"));
+
+            Process process = processBuilder.start();
+
+            if (process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                return true;
+            }
+
+            process.destroy();
+            Files.deleteIfExists(to);
+
+            LogManager.debug("Couldn't reflink " + from + " to " + to + ", copying files on " + store + " instead");
+            noReflinkStores.add(store);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -21,7 +21,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.stream.Stream;
 
 import com.atlauncher.App;
@@ -173,7 +172,34 @@ public class FileUtils {
         }
 
         try {
-            Files.copy(from, to, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+            FileTransfer.copy(from, to);
+        } catch (IOException e) {
+            LogManager.logStackTrace("Failed to copy file " + from + " to " + to, e);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Like {@link #copyFile(Path, Path, boolean)} (with the filename), but for
+     * files which are never changed in place, so the data can be shared with the
+     * original rather than copied if the user has chosen to.
+     *
+     * @see FileTransfer#linkOrCopy(Path, Path)
+     */
+    public static boolean linkOrCopyFile(Path from, Path to) {
+        if (!Files.isRegularFile(from)) {
+            LogManager.error("File " + from + " cannot be copied to " + to + " as it isn't a file!");
+            return false;
+        }
+
+        if (!Files.exists(to.getParent())) {
+            FileUtils.createDirectory(to.getParent());
+        }
+
+        try {
+            FileTransfer.linkOrCopy(from, to);
         } catch (IOException e) {
             LogManager.logStackTrace("Failed to copy file " + from + " to " + to, e);
             return false;
@@ -18,19 +18,59 @@
 package com.atlauncher.utils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
-import org.apache.commons.lang3.ArrayUtils;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.atlauncher.managers.LogManager;
 import com.google.common.hash.HashCode;
-import com.sangupta.murmur.Murmur2;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
 
 public final class Hashing {
+    public enum Algorithm {
+        MD5(com.google.common.hash.Hashing.md5()),
+        SHA1(com.google.common.hash.Hashing.sha1()),
+        SHA256(com.google.common.hash.Hashing.sha256()),
+        SHA512(com.google.common.hash.Hashing.sha512()),
+        MURMUR(null);
+
+        private final HashFunction hashFunction;
+
+        Algorithm(HashFunction hashFunction) {
+            this.hashFunction = hashFunction;
+        }
+    }
+
     public static final HashCode EMPTY_HASH_CODE = HashCode.fromBytes(new byte[1]);
 
+    // everything needed to look a mod up on CurseForge and Modrinth, and to scan it for malware
+    public static final Set<Algorithm> MOD_ALGORITHMS = Collections
+            .unmodifiableSet(EnumSet.of(Algorithm.SHA1, Algorithm.SHA512, Algorithm.MURMUR));
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final long MURMUR_SEED = 1L;
+    private static final long MURMUR_M = 0x5bd1e995L;
+    private static final long UINT_MASK = 0xFFFFFFFFL;
+
+    // files are hashed from many threads at once (see DownloadVerifier), so each gets its own buffer to reuse
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal
+            .withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+    // launcher wide counts of the files read to be hashed (cache hits from FileHashCache aren't counted)
+    private static final AtomicLong filesHashed = new AtomicLong();
+    private static final AtomicLong bytesHashed = new AtomicLong();
+
     public static HashCode md5(String str) {
         if (str == null || str.isEmpty()) {
             return EMPTY_HASH_CODE;
@@ -45,7 +85,7 @@ public final class Hashing {
         }
 
         try {
-            return com.google.common.io.Files.asByteSource(file.toFile()).hash(com.google.common.hash.Hashing.md5());
+            return hashFile(file, com.google.common.hash.Hashing.md5());
         } catch (IOException e) {
             LogManager.logStackTrace("Error hashing (MD5) file " + file.toAbsolutePath().toString(), e);
             return EMPTY_HASH_CODE;
@@ -58,7 +98,7 @@ public final class Hashing {
         }
 
         try {
-            return com.google.common.io.Files.asByteSource(file.toFile()).hash(com.google.common.hash.Hashing.sha1());
+            return hashFile(file, com.google.common.hash.Hashing.sha1());
         } catch (IOException e) {
             LogManager.logStackTrace("Error hashing (SHA1) file " + file.toAbsolutePath().toString(), e);
             return EMPTY_HASH_CODE;
@@ -71,7 +111,7 @@ public final class Hashing {
         }
 
         try {
-            return com.google.common.io.Files.asByteSource(file.toFile()).hash(com.google.common.hash.Hashing.sha256());
+            return hashFile(file, com.google.common.hash.Hashing.sha256());
         } catch (IOException e) {
             LogManager.logStackTrace("Error hashing (SHA256) file " + file.toAbsolutePath().toString(), e);
             return EMPTY_HASH_CODE;
@@ -84,22 +124,194 @@ public final class Hashing {
         }
 
         try {
-            return com.google.common.io.Files.asByteSource(file.toFile()).hash(com.google.common.hash.Hashing.sha512());
+            return hashFile(file, com.google.common.hash.Hashing.sha512());
         } catch (IOException e) {
             LogManager.logStackTrace("Error hashing (SHA512) file " + file.toAbsolutePath().toString(), e);
             return EMPTY_HASH_CODE;
         }
     }
 
-    // TODO: this is really not efficient or good on memory
+    /**
+     * Gets the CurseForge fingerprint of a file, which is a 32 bit Murmur2 hash
+     * (with a seed of 1) of the file with all whitespace bytes (tab, LF, CR and
+     * space) removed.
+     *
+     * Murmur2 seeds the hash with the length of the input, so the file is streamed
+     * through twice: once to count the bytes that will be hashed, and once to
+     * hash them, filtering the whitespace as it goes.
+     */
     public static long murmur(Path to) throws IOException {
-        byte[] bytes = ArrayUtils
-                .removeAllOccurrences(ArrayUtils.removeAllOccurrences(
-                        ArrayUtils.removeAllOccurrences(
-                                ArrayUtils.removeAllOccurrences(Files.readAllBytes(to), (byte) 9), (byte) 10),
-                        (byte) 13), (byte) 32);
+        ByteBuffer buffer = BUFFERS.get();
+
+        try (FileChannel channel = FileChannel.open(to, StandardOpenOption.READ)) {
+            countHashed(channel);
+            long length = 0;
+
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                length += countMurmurBytes(buffer.array(), buffer.position());
+                buffer.clear();
+            }
+
+            channel.position(0);
+            return murmur(channel, length, buffer);
+        }
+    }
+
+    /**
+     * Computes every requested digest of a file while only reading it once (twice
+     * if {@link Algorithm#MURMUR} is requested, see {@link #murmur(Path)}).
+     *
+     * Murmur fingerprints are returned as a {@link HashCode} of the long value, so
+     * use {@link HashCode#asLong()} to get the fingerprint back out.
+     */
+    public static Map<Algorithm, HashCode> digestAll(Path file, Set<Algorithm> algorithms) throws IOException {
+        Map<Algorithm, Hasher> hashers = new EnumMap<>(Algorithm.class);
+        for (Algorithm algorithm : algorithms) {
+            if (algorithm.hashFunction != null) {
+                hashers.put(algorithm, algorithm.hashFunction.newHasher());
+            }
+        }
+
+        boolean murmur = algorithms.contains(Algorithm.MURMUR);
+        long murmurLength = 0;
+
+        Map<Algorithm, HashCode> hashes = new EnumMap<>(Algorithm.class);
+        ByteBuffer buffer = BUFFERS.get();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            countHashed(channel);
+
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                byte[] bytes = buffer.array();
+                int limit = buffer.position();
+
+                for (Hasher hasher : hashers.values()) {
+                    hasher.putBytes(bytes, 0, limit);
+                }
+
+                if (murmur) {
+                    murmurLength += countMurmurBytes(bytes, limit);
+                }
+
+                buffer.clear();
+            }
+
+            for (Map.Entry<Algorithm, Hasher> entry : hashers.entrySet()) {
+                hashes.put(entry.getKey(), entry.getValue().hash());
+            }
+
+            if (murmur) {
+                channel.position(0);
+                hashes.put(Algorithm.MURMUR, HashCode.fromLong(murmur(channel, murmurLength, buffer)));
+            }
+        }
+
+        return hashes;
+    }
+
+    private static long murmur(FileChannel channel, long length, ByteBuffer buffer) throws IOException {
+        long hash = (MURMUR_SEED ^ (int) length) & UINT_MASK;
+        long block = 0;
+        int blockSize = 0;
+
+        buffer.clear();
+        while (channel.read(buffer) != -1) {
+            byte[] bytes = buffer.array();
+            int limit = buffer.position();
+
+            for (int i = 0; i < limit; i++) {
+                byte b = bytes[i];
+
+                if (isMurmurWhitespace(b)) {
+                    continue;
+                }
+
+                block |= (long) (b & 0xFF) << (blockSize * 8);
+
+                if (++blockSize == 4) {
+                    block = (block * MURMUR_M) & UINT_MASK;
+                    block ^= block >>> 24;
+                    block = (block * MURMUR_M) & UINT_MASK;
+
+                    hash = (hash * MURMUR_M) & UINT_MASK;
+                    hash ^= block;
+
+                    block = 0;
+                    blockSize = 0;
+                }
+            }
+
+            buffer.clear();
+        }
+
+        // the remaining bytes are already in little endian order in the block
+        if (blockSize != 0) {
+            hash ^= block;
+            hash = (hash * MURMUR_M) & UINT_MASK;
+        }
+
+        hash ^= hash >>> 13;
+        hash = (hash * MURMUR_M) & UINT_MASK;
+        hash ^= hash >>> 15;
+
+        return hash;
+    }
+
+    private static long countMurmurBytes(byte[] bytes, int limit) {
+        long count = 0;
+
+        for (int i = 0; i < limit; i++) {
+            if (!isMurmurWhitespace(bytes[i])) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static boolean isMurmurWhitespace(byte b) {
+        return b == 9 || b == 10 || b == 13 || b == 32;
+    }
+
+    private static HashCode hashFile(Path file, HashFunction hashFunction) throws IOException {
+        Hasher hasher = hashFunction.newHasher();
+        ByteBuffer buffer = BUFFERS.get();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            countHashed(channel);
+            buffer.clear();
+
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                hasher.putBytes(buffer);
+                buffer.clear();
+            }
+        }
+
+        return hasher.hash();
+    }
+
+    private static void countHashed(FileChannel channel) throws IOException {
+        filesHashed.incrementAndGet();
+        bytesHashed.addAndGet(channel.size());
+    }
+
+    /**
+     * The number of files that have been read and hashed since the launcher
+     * started.
+     */
+    public static long getFilesHashed() {
+        return filesHashed.get();
+    }
 
-        return Murmur2.hash(bytes, bytes.length, 1L);
+    /**
+     * The number of bytes that have been read and hashed since the launcher
+     * started.
+     */
+    public static long getBytesHashed() {
+        return bytesHashed.get();
     }
 
     public static HashCode toHashCode(String hash) {
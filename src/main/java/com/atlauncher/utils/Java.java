@@ -181,7 +181,7 @@ public class Java {
     }
 
     public static List<JavaInfo> getInstalledJavas() {
-        PerformanceManager.start();
+        PerformanceManager.start("Java.getInstalledJavas");
         List<JavaInfo> javas = JavaFinder.findJavas().stream()
                 .filter(javaInfo -> javaInfo.majorVersion != null && javaInfo.minorVersion != null)
                 .collect(Collectors.toList());
@@ -192,7 +192,7 @@ public class Java {
             javas.add(systemJava);
         }
 
-        PerformanceManager.end();
+        PerformanceManager.end("Java.getInstalledJavas");
         return javas;
     }
 
@@ -0,0 +1,282 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+/**
+ * Parses the XML events Minecraft's log4j XMLLayout outputs, such as:
+ *
+ * <pre>
+ * &lt;log4j:Event logger="net.minecraft.client.Minecraft" timestamp="1690000000000" level="INFO"
+ *     thread="Render thread"&gt;
+ *   &lt;log4j:Message&gt;&lt;![CDATA[Setting user: Player]]&gt;&lt;/log4j:Message&gt;
+ * &lt;/log4j:Event&gt;
+ * </pre>
+ *
+ * This is a small hand written parser which reads the event once from start to
+ * finish, since this is run for every line the game logs. Parsers are reusable
+ * but not thread safe, so each thread should use its own.
+ */
+public final class Log4jEventParser {
+    private static final String EVENT_START = "<log4j:Event";
+    private static final String MESSAGE_START = "<log4j:Message>";
+    private static final String MESSAGE_END = "</log4j:Message>";
+    private static final String CDATA_START = "<![CDATA[";
+    private static final String CDATA_END = "]]>";
+
+    private final StringBuilder value = new StringBuilder();
+
+    private String thread;
+    private String level;
+    private String logger;
+    private long timestamp;
+    private String message;
+
+    /**
+     * Parses the given event. Anything missing from the event is left empty (or 0
+     * for the timestamp).
+     *
+     * @return if the text contained an event
+     */
+    public boolean parse(CharSequence event) {
+        thread = "";
+        level = "";
+        logger = "";
+        timestamp = 0L;
+        message = "";
+
+        int position = indexOf(event, EVENT_START, 0);
+        if (position == -1) {
+            return false;
+        }
+
+        position = parseAttributes(event, position + EVENT_START.length());
+        if (position == -1) {
+            return true;
+        }
+
+        position = indexOf(event, MESSAGE_START, position);
+        if (position != -1) {
+            parseMessage(event, position + MESSAGE_START.length());
+        }
+
+        return true;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public String getLogger() {
+        return logger;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Reads the name="value" pairs in the event tag.
+     *
+     * @return the position after the end of the tag, or -1 if it doesn't end
+     */
+    private int parseAttributes(CharSequence event, int position) {
+        int length = event.length();
+
+        while (position < length) {
+            char c = event.charAt(position);
+
+            if (c == '>') {
+                return position + 1;
+            }
+
+            if (Character.isWhitespace(c) || c == '/') {
+                position++;
+                continue;
+            }
+
+            int nameStart = position;
+            while (position < length && event.charAt(position) != '=' && event.charAt(position) != '>'
+                    && !Character.isWhitespace(event.charAt(position))) {
+                position++;
+            }
+            int nameEnd = position;
+
+            while (position < length && Character.isWhitespace(event.charAt(position))) {
+                position++;
+            }
+
+            if (position >= length || event.charAt(position) != '=') {
+                continue;
+            }
+            position++;
+
+            while (position < length && Character.isWhitespace(event.charAt(position))) {
+                position++;
+            }
+
+            if (position >= length) {
+                return -1;
+            }
+
+            char quote = event.charAt(position);
+            if (quote != '"' && quote != '\'') {
+                continue;
+            }
+            position++;
+
+            value.setLength(0);
+            while (position < length && event.charAt(position) != quote) {
+                position = appendDecoded(event, position, value);
+            }
+            position++;
+
+            setAttribute(event, nameStart, nameEnd);
+        }
+
+        return -1;
+    }
+
+    private void setAttribute(CharSequence event, int nameStart, int nameEnd) {
+        if (regionMatches(event, nameStart, nameEnd, "thread")) {
+            thread = value.toString();
+        } else if (regionMatches(event, nameStart, nameEnd, "level")) {
+            level = value.toString();
+        } else if (regionMatches(event, nameStart, nameEnd, "logger")) {
+            logger = value.toString();
+        } else if (regionMatches(event, nameStart, nameEnd, "timestamp")) {
+            timestamp = parseLong(value);
+        }
+    }
+
+    /**
+     * Reads the message, which is one or more CDATA sections (log4j splits the
+     * message up if it contains "]]&gt;") and/or escaped text.
+     */
+    private void parseMessage(CharSequence event, int position) {
+        int length = event.length();
+        value.setLength(0);
+
+        while (position < length) {
+            if (startsWith(event, position, MESSAGE_END)) {
+                break;
+            }
+
+            if (startsWith(event, position, CDATA_START)) {
+                int end = indexOf(event, CDATA_END, position + CDATA_START.length());
+                if (end == -1) {
+                    end = length;
+                }
+
+                value.append(event, position + CDATA_START.length(), end);
+                position = end + CDATA_END.length();
+                continue;
+            }
+
+            position = appendDecoded(event, position, value);
+        }
+
+        message = value.toString();
+    }
+
+    /**
+     * Appends the character at the given position, decoding it if it's the start
+     * of one of the predefined XML entities.
+     *
+     * @return the position after what was appended
+     */
+    private static int appendDecoded(CharSequence text, int position, StringBuilder to) {
+        char c = text.charAt(position);
+
+        if (c == '&') {
+            if (startsWith(text, position, "&amp;")) {
+                to.append('&');
+                return position + 5;
+            } else if (startsWith(text, position, "&lt;")) {
+                to.append('<');
+                return position + 4;
+            } else if (startsWith(text, position, "&gt;")) {
+                to.append('>');
+                return position + 4;
+            } else if (startsWith(text, position, "&quot;")) {
+                to.append('"');
+                return position + 6;
+            } else if (startsWith(text, position, "&apos;")) {
+                to.append('\'');
+                return position + 6;
+            }
+        }
+
+        to.append(c);
+        return position + 1;
+    }
+
+    private static long parseLong(CharSequence text) {
+        long result = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return 0L;
+            }
+
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, int end, String expected) {
+        return end - start == expected.length() && startsWith(text, start, expected);
+    }
+
+    private static boolean startsWith(CharSequence text, int position, String prefix) {
+        if (position + prefix.length() > text.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(position + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOf(CharSequence text, String search, int from) {
+        char first = search.charAt(0);
+        int max = text.length() - search.length();
+
+        for (int i = from; i <= max; i++) {
+            if (text.charAt(i) == first && startsWith(text, i, search)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Manifest;
+
+import javax.annotation.Nullable;
+
+import com.atlauncher.FileSystem;
+import com.atlauncher.Gsons;
+import com.atlauncher.data.minecraft.FabricMod;
+import com.atlauncher.data.minecraft.MCMod;
+import com.atlauncher.data.minecraft.ModMetadata;
+import com.atlauncher.data.minecraft.QuiltMod;
+import com.atlauncher.managers.LogManager;
+import com.google.common.hash.HashCode;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Reads the metadata of mods out of their jars. Every descriptor a jar might
+ * have is read in one go, and the metadata is kept in a persistent index keyed
+ * by the SHA1 hash of the jar, so the same jar (in any instance) is only ever
+ * opened once.
+ *
+ * The hash comes from {@link FileHashCache}, which works out every hash needed
+ * to look the mod up on CurseForge/Modrinth at the same time.
+ */
+public final class ModMetadataReader {
+    static final String MCMOD_INFO = "mcmod.info";
+    static final String FORGE_MODS_TOML = "META-INF/mods.toml";
+    static final String NEOFORGE_MODS_TOML = "META-INF/neoforge.mods.toml";
+    static final String FABRIC_MOD_JSON = "fabric.mod.json";
+    static final String QUILT_MOD_JSON = "quilt.mod.json";
+    static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private static final Type entriesType = new TypeToken<Map<String, ModMetadata>>() {
+    }.getType();
+
+    private static final Map<String, ModMetadata> entries = new ConcurrentHashMap<>();
+    private static boolean loaded = false;
+    private static volatile boolean dirty = false;
+
+    /**
+     * Gets the metadata of a mod.
+     *
+     * @return the metadata, or null if the file doesn't have any descriptor we
+     *         know how to read
+     */
+    public static @Nullable ModMetadata read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        HashCode hash = FileHashCache.getModHash(file, Hashing.Algorithm.SHA1);
+        if (hash.equals(Hashing.EMPTY_HASH_CODE)) {
+            return getIfFound(readFromArchive(file));
+        }
+
+        load();
+
+        ModMetadata metadata = entries.get(hash.toString());
+        if (metadata == null) {
+            metadata = readFromArchive(file);
+
+            entries.put(hash.toString(), metadata);
+            dirty = true;
+        }
+
+        return getIfFound(metadata);
+    }
+
+    /**
+     * Reads the metadata of a mod from its jar, without looking in the index.
+     * Descriptors are tried in the order mcmod.info, neoforge.mods.toml,
+     * mods.toml, fabric.mod.json and then quilt.mod.json, and the first one that
+     * can be read is used.
+     *
+     * @return the metadata, with a null loader if nothing could be read
+     */
+    static ModMetadata readFromArchive(Path file) {
+        Map<String, String> descriptors = ArchiveUtils.getFiles(file, MCMOD_INFO, NEOFORGE_MODS_TOML,
+                FORGE_MODS_TOML, FABRIC_MOD_JSON, QUILT_MOD_JSON, MANIFEST);
+
+        String manifest = descriptors.get(MANIFEST);
+
+        List<DescriptorReader> readers = Arrays.asList(
+                metadata -> readMcModInfo(metadata, descriptors.get(MCMOD_INFO)),
+                metadata -> readModsToml(metadata, descriptors.get(NEOFORGE_MODS_TOML), ModMetadata.LOADER_NEOFORGE,
+                        manifest),
+                metadata -> readModsToml(metadata, descriptors.get(FORGE_MODS_TOML), ModMetadata.LOADER_FORGE,
+                        manifest),
+                metadata -> readFabricModJson(metadata, descriptors.get(FABRIC_MOD_JSON)),
+                metadata -> readQuiltModJson(metadata, descriptors.get(QUILT_MOD_JSON)));
+
+        for (DescriptorReader reader : readers) {
+            ModMetadata metadata = new ModMetadata();
+
+            try {
+                if (reader.read(metadata)) {
+                    return metadata;
+                }
+            } catch (Exception e) {
+                // a broken descriptor shouldn't stop us trying the others
+                LogManager.debug("Failed to read mod metadata from " + file.toAbsolutePath() + ": " + e.getMessage());
+            }
+        }
+
+        return new ModMetadata();
+    }
+
+    private static ModMetadata getIfFound(ModMetadata metadata) {
+        return metadata.loader == null ? null : metadata;
+    }
+
+    private static boolean readMcModInfo(ModMetadata metadata, String contents) {
+        if (contents == null) {
+            return false;
+        }
+
+        JsonElement json = Gsons.DEFAULT.fromJson(contents, JsonElement.class);
+
+        // newer mcmod.info files have the list of mods inside an object
+        if (json != null && json.isJsonObject() && json.getAsJsonObject().has("modList")) {
+            json = json.getAsJsonObject().get("modList");
+        }
+
+        if (json == null || !json.isJsonArray()) {
+            return false;
+        }
+
+        List<MCMod> mods = Gsons.DEFAULT.fromJson(json, new TypeToken<List<MCMod>>() {
+        }.getType());
+
+        if (mods.isEmpty() || mods.get(0) == null) {
+            return false;
+        }
+
+        MCMod mod = mods.get(0);
+        metadata.id = mod.modid;
+        metadata.name = mod.name;
+        metadata.version = mod.version;
+        metadata.description = mod.description;
+        metadata.loader = ModMetadata.LOADER_FORGE;
+
+        if (mod.dependencies != null) {
+            metadata.dependencies.addAll(mod.dependencies);
+        }
+
+        return true;
+    }
+
+    private static boolean readModsToml(ModMetadata metadata, String contents, String loader, String manifest)
+            throws IOException {
+        if (contents == null) {
+            return false;
+        }
+
+        ModsToml toml = ModsToml.parse(contents);
+
+        if (toml.mods.isEmpty()) {
+            return false;
+        }
+
+        Map<String, Object> mod = toml.mods.get(0);
+        metadata.id = ModsToml.getString(mod, "modId");
+        metadata.name = ModsToml.getString(mod, "displayName");
+        metadata.version = ModsToml.getString(mod, "version");
+        metadata.description = ModsToml.getString(mod, "description");
+        metadata.loader = loader;
+
+        // the version is normally filled in from the jar's manifest when the mod is built
+        if ("${file.jarVersion}".equals(metadata.version)) {
+            metadata.version = manifest == null ? null
+                    : new Manifest(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)))
+                            .getMainAttributes().getValue("Implementation-Version");
+        }
+
+        if (metadata.id != null && toml.dependencies.containsKey(metadata.id)) {
+            for (Map<String, Object> dependency : toml.dependencies.get(metadata.id)) {
+                String dependencyId = ModsToml.getString(dependency, "modId");
+
+                // forge marks required dependencies as mandatory, neoforge gives them a type of required
+                if (dependencyId != null && (ModsToml.getBoolean(dependency, "mandatory")
+                        || "required".equalsIgnoreCase(ModsToml.getString(dependency, "type")))) {
+                    metadata.dependencies.add(dependencyId);
+                }
+            }
+        }
+
+        // mods.toml files are used by both, so the loader is worked out from what the mod depends on
+        if (metadata.dependencies.contains(ModMetadata.LOADER_NEOFORGE)) {
+            metadata.loader = ModMetadata.LOADER_NEOFORGE;
+        }
+
+        if (ModsToml.getBoolean(toml.root, "clientSideOnly")) {
+            metadata.environment = ModMetadata.ENVIRONMENT_CLIENT;
+        }
+
+        return true;
+    }
+
+    private static boolean readFabricModJson(ModMetadata metadata, String contents) {
+        if (contents == null) {
+            return false;
+        }
+
+        FabricMod mod = Gsons.DEFAULT.fromJson(contents, FabricMod.class);
+
+        if (mod == null) {
+            return false;
+        }
+
+        metadata.id = mod.id;
+        metadata.name = mod.name;
+        metadata.version = mod.version;
+        metadata.description = mod.description;
+        metadata.loader = ModMetadata.LOADER_FABRIC;
+
+        if (mod.depends != null) {
+            metadata.dependencies.addAll(mod.depends.keySet());
+        }
+
+        if (ModMetadata.ENVIRONMENT_CLIENT.equals(mod.environment)
+                || ModMetadata.ENVIRONMENT_SERVER.equals(mod.environment)) {
+            metadata.environment = mod.environment;
+        }
+
+        return true;
+    }
+
+    private static boolean readQuiltModJson(ModMetadata metadata, String contents) {
+        if (contents == null) {
+            return false;
+        }
+
+        QuiltMod mod = Gsons.DEFAULT.fromJson(contents, QuiltMod.class);
+
+        if (mod == null || mod.quiltLoader == null) {
+            return false;
+        }
+
+        metadata.id = mod.quiltLoader.id;
+        metadata.version = mod.quiltLoader.version;
+        metadata.loader = ModMetadata.LOADER_QUILT;
+
+        if (mod.quiltLoader.metadata != null) {
+            metadata.name = mod.quiltLoader.metadata.name;
+            metadata.description = mod.quiltLoader.metadata.description;
+        }
+
+        if (mod.quiltLoader.depends != null) {
+            for (JsonElement dependency : mod.quiltLoader.depends) {
+                if (dependency.isJsonPrimitive()) {
+                    metadata.dependencies.add(dependency.getAsString());
+                } else if (dependency.isJsonObject() && dependency.getAsJsonObject().has("id")
+                        && !(dependency.getAsJsonObject().has("optional")
+                                && dependency.getAsJsonObject().get("optional").getAsBoolean())) {
+                    metadata.dependencies.add(dependency.getAsJsonObject().get("id").getAsString());
+                }
+            }
+        }
+
+        if (mod.minecraft != null && ModMetadata.ENVIRONMENT_CLIENT.equals(mod.minecraft.environment)) {
+            metadata.environment = ModMetadata.ENVIRONMENT_CLIENT;
+        } else if (mod.minecraft != null && "dedicated_server".equals(mod.minecraft.environment)) {
+            metadata.environment = ModMetadata.ENVIRONMENT_SERVER;
+        }
+
+        return true;
+    }
+
+    /**
+     * Saves the index to disk if anything has changed since it was last saved.
+     */
+    public static synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+
+        dirty = false;
+
+        Path tempFile = FileSystem.MOD_METADATA_CACHE
+                .resolveSibling(FileSystem.MOD_METADATA_CACHE.getFileName() + ".tmp");
+        try (OutputStreamWriter fileWriter = new OutputStreamWriter(Files.newOutputStream(tempFile),
+                StandardCharsets.UTF_8)) {
+            Gsons.DEFAULT_SLIM.toJson(entries, entriesType, fileWriter);
+        } catch (Exception e) {
+            LogManager.logStackTrace("Error saving mod metadata cache", e);
+            return;
+        }
+
+        try {
+            Files.move(tempFile, FileSystem.MOD_METADATA_CACHE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LogManager.logStackTrace("Error saving mod metadata cache", e);
+        }
+    }
+
+    private static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (!Files.exists(FileSystem.MOD_METADATA_CACHE)) {
+            return;
+        }
+
+        try (InputStreamReader fileReader = new InputStreamReader(
+                Files.newInputStream(FileSystem.MOD_METADATA_CACHE), StandardCharsets.UTF_8)) {
+            Map<String, ModMetadata> savedEntries = Gsons.DEFAULT_SLIM.fromJson(fileReader, entriesType);
+
+            if (savedEntries != null) {
+                entries.putAll(savedEntries);
+            }
+        } catch (Exception e) {
+            LogManager.logStackTrace("Exception loading mod metadata cache", e);
+        }
+    }
+
+    private interface DescriptorReader {
+        boolean read(ModMetadata metadata) throws Exception;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough of a TOML parser to read the (neo)forge mods.toml files in mod
+ * jars: top level keys, the [[mods]] tables and the [[dependencies.modid]]
+ * tables, with string and boolean values. Anything else (other tables, arrays,
+ * inline tables) is skipped over or kept as the raw text of the value.
+ */
+final class ModsToml {
+    final Map<String, Object> root = new HashMap<>();
+    final List<Map<String, Object>> mods = new ArrayList<>();
+    final Map<String, List<Map<String, Object>>> dependencies = new HashMap<>();
+
+    private ModsToml() {
+    }
+
+    static ModsToml parse(String contents) {
+        ModsToml toml = new ModsToml();
+        Map<String, Object> table = toml.root;
+
+        String[] lines = contents.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            if (line.startsWith("[[")) {
+                String name = unquote(line.substring(2, Math.max(2, line.indexOf("]]"))).trim());
+                table = new HashMap<>();
+
+                if (name.equals("mods")) {
+                    toml.mods.add(table);
+                } else if (name.startsWith("dependencies.")) {
+                    toml.dependencies.computeIfAbsent(unquote(name.substring("dependencies.".length())),
+                            k -> new ArrayList<>()).add(table);
+                }
+
+                continue;
+            }
+
+            if (line.startsWith("[")) {
+                // a table we don't care about, so anything in it is thrown away
+                table = new HashMap<>();
+                continue;
+            }
+
+            int equals = line.indexOf('=');
+            if (equals == -1) {
+                continue;
+            }
+
+            String key = unquote(line.substring(0, equals).trim());
+            String value = line.substring(equals + 1).trim();
+
+            if (value.startsWith("'''") || value.startsWith("\"\"\"")) {
+                String delimiter = value.substring(0, 3);
+                StringBuilder multiline = new StringBuilder(value.substring(3));
+
+                // the string continues until the line with the closing delimiter on it
+                while (multiline.indexOf(delimiter) == -1 && i + 1 < lines.length) {
+                    multiline.append('\n').append(lines[++i]);
+                }
+
+                int end = multiline.indexOf(delimiter);
+                String string = multiline.substring(0, end == -1 ? multiline.length() : end);
+
+                // a newline straight after the opening delimiter isn't part of the string
+                table.put(key, string.startsWith("\n") ? string.substring(1) : string);
+            } else if (value.startsWith("\"")) {
+                table.put(key, parseBasicString(value));
+            } else if (value.startsWith("'")) {
+                int end = value.indexOf('\'', 1);
+                table.put(key, value.substring(1, end == -1 ? value.length() : end));
+            } else {
+                int comment = value.indexOf('#');
+                String raw = (comment == -1 ? value : value.substring(0, comment)).trim();
+
+                if (raw.equals("true") || raw.equals("false")) {
+                    table.put(key, Boolean.valueOf(raw));
+                } else {
+                    table.put(key, raw);
+                }
+            }
+        }
+
+        return toml;
+    }
+
+    static String getString(Map<String, Object> table, String key) {
+        Object value = table.get(key);
+
+        return value == null ? null : value.toString();
+    }
+
+    static boolean getBoolean(Map<String, Object> table, String key) {
+        return Boolean.TRUE.equals(table.get(key));
+    }
+
+    private static String parseBasicString(String value) {
+        StringBuilder string = new StringBuilder();
+
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"') {
+                break;
+            }
+
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+
+                switch (escaped) {
+                    case 'n':
+                        string.append('\n');
+                        break;
+                    case 't':
+                        string.append('\t');
+                        break;
+                    case 'r':
+                        string.append('\r');
+                        break;
+                    default:
+                        string.append(escaped);
+                        break;
+                }
+
+                continue;
+            }
+
+            string.append(c);
+        }
+
+        return string.toString();
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"")
+                || value.startsWith("'") && value.endsWith("'"))) {
+            return value.substring(1, value.length() - 1);
+        }
+
+        return value;
+    }
+}
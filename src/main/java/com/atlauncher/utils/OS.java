@@ -347,7 +347,7 @@ public enum OS {
      * was removed in Java 9.
      */
     public static int getSystemRamViaBean() {
-        PerformanceManager.start();
+        PerformanceManager.start("OS.getSystemRamViaBean");
         long ramm;
         int ram = 0;
         OperatingSystemMXBean operatingSystemMXBean = ManagementFactory.getOperatingSystemMXBean();
@@ -365,7 +365,7 @@ public enum OS {
                 | NoSuchMethodException e) {
             LogManager.logStackTrace(e);
         }
-        PerformanceManager.end();
+        PerformanceManager.end("OS.getSystemRamViaBean");
         return ram;
     }
 
@@ -373,7 +373,7 @@ public enum OS {
      * Returns the amount of RAM in the users system via oshi.
      */
     public static int getSystemRamViaOshi() {
-        PerformanceManager.start();
+        PerformanceManager.start("OS.getSystemRamViaOshi");
 
         int ram = 0;
 
@@ -387,7 +387,7 @@ public enum OS {
             LogManager.logStackTrace(t);
         }
 
-        PerformanceManager.end();
+        PerformanceManager.end("OS.getSystemRamViaOshi");
 
         return ram;
     }
@@ -397,9 +397,9 @@ public enum OS {
      */
     public static SystemInfo getSystemInfo() {
         if (systemInfo == null) {
-            PerformanceManager.start();
+            PerformanceManager.start("OS.getSystemInfo");
             systemInfo = new SystemInfo();
-            PerformanceManager.end();
+            PerformanceManager.end("OS.getSystemInfo");
         }
 
         return systemInfo;
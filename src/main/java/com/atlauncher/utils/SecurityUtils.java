@@ -62,7 +62,7 @@ public class SecurityUtils {
         ExecutorService executor = Executors.newFixedThreadPool(4);
         for (final Path path : paths) {
             executor.submit(() -> {
-                HashCode fileHash = Hashing.sha1(path);
+                HashCode fileHash = FileHashCache.getModHash(path, Hashing.Algorithm.SHA1);
                 if (FRACTURISER_SCANNED_HASHES.contains(fileHash.toString())) {
                     LogManager.debug(String.format("%s has already been scanned for Fractureiser",
                             path.toAbsolutePath().toString()));
@@ -88,6 +88,7 @@ public class SecurityUtils {
         executor.awaitTermination(5, TimeUnit.MINUTES);
 
         saveFractureiserScannedHashes();
+        FileHashCache.save();
 
         return infectionsFound;
     }
@@ -43,7 +43,7 @@ public class JavaFinder {
     private static SoftReference<List<String>> javaPaths = new SoftReference<>(null);
 
     public static List<JavaInfo> findJavas() {
-        PerformanceManager.start();
+        PerformanceManager.start("JavaFinder.findJavas");
         List<String> javaExecs = javaPaths.get();
 
         if (javaExecs == null) {
@@ -138,7 +138,7 @@ public class JavaFinder {
             javaPaths = new SoftReference<>(javaExecs);
         }
 
-        PerformanceManager.end();
+        PerformanceManager.end("JavaFinder.findJavas");
         return javaExecs.stream().distinct().filter(java -> Files.exists(Paths.get(java))).map(JavaInfo::new)
                 .collect(Collectors.toList());
     }
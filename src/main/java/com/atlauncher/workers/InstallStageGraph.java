@@ -0,0 +1,282 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.workers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import com.atlauncher.data.PerformanceReport;
+import com.atlauncher.managers.LogManager;
+import com.atlauncher.managers.PerformanceManager;
+
+/**
+ * Runs the stages of an install, starting each one as soon as the stages it
+ * depends on have finished, so stages that don't depend on each other (such as
+ * downloading libraries and downloading mods) run at the same time.
+ *
+ * If a stage fails or the install is cancelled, no more stages are started and
+ * the ones running are interrupted.
+ */
+final class InstallStageGraph {
+    private static final int MAX_THREADS = 4;
+
+    private final BooleanSupplier isCancelled;
+    private final Consumer<String> onTaskChanged;
+    private final PerformanceReport performanceReport;
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    // what each running stage is currently doing, in the order they started
+    private final Map<Node, String> tasks = new LinkedHashMap<>();
+    private final ThreadLocal<Node> currentNode = new ThreadLocal<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    interface Stage {
+        void run() throws Exception;
+    }
+
+    InstallStageGraph(BooleanSupplier isCancelled, Consumer<String> onTaskChanged) {
+        this(isCancelled, onTaskChanged, null);
+    }
+
+    /**
+     * @param isCancelled       if the install has been cancelled
+     * @param onTaskChanged     called with what's being done when a stage
+     *                          finishes, so it's no longer shown
+     * @param performanceReport where to record how long each stage took (can be
+     *                          null)
+     */
+    InstallStageGraph(BooleanSupplier isCancelled, Consumer<String> onTaskChanged,
+            PerformanceReport performanceReport) {
+        this.isCancelled = isCancelled;
+        this.onTaskChanged = onTaskChanged;
+        this.performanceReport = performanceReport;
+    }
+
+    /**
+     * Adds a stage, which will only be run once all the stages it depends on
+     * (which must have already been added) have finished.
+     */
+    InstallStageGraph add(String name, Stage stage, String... dependsOn) {
+        if (nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Install stage " + name + " has already been added");
+        }
+
+        Node node = new Node(name, stage, dependsOn.length);
+
+        for (String dependency : dependsOn) {
+            Node dependencyNode = nodes.get(dependency);
+
+            if (dependencyNode == null) {
+                throw new IllegalArgumentException(
+                        "Install stage " + name + " depends on " + dependency + " which hasn't been added");
+            }
+
+            dependencyNode.dependents.add(node);
+        }
+
+        LogManager.debug("Install stage " + name + " depends on " + Arrays.toString(dependsOn));
+        nodes.put(name, node);
+
+        return this;
+    }
+
+    /**
+     * Runs all the stages, returning once they've all finished, the install is
+     * cancelled or a stage fails.
+     *
+     * @throws Exception the exception from the first stage that failed
+     */
+    void run() throws Exception {
+        LinkedBlockingQueue<Node> finished = new LinkedBlockingQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_THREADS, nodes.size())),
+                new StageThreadFactory());
+
+        Throwable failure = null;
+        int done = 0;
+
+        try {
+            for (Node node : nodes.values()) {
+                if (node.remainingDependencies == 0) {
+                    futures.add(executor.submit(() -> runNode(node, finished)));
+                }
+            }
+
+            while (done < nodes.size()) {
+                if (isCancelled.getAsBoolean()) {
+                    cancel(futures);
+                    return;
+                }
+
+                Node node = finished.poll(100, TimeUnit.MILLISECONDS);
+                if (node == null) {
+                    continue;
+                }
+
+                done++;
+
+                if (node.failure != null) {
+                    failure = node.failure;
+                    cancel(futures);
+                    break;
+                }
+
+                for (Node dependent : node.dependents) {
+                    if (--dependent.remainingDependencies == 0) {
+                        futures.add(executor.submit(() -> runNode(dependent, finished)));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // the installer was cancelled while waiting
+            cancel(futures);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+
+        if (failure != null) {
+            throw (Exception) failure;
+        }
+    }
+
+    /**
+     * If more than one stage is running right now.
+     */
+    boolean isRunningConcurrently() {
+        return running.get() > 1;
+    }
+
+    /**
+     * Records what the stage running on this thread is doing.
+     *
+     * @return what all the running stages are doing, to show to the user
+     */
+    String setTask(String task) {
+        Node node = currentNode.get();
+
+        if (node == null) {
+            return task;
+        }
+
+        synchronized (tasks) {
+            tasks.put(node, task);
+            return String.join(", ", tasks.values());
+        }
+    }
+
+    private void runNode(Node node, LinkedBlockingQueue<Node> finished) {
+        currentNode.set(node);
+        running.incrementAndGet();
+        long start = System.currentTimeMillis();
+
+        try (PerformanceManager.Span span = PerformanceManager.span("Install stage " + node.name)) {
+            node.stage.run();
+        } catch (Exception | Error e) {
+            node.failure = e;
+        } finally {
+            running.decrementAndGet();
+            currentNode.remove();
+
+            String remainingTasks = null;
+            synchronized (tasks) {
+                if (tasks.remove(node) != null && !tasks.isEmpty()) {
+                    remainingTasks = String.join(", ", tasks.values());
+                }
+            }
+
+            if (remainingTasks != null) {
+                onTaskChanged.accept(remainingTasks);
+            }
+
+            long took = System.currentTimeMillis() - start;
+            LogManager.debug("Install stage " + node.name + " took " + took + "ms");
+
+            if (performanceReport != null) {
+                performanceReport.addStage(node.name, took);
+            }
+
+            finished.add(node);
+        }
+    }
+
+    /**
+     * Gives stages that were interrupted a chance to stop, so they're not still
+     * writing files while the install is being cleaned up.
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LogManager.warn("Install stages didn't stop within 30 seconds of being cancelled");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void cancel(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static final class Node {
+        private final String name;
+        private final Stage stage;
+        private final List<Node> dependents = new ArrayList<>();
+
+        // only touched by the thread calling run()
+        private int remainingDependencies;
+
+        private volatile Throwable failure;
+
+        private Node(String name, Stage stage, int dependencies) {
+            this.name = name;
+            this.stage = stage;
+            this.remainingDependencies = dependencies;
+        }
+    }
+
+    private static final class StageThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ATL-Install-Stage-Thread-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
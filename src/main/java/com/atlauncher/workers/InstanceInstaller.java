@@ -58,6 +58,7 @@ import com.atlauncher.data.APIResponse;
 import com.atlauncher.data.DisableableMod;
 import com.atlauncher.data.Instance;
 import com.atlauncher.data.InstanceLauncher;
+import com.atlauncher.data.PerformanceReport;
 import com.atlauncher.data.Server;
 import com.atlauncher.data.Type;
 import com.atlauncher.data.curseforge.CurseForgeAttachment;
@@ -89,15 +90,14 @@ import com.atlauncher.data.minecraft.Arguments;
 import com.atlauncher.data.minecraft.AssetIndex;
 import com.atlauncher.data.minecraft.Download;
 import com.atlauncher.data.minecraft.Downloads;
-import com.atlauncher.data.minecraft.FabricMod;
 import com.atlauncher.data.minecraft.JavaRuntime;
 import com.atlauncher.data.minecraft.JavaRuntimeManifest;
 import com.atlauncher.data.minecraft.JavaRuntimeManifestFileType;
 import com.atlauncher.data.minecraft.JavaRuntimes;
 import com.atlauncher.data.minecraft.Library;
 import com.atlauncher.data.minecraft.LoggingFile;
-import com.atlauncher.data.minecraft.MCMod;
 import com.atlauncher.data.minecraft.MinecraftVersion;
+import com.atlauncher.data.minecraft.ModMetadata;
 import com.atlauncher.data.minecraft.MojangAssetIndex;
 import com.atlauncher.data.minecraft.MojangDownload;
 import com.atlauncher.data.minecraft.MojangDownloads;
@@ -122,6 +122,7 @@ import com.atlauncher.graphql.GetNeoForgeLoaderVersionQuery;
 import com.atlauncher.gui.dialogs.BrowserDownloadDialog;
 import com.atlauncher.interfaces.NetworkProgressable;
 import com.atlauncher.managers.ConfigManager;
+import com.atlauncher.managers.ContentStoreManager;
 import com.atlauncher.managers.DialogManager;
 import com.atlauncher.managers.InstanceManager;
 import com.atlauncher.managers.LogManager;
@@ -129,15 +130,19 @@ import com.atlauncher.managers.MinecraftManager;
 import com.atlauncher.managers.ServerManager;
 import com.atlauncher.network.Analytics;
 import com.atlauncher.network.DownloadPool;
+import com.atlauncher.network.DownloadScheduler;
 import com.atlauncher.network.ErrorReporting;
 import com.atlauncher.network.GraphqlClient;
+import com.atlauncher.network.NetworkMetrics;
 import com.atlauncher.network.analytics.AnalyticsEvent;
 import com.atlauncher.utils.ArchiveUtils;
 import com.atlauncher.utils.CurseForgeApi;
 import com.atlauncher.utils.FTBApi;
+import com.atlauncher.utils.FileHashCache;
 import com.atlauncher.utils.FileUtils;
 import com.atlauncher.utils.Hashing;
 import com.atlauncher.utils.Java;
+import com.atlauncher.utils.ModMetadataReader;
 import com.atlauncher.utils.ModrinthApi;
 import com.atlauncher.utils.OS;
 import com.atlauncher.utils.Pair;
@@ -152,6 +157,8 @@ import okhttp3.OkHttpClient;
 public class InstanceInstaller extends SwingWorker<Boolean, Void> implements NetworkProgressable {
     protected double percent = 0.0; // Percent done installing
     protected double subPercent = 0.0; // Percent done sub installing
+    // the stages being run, while they're being run
+    private volatile InstallStageGraph stageGraph = null;
     protected double totalBytes = 0; // Total number of bytes to download
     protected double downloadedBytes = 0; // Total number of bytes downloaded
 
@@ -205,6 +212,9 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
     public String mainClass;
     public Arguments arguments;
     public boolean success;
+
+    // what's been downloaded, reused and hashed during this install, and how long each stage took
+    public volatile PerformanceReport performanceReport = null;
     private JDialog dialog;
 
     public InstanceInstaller(String name, com.atlauncher.data.Pack pack, com.atlauncher.data.PackVersion version,
@@ -256,6 +266,8 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
     protected Boolean doInBackground() throws Exception {
         ErrorReporting.recordPackInstall(this.pack.name, this.version.version, this.loaderVersion);
         LogManager.info("Started install of " + this.pack.name + " version " + this.version.version);
+        this.performanceReport = PerformanceReport.start(PerformanceReport.INSTALL,
+                this.pack.name + " " + this.version.version);
 
         if (this.loaderVersion != null) {
             LogManager.info("Using loader version " + this.loaderVersion.version);
@@ -319,6 +331,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
                 return success(true);
             }
 
+            long stageStart = System.nanoTime();
             if (curseForgeManifest != null) {
                 generatePackVersionFromCurseForgeManifest();
             } else if (pack.curseForgeProject != null) {
@@ -342,23 +355,32 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
             } else {
                 downloadPackVersionJson();
             }
+            this.performanceReport.stageFinished("packVersion", stageStart);
 
+            stageStart = System.nanoTime();
             downloadMinecraftVersionJson();
+            this.performanceReport.stageFinished("minecraftVersionJson", stageStart);
 
             if (this.packVersion.messages != null) {
                 showMessages();
             }
 
+            stageStart = System.nanoTime();
             determineModsToBeInstalled();
+            this.performanceReport.stageFinished("determineMods", stageStart);
 
             if (isCancelled()) {
                 return success(false);
             }
 
+            stageStart = System.nanoTime();
             backupSelectFiles();
             addPercent(5);
 
             prepareFilesystem();
+            this.performanceReport.stageFinished("prepareFilesystem", stageStart);
+
+            stageStart = System.nanoTime();
 
             // we don't know the loader information until we download the mods
             if (technicModpack != null && technicModpack.solder != null) {
@@ -377,6 +399,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
 
                 downloadLoader();
             }
+            this.performanceReport.stageFinished("downloadLoader", stageStart);
 
             install();
 
@@ -384,10 +407,14 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
                 return success(false);
             }
 
+            stageStart = System.nanoTime();
             if (this.isServer && minecraftVersionManifest != null && minecraftVersionManifest.hasInitSettings()) {
                 initServerSettings();
             }
 
+            deduplicateMods();
+            this.performanceReport.stageFinished("finishInstall", stageStart);
+
             if (!this.isServer) {
                 saveInstanceJson();
             } else {
@@ -404,11 +431,27 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
             success(false);
             cancel(true);
             LogManager.logStackTrace(e);
+        } finally {
+            finishPerformanceReport();
         }
 
         return success(false);
     }
 
+    /**
+     * Saves the report of this install into the instance's folder. Failed installs
+     * are only logged, as the folder of a failed new install is deleted.
+     */
+    private void finishPerformanceReport() {
+        this.performanceReport.finish(this.success && !isCancelled());
+
+        if (this.performanceReport.successful) {
+            this.performanceReport.save(this.root);
+        } else {
+            LogManager.debug(this.performanceReport.getSummary());
+        }
+    }
+
     private void downloadCurseForgeServerPack() throws Exception {
         addPercent(5);
 
@@ -2382,6 +2425,9 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
                 }
             }
         }
+
+        ModMetadataReader.save();
+        FileHashCache.save();
     }
 
     private DisableableMod convertPathToDisableableMod(Path p, Type t) {
@@ -2392,18 +2438,11 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         mod.version = "Unknown";
         mod.description = null;
 
-        MCMod mcMod = Utils.getMCModForFile(p.toFile());
-        if (mcMod != null) {
-            mod.name = Optional.ofNullable(mcMod.name).orElse(p.getFileName().toString());
-            mod.version = Optional.ofNullable(mcMod.version).orElse("Unknown");
-            mod.description = Optional.ofNullable(mcMod.description).orElse(null);
-        } else {
-            FabricMod fabricMod = Utils.getFabricModForFile(p.toFile());
-            if (fabricMod != null) {
-                mod.name = Optional.ofNullable(fabricMod.name).orElse(p.getFileName().toString());
-                mod.version = Optional.ofNullable(fabricMod.version).orElse("Unknown");
-                mod.description = Optional.ofNullable(fabricMod.description).orElse(null);
-            }
+        ModMetadata metadata = ModMetadataReader.read(p);
+        if (metadata != null) {
+            mod.name = Optional.ofNullable(metadata.name).orElse(p.getFileName().toString());
+            mod.version = Optional.ofNullable(metadata.version).orElse("Unknown");
+            mod.description = Optional.ofNullable(metadata.description).orElse(null);
         }
 
         mod.file = p.getFileName().toString();
@@ -2418,90 +2457,42 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         determineMainClass();
         determineArguments();
 
-        downloadResources();
-        if (isCancelled()) {
-            return false;
-        }
-
-        downloadMinecraft();
-        if (isCancelled()) {
-            return false;
-        }
-
-        downloadLoggingClient();
-        if (isCancelled()) {
-            return false;
-        }
-
-        downloadLibraries();
-        if (isCancelled()) {
-            return false;
-        }
-
-        organiseLibraries();
-        if (isCancelled()) {
-            return false;
-        }
-
-        downloadRuntime();
-        if (isCancelled()) {
-            return false;
-        }
-
-        installLoader();
-        if (isCancelled()) {
-            return false;
-        }
-
-        downloadMods();
-        if (isCancelled()) {
-            return false;
-        }
-
-        installMods();
-        if (isCancelled()) {
-            return false;
-        }
-
-        installLegacyJavaFixer();
-        if (isCancelled()) {
-            return false;
-        }
-
-        runCaseConversion();
-        if (isCancelled()) {
-            return false;
-        }
-
-        runActions();
-        if (isCancelled()) {
-            return false;
-        }
-
-        installConfigs();
-        if (isCancelled()) {
-            return false;
-        }
-
-        downloadImage();
-        if (isCancelled()) {
-            return false;
-        }
-
-        checkModsOnCurseForge();
-        if (isCancelled()) {
-            return false;
+        // stages which don't depend on each other run at the same time, so we're downloading while hashing,
+        // extracting and installing, and vice versa
+        InstallStageGraph graph = new InstallStageGraph(this::isCancelled,
+                task -> firePropertyChange("doing", null, task), this.performanceReport)
+                .add("resources", this::downloadResources)
+                .add("minecraft", this::downloadMinecraft)
+                .add("loggingClient", this::downloadLoggingClient)
+                .add("libraries", this::downloadLibraries)
+                .add("runtime", this::downloadRuntime)
+                .add("mods", this::downloadMods)
+                .add("organiseLibraries", this::organiseLibraries, "libraries")
+                .add("loader", this::installLoader, "minecraft", "organiseLibraries")
+                .add("installMods", this::installMods, "mods", "loader")
+                .add("legacyJavaFixer", this::installLegacyJavaFixer, "installMods")
+                .add("caseConversion", this::runCaseConversion, "legacyJavaFixer")
+                .add("actions", this::runActions, "caseConversion")
+                .add("configs", this::installConfigs, "actions", "resources")
+                .add("image", this::downloadImage, "configs")
+                .add("curseForge", this::checkModsOnCurseForge, "configs")
+                .add("modrinth", this::checkModsOnModrinth, "curseForge")
+                .add("cleanDirectories", this::cleanDirectories, "modrinth", "image", "loggingClient", "runtime");
+
+        setTotalBytes(0L);
+        this.stageGraph = graph;
+        try {
+            graph.run();
+        } finally {
+            this.stageGraph = null;
+            hideSubProgressBar();
         }
 
-        checkModsOnModrinth();
         if (isCancelled()) {
             return false;
         }
 
-        cleanDirectories();
-        if (isCancelled()) {
-            return false;
-        }
+        long stageStart = System.nanoTime();
 
         // Copy over common configs if any
         if (FileSystem.COMMON.toFile().listFiles().length != 0) {
@@ -2515,6 +2506,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         writeLog4ShellExploitArgumentsForForgeScripts();
 
         installServerBootScripts();
+        this.performanceReport.stageFinished("postInstall", stageStart);
 
         return true;
     }
@@ -2529,6 +2521,17 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         }
     }
 
+    private void deduplicateMods() {
+        if (!ContentStoreManager.isEnabled()) {
+            return;
+        }
+
+        fireTask(GetText.tr("Deduplicating Mods"));
+        fireSubProgressUnknown();
+
+        ContentStoreManager.deduplicate(this.root);
+    }
+
     private void saveInstanceJson() {
         Instance instance = new Instance(this.minecraftVersion);
         instance.ROOT = this.root;
@@ -2801,7 +2804,6 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
 
         fireTask(GetText.tr("Organising Resources"));
         fireSubProgressUnknown();
-        this.totalBytes = this.downloadedBytes = 0;
 
         MojangAssetIndex assetIndex = this.minecraftVersion.assetIndex;
 
@@ -2814,7 +2816,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         }
 
         OkHttpClient httpClient = Network.createProgressClient(this);
-        DownloadPool pool = new DownloadPool();
+        DownloadPool pool = new DownloadPool(DownloadScheduler.Priority.LOW);
 
         index.objects.forEach((key, object) -> {
             String filename = object.hash.substring(0, 2) + "/" + object.hash;
@@ -2827,14 +2829,11 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
             pool.add(download);
         });
 
-        DownloadPool smallPool = pool.downsize();
-
-        if (smallPool.size() != 0) {
-            fireTask(GetText.tr("Downloading Resources"));
-            this.setTotalBytes(smallPool.totalSize());
-            this.fireSubProgress(0);
-            smallPool.downloadAll();
-        }
+        fireTask(GetText.tr("Downloading Resources"));
+        this.setTotalBytes(0L);
+        this.fireSubProgress(0);
+        pool.downsizeAndDownloadAll(this);
+        NetworkMetrics.logSummary();
 
         // copy resources to instance
         if (index.mapToResources || assetIndex.id.equalsIgnoreCase("legacy")) {
@@ -2861,8 +2860,6 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         addPercent(5);
         fireTask(GetText.tr("Downloading Minecraft"));
         fireSubProgressUnknown();
-        totalBytes = 0;
-        downloadedBytes = 0;
 
         MojangDownloads downloads = this.minecraftVersion.downloads;
 
@@ -3021,7 +3018,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         fireSubProgressUnknown();
 
         OkHttpClient httpClient = Network.createProgressClient(this);
-        DownloadPool pool = new DownloadPool();
+        DownloadPool pool = new DownloadPool(DownloadScheduler.Priority.HIGH);
 
         // get non native libraries otherwise we double up
         this.getLibraries().stream().filter(
@@ -3058,12 +3055,10 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
             });
         }
 
-        DownloadPool smallPool = pool.downsize();
-
-        this.setTotalBytes(smallPool.totalSize());
+        this.setTotalBytes(0L);
         this.fireSubProgress(0);
 
-        smallPool.downloadAll();
+        pool.downsizeAndDownloadAll(this);
 
         hideSubProgressBar();
     }
@@ -3081,9 +3076,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
                         File serverFile = new File(this.root.resolve("libraries").toFile(),
                                 library.downloads.artifact.path);
 
-                        serverFile.getParentFile().mkdirs();
-
-                        Utils.copyFile(libraryFile, serverFile, true);
+                        FileUtils.linkOrCopyFile(libraryFile.toPath(), serverFile.toPath());
                     });
 
             if (this.loader != null && this.loader.getInstallLibraries() != null) {
@@ -3096,9 +3089,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
                                 File serverFile = new File(this.root.resolve("libraries").toFile(),
                                         library.downloads.artifact.path);
 
-                                serverFile.getParentFile().mkdirs();
-
-                                Utils.copyFile(libraryFile, serverFile, true);
+                                FileUtils.linkOrCopyFile(libraryFile.toPath(), serverFile.toPath());
                             }
                         });
             }
@@ -3139,7 +3130,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
                         .asClassWithThrow(JavaRuntimeManifest.class);
 
                 OkHttpClient httpClient = Network.createProgressClient(this);
-                DownloadPool pool = new DownloadPool();
+                DownloadPool pool = new DownloadPool(DownloadScheduler.Priority.HIGH);
 
                 // create root directory
                 Path runtimeSystemDirectory = FileSystem.MINECRAFT_RUNTIMES
@@ -3387,6 +3378,9 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
             }
         }
 
+        ModMetadataReader.save();
+        FileHashCache.save();
+
         hideSubProgressBar();
     }
 
@@ -3654,7 +3648,8 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         this.modsInstalled.stream().filter(dm -> dm.curseForgeProject == null && dm.curseForgeFile == null)
                 .filter(dm -> dm.getFile(root, this.packVersion.minecraft) != null).forEach(dm -> {
                     try {
-                        long hash = Hashing.murmur(dm.getFile(root, this.packVersion.minecraft).toPath());
+                        long hash = FileHashCache
+                                .getModFingerprint(dm.getFile(root, this.packVersion.minecraft).toPath());
                         murmurHashes.put(hash, dm);
                     } catch (Throwable t) {
                         LogManager.logStackTrace(t);
@@ -3712,8 +3707,8 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         this.modsInstalled.stream().filter(dm -> dm.modrinthProject == null && dm.modrinthVersion == null)
                 .filter(dm -> dm.getFile(root, this.packVersion.minecraft) != null).forEach(dm -> {
                     try {
-                        sha1Hashes.put(Hashing.sha1(dm.getFile(root, this.packVersion.minecraft).toPath()).toString(),
-                                dm);
+                        sha1Hashes.put(FileHashCache.getModHash(dm.getFile(root, this.packVersion.minecraft).toPath(),
+                                Hashing.Algorithm.SHA1).toString(), dm);
                     } catch (Throwable t) {
                         LogManager.logStackTrace(t);
                     }
@@ -4286,7 +4281,9 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
 
     public void fireTask(String name) {
         LogManager.debug("Instance Installer: " + name);
-        firePropertyChange("doing", null, name);
+
+        InstallStageGraph graph = this.stageGraph;
+        firePropertyChange("doing", null, graph == null ? name : graph.setTask(name));
     }
 
     protected void fireProgress(double percent) {
@@ -4314,10 +4311,21 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
     }
 
     public void fireSubProgressUnknown() {
+        // don't hide the progress of other stages still downloading
+        if (isRunningStagesConcurrently()) {
+            return;
+        }
+
         firePropertyChange("subprogressint", null, null);
     }
 
-    protected void addPercent(double percent) {
+    private boolean isRunningStagesConcurrently() {
+        InstallStageGraph graph = this.stageGraph;
+
+        return graph != null && graph.isRunningConcurrently();
+    }
+
+    protected synchronized void addPercent(double percent) {
         this.percent = this.percent + percent;
         if (this.percent > 100.0) {
             this.percent = 100.0;
@@ -4333,7 +4341,7 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
         fireSubProgress(this.subPercent);
     }
 
-    public void addSubPercent(double percent) {
+    public synchronized void addSubPercent(double percent) {
         this.subPercent = this.subPercent + percent;
         if (this.subPercent > 100.0) {
             this.subPercent = 100.0;
@@ -4346,20 +4354,26 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
     }
 
     @Override
-    public void setTotalBytes(long bytes) {
+    public synchronized void setTotalBytes(long bytes) {
+        // while stages are running, progress is the total of every stage's downloads
+        if (this.stageGraph != null) {
+            addBytesToDownload(bytes);
+            return;
+        }
+
         this.downloadedBytes = 0L;
         this.totalBytes = bytes;
         this.updateProgressBar();
     }
 
     @Override
-    public void addDownloadedBytes(long bytes) {
+    public synchronized void addDownloadedBytes(long bytes) {
         this.downloadedBytes += bytes;
         this.updateProgressBar();
     }
 
     @Override
-    public void addBytesToDownload(long bytes) {
+    public synchronized void addBytesToDownload(long bytes) {
         this.totalBytes += bytes;
         this.updateProgressBar();
     }
@@ -4381,6 +4395,10 @@ public class InstanceInstaller extends SwingWorker<Boolean, Void> implements Net
     }
 
     private void hideSubProgressBar() {
+        if (isRunningStagesConcurrently()) {
+            return;
+        }
+
         fireSubProgress(-1);
     }
 }
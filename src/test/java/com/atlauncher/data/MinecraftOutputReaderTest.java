@@ -0,0 +1,141 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class MinecraftOutputReaderTest {
+    private static final AbstractAccount ACCOUNT = new MojangAccount("user@example.com", null, "Player",
+            "01234567-89ab-cdef-0123-456789abcdef", false, null,
+            Collections.singletonMap("accessToken", "secret-token"));
+
+    @Test
+    public void testHighestPrioritySignatureIsDetected() throws IOException {
+        CrashSignature outOfMemory = signature("out-of-memory", 0, null, "java.lang.OutOfMemoryError");
+        CrashSignature needsJava17 = signature("needs-java-17", 10, null, "class file version 61.0");
+
+        MinecraftOutputReader reader = read("1.18.2", signatures(outOfMemory, needsJava17),
+                "Exception in thread \"main\" java.lang.UnsupportedClassVersionError: class file version 61.0",
+                "java.lang.OutOfMemoryError: Java heap space");
+
+        assertEquals(needsJava17, reader.getDetectedDiagnostic().signature);
+        assertEquals(2, reader.getDiagnostics().size());
+        assertFalse(reader.hasCrashedWithoutKnownResolution());
+    }
+
+    @Test
+    public void testLatestSignatureIsDetectedWithTheSamePriority() throws IOException {
+        CrashSignature first = signature("first", 0, null, "first problem");
+        CrashSignature second = signature("second", 0, null, "second problem");
+
+        // in different lines, the one found last
+        MinecraftOutputReader reader = read("1.18.2", signatures(first, second), "second problem",
+                "first problem");
+        assertEquals(first, reader.getDetectedDiagnostic().signature);
+
+        // in the same line, the one last in the list
+        reader = read("1.18.2", signatures(first, second), "first problem then second problem");
+        assertEquals(second, reader.getDetectedDiagnostic().signature);
+        assertEquals(1, reader.getDiagnostics().size());
+    }
+
+    @Test
+    public void testDiagnosticKeepsTheFirstLineMatched() throws IOException {
+        CrashSignature outOfMemory = signature("out-of-memory", 0, null, "java.lang.OutOfMemoryError",
+                "There is insufficient memory for the Java Runtime Environment");
+
+        MinecraftOutputReader reader = read("1.18.2", signatures(outOfMemory),
+                "Player ran out: java.lang.OutOfMemoryError with secret-token",
+                "There is insufficient memory for the Java Runtime Environment to continue.");
+
+        List<CrashDiagnostic> diagnostics = reader.getDiagnostics();
+        assertEquals(1, diagnostics.size());
+        assertEquals("**MINECRAFTUSERNAME** ran out: java.lang.OutOfMemoryError with **ACCESSTOKEN**",
+                diagnostics.get(0).line);
+    }
+
+    @Test
+    public void testMaxMinecraftVersion() throws IOException {
+        CrashSignature concurrentModification = signature("concurrent-modification-1-6", 0, "1.6",
+                "java.util.ConcurrentModificationException");
+        String line = "java.util.ConcurrentModificationException";
+
+        assertEquals(concurrentModification,
+                read("1.6.4", signatures(concurrentModification), line).getDetectedDiagnostic().signature);
+        assertEquals(concurrentModification,
+                read("1.4.7", signatures(concurrentModification), line).getDetectedDiagnostic().signature);
+        assertNull(read("1.7.10", signatures(concurrentModification), line).getDetectedDiagnostic());
+        assertNull(read("1.12.2", signatures(concurrentModification), line).getDetectedDiagnostic());
+        assertNull(read("23w13a", signatures(concurrentModification), line).getDetectedDiagnostic());
+        assertNull(read("1.RV-Pre1", signatures(concurrentModification), line).getDetectedDiagnostic());
+
+        // the version is only checked once something's found, so unusual versions never stop the game being read
+        assertNull(read("1.RV-Pre1", signatures(concurrentModification), "[Render thread/INFO]: Stopping!")
+                .getDetectedDiagnostic());
+    }
+
+    @Test
+    public void testCrashWithoutKnownResolution() throws IOException {
+        MinecraftOutputReader reader = read("1.18.2",
+                signatures(signature("out-of-memory", 0, null, "java.lang.OutOfMemoryError")),
+                "[Render thread/INFO]: Stopping!", "#@!@# Game crashed! Crash report saved to: #@!@# crash.txt");
+
+        assertTrue(reader.hasCrashedWithoutKnownResolution());
+        assertNull(reader.getDetectedDiagnostic());
+        assertTrue(reader.getDiagnostics().isEmpty());
+    }
+
+    private static MinecraftOutputReader read(String minecraftVersion, CrashSignatures crashSignatures,
+            String... lines) throws IOException {
+        MinecraftOutputReader reader = new MinecraftOutputReader(ACCOUNT, minecraftVersion, crashSignatures, null);
+        reader.read(new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)));
+
+        return reader;
+    }
+
+    private static CrashSignatures signatures(CrashSignature... signatures) {
+        CrashSignatures crashSignatures = new CrashSignatures();
+        crashSignatures.crashReportMarkers.add("Crash report saved to");
+        crashSignatures.signatures.addAll(Arrays.asList(signatures));
+
+        return crashSignatures;
+    }
+
+    private static CrashSignature signature(String id, int priority, String maxMinecraftVersion,
+            String... patterns) {
+        CrashSignature signature = new CrashSignature();
+        signature.id = id;
+        signature.priority = priority;
+        signature.maxMinecraftVersion = maxMinecraftVersion;
+        signature.patterns.addAll(Arrays.asList(patterns));
+
+        return signature;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PerformanceReportTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRecordsFromManyThreads() throws Exception {
+        PerformanceReport report = PerformanceReport.start(PerformanceReport.INSTALL, "Test Pack 1.0");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                report.fileDownloaded("a.example.com", 100, 10);
+                report.fileDownloaded("b.example.com", 300, 20);
+                report.fileReused(200);
+                report.retried();
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        report.finish(true);
+
+        assertEquals(2000, report.filesDownloaded.get());
+        assertEquals(400000, report.bytesDownloaded.get());
+        assertEquals(1000, report.filesReused.get());
+        assertEquals(200000, report.bytesReused.get());
+        assertEquals(1000, report.retries.get());
+        assertEquals(100000.0 / 3, report.getCacheHitPercent(), 0.001);
+
+        assertEquals(1000, report.hosts.get("a.example.com").files.get());
+        assertEquals(10000, report.hosts.get("a.example.com").bytesPerSecond);
+        assertEquals(15000, report.hosts.get("b.example.com").bytesPerSecond);
+    }
+
+    @Test
+    public void testSavesAndLoadsReport() {
+        PerformanceReport report = PerformanceReport.start(PerformanceReport.LAUNCH, "Test Instance");
+        report.addStage("prepare", 1234);
+        report.addStage("startProcess", 56);
+        report.fileDownloaded("b.example.com", 2048, 2);
+        report.fileDownloaded("a.example.com", 1024, 2);
+        report.finish(true);
+
+        assertNull(PerformanceReport.load(tempDir, PerformanceReport.LAUNCH));
+
+        report.save(tempDir);
+
+        PerformanceReport loaded = PerformanceReport.load(tempDir, PerformanceReport.LAUNCH);
+        assertEquals(PerformanceReport.LAUNCH, loaded.type);
+        assertEquals("Test Instance", loaded.name);
+        assertTrue(loaded.successful);
+        assertEquals(Arrays.asList("prepare", "startProcess"), Arrays.asList(loaded.stages.keySet().toArray()));
+        assertEquals(1234L, loaded.stages.get("prepare"));
+        assertEquals(3072, loaded.bytesDownloaded.get());
+        assertEquals(Arrays.asList("a.example.com", "b.example.com"),
+                Arrays.asList(loaded.hosts.keySet().toArray()));
+        assertEquals(512000, loaded.hosts.get("a.example.com").bytesPerSecond);
+        assertTrue(loaded.getSummary().contains("a.example.com"));
+    }
+}
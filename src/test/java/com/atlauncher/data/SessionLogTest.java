@@ -0,0 +1,100 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.atlauncher.evnt.LogEvent;
+import com.atlauncher.evnt.LogEvent.LogType;
+
+public class SessionLogTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReadsLastErrors() throws IOException {
+        SessionLog sessionLog = SessionLog.start(tempDir, 10);
+
+        // enough lines to be split up over a bunch of chunks
+        for (int i = 0; i < 50000; i++) {
+            if (i % 1000 == 0) {
+                sessionLog.write(new LogEvent(LogType.ERROR, "[Server thread/ERROR] Error " + i + "\n",
+                        LogEvent.CONSOLE, "Server thread", "net.minecraft.server.MinecraftServer", 1000L + i));
+            } else {
+                sessionLog.write(new LogEvent(LogType.INFO, "Line " + i + " with\ta tab and a \\ backslash",
+                        LogEvent.CONSOLE));
+            }
+        }
+        sessionLog.close();
+
+        List<SessionLog.Entry> errors = sessionLog.readLastErrors(3);
+
+        assertEquals(3, errors.size());
+        assertEquals("[Server thread/ERROR] Error 47000", errors.get(0).message);
+        assertEquals("[Server thread/ERROR] Error 49000", errors.get(2).message);
+        assertEquals("Server thread", errors.get(2).thread);
+        assertEquals("net.minecraft.server.MinecraftServer", errors.get(2).logger);
+        assertEquals(50000L, errors.get(2).timestamp);
+        assertEquals(LogType.ERROR, errors.get(2).type);
+    }
+
+    @Test
+    public void testReadsLinesFromTheMiddle() throws IOException {
+        SessionLog sessionLog = SessionLog.start(tempDir, 10);
+
+        for (int i = 0; i < 50000; i++) {
+            sessionLog.write(new LogEvent(LogType.INFO, "Line " + i + "\twith a tab\nand a new line",
+                    LogEvent.CONSOLE));
+        }
+        sessionLog.close();
+
+        List<SessionLog.Entry> entries = SessionLog.read(sessionLog.getFirstPart(), 30000, 2);
+
+        assertEquals(2, entries.size());
+        assertEquals("Line 30000\twith a tab\nand a new line", entries.get(0).message);
+        assertEquals("Line 30001\twith a tab\nand a new line", entries.get(1).message);
+        assertNull(entries.get(0).thread);
+    }
+
+    @Test
+    public void testOnlyKeepsNewestSessions() {
+        for (int i = 0; i < 5; i++) {
+            SessionLog sessionLog = SessionLog.start(tempDir, 3);
+            sessionLog.write(new LogEvent(LogType.INFO, "Session " + i, LogEvent.CONSOLE));
+            sessionLog.close();
+        }
+
+        Map<String, List<Path>> sessions = SessionLog.getSessions(tempDir);
+
+        assertEquals(3, sessions.size());
+    }
+
+    @Test
+    public void testDisabledWhenNotKeepingAnySessions() {
+        assertNull(SessionLog.start(tempDir, 0));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.managers;
+
+import static com.atlauncher.utils.TestFiles.randomBytes;
+import static com.atlauncher.utils.TestFiles.write;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.atlauncher.data.BackupManifest;
+import com.atlauncher.data.BackupMode;
+
+public class BackupManagerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testBackupAndRestore() throws IOException, InterruptedException {
+        Path store = tempDir.resolve("backups");
+        Path instance = tempDir.resolve("instance");
+        byte[] region = randomBytes(3000000, 1);
+
+        write(instance.resolve("options.txt"), "fov:70".getBytes(StandardCharsets.UTF_8));
+        write(instance.resolve("saves/World/region/r.0.0.mca"), region);
+        write(instance.resolve("saves/World/empty.dat"), new byte[0]);
+        write(instance.resolve("logs/latest.log"), "not backed up".getBytes(StandardCharsets.UTF_8));
+
+        BackupManifest manifest = BackupManager.backup(store, instance, "Instance", "Instance", BackupMode.NORMAL);
+
+        assertEquals(3, manifest.files.size());
+        assertEquals("options.txt", manifest.files.get(0).path);
+        assertEquals(region.length + 6, manifest.size);
+
+        Path restored = tempDir.resolve("restored");
+        BackupManager.restore(store, manifest, restored, false);
+
+        assertArrayEquals(region, Files.readAllBytes(restored.resolve("saves/World/region/r.0.0.mca")));
+        assertEquals(0, Files.size(restored.resolve("saves/World/empty.dat")));
+        assertFalse(Files.exists(restored.resolve("logs/latest.log")));
+        assertEquals(Files.getLastModifiedTime(instance.resolve("options.txt")).toMillis(),
+                Files.getLastModifiedTime(restored.resolve("options.txt")).toMillis());
+
+        assertTrue(BackupManager.verify(store).isEmpty());
+    }
+
+    @Test
+    public void testBackupsShareUnchangedChunks() throws IOException, InterruptedException {
+        Path store = tempDir.resolve("backups");
+        Path instance = tempDir.resolve("instance");
+        Path regionFile = instance.resolve("saves/World/region/r.0.0.mca");
+
+        write(regionFile, randomBytes(8000000, 2));
+        BackupManager.backup(store, instance, "Instance", "Instance", BackupMode.NORMAL);
+        long chunksAfterFirstBackup = countChunks(store);
+
+        // change a few bytes in the middle of the file
+        byte[] changed = Files.readAllBytes(regionFile);
+        changed[4000000] ^= 1;
+        write(regionFile, changed);
+        BackupManager.backup(store, instance, "Instance", "Instance", BackupMode.NORMAL);
+
+        assertTrue(countChunks(store) <= chunksAfterFirstBackup + 2);
+        assertEquals(2, BackupManager.getBackups(store, "Instance").size());
+    }
+
+    @Test
+    public void testRetentionRemovesOldBackupsAndUnusedChunks() throws IOException, InterruptedException {
+        Path store = tempDir.resolve("backups");
+        Path instance = tempDir.resolve("instance");
+        Path saveFile = instance.resolve("saves/World/level.dat");
+
+        for (int i = 0; i < 3; i++) {
+            write(saveFile, randomBytes(1000, i));
+            BackupManager.backup(store, instance, "Instance", "Instance", BackupMode.NORMAL);
+        }
+
+        assertEquals(3, countChunks(store));
+
+        BackupManager.applyRetention(store, "Instance", 1);
+
+        List<BackupManifest> backups = BackupManager.getBackups(store, "Instance");
+        assertEquals(1, backups.size());
+        assertEquals(1, countChunks(store));
+
+        Path restored = tempDir.resolve("restored");
+        BackupManager.restore(store, backups.get(0), restored, false);
+        assertArrayEquals(randomBytes(1000, 2), Files.readAllBytes(restored.resolve("saves/World/level.dat")));
+    }
+
+    @Test
+    public void testRestoreDeletesFilesNotInTheBackup() throws IOException, InterruptedException {
+        Path store = tempDir.resolve("backups");
+        Path instance = tempDir.resolve("instance");
+
+        write(instance.resolve("saves/World/region/r.0.0.mca"), randomBytes(1000, 1));
+        BackupManifest manifest = BackupManager.backup(store, instance, "Instance", "Instance", BackupMode.NORMAL);
+
+        write(instance.resolve("saves/World/region/r.1.0.mca"), randomBytes(1000, 2));
+        write(instance.resolve("logs/latest.log"), "not backed up".getBytes(StandardCharsets.UTF_8));
+
+        BackupManager.restore(store, manifest, instance, false);
+        assertTrue(Files.exists(instance.resolve("saves/World/region/r.1.0.mca")));
+
+        BackupManager.restore(store, manifest, instance, true);
+        assertFalse(Files.exists(instance.resolve("saves/World/region/r.1.0.mca")));
+        assertArrayEquals(randomBytes(1000, 1), Files.readAllBytes(instance.resolve("saves/World/region/r.0.0.mca")));
+
+        // not covered by the backup mode, so left alone
+        assertTrue(Files.exists(instance.resolve("logs/latest.log")));
+    }
+
+    @Test
+    public void testVerifyFindsDamagedChunks() throws IOException, InterruptedException {
+        Path store = tempDir.resolve("backups");
+        Path instance = tempDir.resolve("instance");
+
+        write(instance.resolve("options.txt"), "fov:70".getBytes(StandardCharsets.UTF_8));
+        BackupManager.backup(store, instance, "Instance", "Instance", BackupMode.NORMAL);
+
+        try (Stream<Path> stream = Files.walk(store.resolve("chunks"))) {
+            for (Path chunk : stream.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                Files.write(chunk, new byte[] { 0, 1, 2, 3 });
+            }
+        }
+
+        assertEquals(1, BackupManager.verify(store).size());
+    }
+
+    private static long countChunks(Path store) throws IOException {
+        try (Stream<Path> stream = Files.walk(store.resolve("chunks"))) {
+            return stream.filter(Files::isRegularFile).count();
+        }
+    }
+}
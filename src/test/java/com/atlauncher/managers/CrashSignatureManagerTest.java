@@ -0,0 +1,49 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.managers;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.atlauncher.data.CrashSignature;
+import com.atlauncher.data.CrashSignatures;
+
+public class CrashSignatureManagerTest {
+    @Test
+    public void testBuiltInCrashSignaturesLoad() {
+        CrashSignatures crashSignatures = CrashSignatureManager.loadBuiltInCrashSignatures();
+
+        assertFalse(crashSignatures.crashReportMarkers.isEmpty());
+        assertFalse(crashSignatures.signatures.isEmpty());
+
+        Set<String> ids = new HashSet<>();
+        for (CrashSignature signature : crashSignatures.signatures) {
+            assertNotNull(signature.id);
+            assertTrue(ids.add(signature.id), "Duplicate crash signature " + signature.id);
+            assertFalse(signature.patterns.isEmpty(), "No patterns for crash signature " + signature.id);
+            assertTrue(signature.popup != null || signature.message != null || signature.fix != null,
+                    "Nothing to show for crash signature " + signature.id);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.managers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class PerformanceManagerTest {
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    public static void startTracing() {
+        PerformanceManager.startTracing();
+    }
+
+    @Test
+    public void testNestedSpansWithTheSameName() {
+        PerformanceManager.start("test.nested");
+        PerformanceManager.start("test.nested");
+        PerformanceManager.end("test.nested");
+        PerformanceManager.end("test.nested");
+
+        assertEquals(2, PerformanceManager.getHistograms().get("test.nested").getCount());
+    }
+
+    @Test
+    public void testSpansNotEndedAreThrownAwayWhenTheirParentEnds() {
+        PerformanceManager.start("test.parent");
+        PerformanceManager.start("test.notEnded");
+        PerformanceManager.end("test.parent");
+        PerformanceManager.end("test.notEnded");
+
+        assertEquals(1, PerformanceManager.getHistograms().get("test.parent").getCount());
+        assertNull(PerformanceManager.getHistograms().get("test.notEnded"));
+    }
+
+    @Test
+    public void testSpansWithTheSameNameOnDifferentThreads() throws Exception {
+        int threads = 8;
+        CountDownLatch allStarted = new CountDownLatch(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try (PerformanceManager.Span span = PerformanceManager.span("test.concurrent")) {
+                    // make sure every span is open at the same time
+                    allStarted.countDown();
+                    allStarted.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads, PerformanceManager.getHistograms().get("test.concurrent").getCount());
+    }
+
+    @Test
+    public void testDetachedSpansCanEndOnAnotherThread() throws Exception {
+        PerformanceManager.Span span = PerformanceManager.startDetached("test.detached");
+
+        Thread thread = new Thread(span::end);
+        thread.start();
+        thread.join();
+        span.end();
+
+        assertEquals(1, PerformanceManager.getHistograms().get("test.detached").getCount());
+    }
+
+    @Test
+    public void testExportsChromeTrace() throws Exception {
+        try (PerformanceManager.Span span = PerformanceManager.span("test.exported")) {
+            Thread.sleep(1);
+        }
+
+        Path file = tempDir.resolve("trace.json");
+        assertTrue(PerformanceManager.exportChromeTrace(file));
+
+        JsonObject trace = JsonParser.parseString(new String(Files.readAllBytes(file), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+
+        boolean found = false;
+        for (int i = 0; i < trace.getAsJsonArray("traceEvents").size(); i++) {
+            JsonObject event = trace.getAsJsonArray("traceEvents").get(i).getAsJsonObject();
+
+            if (event.get("name").getAsString().equals("test.exported")) {
+                found = true;
+                assertEquals("X", event.get("ph").getAsString());
+                assertTrue(event.get("dur").getAsLong() >= 1000);
+            }
+        }
+
+        assertTrue(found);
+        assertTrue(trace.getAsJsonObject("histograms").has("test.exported"));
+    }
+}
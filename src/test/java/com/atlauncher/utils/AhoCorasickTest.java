@@ -0,0 +1,57 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class AhoCorasickTest {
+    @Test
+    public void testFindsAllMatchesIncludingOverlapping() {
+        AhoCorasick matcher = new AhoCorasick(Arrays.asList("he", "she", "his", "hers"));
+
+        assertEquals(Arrays.asList("1:1-4", "0:2-4", "3:2-6"), search(matcher, "ushers"));
+        assertEquals(Arrays.asList("2:0-3", "1:3-6", "0:4-6"), search(matcher, "hisshe"));
+    }
+
+    @Test
+    public void testIgnoresNullAndEmptyPatterns() {
+        AhoCorasick matcher = new AhoCorasick(Arrays.asList(null, "", "abc"));
+
+        assertEquals(Arrays.asList("2:1-4"), search(matcher, "xabcx"));
+        assertEquals(new ArrayList<>(), search(matcher, ""));
+    }
+
+    @Test
+    public void testMatchesNonAsciiCharacters() {
+        AhoCorasick matcher = new AhoCorasick(Arrays.asList("\u00fcn\u00efcode", "code"));
+
+        assertEquals(Arrays.asList("0:2-9", "1:5-9"), search(matcher, "a \u00fcn\u00efcode b"));
+    }
+
+    private static List<String> search(AhoCorasick matcher, String text) {
+        List<String> matches = new ArrayList<>();
+        matcher.search(text, (pattern, start, end) -> matches.add(pattern + ":" + start + "-" + end));
+        return matches;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArchiveReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReadsEntriesFromCentralDirectory() throws IOException {
+        Path archive = createArchive("test.zip", "manifest.json", "{\"name\":\"Test\"}", "overrides/config/test.cfg",
+                "value=1", "mcmod.info", "[]");
+
+        try (ArchiveReader reader = ArchiveReader.open(archive)) {
+            assertEquals(Arrays.asList("manifest.json", "overrides/config/test.cfg", "mcmod.info"),
+                    reader.getEntryNames());
+
+            assertTrue(reader.contains("overrides/config/test.cfg"));
+            assertFalse(reader.contains("modrinth.index.json"));
+
+            assertEquals("{\"name\":\"Test\"}", reader.getString("manifest.json"));
+            assertArrayEquals("value=1".getBytes(StandardCharsets.UTF_8),
+                    reader.getBytes("overrides/config/test.cfg"));
+            assertNull(reader.getString("modrinth.index.json"));
+
+            Map<String, String> contents = reader.getStrings("mcmod.info", "fabric.mod.json", "manifest.json");
+            assertEquals(2, contents.size());
+            assertEquals("[]", contents.get("mcmod.info"));
+            assertEquals("{\"name\":\"Test\"}", contents.get("manifest.json"));
+        }
+    }
+
+    @Test
+    public void testArchiveUtilsReadsChangedArchives() throws IOException {
+        Path archive = createArchive("pack.zip", "manifest.json", "first");
+
+        assertTrue(ArchiveUtils.archiveContainsFile(archive, "manifest.json"));
+        assertFalse(ArchiveUtils.archiveContainsFile(archive, "modrinth.index.json"));
+        assertEquals("first", ArchiveUtils.getFile(archive, "manifest.json"));
+        assertNull(ArchiveUtils.getFile(archive, "modrinth.index.json"));
+
+        // the cached entry names shouldn't be used once the archive has changed
+        createArchive("pack.zip", "modrinth.index.json", "second", "manifest.json", "third");
+
+        assertTrue(ArchiveUtils.archiveContainsFile(archive, "modrinth.index.json"));
+        assertEquals("second", ArchiveUtils.getFile(archive, "modrinth.index.json"));
+        assertEquals("third", ArchiveUtils.getFiles(archive, "manifest.json", "mcmod.info").get("manifest.json"));
+    }
+
+    private Path createArchive(String name, String... entries) throws IOException {
+        Path archive = tempDir.resolve(name);
+
+        try (OutputStream os = Files.newOutputStream(archive); ZipOutputStream zos = new ZipOutputStream(os)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zos.putNextEntry(new ZipEntry(entries[i]));
+                zos.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+
+        return archive;
+    }
+}
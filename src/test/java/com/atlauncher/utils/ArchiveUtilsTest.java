@@ -0,0 +1,120 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static com.atlauncher.utils.TestFiles.randomBytes;
+import static com.atlauncher.utils.TestFiles.write;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.compress.utils.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArchiveUtilsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCreateZipIsTheSameOnAnyNumberOfThreads() throws IOException {
+        Path folder = tempDir.resolve("instance");
+
+        for (int i = 0; i < 20; i++) {
+            write(folder.resolve("config/config-" + i + ".cfg"), ("value=" + i).getBytes(StandardCharsets.UTF_8));
+            write(folder.resolve("mods/mod-" + i + ".jar"), randomBytes(1000 + i, i));
+        }
+        write(folder.resolve("saves/World/region/r.0.0.mca"), randomBytes(6 * 1024 * 1024, 20));
+        write(folder.resolve("icon.png"), randomBytes(5000, 21));
+        Files.createDirectories(folder.resolve("logs"));
+
+        Path single = tempDir.resolve("single.zip");
+        Path parallel = tempDir.resolve("parallel.zip");
+        assertTrue(ArchiveUtils.createZip(folder, single, name -> name, 1));
+        assertTrue(ArchiveUtils.createZip(folder, parallel, name -> name, 4));
+
+        assertArrayEquals(Files.readAllBytes(single), Files.readAllBytes(parallel));
+
+        try (ZipFile zipFile = new ZipFile(parallel.toFile())) {
+            List<String> names = Collections.list(zipFile.entries()).stream().map(ZipEntry::getName)
+                    .collect(Collectors.toList());
+            List<String> walked = walk(folder);
+            assertEquals(walked, names);
+
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("mods/mod-3.jar").getMethod());
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("icon.png").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("config/config-3.cfg").getMethod());
+            assertTrue(zipFile.getEntry("logs/").isDirectory());
+
+            assertArrayEquals(Files.readAllBytes(folder.resolve("saves/World/region/r.0.0.mca")), IOUtils
+                    .toByteArray(zipFile.getInputStream(zipFile.getEntry("saves/World/region/r.0.0.mca"))));
+            assertEquals("value=7", read(zipFile, "config/config-7.cfg"));
+        }
+
+        // no temporary files left behind
+        try (Stream<Path> stream = Files.list(tempDir)) {
+            assertEquals(3, stream.count());
+        }
+    }
+
+    @Test
+    public void testCreateZipOnlyAddsMappedFiles() throws IOException {
+        Path folder = tempDir.resolve("instance");
+        write(folder.resolve("options.txt"), "fov:70".getBytes(StandardCharsets.UTF_8));
+        write(folder.resolve("saves/World/level.dat"), "level".getBytes(StandardCharsets.UTF_8));
+        write(folder.resolve("logs/latest.log"), "log".getBytes(StandardCharsets.UTF_8));
+
+        Path archive = tempDir.resolve("backup.zip");
+        assertTrue(ArchiveUtils.createZip(folder, archive, ZipNameMapper.NORMAL_BACKUP));
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertEquals("fov:70", read(zipFile, "options.txt"));
+            assertEquals("level", read(zipFile, "saves/World/level.dat"));
+            assertNull(zipFile.getEntry("logs/latest.log"));
+            assertNull(zipFile.getEntry("logs/"));
+        }
+    }
+
+    private static List<String> walk(Path folder) throws IOException {
+        List<String> names = new ArrayList<>();
+
+        try (Stream<Path> stream = Files.walk(folder)) {
+            stream.filter(p -> !p.equals(folder)).forEach(p -> names.add(folder.relativize(p).toString()
+                    .replace('\\', '/') + (Files.isDirectory(p) ? "/" : "")));
+        }
+
+        return names;
+    }
+
+    private static String read(ZipFile zipFile, String name) throws IOException {
+        return new String(IOUtils.toByteArray(zipFile.getInputStream(zipFile.getEntry(name))), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.compress.utils.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArchiveWriterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStoresAlreadyCompressedFiles() throws IOException {
+        assertTrue(ArchiveWriter.isAlreadyCompressed("mods/test.jar"));
+        assertTrue(ArchiveWriter.isAlreadyCompressed("resourcepacks/Test.ZIP"));
+        assertTrue(ArchiveWriter.isAlreadyCompressed("instance.png"));
+        assertFalse(ArchiveWriter.isAlreadyCompressed("config/test.cfg"));
+        assertFalse(ArchiveWriter.isAlreadyCompressed("options"));
+
+        byte[] jar = new byte[100000];
+        new Random(1).nextBytes(jar);
+        Path jarFile = Files.write(tempDir.resolve("test.jar"), jar);
+        Path configFile = Files.write(tempDir.resolve("test.cfg"), "value=1".getBytes(StandardCharsets.UTF_8));
+
+        Path archive = tempDir.resolve("export.zip");
+        try (ArchiveWriter writer = ArchiveWriter.create(archive)) {
+            writer.addString("manifest.json", "{}");
+            writer.addDirectory("overrides");
+            writer.addFile(jarFile, "overrides/mods/test.jar");
+            writer.addFile(configFile, "overrides/config/test.cfg");
+
+            assertThrows(IOException.class, () -> writer.addString("manifest.json", "{}"));
+
+            // files that can't be read are left out, without breaking the rest of the archive
+            assertThrows(IOException.class,
+                    () -> writer.addFile(tempDir.resolve("missing.jar"), "overrides/mods/missing.jar"));
+        }
+
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            assertEquals(4, zipFile.size());
+            assertEquals("{}", read(zipFile, "manifest.json"));
+            assertTrue(zipFile.getEntry("overrides/").isDirectory());
+
+            ZipEntry jarEntry = zipFile.getEntry("overrides/mods/test.jar");
+            assertEquals(ZipEntry.STORED, jarEntry.getMethod());
+            assertTrue(Arrays.equals(jar, IOUtils.toByteArray(zipFile.getInputStream(jarEntry))));
+
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("overrides/config/test.cfg").getMethod());
+            assertEquals("value=1", read(zipFile, "overrides/config/test.cfg"));
+        }
+    }
+
+    @Test
+    public void testAddsFileToMultipleArchives() throws IOException {
+        Path file = Files.write(tempDir.resolve("options.txt"), "fov:1.0".getBytes(StandardCharsets.UTF_8));
+
+        Path first = tempDir.resolve("first.zip");
+        Path second = tempDir.resolve("second.mrpack");
+        try (ArchiveWriter firstWriter = ArchiveWriter.create(first);
+                ArchiveWriter secondWriter = ArchiveWriter.create(second)) {
+            Map<ArchiveWriter, String> targets = new LinkedHashMap<>();
+            targets.put(firstWriter, ".minecraft/options.txt");
+            targets.put(secondWriter, "overrides/options.txt");
+
+            ArchiveWriter.addFile(file, targets);
+        }
+
+        try (ZipFile zipFile = new ZipFile(first.toFile())) {
+            assertEquals("fov:1.0", read(zipFile, ".minecraft/options.txt"));
+        }
+
+        try (ZipFile zipFile = new ZipFile(second.toFile())) {
+            assertEquals("fov:1.0", read(zipFile, "overrides/options.txt"));
+        }
+    }
+
+    private static String read(ZipFile zipFile, String name) throws IOException {
+        return new String(IOUtils.toByteArray(zipFile.getInputStream(zipFile.getEntry(name))), StandardCharsets.UTF_8);
+    }
+}
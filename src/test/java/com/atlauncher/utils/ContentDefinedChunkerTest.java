@@ -0,0 +1,108 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.hash.Hashing;
+
+public class ContentDefinedChunkerTest {
+    private final ContentDefinedChunker chunker = new ContentDefinedChunker(1024, 4096, 16384);
+
+    @Test
+    public void testChunksJoinBackToTheInput() throws IOException {
+        Random random = new Random(1);
+
+        for (int size : new int[] { 0, 1, 1023, 1024, 16384, 16385, 100000, 1000000 }) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+
+            List<byte[]> chunks = split(new ByteArrayInputStream(bytes));
+
+            ByteArrayOutputStream joined = new ByteArrayOutputStream();
+            for (byte[] chunk : chunks) {
+                assertTrue(chunk.length > 0 && chunk.length <= 16384, "Chunk size " + chunk.length);
+                joined.write(chunk);
+            }
+
+            assertArrayEquals(bytes, joined.toByteArray(), "Chunks for size " + size);
+        }
+    }
+
+    @Test
+    public void testChunksDontDependOnHowTheStreamIsRead() throws IOException {
+        byte[] bytes = new byte[300000];
+        new Random(2).nextBytes(bytes);
+
+        // a stream that only ever returns a few bytes at a time
+        InputStream trickle = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 777));
+            }
+        };
+
+        assertEquals(hashes(split(new ByteArrayInputStream(bytes))), hashes(split(trickle)));
+    }
+
+    @Test
+    public void testInsertingBytesOnlyChangesNearbyChunks() throws IOException {
+        byte[] bytes = new byte[1000000];
+        new Random(3).nextBytes(bytes);
+
+        byte[] edited = new byte[bytes.length + 10];
+        System.arraycopy(bytes, 0, edited, 0, 500000);
+        System.arraycopy(bytes, 500000, edited, 500010, bytes.length - 500000);
+
+        List<String> original = hashes(split(new ByteArrayInputStream(bytes)));
+        Set<String> shared = new HashSet<>(hashes(split(new ByteArrayInputStream(edited))));
+        shared.retainAll(original);
+
+        assertTrue(shared.size() >= original.size() - 3,
+                "Only " + shared.size() + " of " + original.size() + " chunks were unchanged");
+    }
+
+    private List<byte[]> split(InputStream inputStream) throws IOException {
+        List<byte[]> chunks = new ArrayList<>();
+        chunker.split(inputStream, chunks::add);
+        return chunks;
+    }
+
+    private static List<String> hashes(List<byte[]> chunks) {
+        List<String> hashes = new ArrayList<>();
+        for (byte[] chunk : chunks) {
+            hashes.add(Hashing.sha256().hashBytes(chunk).toString());
+        }
+        return hashes;
+    }
+}
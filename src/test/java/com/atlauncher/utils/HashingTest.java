@@ -0,0 +1,111 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.hash.HashCode;
+import com.sangupta.murmur.Murmur2;
+
+public class HashingTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMurmurMatchesKnownFingerprints() throws IOException {
+        assertEquals(1540447798L, Hashing.murmur(write("")));
+        assertEquals(626045324L, Hashing.murmur(write("a")));
+        assertEquals(2824650221L, Hashing.murmur(write("hello world")));
+        assertEquals(3751777527L, Hashing.murmur(write("The quick brown fox\r\n\tjumps over the lazy dog")));
+        assertEquals(1938521202L, Hashing.murmur(write(new byte[] { (byte) 0x80, (byte) 0x90, (byte) 0xFF })));
+
+        assertEquals(3589591740L,
+                Hashing.murmur(Paths.get("src/test/resources/mocks/libraries-minecraft-net/test-1.0.jar")));
+        assertEquals(1837192923L,
+                Hashing.murmur(Paths.get("src/test/resources/mocks/launcher-mojang-com/client-1-16-4.jar")));
+    }
+
+    @Test
+    public void testMurmurMatchesInMemoryImplementation() throws IOException {
+        Random random = new Random(1);
+
+        // sizes either side of the read buffer size, and with every possible number of trailing bytes
+        int[] sizes = { 0, 1, 2, 3, 4, 5, 1023, 65535, 65536, 65537, 65539, 200000, 1048579 };
+
+        for (int size : sizes) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+
+            // make sure there's plenty of whitespace to strip out
+            for (int i = 0; i < size; i += 7) {
+                bytes[i] = (byte) new int[] { 9, 10, 13, 32 }[random.nextInt(4)];
+            }
+
+            assertEquals(legacyMurmur(bytes), Hashing.murmur(write(bytes)), "Fingerprint for size " + size);
+        }
+    }
+
+    @Test
+    public void testDigestAllMatchesIndividualHashes() throws IOException {
+        Random random = new Random(1);
+        byte[] bytes = new byte[200000];
+        random.nextBytes(bytes);
+        Path file = write(bytes);
+
+        Map<Hashing.Algorithm, HashCode> hashes = Hashing.digestAll(file, EnumSet.allOf(Hashing.Algorithm.class));
+
+        assertEquals(Hashing.md5(file), hashes.get(Hashing.Algorithm.MD5));
+        assertEquals(Hashing.sha1(file), hashes.get(Hashing.Algorithm.SHA1));
+        assertEquals(Hashing.sha256(file), hashes.get(Hashing.Algorithm.SHA256));
+        assertEquals(Hashing.sha512(file), hashes.get(Hashing.Algorithm.SHA512));
+        assertEquals(Hashing.murmur(file), hashes.get(Hashing.Algorithm.MURMUR).asLong());
+
+        assertEquals(Hashing.MOD_ALGORITHMS, Hashing.digestAll(file, Hashing.MOD_ALGORITHMS).keySet());
+    }
+
+    private static long legacyMurmur(byte[] bytes) {
+        byte[] stripped = ArrayUtils.removeAllOccurrences(ArrayUtils.removeAllOccurrences(
+                ArrayUtils.removeAllOccurrences(ArrayUtils.removeAllOccurrences(bytes, (byte) 9), (byte) 10),
+                (byte) 13), (byte) 32);
+
+        return Murmur2.hash(stripped, stripped.length, 1L);
+    }
+
+    private Path write(String contents) throws IOException {
+        return write(contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path write(byte[] bytes) throws IOException {
+        Path file = Files.createTempFile(tempDir, "murmur", ".bin");
+        Files.write(file, bytes);
+        return file;
+    }
+}
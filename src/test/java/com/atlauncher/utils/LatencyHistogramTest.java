@@ -0,0 +1,99 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+    @Test
+    public void testBucketsCoverEveryValue() {
+        int lastBucket = LatencyHistogram.getBucket(Long.MAX_VALUE);
+
+        assertEquals(0, LatencyHistogram.getBucketLowestValue(0));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.getBucketHighestValue(lastBucket));
+
+        for (int bucket = 1; bucket <= lastBucket; bucket++) {
+            assertEquals(LatencyHistogram.getBucketHighestValue(bucket - 1) + 1,
+                    LatencyHistogram.getBucketLowestValue(bucket), "Bucket " + bucket);
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            long value = (random.nextLong() & Long.MAX_VALUE) >>> random.nextInt(63);
+            int bucket = LatencyHistogram.getBucket(value);
+
+            assertTrue(value >= LatencyHistogram.getBucketLowestValue(bucket), "Value " + value);
+            assertTrue(value <= LatencyHistogram.getBucketHighestValue(bucket), "Value " + value);
+
+            // buckets are never wider than 1/16th of the values in them
+            long width = LatencyHistogram.getBucketHighestValue(bucket) - LatencyHistogram.getBucketLowestValue(bucket);
+            assertTrue(width <= value / 16, "Value " + value);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500.0, histogram.getMean(), 0.001);
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(1000000, histogram.getPercentile(100));
+
+        assertWithinBucket(500000, histogram.getPercentile(50));
+        assertWithinBucket(900000, histogram.getPercentile(90));
+        assertWithinBucket(990000, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void testRecordsFromManyThreads() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    histogram.record(j);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80000, histogram.getCount());
+        assertEquals(8L * 9999 * 10000 / 2, histogram.getTotal());
+        assertEquals(9999, histogram.getMax());
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 16,
+                "Expected about " + expected + " but got " + actual);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class Log4jEventParserTest {
+    private final Log4jEventParser parser = new Log4jEventParser();
+
+    @Test
+    public void testParsesEvent() {
+        assertTrue(parser.parse("<log4j:Event logger=\"net.minecraft.client.Minecraft\" timestamp=\"1690000000123\" "
+                + "level=\"INFO\" thread=\"Render thread\"><log4j:Message><![CDATA[Setting user: Player]]>"
+                + "</log4j:Message></log4j:Event>"));
+
+        assertEquals("Render thread", parser.getThread());
+        assertEquals("INFO", parser.getLevel());
+        assertEquals("net.minecraft.client.Minecraft", parser.getLogger());
+        assertEquals(1690000000123L, parser.getTimestamp());
+        assertEquals("Setting user: Player", parser.getMessage());
+    }
+
+    @Test
+    public void testParsesEventSplitOverLines() {
+        // how the lines of an event end up once they've been read from the game and joined back together
+        assertTrue(parser.parse("<log4j:Event logger=\"mixin\" timestamp=\"1690000000456\" level=\"WARN\" "
+                + "thread=\"main\">  <log4j:Message><![CDATA[Reference map 'examplemod.refmap.json' for "
+                + "examplemod.mixins.json could not be read. If this is a development environment you can "
+                + "ignore this message]]></log4j:Message></log4j:Event>"));
+
+        assertEquals("main", parser.getThread());
+        assertEquals("WARN", parser.getLevel());
+        assertEquals("mixin", parser.getLogger());
+        assertEquals("Reference map 'examplemod.refmap.json' for examplemod.mixins.json could not be read. If "
+                + "this is a development environment you can ignore this message", parser.getMessage());
+    }
+
+    @Test
+    public void testParsesMessageWithMarkupInIt() {
+        assertTrue(parser.parse("<log4j:Event logger=\"net.minecraftforge.fml.loading.ModSorter\" "
+                + "timestamp=\"1\" level=\"ERROR\" thread=\"Worker &amp; Co\"><log4j:Message><![CDATA[Missing "
+                + "<dependency> ]]]]><![CDATA[> of examplemod]]></log4j:Message><log4j:Throwable><![CDATA[java.lang"
+                + ".RuntimeException]]></log4j:Throwable></log4j:Event>"));
+
+        assertEquals("Worker & Co", parser.getThread());
+        assertEquals("Missing <dependency> ]]> of examplemod", parser.getMessage());
+    }
+
+    @Test
+    public void testResetsBetweenEvents() {
+        assertTrue(parser.parse("<log4j:Event logger=\"a\" timestamp=\"1\" level=\"INFO\" thread=\"main\">"
+                + "<log4j:Message><![CDATA[first]]></log4j:Message></log4j:Event>"));
+        assertTrue(parser.parse("<log4j:Event level=\"DEBUG\"></log4j:Event>"));
+
+        assertEquals("", parser.getThread());
+        assertEquals("DEBUG", parser.getLevel());
+        assertEquals("", parser.getLogger());
+        assertEquals(0L, parser.getTimestamp());
+        assertEquals("", parser.getMessage());
+    }
+
+    @Test
+    public void testIgnoresTextWithoutEvent() {
+        assertFalse(parser.parse("[12:00:00] [main/INFO]: Loading Minecraft"));
+        assertEquals("", parser.getMessage());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.atlauncher.data.minecraft.ModMetadata;
+
+public class ModMetadataReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReadsMcModInfo() throws IOException {
+        ModMetadata metadata = read(ModMetadataReader.MCMOD_INFO,
+                "{\"modListVersion\": 2, \"modList\": [{\"modid\": \"test\", \"name\": \"Test Mod\", "
+                        + "\"version\": \"1.0\", \"description\": \"A test\", \"dependencies\": [\"other\"]}]}");
+
+        assertEquals("test", metadata.id);
+        assertEquals("Test Mod", metadata.name);
+        assertEquals("1.0", metadata.version);
+        assertEquals("A test", metadata.description);
+        assertEquals(ModMetadata.LOADER_FORGE, metadata.loader);
+        assertEquals(Arrays.asList("other"), metadata.dependencies);
+    }
+
+    @Test
+    public void testReadsModsToml() throws IOException {
+        String modsToml = "modLoader=\"javafml\" # the loader\n"
+                + "loaderVersion=\"[47,)\"\n"
+                + "clientSideOnly=true\n"
+                + "[[mods]]\n"
+                + "modId=\"test\"\n"
+                + "version=\"${file.jarVersion}\"\n"
+                + "displayName='Test Mod'\n"
+                + "description='''\n"
+                + "A test\n"
+                + "over two lines'''\n"
+                + "[[dependencies.test]]\n"
+                + "    modId=\"forge\"\n"
+                + "    mandatory=true\n"
+                + "[[dependencies.test]]\n"
+                + "    modId=\"jei\"\n"
+                + "    mandatory=false\n";
+
+        ModMetadata metadata = read(ModMetadataReader.FORGE_MODS_TOML, modsToml, ModMetadataReader.MANIFEST,
+                "Manifest-Version: 1.0\r\nImplementation-Version: 2.3.4\r\n");
+
+        assertEquals("test", metadata.id);
+        assertEquals("Test Mod", metadata.name);
+        assertEquals("2.3.4", metadata.version);
+        assertEquals("A test\nover two lines", metadata.description);
+        assertEquals(ModMetadata.LOADER_FORGE, metadata.loader);
+        assertEquals(Arrays.asList("forge"), metadata.dependencies);
+        assertTrue(metadata.isClientOnly());
+    }
+
+    @Test
+    public void testReadsNeoForgeModsToml() throws IOException {
+        ModMetadata metadata = read(ModMetadataReader.NEOFORGE_MODS_TOML, "[[mods]]\nmodId=\"test\"\n"
+                + "version=\"1.0\"\n[[dependencies.test]]\nmodId=\"neoforge\"\ntype=\"required\"\n");
+
+        assertEquals("test", metadata.id);
+        assertEquals(ModMetadata.LOADER_NEOFORGE, metadata.loader);
+        assertEquals(Arrays.asList("neoforge"), metadata.dependencies);
+        assertEquals(ModMetadata.ENVIRONMENT_BOTH, metadata.environment);
+    }
+
+    @Test
+    public void testReadsFabricModJson() throws IOException {
+        ModMetadata metadata = read(ModMetadataReader.FABRIC_MOD_JSON,
+                "{\"schemaVersion\": 1, \"id\": \"test\", \"name\": \"Test Mod\", \"version\": \"1.0\", "
+                        + "\"environment\": \"client\", \"depends\": {\"fabricloader\": \">=0.14\", "
+                        + "\"minecraft\": [\"1.20\", \"1.20.1\"]}}");
+
+        assertEquals("test", metadata.id);
+        assertEquals("Test Mod", metadata.name);
+        assertEquals(ModMetadata.LOADER_FABRIC, metadata.loader);
+        assertEquals(Arrays.asList("fabricloader", "minecraft"), metadata.dependencies);
+        assertTrue(metadata.isClientOnly());
+    }
+
+    @Test
+    public void testReadsQuiltModJson() throws IOException {
+        ModMetadata metadata = read(ModMetadataReader.QUILT_MOD_JSON,
+                "{\"quilt_loader\": {\"id\": \"test\", \"version\": \"1.0\", \"metadata\": {\"name\": \"Test Mod\"}, "
+                        + "\"depends\": [\"quilt_loader\", {\"id\": \"qsl\"}, "
+                        + "{\"id\": \"extra\", \"optional\": true}]}, "
+                        + "\"minecraft\": {\"environment\": \"dedicated_server\"}}");
+
+        assertEquals("test", metadata.id);
+        assertEquals("Test Mod", metadata.name);
+        assertEquals(ModMetadata.LOADER_QUILT, metadata.loader);
+        assertEquals(Arrays.asList("quilt_loader", "qsl"), metadata.dependencies);
+        assertTrue(metadata.isServerOnly());
+    }
+
+    @Test
+    public void testFallsBackWhenDescriptorIsBroken() throws IOException {
+        ModMetadata metadata = read(ModMetadataReader.MCMOD_INFO, "{ not json",
+                ModMetadataReader.FABRIC_MOD_JSON, "{\"id\": \"test\"}");
+
+        assertEquals("test", metadata.id);
+        assertEquals(ModMetadata.LOADER_FABRIC, metadata.loader);
+
+        assertNull(read("pack.mcmeta", "{}").loader);
+    }
+
+    private ModMetadata read(String... entries) throws IOException {
+        Path file = Files.createTempFile(tempDir, "mod", ".jar");
+
+        try (OutputStream os = Files.newOutputStream(file); ZipOutputStream zos = new ZipOutputStream(os)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zos.putNextEntry(new ZipEntry(entries[i]));
+                zos.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+
+        return ModMetadataReader.readFromArchive(file);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * ATLauncher - https://github.com/ATLauncher/ATLauncher
+ * Copyright (C) 2013-2022 ATLauncher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.atlauncher.workers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class InstallStageGraphTest {
+    @Test
+    public void testRunsStagesAfterTheirDependencies() throws Exception {
+        List<String> finished = Collections.synchronizedList(new ArrayList<>());
+
+        new InstallStageGraph(() -> false, task -> {
+        }).add("libraries", () -> finished.add("libraries"))
+                .add("mods", () -> finished.add("mods"))
+                .add("loader", () -> finished.add("loader"), "libraries")
+                .add("installMods", () -> finished.add("installMods"), "mods", "loader").run();
+
+        assertEquals(4, finished.size());
+        assertTrue(finished.indexOf("libraries") < finished.indexOf("loader"));
+        assertTrue(finished.indexOf("loader") < finished.indexOf("installMods"));
+        assertTrue(finished.indexOf("mods") < finished.indexOf("installMods"));
+    }
+
+    @Test
+    public void testRunsIndependentStagesAtTheSameTime() throws Exception {
+        // each stage waits for the other to start, so this only finishes if they run at the same time
+        CountDownLatch started = new CountDownLatch(2);
+
+        new InstallStageGraph(() -> false, task -> {
+        }).add("resources", () -> {
+            started.countDown();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }).add("mods", () -> {
+            started.countDown();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }).run();
+    }
+
+    @Test
+    public void testStopsOnFailure() {
+        IOException failure = new IOException("Failed to download");
+        List<String> finished = Collections.synchronizedList(new ArrayList<>());
+
+        InstallStageGraph graph = new InstallStageGraph(() -> false, task -> {
+        }).add("mods", () -> {
+            throw failure;
+        }).add("installMods", () -> finished.add("installMods"), "mods");
+
+        assertSame(failure, assertThrows(IOException.class, graph::run));
+        assertFalse(finished.contains("installMods"));
+    }
+}